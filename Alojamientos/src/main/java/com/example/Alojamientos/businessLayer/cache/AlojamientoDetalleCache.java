@@ -0,0 +1,61 @@
+package com.example.Alojamientos.businessLayer.cache;
+
+import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * AlojamientoDetalleCache
+ *
+ * Caché acotada del detalle de alojamientos (GET /api/alojamientos/{id}) por ID.
+ * Caffeine desaloja por tamaño con W-TinyLFU, así los alojamientos más
+ * consultados se quedan aunque pase un pico de visitas a alojamientos sueltos.
+ *
+ * AlojamientoService la invalida después del commit al editar o eliminar; el
+ * vencimiento por tiempo solo cubre cambios hechos por fuera del servicio.
+ * Aciertos, fallos y desalojos se publican en Micrometer como
+ * cache.gets / cache.evictions con la etiqueta cache={@value #NOMBRE}.
+ *
+ * Los DTO guardados se comparten entre peticiones: no se deben modificar.
+ */
+@Component
+public class AlojamientoDetalleCache {
+
+    public static final String NOMBRE = "alojamientos.detalle";
+
+    private final Cache<Integer, AlojamientoDTO> cache;
+
+    public AlojamientoDetalleCache(MeterRegistry meterRegistry,
+                                   @Value("${app.cache.alojamientos.tamano-maximo:10000}") long tamanoMaximo,
+                                   @Value("${app.cache.alojamientos.minutos-vigencia:10}") long minutosVigencia) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(minutosVigencia))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+    }
+
+    /**
+     * Devuelve el detalle en caché o lo carga; si la carga lanza excepción no se guarda nada.
+     */
+    public AlojamientoDTO obtener(Integer id, Function<Integer, AlojamientoDTO> cargar) {
+        return cache.get(id, cargar);
+    }
+
+    public void invalidar(Integer id) {
+        if (id != null) cache.invalidate(id);
+    }
+
+    public long tamano() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.Alojamientos.businessLayer.cache;
+
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * NoLeidasCache
+ *
+ * Cantidad de notificaciones no leídas por usuario, en memoria. Cada usuario
+ * tiene su propio contador atómico: los cambios de usuarios distintos no
+ * compiten entre sí. El contador se carga con un COUNT la primera vez que se
+ * pide y desde ahí lo ajustan los {@link NoLeidasCambioEvento} que publica
+ * NotificacionService después del commit (crear, marcar como leída, marcar
+ * todas, eliminar y los lotes de NotificacionDespachador).
+ *
+ * Los cambios hechos en otra instancia, o los que se cruzan con la carga de un
+ * contador, pueden dejarlo desfasado: NotificacionService lo corrige con
+ * {@link #corregir} cada {@code app.notificaciones.no-leidas.reconciliar-ms}.
+ * Acotada por tamaño y por tiempo sin uso; aciertos y fallos se publican como
+ * cache.gets con la etiqueta cache={@value #NOMBRE}.
+ *
+ * NotificacionStreamService toma de aquí el conteo que envía por SSE, así que
+ * los cambios se aplican en esta caché antes que en el stream ({@link #ORDEN}).
+ */
+@Component
+public class NoLeidasCache {
+
+    public static final String NOMBRE = "notificaciones.no-leidas";
+
+    /** Orden del listener de cambios: antes que los que leen el contador. */
+    public static final int ORDEN = 0;
+
+    private final Cache<Integer, AtomicLong> cache;
+
+    public NoLeidasCache(MeterRegistry meterRegistry,
+                         @Value("${app.notificaciones.no-leidas.tamano-maximo:100000}") long tamanoMaximo,
+                         @Value("${app.notificaciones.no-leidas.vigencia-sin-uso:30m}") Duration vigenciaSinUso) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterAccess(vigenciaSinUso)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+    }
+
+    /**
+     * Devuelve el contador del usuario o lo carga; si la carga lanza excepción no se guarda nada.
+     */
+    public long obtener(Integer usuarioId, ToLongFunction<Integer> contar) {
+        return cache.get(usuarioId, id -> new AtomicLong(contar.applyAsLong(id))).get();
+    }
+
+    /**
+     * Contador del usuario si está en caché, sin cargarlo ni consultar la base.
+     * Renueva su vigencia: mientras alguien lo lea no sale de la caché por falta de uso.
+     */
+    public OptionalLong actual(Integer usuarioId) {
+        AtomicLong contador = cache.getIfPresent(usuarioId);
+        return contador == null ? OptionalLong.empty() : OptionalLong.of(contador.get());
+    }
+
+    /**
+     * Ajusta el contador después del commit. Si el usuario no está en caché no hace
+     * nada: la próxima consulta lo carga ya con el cambio.
+     */
+    @Order(ORDEN)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarNoLeidas(NoLeidasCambioEvento evento) {
+        if (evento.usuarioId() == null || evento.delta() == 0) return;
+        // asMap().get no cuenta como acierto ni fallo en las métricas
+        AtomicLong contador = cache.asMap().get(evento.usuarioId());
+        if (contador != null) {
+            contador.updateAndGet(actual -> Math.max(0, actual + evento.delta()));
+        }
+    }
+
+    /** Usuarios con contador en caché, para reconciliarlos contra la base. */
+    public List<Integer> usuarios() {
+        return List.copyOf(cache.asMap().keySet());
+    }
+
+    /**
+     * Reemplaza los contadores de los usuarios indicados por el valor de la base;
+     * los usuarios sin fila en {@code conteos} quedan en 0. No agrega usuarios que
+     * hayan salido de la caché mientras tanto.
+     *
+     * @return contadores que estaban desfasados
+     */
+    public int corregir(List<Integer> usuarioIds, Map<Integer, Long> conteos) {
+        int corregidos = 0;
+        for (Integer usuarioId : usuarioIds) {
+            // Sin renovar la vigencia: reconciliar no debe mantener en caché a usuarios inactivos
+            AtomicLong contador = cache.policy().getIfPresentQuietly(usuarioId);
+            if (contador == null) continue;
+            long real = conteos.getOrDefault(usuarioId, 0L);
+            if (contador.getAndSet(real) != real) corregidos++;
+        }
+        return corregidos;
+    }
+
+    public long tamano() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import jakarta.validation.constraints.*;
 
+import java.util.List;
+
 @Schema(description = "Datos de un alojamiento publicado en la plataforma")
 @Data
 @Builder
@@ -68,4 +70,13 @@ public class AlojamientoDTO {
 
     @Schema(description = "Indica si el alojamiento fue eliminado (soft delete)", example = "false")
     private boolean deleted;
+
+    @Schema(description = "Calificación promedio (1 a 5); null si aún no tiene comentarios", example = "4.6", accessMode = Schema.AccessMode.READ_ONLY)
+    private Double averageRating;
+
+    @Schema(description = "Cantidad de comentarios del alojamiento", example = "12", accessMode = Schema.AccessMode.READ_ONLY)
+    private int reviewCount;
+
+    @Schema(description = "Comentarios con 1, 2, 3, 4 y 5 estrellas, en ese orden", example = "[0, 0, 1, 3, 8]", accessMode = Schema.AccessMode.READ_ONLY)
+    private List<Integer> ratingHistogram;
 }
\ No newline at end of file
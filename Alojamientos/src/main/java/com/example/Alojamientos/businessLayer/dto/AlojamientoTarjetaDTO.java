@@ -0,0 +1,42 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Resumen de un alojamiento para las tarjetas de los listados y búsquedas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlojamientoTarjetaDTO {
+
+    @Schema(description = "ID único del alojamiento", example = "3")
+    private Integer id;
+
+    @Schema(description = "Nombre del alojamiento", example = "Cabaña de verano en el Quindío")
+    private String name;
+
+    @Schema(description = "Ciudad donde se ubica el alojamiento", example = "Armenia")
+    private String city;
+
+    @Schema(description = "Precio por noche en pesos colombianos", example = "200000.0")
+    private Double pricePerNight;
+
+    @Schema(description = "Capacidad máxima de huéspedes", example = "4")
+    private Integer maxCapacity;
+
+    @Schema(description = "URL de la imagen principal del alojamiento", example = "https://res.cloudinary.com/hosped/image/upload/v1/main.jpg")
+    private String mainImage;
+
+    @Schema(description = "Latitud geográfica del alojamiento", example = "4.5339")
+    private Double latitude;
+
+    @Schema(description = "Longitud geográfica del alojamiento", example = "-75.6820")
+    private Double longitude;
+
+    @Schema(description = "Calificación promedio (1 a 5); null si aún no tiene comentarios", example = "4.6")
+    private Double averageRating;
+
+    @Schema(description = "Cantidad de comentarios del alojamiento", example = "12")
+    private long reviewCount;
+}
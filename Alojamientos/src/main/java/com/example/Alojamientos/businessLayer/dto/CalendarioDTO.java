@@ -0,0 +1,33 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Noches ocupadas de un alojamiento en [from, to), codificadas por rachas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioDTO {
+
+    @Schema(description = "ID del alojamiento", example = "1")
+    private Integer lodgingId;
+
+    @Schema(description = "Primera noche del calendario (yyyy-MM-dd)", example = "2026-07-01")
+    private String from;
+
+    @Schema(description = "Día siguiente a la última noche del calendario (yyyy-MM-dd)", example = "2027-07-01")
+    private String to;
+
+    @Schema(description = "Cantidad de noches entre from y to", example = "365")
+    private int nights;
+
+    @Schema(description = "Cantidad de noches ocupadas", example = "6")
+    private int occupiedNights;
+
+    @Schema(description = "Rachas de noches ocupadas, en orden: [noches desde from hasta la primera ocupada, " +
+            "noches seguidas]. [[3,2],[10,4]] ocupa from+3, from+4 y from+10 a from+13", example = "[[3, 2], [10, 4]]")
+    private List<int[]> occupied;
+}
@@ -0,0 +1,21 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Conteo de resultados para un valor de faceta")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaDTO {
+
+    @Schema(description = "Valor de la faceta (tramo de precio o ID de servicio)", example = "100000-200000")
+    private String key;
+
+    @Schema(description = "Texto para mostrar", example = "$100.000 - $200.000")
+    private String label;
+
+    @Schema(description = "Cantidad de alojamientos que coinciden", example = "12")
+    private long count;
+}
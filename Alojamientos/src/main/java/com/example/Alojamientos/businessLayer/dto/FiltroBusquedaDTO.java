@@ -0,0 +1,53 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Criterios combinables de la búsqueda unificada de alojamientos")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroBusquedaDTO {
+
+    @Schema(description = "Ciudad (sin distinguir mayúsculas)", example = "Armenia")
+    private String city;
+
+    @Schema(description = "Precio mínimo por noche", example = "100000")
+    private Double minPrice;
+
+    @Schema(description = "Precio máximo por noche", example = "300000")
+    private Double maxPrice;
+
+    @Schema(description = "Número mínimo de huéspedes que debe admitir", example = "2")
+    private Integer minCapacity;
+
+    @Schema(description = "IDs de servicios que el alojamiento debe ofrecer (todos)", example = "[1, 3]")
+    private List<Integer> amenities;
+
+    @Schema(description = "Fecha de llegada (yyyy-MM-dd)", example = "2026-12-20")
+    private String checkIn;
+
+    @Schema(description = "Fecha de salida (yyyy-MM-dd)", example = "2026-12-24")
+    private String checkOut;
+
+    @Schema(description = "Latitud del punto de referencia", example = "4.5339")
+    private Double lat;
+
+    @Schema(description = "Longitud del punto de referencia", example = "-75.6820")
+    private Double lng;
+
+    @Schema(description = "Radio de búsqueda en km alrededor de (lat, lng)", example = "10")
+    private Double radiusKm;
+
+    @Schema(description = "Orden: recientes, precio_asc, precio_desc, capacidad, calificacion", example = "precio_asc")
+    private String sort;
+
+    @Schema(description = "Número de página (desde 0)", example = "0")
+    private Integer page;
+
+    @Schema(description = "Tamaño de página (1 a 100)", example = "20")
+    private Integer size;
+}
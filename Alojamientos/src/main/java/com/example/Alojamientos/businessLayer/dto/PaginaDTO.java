@@ -0,0 +1,23 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Página de resultados con paginación por cursor (keyset)")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    @Schema(description = "Elementos de la página actual, en el orden estable del endpoint")
+    private List<T> items;
+
+    @Schema(description = "Cursor opaco para pedir la siguiente página; null si no hay más resultados", example = "MC4xNTN8Mg")
+    private String nextCursor;
+
+    @Schema(description = "Indica si existen más resultados después de esta página", example = "true")
+    private boolean hasNext;
+}
@@ -0,0 +1,35 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.List;
+
+@Schema(description = "Página de resultados de la búsqueda unificada junto con sus facetas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBusquedaDTO {
+
+    @Schema(description = "Alojamientos de la página actual")
+    private List<AlojamientoDTO> items;
+
+    @Schema(description = "Número de página (desde 0)", example = "0")
+    private int page;
+
+    @Schema(description = "Tamaño de página", example = "20")
+    private int size;
+
+    @Schema(description = "Total de alojamientos que cumplen los filtros", example = "57")
+    private long totalElements;
+
+    @Schema(description = "Total de páginas", example = "3")
+    private int totalPages;
+
+    @Schema(description = "Conteo por tramo de precio (ignora el filtro de precio para poder ampliarlo)")
+    private List<FacetaDTO> priceRanges;
+
+    @Schema(description = "Conteo por servicio sobre los resultados actuales")
+    private List<FacetaDTO> amenities;
+}
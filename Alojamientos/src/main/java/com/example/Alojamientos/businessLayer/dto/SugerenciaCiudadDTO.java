@@ -0,0 +1,18 @@
+package com.example.Alojamientos.businessLayer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Schema(description = "Ciudad sugerida mientras se escribe en el buscador")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaCiudadDTO {
+
+    @Schema(description = "Nombre de la ciudad", example = "Bogotá")
+    private String city;
+
+    @Schema(description = "Cantidad de alojamientos activos en la ciudad", example = "42")
+    private int count;
+}
@@ -0,0 +1,30 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Analítica: cuenta los eventos de dominio entregados por tipo en
+ * eventos.dominio{tipo=...} (reservas creadas y canceladas, comentarios, pagos).
+ */
+@Component
+@RequiredArgsConstructor
+public class EventoMetricasManejador implements ManejadorEventoOutbox {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public Set<EventoOutboxEntity.TipoEvento> tipos() {
+        return EnumSet.allOf(EventoOutboxEntity.TipoEvento.class);
+    }
+
+    @Override
+    public void manejar(EventoOutboxEntity evento) {
+        meterRegistry.counter("eventos.dominio", "tipo", evento.getTipo().name()).increment();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registra eventos de dominio en la tabla evento_outbox, dentro de la
+ * transacción del servicio que hace el cambio. Si esa transacción hace
+ * rollback, el evento tampoco queda; si confirma, EventoOutboxRelay lo entrega
+ * aunque la aplicación se caiga justo después.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventoOutboxPublicador {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+
+    /**
+     * @param datos pares clave, valor con los datos del evento (valores simples: texto, números, fechas como texto)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(EventoOutboxEntity.TipoEvento tipo, Integer agregadoId, Object... datos) {
+        if (datos.length % 2 != 0) {
+            throw new IllegalArgumentException("Los datos del evento deben ser pares clave, valor");
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < datos.length; i += 2) {
+            payload.put(String.valueOf(datos[i]), datos[i + 1] != null ? datos[i + 1].toString() : null);
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        eventoOutboxRepository.save(EventoOutboxEntity.builder()
+                .tipo(tipo)
+                .agregadoId(agregadoId)
+                .payload(serializar(payload))
+                .creado(ahora)
+                .siguienteIntento(ahora)
+                .build());
+    }
+
+    private static String serializar(Map<String, Object> payload) {
+        try {
+            return JSON.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudieron serializar los datos del evento", e);
+        }
+    }
+}
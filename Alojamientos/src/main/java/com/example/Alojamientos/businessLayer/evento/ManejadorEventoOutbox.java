@@ -0,0 +1,25 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+
+import java.util.Set;
+
+/**
+ * Reacción a los eventos de dominio del outbox (correo, analítica, cachés...).
+ * Cada bean que implementa esta interfaz recibe de EventoOutboxRelay los
+ * eventos de los tipos que declara.
+ *
+ * La entrega es al menos una vez: si un manejador falla, o el relay se cae antes
+ * de marcar el evento, el evento se vuelve a entregar a todos sus manejadores.
+ * Por eso {@link #manejar} debe ser idempotente. Corre fuera de la transacción
+ * del relay; si necesita una, la abre él mismo.
+ */
+public interface ManejadorEventoOutbox {
+
+    Set<EventoOutboxEntity.TipoEvento> tipos();
+
+    /**
+     * Lanza una excepción para que el evento se reintente más tarde.
+     */
+    void manejar(EventoOutboxEntity evento);
+}
@@ -0,0 +1,20 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+
+import java.util.List;
+
+/**
+ * Evento en proceso que publica NotificacionService cuando cambia la cantidad
+ * de notificaciones no leídas de un usuario. NotificacionStreamService lo
+ * reenvía por SSE a las pestañas conectadas de ese usuario, después del commit.
+ *
+ * @param delta  cambio en la cantidad de no leídas (positivo al crear, negativo al leer o eliminar)
+ * @param nuevas notificaciones creadas, en orden; vacía si solo cambió el conteo
+ */
+public record NoLeidasCambioEvento(Integer usuarioId, long delta, List<NotificacionDTO> nuevas) {
+
+    public static NoLeidasCambioEvento leidas(Integer usuarioId, long cantidad) {
+        return new NoLeidasCambioEvento(usuarioId, -cantidad, List.of());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionResumenEntity;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionResumenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NotificacionAgrupador
+ *
+ * Junta en un resumen las ráfagas de {@link NotificacionEvento} del mismo
+ * usuario, tipo y grupo (p. ej. las reservas de un alojamiento). El primer
+ * evento de una ráfaga pasa de inmediato y abre una ventana de
+ * {@code app.notificaciones.resumen.ventana}; los siguientes se acumulan y, al
+ * cerrar la ventana, se guarda una sola notificación "N nuevas reservas más en
+ * X" con los primeros mensajes. Si en la ventana llegó uno solo, se guarda tal cual.
+ *
+ * Las ventanas son filas de notificacion_resumen que se abren y se acumulan en
+ * la transacción que publica el evento: si esa transacción hace rollback el
+ * evento no cuenta, y si confirma la ventana sobrevive a una caída y la
+ * comparten todas las instancias (un solo resumen por ventana). Por ventana
+ * solo se guardan el contador, los primeros {@value #MENSAJES_EN_RESUMEN}
+ * mensajes y el último evento. Los eventos que llegan entre el vencimiento y el
+ * cierre (hasta {@code app.notificaciones.resumen.revision-ms}) se suman a esa
+ * ventana. Los eventos sin grupo (y todos, con ventana 0) no se agrupan.
+ *
+ * El evento que pasa se vuelve a publicar sin grupo, para que lo guarde
+ * NotificacionDespachador después del commit; NotificacionService cierra las
+ * ventanas vencidas cada {@code app.notificaciones.resumen.revision-ms}.
+ *
+ * Métricas: notificaciones.resumen.agrupadas (eventos incluidos en un resumen
+ * en lugar de guardarse sueltos), notificaciones.resumen.generados (resúmenes
+ * guardados) y notificaciones.resumen.ventanas (ventanas abiertas).
+ */
+@Component
+public class NotificacionAgrupador {
+
+    static final int MENSAJES_EN_RESUMEN = 3;
+
+    private static final int LARGO_TITULO = 150;
+
+    private final NotificacionResumenRepository resumenRepository;
+    private final ApplicationEventPublisher     eventPublisher;
+    private final Duration                      ventana;
+    private final Counter                       agrupadas;
+    private final Counter                       generados;
+
+    public NotificacionAgrupador(NotificacionResumenRepository resumenRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.notificaciones.resumen.ventana:60s}") Duration ventana) {
+        if (ventana.isNegative()) {
+            throw new IllegalArgumentException("La ventana de resumen de notificaciones no puede ser negativa");
+        }
+        this.resumenRepository = resumenRepository;
+        this.eventPublisher    = eventPublisher;
+        this.ventana           = ventana;
+        this.agrupadas = Counter.builder("notificaciones.resumen.agrupadas")
+                .description("Notificaciones que se acumularon en un resumen en lugar de guardarse sueltas")
+                .register(meterRegistry);
+        this.generados = Counter.builder("notificaciones.resumen.generados")
+                .description("Notificaciones de resumen guardadas")
+                .register(meterRegistry);
+        Gauge.builder("notificaciones.resumen.ventanas", resumenRepository, NotificacionResumenRepository::count)
+                .description("Ventanas de resumen abiertas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recibe el evento en la transacción que lo publica (o en una propia, si se
+     * publicó sin transacción). Si abre una ventana, o no se agrupa por tener
+     * ventana 0, lo vuelve a publicar sin grupo; si se acumula, no publica nada.
+     */
+    @EventListener(condition = "#evento.grupo() != null")
+    @Transactional
+    public void alPublicar(NotificacionEvento evento) {
+        if (ventana.isZero() || abrirOAcumular(evento)) {
+            eventPublisher.publishEvent(evento.sinGrupo());
+        }
+    }
+
+    /**
+     * Cierra hasta {@code lote} ventanas que vencen hasta {@code ahora} y devuelve
+     * sus resúmenes. Las filas quedan eliminadas en la transacción del llamador,
+     * que debe guardar los resúmenes en esa misma transacción.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<NotificacionEvento> cerrarVencidas(LocalDateTime ahora, int lote) {
+        List<NotificacionResumenEntity> vencidas = resumenRepository.bloquearVencidas(ahora, lote);
+        if (vencidas.isEmpty()) return List.of();
+
+        List<NotificacionEvento> resumenes = new ArrayList<>(vencidas.size());
+        for (NotificacionResumenEntity vencida : vencidas) {
+            cerrar(vencida, resumenes);
+        }
+        resumenRepository.deleteAllInBatch(vencidas);
+        return resumenes;
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    /**
+     * @return true si el evento abrió la ventana y se guarda ya, false si se acumuló
+     */
+    private boolean abrirOAcumular(NotificacionEvento evento) {
+        if (acumular(evento)) return false;
+        if (resumenRepository.abrir(evento.usuarioId(), evento.tipo().name(), evento.grupo(), evento.resumen(),
+                evento.creada().plus(ventana)) == 1) {
+            return true;
+        }
+        // Otra transacción abrió la misma ventana a la vez
+        return !acumular(evento);
+    }
+
+    private boolean acumular(NotificacionEvento evento) {
+        return resumenRepository.acumular(evento.usuarioId(), evento.tipo().name(), evento.grupo(),
+                evento.titulo(), evento.mensaje(), evento.creada(), MENSAJES_EN_RESUMEN) == 1;
+    }
+
+    private void cerrar(NotificacionResumenEntity vencida, List<NotificacionEvento> salida) {
+        int pendientes = vencida.getPendientes();
+        if (pendientes == 0) return;
+        if (pendientes == 1) {
+            // Uno solo no necesita resumen: se guarda como llegó
+            salida.add(new NotificacionEvento(vencida.getUsuarioId(), vencida.getTipo(), vencida.getUltimoTitulo(),
+                    vencida.getUltimoMensaje(), vencida.getUltimaCreada(), null, null));
+            return;
+        }
+        StringBuilder mensaje = new StringBuilder(vencida.getMensajes());
+        int resto = pendientes - Math.min(pendientes, MENSAJES_EN_RESUMEN);
+        if (resto > 0) mensaje.append("\n... y ").append(resto).append(" más");
+
+        String titulo = vencida.getResumen() != null
+                ? vencida.getResumen().replace("%d", String.valueOf(pendientes))
+                : pendientes + " notificaciones más: " + vencida.getUltimoTitulo();
+        if (titulo.length() > LARGO_TITULO) titulo = titulo.substring(0, LARGO_TITULO - 3) + "...";
+
+        salida.add(new NotificacionEvento(vencida.getUsuarioId(), vencida.getTipo(), titulo, mensaje.toString(),
+                vencida.getUltimaCreada(), null, null));
+        generados.increment();
+        agrupadas.increment(pendientes);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.businessLayer.service.NotificacionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NotificacionDespachador
+ *
+ * Guarda las notificaciones de {@link NotificacionEvento} fuera de la transacción
+ * que las publicó: después del commit el evento pasa a una cola acotada y un
+ * único hilo las inserta por lotes (NotificacionService.guardarLote). Así
+ * crear o cancelar una reserva no espera el INSERT de la notificación ni retiene
+ * la conexión por él. Los eventos con grupo los recibe NotificacionAgrupador, que
+ * vuelve a publicar sin grupo los que se guardan ya.
+ *
+ * Si la cola está llena, o la aplicación se está cerrando, la notificación se
+ * guarda en el hilo que la publicó: nunca se descarta por falta de espacio.
+ * Al detenerse espera a que la cola se vacíe (hasta
+ * {@code app.notificaciones.despacho.espera-cierre}); se detiene después del
+ * servidor web, cuando ya no llegan peticiones que publiquen eventos.
+ *
+ * Métricas: notificaciones.despacho.pendientes (eventos en cola),
+ * notificaciones.despacho.lote (notificaciones por INSERT),
+ * notificaciones.despacho.retraso (desde la publicación hasta quedar guardada),
+ * notificaciones.despacho.directas (guardadas en el hilo que las publicó) y
+ * notificaciones.despacho.fallidas (no se pudieron guardar).
+ */
+@Slf4j
+@Component
+public class NotificacionDespachador implements SmartLifecycle {
+
+    private static final long ESPERA_COLA_MS = 200;
+
+    private final NotificacionService                notificacionService;
+    private final BlockingQueue<NotificacionEvento>  cola;
+    private final int                                tamanoLote;
+    private final Duration                           esperaCierre;
+    private final DistributionSummary                lotes;
+    private final Timer                              retraso;
+    private final Counter                            directas;
+    private final Counter                            fallidas;
+
+    private volatile boolean activo;
+    private Thread           hilo;
+
+    public NotificacionDespachador(NotificacionService notificacionService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.notificaciones.despacho.capacidad:10000}") int capacidad,
+                                   @Value("${app.notificaciones.despacho.tamano-lote:100}") int tamanoLote,
+                                   @Value("${app.notificaciones.despacho.espera-cierre:30s}") Duration esperaCierre) {
+        if (capacidad < 1 || tamanoLote < 1) {
+            throw new IllegalArgumentException("La capacidad y el tamaño de lote del despacho de notificaciones deben ser mayores a 0");
+        }
+        this.notificacionService    = notificacionService;
+        this.cola                   = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote             = tamanoLote;
+        this.esperaCierre           = esperaCierre;
+        Gauge.builder("notificaciones.despacho.pendientes", cola, BlockingQueue::size)
+                .description("Notificaciones en cola esperando a guardarse")
+                .register(meterRegistry);
+        this.lotes = DistributionSummary.builder("notificaciones.despacho.lote")
+                .description("Notificaciones guardadas en cada lote")
+                .register(meterRegistry);
+        this.retraso = Timer.builder("notificaciones.despacho.retraso")
+                .description("Tiempo desde que se publica la notificación hasta que queda guardada")
+                .register(meterRegistry);
+        this.directas = Counter.builder("notificaciones.despacho.directas")
+                .description("Notificaciones guardadas en el hilo que las publicó (cola llena o cierre)")
+                .register(meterRegistry);
+        this.fallidas = Counter.builder("notificaciones.despacho.fallidas")
+                .description("Notificaciones que no se pudieron guardar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recibe el evento después del commit (o de inmediato si se publicó sin transacción).
+     */
+    @TransactionalEventListener(fallbackExecution = true, condition = "#evento.grupo() == null")
+    public void encolar(NotificacionEvento evento) {
+        if (activo && cola.offer(evento)) return;
+        directas.increment();
+        guardar(List.of(evento));
+    }
+
+    // ── SmartLifecycle ───────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        activo = true;
+        hilo = Thread.ofPlatform().name("notificaciones-despacho").start(this::despachar);
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        try {
+            hilo.join(esperaCierre.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (hilo.isAlive()) {
+            log.warn("[NotificacionDespachador] La cola no terminó de vaciarse en {}; quedan {} notificaciones.",
+                    esperaCierre, cola.size());
+            return;
+        }
+        // Eventos que entraron a la cola justo cuando el hilo terminaba
+        List<NotificacionEvento> resto = new ArrayList<>();
+        cola.drainTo(resto);
+        if (!resto.isEmpty()) guardar(resto);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    @Override
+    public int getPhase() {
+        // Menor que la fase del servidor web: se detiene cuando él ya terminó las peticiones en curso
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private void despachar() {
+        List<NotificacionEvento> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                NotificacionEvento primero = cola.poll(ESPERA_COLA_MS, TimeUnit.MILLISECONDS);
+                if (primero == null) continue;
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                guardar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("[NotificacionDespachador] Error inesperado guardando notificaciones", e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void guardar(List<NotificacionEvento> lote) {
+        try {
+            notificacionService.guardarLote(lote);
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                fallida(lote.get(0), e);
+            } else {
+                // Una fila inválida (p. ej. el usuario ya no existe) no debe perder el resto del lote
+                for (NotificacionEvento evento : lote) {
+                    try {
+                        notificacionService.guardarLote(List.of(evento));
+                    } catch (RuntimeException ex) {
+                        fallida(evento, ex);
+                    }
+                }
+            }
+        }
+        lotes.record(lote.size());
+        LocalDateTime ahora = LocalDateTime.now();
+        lote.forEach(evento -> retraso.record(Duration.between(evento.creada(), ahora)));
+    }
+
+    private void fallida(NotificacionEvento evento, RuntimeException e) {
+        fallidas.increment();
+        log.warn("[NotificacionDespachador] No se pudo guardar la notificación {} para el usuario {}: {}",
+                evento.tipo(), evento.usuarioId(), e.getMessage());
+    }
+}
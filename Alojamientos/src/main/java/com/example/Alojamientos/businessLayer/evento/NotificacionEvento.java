@@ -0,0 +1,42 @@
+package com.example.Alojamientos.businessLayer.evento;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio: hay que avisarle algo a un usuario.
+ *
+ * Los servicios lo publican dentro de su transacción y NotificacionDespachador
+ * guarda la notificación después del commit, fuera de la transacción de negocio.
+ * Si la transacción hace rollback, la notificación no se crea. Los eventos con
+ * grupo pasan antes por NotificacionAgrupador, en la misma transacción.
+ *
+ * @param creada  momento en que se publicó; es la fecha de creación de la notificación
+ * @param grupo   clave con la que NotificacionAgrupador junta los eventos del mismo
+ *                usuario y tipo en un resumen (p. ej. "reservas:12"); null para no agrupar
+ * @param resumen título del resumen, con %d para la cantidad (p. ej. "%d nuevas reservas en ...")
+ */
+public record NotificacionEvento(Integer usuarioId,
+                                 NotificacionEntity.TipoNotificacion tipo,
+                                 String titulo,
+                                 String mensaje,
+                                 LocalDateTime creada,
+                                 String grupo,
+                                 String resumen) {
+
+    public NotificacionEvento(Integer usuarioId, NotificacionEntity.TipoNotificacion tipo,
+                              String titulo, String mensaje) {
+        this(usuarioId, tipo, titulo, mensaje, LocalDateTime.now(), null, null);
+    }
+
+    public NotificacionEvento(Integer usuarioId, NotificacionEntity.TipoNotificacion tipo,
+                              String titulo, String mensaje, String grupo, String resumen) {
+        this(usuarioId, tipo, titulo, mensaje, LocalDateTime.now(), grupo, resumen);
+    }
+
+    /** El mismo evento, ya sin agrupar. */
+    public NotificacionEvento sinGrupo() {
+        return new NotificacionEvento(usuarioId, tipo, titulo, mensaje, creada, null, null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Analizador de texto en español para el índice de búsqueda.
+ *
+ * Normaliza (minúsculas, sin tildes), separa en palabras, descarta las
+ * palabras vacías más comunes y reduce cada término con un stemmer ligero
+ * de plurales y género (basado en el SpanishLightStemmer de Lucene):
+ * "Cabañas", "cabaña" y "CABANA" producen el mismo término.
+ */
+public final class AnalizadorEspanol {
+
+    static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "algo", "algunas", "algunos", "ante", "antes", "como", "con", "contra",
+            "cual", "cuando", "de", "del", "desde", "donde", "durante", "e", "el", "ella",
+            "ellos", "en", "entre", "era", "es", "esa", "ese", "eso", "esta", "estan",
+            "estas", "este", "esto", "estos", "fue", "ha", "hay", "hasta", "la", "las",
+            "le", "les", "lo", "los", "mas", "me", "mi", "mucho", "muy", "nada",
+            "ni", "no", "nos", "o", "otra", "otro", "para", "pero", "poco", "por",
+            "porque", "que", "quien", "se", "ser", "si", "sin", "sobre", "son", "su",
+            "sus", "tambien", "te", "tiene", "tienen", "todo", "todos", "tu", "un", "una",
+            "uno", "unos", "y", "ya", "yo");
+
+    private AnalizadorEspanol() {
+    }
+
+    /**
+     * @return los términos del texto en orden de aparición (con repeticiones)
+     */
+    public static List<String> analizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        String normalizado = TextoUtil.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) return terminos;
+
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean esParteDePalabra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (esParteDePalabra) {
+                if (inicio < 0) inicio = i;
+            } else if (inicio >= 0) {
+                String palabra = normalizado.substring(inicio, i);
+                if (!PALABRAS_VACIAS.contains(palabra)) {
+                    terminos.add(raiz(palabra));
+                }
+                inicio = -1;
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Stemmer ligero: quita la vocal final de género y las terminaciones de plural
+     * en palabras de 4 letras o más ("piscinas" → "piscin", "luces" → "luz").
+     * Lucene exige 5; con 4 "casa" y "casas" comparten raíz.
+     */
+    static String raiz(String palabra) {
+        int n = palabra.length();
+        if (n < 4) return palabra;
+
+        char ultima = palabra.charAt(n - 1);
+        if (ultima == 'o' || ultima == 'a' || ultima == 'e') {
+            return palabra.substring(0, n - 1);
+        }
+        if (ultima == 's') {
+            char c2 = palabra.charAt(n - 2);
+            char c3 = palabra.charAt(n - 3);
+            if (c2 == 'e' && c3 == 's' && palabra.charAt(n - 4) == 'e') {
+                return palabra.substring(0, n - 2);
+            }
+            if (c2 == 'e' && c3 == 'c') {
+                return palabra.substring(0, n - 3) + "z";
+            }
+            if (c2 == 'o' || c2 == 'a' || c2 == 'e') {
+                return palabra.substring(0, n - 2);
+            }
+        }
+        return palabra;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * DisponibilidadIndice
+ *
+ * Noches ocupadas de cada alojamiento en memoria, como un mapa de bits por
+ * alojamiento: el bit {@code n} representa la noche del día {@link #ORIGEN} + n.
+ * Una reserva [inicio, fin) marca las noches inicio .. fin - 1, igual que la
+ * regla de solapamiento de ReservaService (el día de salida queda libre).
+ *
+ * Solo las reservas CONFIRMADA/PENDIENTE ocupan noches. Se mantiene al día desde
+ * ReservaService (crear, cancelar, completar) después del commit, así la
+ * búsqueda por fechas no consulta la tabla reserva, y se recarga de la base
+ * periódicamente con {@link #recargar}.
+ *
+ * Liberar una reserva borra sus noches sin más: se apoya en que crearReserva
+ * nunca deja dos reservas vigentes solapadas en el mismo alojamiento.
+ */
+@Component
+public class DisponibilidadIndice {
+
+    /** Primer día representable; las noches anteriores no se guardan. */
+    public static final LocalDate ORIGEN = LocalDate.of(2020, 1, 1);
+
+    /** Estados de reserva que bloquean las noches del alojamiento. */
+    public static final List<ReservaEntity.EstadoReserva> ESTADOS_QUE_OCUPAN =
+            List.of(ReservaEntity.EstadoReserva.CONFIRMADA, ReservaEntity.EstadoReserva.PENDIENTE);
+
+    private final Map<Integer, BitSet> ocupadas = new HashMap<>();
+    private final ReadWriteLock        lock     = new ReentrantReadWriteLock();
+    private final RecargaIndice        recarga  = new RecargaIndice(lock);
+
+    private volatile boolean inicializado = false;
+
+    /**
+     * Rango de noches ocupadas por una reserva: [inicio, fin).
+     */
+    public record Ocupacion(Integer alojamientoId, LocalDate inicio, LocalDate fin) {
+    }
+
+    public boolean estaInicializado() {
+        return inicializado;
+    }
+
+    /**
+     * Reemplaza todo el contenido del índice con las reservas vigentes.
+     */
+    public void reconstruir(Collection<Ocupacion> ocupaciones) {
+        lock.writeLock().lock();
+        try {
+            cargar(ocupaciones);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #reconstruir}, pero lee las reservas sin bloquear las búsquedas
+     * y conserva los cambios que llegan mientras tanto (ver {@link RecargaIndice}).
+     */
+    public void recargar(Supplier<? extends Collection<Ocupacion>> leer) {
+        recarga.recargar(leer, this::cargar);
+    }
+
+    public void ocupar(Integer alojamientoId, LocalDate inicio, LocalDate fin) {
+        actualizar(alojamientoId, inicio, fin, true);
+    }
+
+    public void liberar(Integer alojamientoId, LocalDate inicio, LocalDate fin) {
+        actualizar(alojamientoId, inicio, fin, false);
+    }
+
+    /**
+     * @return true si ninguna noche de [inicio, fin) está ocupada
+     */
+    public boolean estaLibre(Integer alojamientoId, LocalDate inicio, LocalDate fin) {
+        lock.readLock().lock();
+        try {
+            return libre(alojamientoId, inicio, fin);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filtra los candidatos libres en [inicio, fin), conservando su orden, con
+     * un solo lock de lectura para todo el tramo.
+     */
+    public List<Integer> filtrarLibres(Collection<Integer> candidatos, LocalDate inicio, LocalDate fin) {
+        List<Integer> libres = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Integer id : candidatos) {
+                if (libre(id, inicio, fin)) libres.add(id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return libres;
+    }
+
+    /**
+     * Noches ocupadas de [desde, hasta) como rachas consecutivas, en orden:
+     * cada una es {noches desde {@code desde} hasta la primera ocupada, noches seguidas}.
+     */
+    public List<int[]> rachasOcupadas(Integer alojamientoId, LocalDate desde, LocalDate hasta) {
+        List<int[]> rachas = new ArrayList<>();
+        int base = indice(desde);
+        int tope = indice(hasta);
+        lock.readLock().lock();
+        try {
+            BitSet bits = ocupadas.get(alojamientoId);
+            if (bits == null) return rachas;
+            int inicio = bits.nextSetBit(base);
+            while (inicio >= 0 && inicio < tope) {
+                int fin = Math.min(bits.nextClearBit(inicio), tope);
+                rachas.add(new int[]{inicio - base, fin - inicio});
+                inicio = bits.nextSetBit(fin);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rachas;
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private void actualizar(Integer alojamientoId, LocalDate inicio, LocalDate fin, boolean ocupado) {
+        if (alojamientoId == null || inicio == null || fin == null) return;
+        recarga.aplicar(() -> marcar(alojamientoId, inicio, fin, ocupado));
+    }
+
+    /** Llamado con el lock de escritura tomado. */
+    private void cargar(Collection<Ocupacion> ocupaciones) {
+        ocupadas.clear();
+        ocupaciones.forEach(o -> marcar(o.alojamientoId(), o.inicio(), o.fin(), true));
+        inicializado = true;
+    }
+
+    /** Llamado con el lock de escritura tomado. */
+    private void marcar(Integer alojamientoId, LocalDate inicio, LocalDate fin, boolean ocupado) {
+        int desde = indice(inicio);
+        int hasta = indice(fin);
+        if (hasta <= desde) return;
+
+        if (ocupado) {
+            ocupadas.computeIfAbsent(alojamientoId, k -> new BitSet()).set(desde, hasta);
+        } else {
+            BitSet bits = ocupadas.get(alojamientoId);
+            if (bits == null) return;
+            bits.clear(desde, hasta);
+            if (bits.isEmpty()) ocupadas.remove(alojamientoId);
+        }
+    }
+
+    /** Llamado con el lock de lectura tomado. */
+    private boolean libre(Integer alojamientoId, LocalDate inicio, LocalDate fin) {
+        BitSet bits = ocupadas.get(alojamientoId);
+        if (bits == null) return true;
+        int primera = bits.nextSetBit(indice(inicio));
+        return primera < 0 || primera >= indice(fin);
+    }
+
+    static int indice(LocalDate dia) {
+        long n = dia.toEpochDay() - ORIGEN.toEpochDay();
+        return (int) Math.max(0, Math.min(n, Integer.MAX_VALUE - 1));
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * GeoIndiceAlojamientos — ALOJ-18
+ *
+ * Índice geográfico en memoria de los alojamientos activos.
+ * Divide el mapa en una rejilla de celdas de {@value #TAMANO_CELDA_GRADOS}°
+ * (≈ 11 km en el ecuador) y guarda en cada celda los IDs que caen en ella.
+ *
+ * Una búsqueda por radio solo revisa las celdas que intersectan la caja
+ * que envuelve el círculo, calcula Haversine una vez por candidato y
+ * devuelve los resultados ya ordenados por distancia.
+ *
+ * Se mantiene sincronizado desde AlojamientoService (crear, actualizar, eliminar)
+ * y se recarga de la base periódicamente con {@link #recargar}.
+ */
+@Component
+public class GeoIndiceAlojamientos {
+
+    public static final double RADIO_TIERRA_KM = 6371.0;
+
+    static final double TAMANO_CELDA_GRADOS = 0.1;
+
+    private static final int FILAS    = (int) Math.ceil(180 / TAMANO_CELDA_GRADOS);
+    private static final int COLUMNAS = (int) Math.ceil(360 / TAMANO_CELDA_GRADOS);
+    private static final double KM_POR_GRADO = RADIO_TIERRA_KM * Math.PI / 180;
+
+    private final Map<Long, Set<Integer>> celdas = new HashMap<>();
+    private final Map<Integer, Punto>     puntos = new HashMap<>();
+    private final ReadWriteLock           lock   = new ReentrantReadWriteLock();
+    private final RecargaIndice           recarga = new RecargaIndice(lock);
+
+    private volatile boolean inicializado = false;
+
+    private record Punto(double lat, double lng, long celda) {
+    }
+
+    /**
+     * Resultado de una búsqueda: ID del alojamiento y su distancia al punto de referencia.
+     */
+    public record Resultado(Integer id, double distanciaKm) {
+    }
+
+    public boolean estaInicializado() {
+        return inicializado;
+    }
+
+    /**
+     * Reemplaza todo el contenido del índice.
+     *
+     * @param coordenadas mapa id → [latitud, longitud] de los alojamientos activos
+     */
+    public void reconstruir(Map<Integer, double[]> coordenadas) {
+        lock.writeLock().lock();
+        try {
+            cargar(coordenadas);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #reconstruir}, pero lee las coordenadas sin bloquear las búsquedas
+     * y conserva los cambios que llegan mientras tanto (ver {@link RecargaIndice}).
+     */
+    public void recargar(Supplier<Map<Integer, double[]>> leer) {
+        recarga.recargar(leer, this::cargar);
+    }
+
+    /**
+     * Agrega o mueve un alojamiento en el índice.
+     * Si faltan las coordenadas el alojamiento se retira.
+     */
+    public void indexar(Integer id, Double lat, Double lng) {
+        if (id == null) return;
+        recarga.aplicar(() -> {
+            quitar(id);
+            if (lat != null && lng != null) {
+                insertar(id, lat, lng);
+            }
+        });
+    }
+
+    public void eliminar(Integer id) {
+        if (id == null) return;
+        recarga.aplicar(() -> quitar(id));
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return puntos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los alojamientos dentro del radio indicado.
+     *
+     * @return resultados ordenados por distancia ascendente (y por ID en caso de empate)
+     */
+    public List<Resultado> buscar(double latRef, double lngRef, double radioKm) {
+        double deltaLat = radioKm / KM_POR_GRADO;
+        double latMin   = Math.max(-90, latRef - deltaLat);
+        double latMax   = Math.min(90, latRef + deltaLat);
+
+        // Ancho en longitud: crece hacia los polos; si pasa un polo se recorre todo el paralelo
+        double cosLat   = Math.cos(Math.toRadians(Math.max(Math.abs(latMin), Math.abs(latMax))));
+        boolean vueltaCompleta = latMin <= -90 || latMax >= 90 || cosLat <= 0
+                || radioKm / (KM_POR_GRADO * cosLat) >= 180;
+        double deltaLng = vueltaCompleta ? 180 : radioKm / (KM_POR_GRADO * cosLat);
+
+        int filaMin = fila(latMin);
+        int filaMax = fila(latMax);
+        int colMin  = vueltaCompleta ? 0 : columna(lngRef - deltaLng);
+        int numCols = vueltaCompleta ? COLUMNAS : anchoEnColumnas(lngRef - deltaLng, lngRef + deltaLng);
+
+        List<Resultado> resultados = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            long celdasARevisar = (long) (filaMax - filaMin + 1) * numCols;
+
+            if (celdasARevisar >= puntos.size()) {
+                // Radio enorme: más barato recorrer los puntos que las celdas vacías
+                puntos.forEach((id, p) -> agregarSiEstaEnRadio(resultados, id, p, latRef, lngRef, radioKm));
+            } else {
+                for (int f = filaMin; f <= filaMax; f++) {
+                    for (int i = 0; i < numCols; i++) {
+                        int c = (colMin + i) % COLUMNAS;
+                        Set<Integer> ids = celdas.get(clave(f, c));
+                        if (ids == null) continue;
+                        for (Integer id : ids) {
+                            agregarSiEstaEnRadio(resultados, id, puntos.get(id), latRef, lngRef, radioKm);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        resultados.sort(Comparator.comparingDouble(Resultado::distanciaKm).thenComparing(Resultado::id));
+        return resultados;
+    }
+
+    /**
+     * Fórmula de Haversine: distancia en km entre dos puntos en grados decimales.
+     */
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return RADIO_TIERRA_KM * c;
+    }
+
+    // ── Utilidades internas (llamadas con el lock tomado) ────────────────
+
+    private void agregarSiEstaEnRadio(List<Resultado> resultados, Integer id, Punto p,
+                                      double latRef, double lngRef, double radioKm) {
+        double distancia = distanciaKm(latRef, lngRef, p.lat(), p.lng());
+        if (distancia <= radioKm) {
+            resultados.add(new Resultado(id, distancia));
+        }
+    }
+
+    private void cargar(Map<Integer, double[]> coordenadas) {
+        celdas.clear();
+        puntos.clear();
+        coordenadas.forEach((id, c) -> insertar(id, c[0], c[1]));
+        inicializado = true;
+    }
+
+    private void insertar(Integer id, double lat, double lng) {
+        long celda = clave(fila(lat), columna(lng));
+        puntos.put(id, new Punto(lat, lng, celda));
+        celdas.computeIfAbsent(celda, k -> new HashSet<>()).add(id);
+    }
+
+    private void quitar(Integer id) {
+        Punto anterior = puntos.remove(id);
+        if (anterior == null) return;
+        Set<Integer> ids = celdas.get(anterior.celda());
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) celdas.remove(anterior.celda());
+        }
+    }
+
+    private static int fila(double lat) {
+        int f = (int) Math.floor((lat + 90) / TAMANO_CELDA_GRADOS);
+        return Math.min(Math.max(f, 0), FILAS - 1);
+    }
+
+    private static int columna(double lng) {
+        // Normaliza a [-180, 180) para soportar cajas que cruzan el antimeridiano
+        double normalizada = ((lng + 180) % 360 + 360) % 360;
+        int c = (int) Math.floor(normalizada / TAMANO_CELDA_GRADOS);
+        return Math.min(c, COLUMNAS - 1);
+    }
+
+    private static int anchoEnColumnas(double lngMin, double lngMax) {
+        int ancho = (int) Math.floor((lngMax + 180) / TAMANO_CELDA_GRADOS)
+                - (int) Math.floor((lngMin + 180) / TAMANO_CELDA_GRADOS) + 1;
+        return Math.min(ancho, COLUMNAS);
+    }
+
+    private static long clave(int fila, int columna) {
+        return (long) fila * COLUMNAS + columna;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * RecargaIndice
+ *
+ * Recarga un índice en memoria desde la base sin perder los cambios que llegan
+ * mientras se lee. La lectura corre sin el lock del índice, así las búsquedas
+ * siguen respondiendo con el contenido anterior; los cambios incrementales
+ * (después del commit) que llegan en ese tiempo se aplican igual y además se
+ * guardan, y después de cargar lo leído se vuelven a aplicar en el mismo orden.
+ *
+ * Los cambios dejan un alojamiento en un estado completo (indexar, quitar,
+ * ocupar o liberar noches), así que repetir uno que la lectura ya había visto
+ * no altera el resultado. Solo corre una recarga a la vez por índice.
+ */
+final class RecargaIndice {
+
+    private final ReadWriteLock lock;
+
+    /** Cambios llegados durante la recarga en curso; null si no hay ninguna. Solo con el lock de escritura. */
+    private List<Runnable> pendientes;
+
+    RecargaIndice(ReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * Aplica un cambio incremental con el lock de escritura y lo guarda si hay una recarga en curso.
+     */
+    void aplicar(Runnable cambio) {
+        lock.writeLock().lock();
+        try {
+            cambio.run();
+            if (pendientes != null) pendientes.add(cambio);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lee el contenido con {@code leer}, sin el lock, y lo carga con {@code cargar}
+     * (que reemplaza todo) con el lock de escritura, seguido de los cambios que
+     * llegaron mientras tanto. Si la lectura falla el índice queda como estaba.
+     */
+    synchronized <T> void recargar(Supplier<? extends T> leer, Consumer<? super T> cargar) {
+        lock.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        T datos;
+        try {
+            datos = leer.get();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            cargar.accept(datos);
+            pendientes.forEach(Runnable::run);
+        } finally {
+            pendientes = null;
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * TextoIndiceAlojamientos
+ *
+ * Índice invertido en memoria sobre nombre, descripción y ciudad de los
+ * alojamientos activos, con ranking BM25. Los términos salen de
+ * {@link AnalizadorEspanol}; el nombre pesa {@value #PESO_NOMBRE} veces más
+ * que la descripción.
+ *
+ * Cada alojamiento ocupa una posición (slot) densa; las listas de postings son
+ * arreglos de slots y frecuencias, y la puntuación acumula en un arreglo por
+ * slot, así una consulta con términos frecuentes recorre memoria contigua
+ * sin crear objetos por posting. Al reindexar un alojamiento su slot anterior
+ * queda marcado como borrado y se compacta cuando los borrados pesan demasiado.
+ *
+ * Los filtros de ciudad y precio se evalúan sobre datos guardados por slot,
+ * sin ir a la base de datos. Se mantiene sincronizado desde AlojamientoService
+ * y se recarga de la base periódicamente con {@link #recargar}.
+ */
+@Component
+public class TextoIndiceAlojamientos {
+
+    static final int    PESO_NOMBRE = 2;
+    static final double K1          = 1.2;
+    static final double B           = 0.75;
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final Map<String, Postings> postings   = new HashMap<>();
+    private final Map<Integer, Integer> slotPorId  = new HashMap<>();
+    private final Map<String, Integer>  ciudades   = new HashMap<>();
+    private final ReadWriteLock         lock       = new ReentrantReadWriteLock();
+    private final RecargaIndice         recarga    = new RecargaIndice(lock);
+
+    // Datos por slot
+    private int[]      idPorSlot       = new int[CAPACIDAD_INICIAL];
+    private int[]      longitudPorSlot = new int[CAPACIDAD_INICIAL];
+    private int[]      ciudadPorSlot   = new int[CAPACIDAD_INICIAL];
+    private double[]   precioPorSlot   = new double[CAPACIDAD_INICIAL];
+    private String[][] terminosPorSlot = new String[CAPACIDAD_INICIAL][];
+    private boolean[]  borrado         = new boolean[CAPACIDAD_INICIAL];
+
+    private int  slots         = 0;
+    private int  borrados      = 0;
+    private long longitudTotal = 0;
+
+    private volatile boolean inicializado = false;
+
+    /** Lista de postings de un término: slots en orden ascendente y su frecuencia ponderada. */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int[] tfs   = new int[4];
+        int   tamano;
+        int   vivos;
+
+        void agregar(int slot, int tf) {
+            if (tamano == slots.length) {
+                slots = Arrays.copyOf(slots, tamano * 2);
+                tfs   = Arrays.copyOf(tfs, tamano * 2);
+            }
+            slots[tamano] = slot;
+            tfs[tamano]   = tf;
+            tamano++;
+            vivos++;
+        }
+    }
+
+    /**
+     * Datos de un alojamiento para indexar.
+     */
+    public record Entrada(Integer id, String nombre, String descripcion, String ciudad, Double precio) {
+    }
+
+    /**
+     * Resultado de una búsqueda: ID del alojamiento y su puntaje BM25.
+     */
+    public record Resultado(Integer id, double puntaje) {
+    }
+
+    public boolean estaInicializado() {
+        return inicializado;
+    }
+
+    public void reconstruir(Collection<Entrada> entradas) {
+        lock.writeLock().lock();
+        try {
+            cargar(entradas);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #reconstruir}, pero lee las entradas sin bloquear las búsquedas
+     * y conserva los cambios que llegan mientras tanto (ver {@link RecargaIndice}).
+     */
+    public void recargar(Supplier<? extends Collection<Entrada>> leer) {
+        recarga.recargar(leer, this::cargar);
+    }
+
+    /**
+     * Agrega o reemplaza un alojamiento en el índice.
+     */
+    public void indexar(Entrada entrada) {
+        if (entrada == null || entrada.id() == null) return;
+        recarga.aplicar(() -> {
+            quitar(entrada.id());
+            insertar(entrada);
+            compactarSiHaceFalta();
+        });
+    }
+
+    public void eliminar(Integer id) {
+        if (id == null) return;
+        recarga.aplicar(() -> {
+            quitar(id);
+            compactarSiHaceFalta();
+        });
+    }
+
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return slotPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los alojamientos que contienen al menos un término de la consulta.
+     *
+     * @param ciudad    filtro opcional de ciudad (sin importar mayúsculas ni tildes)
+     * @param precioMin filtro opcional de precio mínimo por noche
+     * @param precioMax filtro opcional de precio máximo por noche
+     * @param limite    máximo de resultados
+     * @return resultados ordenados por puntaje descendente (y por ID en caso de empate)
+     */
+    public List<Resultado> buscar(String consulta, String ciudad, Double precioMin, Double precioMax, int limite) {
+        Set<String> terminos = new LinkedHashSet<>(AnalizadorEspanol.analizar(consulta));
+        if (terminos.isEmpty() || limite < 1) return List.of();
+
+        double minimo = precioMin == null ? Double.NEGATIVE_INFINITY : precioMin;
+        double maximo = precioMax == null ? Double.POSITIVE_INFINITY : precioMax;
+        boolean filtraPrecio = precioMin != null || precioMax != null;
+
+        Comparator<Resultado> mejorPrimero = Comparator.comparingDouble(Resultado::puntaje).reversed()
+                .thenComparing(Resultado::id);
+        PriorityQueue<Resultado> top = new PriorityQueue<>(mejorPrimero.reversed());
+
+        lock.readLock().lock();
+        try {
+            int total = slotPorId.size();
+            if (total == 0) return List.of();
+
+            int codigoCiudad = -1;
+            if (ciudad != null && !ciudad.isBlank()) {
+                Integer codigo = ciudades.get(TextoUtil.normalizar(ciudad));
+                if (codigo == null) return List.of();
+                codigoCiudad = codigo;
+            }
+
+            double longitudMedia = (double) longitudTotal / total;
+            double[] puntajes = new double[slots];
+            boolean hayCoincidencias = false;
+
+            for (String termino : terminos) {
+                Postings lista = postings.get(termino);
+                if (lista == null || lista.vivos == 0) continue;
+
+                double idf = Math.log(1 + (total - lista.vivos + 0.5) / (lista.vivos + 0.5));
+                for (int i = 0; i < lista.tamano; i++) {
+                    int slot = lista.slots[i];
+                    if (borrado[slot]) continue;
+                    if (codigoCiudad >= 0 && ciudadPorSlot[slot] != codigoCiudad) continue;
+                    // Un precio desconocido (NaN) no pasa ningún filtro de precio
+                    double precio = precioPorSlot[slot];
+                    if (filtraPrecio && !(precio >= minimo && precio <= maximo)) continue;
+
+                    int tf = lista.tfs[i];
+                    double norma = K1 * (1 - B + B * longitudPorSlot[slot] / longitudMedia);
+                    puntajes[slot] += idf * tf * (K1 + 1) / (tf + norma);
+                    hayCoincidencias = true;
+                }
+            }
+            if (!hayCoincidencias) return List.of();
+
+            // Top-k con un montículo del tamaño del límite (la cabeza es el peor resultado)
+            for (int slot = 0; slot < slots; slot++) {
+                double puntaje = puntajes[slot];
+                if (puntaje <= 0) continue;
+                if (top.size() < limite) {
+                    top.add(new Resultado(idPorSlot[slot], puntaje));
+                } else {
+                    Resultado peor = top.peek();
+                    if (puntaje > peor.puntaje() || (puntaje == peor.puntaje() && idPorSlot[slot] < peor.id())) {
+                        top.poll();
+                        top.add(new Resultado(idPorSlot[slot], puntaje));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Resultado> resultados = new ArrayList<>(top);
+        resultados.sort(mejorPrimero);
+        return resultados;
+    }
+
+    // ── Utilidades internas (llamadas con el lock de escritura tomado) ──
+
+    private void cargar(Collection<Entrada> entradas) {
+        postings.clear();
+        slotPorId.clear();
+        ciudades.clear();
+        slots = 0;
+        borrados = 0;
+        longitudTotal = 0;
+        entradas.forEach(this::insertar);
+        inicializado = true;
+    }
+
+    private void insertar(Entrada entrada) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        int longitud = 0;
+        for (String t : AnalizadorEspanol.analizar(entrada.nombre())) {
+            frecuencias.merge(t, PESO_NOMBRE, Integer::sum);
+            longitud += PESO_NOMBRE;
+        }
+        for (String t : AnalizadorEspanol.analizar(entrada.ciudad())) {
+            frecuencias.merge(t, 1, Integer::sum);
+            longitud++;
+        }
+        for (String t : AnalizadorEspanol.analizar(entrada.descripcion())) {
+            frecuencias.merge(t, 1, Integer::sum);
+            longitud++;
+        }
+
+        asegurarCapacidad(slots + 1);
+        int slot = slots++;
+        String ciudadNorm = TextoUtil.normalizar(entrada.ciudad());
+
+        idPorSlot[slot]       = entrada.id();
+        longitudPorSlot[slot] = longitud;
+        ciudadPorSlot[slot]   = ciudadNorm == null ? -1 : ciudades.computeIfAbsent(ciudadNorm, k -> ciudades.size());
+        precioPorSlot[slot]   = entrada.precio() == null ? Double.NaN : entrada.precio();
+        terminosPorSlot[slot] = frecuencias.keySet().toArray(new String[0]);
+        borrado[slot]         = false;
+
+        frecuencias.forEach((t, tf) -> postings.computeIfAbsent(t, k -> new Postings()).agregar(slot, tf));
+        slotPorId.put(entrada.id(), slot);
+        longitudTotal += longitud;
+    }
+
+    private void quitar(Integer id) {
+        Integer slot = slotPorId.remove(id);
+        if (slot == null) return;
+        borrado[slot] = true;
+        borrados++;
+        longitudTotal -= longitudPorSlot[slot];
+        for (String t : terminosPorSlot[slot]) {
+            Postings lista = postings.get(t);
+            if (lista != null) lista.vivos--;
+        }
+        terminosPorSlot[slot] = null;
+    }
+
+    /**
+     * Reasigna slots consecutivos a los alojamientos vivos cuando los borrados
+     * superan a la mitad de los slots usados.
+     */
+    private void compactarSiHaceFalta() {
+        if (borrados < 1024 || borrados * 2 < slots) return;
+
+        int[] nuevoSlot = new int[slots];
+        int siguiente = 0;
+        for (int s = 0; s < slots; s++) {
+            if (borrado[s]) {
+                nuevoSlot[s] = -1;
+                continue;
+            }
+            nuevoSlot[s] = siguiente;
+            idPorSlot[siguiente]       = idPorSlot[s];
+            longitudPorSlot[siguiente] = longitudPorSlot[s];
+            ciudadPorSlot[siguiente]   = ciudadPorSlot[s];
+            precioPorSlot[siguiente]   = precioPorSlot[s];
+            terminosPorSlot[siguiente] = terminosPorSlot[s];
+            borrado[siguiente]         = false;
+            slotPorId.put(idPorSlot[siguiente], siguiente);
+            siguiente++;
+        }
+        for (int s = siguiente; s < slots; s++) terminosPorSlot[s] = null;
+
+        postings.values().removeIf(lista -> {
+            int n = 0;
+            for (int i = 0; i < lista.tamano; i++) {
+                int destino = nuevoSlot[lista.slots[i]];
+                if (destino < 0) continue;
+                lista.slots[n] = destino;
+                lista.tfs[n]   = lista.tfs[i];
+                n++;
+            }
+            lista.tamano = n;
+            lista.vivos  = n;
+            return n == 0;
+        });
+
+        slots    = siguiente;
+        borrados = 0;
+    }
+
+    private void asegurarCapacidad(int requerida) {
+        if (requerida <= idPorSlot.length) return;
+        int nueva = Math.max(requerida, idPorSlot.length * 2);
+        idPorSlot       = Arrays.copyOf(idPorSlot, nueva);
+        longitudPorSlot = Arrays.copyOf(longitudPorSlot, nueva);
+        ciudadPorSlot   = Arrays.copyOf(ciudadPorSlot, nueva);
+        precioPorSlot   = Arrays.copyOf(precioPorSlot, nueva);
+        terminosPorSlot = Arrays.copyOf(terminosPorSlot, nueva);
+        borrado         = Arrays.copyOf(borrado, nueva);
+    }
+}
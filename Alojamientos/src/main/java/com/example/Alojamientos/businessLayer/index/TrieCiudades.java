@@ -0,0 +1,206 @@
+package com.example.Alojamientos.businessLayer.index;
+
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * TrieCiudades
+ *
+ * Trie en memoria con las ciudades de los alojamientos activos para sugerir
+ * ciudades mientras el usuario escribe. Las claves van normalizadas con
+ * {@link TextoUtil#normalizar} ("bog", "BOG" y "bóg" llegan al mismo nodo) y
+ * cada ciudad guarda cuántos alojamientos activos tiene, que es el peso con
+ * que se ordenan las sugerencias.
+ *
+ * Una ciudad escrita de varias formas ("Bogotá", "Bogota") cuenta como una sola
+ * y se muestra con la forma más usada. Se mantiene sincronizado desde
+ * AlojamientoService (crear, actualizar, eliminar) y se recarga de la base
+ * periódicamente con {@link #recargar}.
+ */
+@Component
+public class TrieCiudades {
+
+    private final Nodo                 raiz                 = new Nodo();
+    private final Map<Integer, String> ciudadPorAlojamiento = new HashMap<>();
+    private final ReadWriteLock        lock                 = new ReentrantReadWriteLock();
+    private final RecargaIndice        recarga              = new RecargaIndice(lock);
+
+    private int ciudades = 0;
+
+    private volatile boolean inicializado = false;
+
+    private static final class Nodo {
+        final Map<Character, Nodo> hijos = new HashMap<>();
+        /** Alojamientos por forma escrita de la ciudad que termina en este nodo. */
+        final Map<String, Integer> formas = new HashMap<>();
+        int alojamientos;
+    }
+
+    /**
+     * Ciudad sugerida y cantidad de alojamientos activos en ella.
+     */
+    public record Sugerencia(String ciudad, int alojamientos) {
+    }
+
+    public boolean estaInicializado() {
+        return inicializado;
+    }
+
+    /**
+     * Reemplaza todo el contenido del trie.
+     *
+     * @param ciudadesPorId ciudad de cada alojamiento activo, por ID
+     */
+    public void reconstruir(Map<Integer, String> ciudadesPorId) {
+        lock.writeLock().lock();
+        try {
+            cargar(ciudadesPorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #reconstruir}, pero lee las ciudades sin bloquear las sugerencias
+     * y conserva los cambios que llegan mientras tanto (ver {@link RecargaIndice}).
+     */
+    public void recargar(Supplier<Map<Integer, String>> leer) {
+        recarga.recargar(leer, this::cargar);
+    }
+
+    /**
+     * Registra o mueve un alojamiento a una ciudad; con ciudad null lo quita.
+     */
+    public void indexar(Integer id, String ciudad) {
+        if (id == null) return;
+        recarga.aplicar(() -> {
+            quitar(id);
+            agregar(id, ciudad);
+        });
+    }
+
+    public void eliminar(Integer id) {
+        indexar(id, null);
+    }
+
+    /**
+     * @return cantidad de ciudades distintas con al menos un alojamiento
+     */
+    public int tamano() {
+        lock.readLock().lock();
+        try {
+            return ciudades;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ciudades que empiezan por el prefijo, de la que tiene más alojamientos a
+     * la que tiene menos (y alfabéticamente en caso de empate).
+     */
+    public List<Sugerencia> sugerir(String prefijo, int limite) {
+        String clave = TextoUtil.normalizar(prefijo);
+        if (clave == null || clave.isEmpty() || limite < 1) return List.of();
+
+        Comparator<Sugerencia> mejorPrimero = Comparator.comparingInt(Sugerencia::alojamientos).reversed()
+                .thenComparing(Sugerencia::ciudad);
+        PriorityQueue<Sugerencia> top = new PriorityQueue<>(mejorPrimero.reversed());
+
+        lock.readLock().lock();
+        try {
+            Nodo nodo = raiz;
+            for (int i = 0; i < clave.length() && nodo != null; i++) {
+                nodo = nodo.hijos.get(clave.charAt(i));
+            }
+            if (nodo == null) return List.of();
+
+            // Recorre el subárbol del prefijo con un montículo del tamaño del límite
+            Deque<Nodo> pendientes = new ArrayDeque<>();
+            pendientes.push(nodo);
+            while (!pendientes.isEmpty()) {
+                Nodo actual = pendientes.pop();
+                if (actual.alojamientos > 0) {
+                    top.add(new Sugerencia(formaMasUsada(actual), actual.alojamientos));
+                    if (top.size() > limite) top.poll();
+                }
+                actual.hijos.values().forEach(pendientes::push);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Sugerencia> sugerencias = new ArrayList<>(top);
+        sugerencias.sort(mejorPrimero);
+        return sugerencias;
+    }
+
+    // ── Utilidades internas (llamadas con el lock de escritura tomado) ──
+
+    private void cargar(Map<Integer, String> ciudadesPorId) {
+        raiz.hijos.clear();
+        ciudadPorAlojamiento.clear();
+        ciudades = 0;
+        ciudadesPorId.forEach(this::agregar);
+        inicializado = true;
+    }
+
+    private void agregar(Integer id, String ciudad) {
+        String clave = TextoUtil.normalizar(ciudad);
+        if (id == null || clave == null || clave.isEmpty()) return;
+
+        Nodo nodo = raiz;
+        for (int i = 0; i < clave.length(); i++) {
+            nodo = nodo.hijos.computeIfAbsent(clave.charAt(i), c -> new Nodo());
+        }
+        String forma = ciudad.trim().replaceAll("\\s+", " ");
+        nodo.formas.merge(forma, 1, Integer::sum);
+        if (nodo.alojamientos++ == 0) ciudades++;
+        ciudadPorAlojamiento.put(id, forma);
+    }
+
+    private void quitar(Integer id) {
+        String forma = ciudadPorAlojamiento.remove(id);
+        if (forma == null) return;
+
+        String clave = TextoUtil.normalizar(forma);
+        List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+        Nodo nodo = raiz;
+        camino.add(nodo);
+        for (int i = 0; i < clave.length() && nodo != null; i++) {
+            nodo = nodo.hijos.get(clave.charAt(i));
+            camino.add(nodo);
+        }
+        if (nodo == null) return;
+
+        if (--nodo.alojamientos == 0) ciudades--;
+        nodo.formas.computeIfPresent(forma, (f, n) -> n > 1 ? n - 1 : null);
+
+        // Poda las ramas que quedaron sin ciudades
+        for (int i = clave.length(); i > 0; i--) {
+            Nodo hijo = camino.get(i);
+            if (hijo.alojamientos > 0 || !hijo.hijos.isEmpty()) break;
+            camino.get(i - 1).hijos.remove(clave.charAt(i - 1));
+        }
+    }
+
+    private static String formaMasUsada(Nodo nodo) {
+        return nodo.formas.entrySet().stream()
+                .max(Map.Entry.<String, Integer>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .orElse("");
+    }
+}
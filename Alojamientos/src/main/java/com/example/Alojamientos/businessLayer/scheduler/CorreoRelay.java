@@ -0,0 +1,365 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.businessLayer.service.EmailService;
+import com.example.Alojamientos.persistenceLayer.entity.CorreoPendienteEntity;
+import com.example.Alojamientos.persistenceLayer.repository.CorreoPendienteRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.SendFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CorreoRelay
+ *
+ * Envía los correos de correo_pendiente que encola EmailService. Toma cada lote
+ * igual que EventoOutboxRelay (SELECT ... FOR UPDATE SKIP LOCKED y reserva por
+ * {@code app.correo.reserva}) y lo reparte entre {@code app.correo.hilos}
+ * hilos de envío; el pool es fijo y su cola no pasa de un lote, así un SMTP
+ * lento nunca acumula más hilos ni tareas. Cada hilo envía grupos de hasta
+ * {@code app.correo.por-conexion} correos por una sola conexión SMTP
+ * autenticada (EmailService#entregar), en lugar de conectarse por correo.
+ *
+ * Si un envío falla, el correo se reintenta con espera exponencial
+ * ({@code app.correo.espera-reintento}, 2×, 4×... hasta 1 hora) y pasado
+ * {@code app.correo.max-intentos} queda FALLIDO. Un correo que no se pudo armar
+ * (dirección inválida) queda FALLIDO sin reintentos, y uno que vence antes de
+ * enviarse (p. ej. un código de recuperación expirado) queda VENCIDO. Al salir
+ * de PENDIENTE se vacía el cuerpo, y CorreoRetencionScheduler elimina después
+ * la fila.
+ *
+ * Circuito: tras {@code app.correo.circuito.umbral-fallos} envíos seguidos con
+ * fallo del servidor (conexión, autenticación; no un destinatario rechazado)
+ * se abre y durante {@code app.correo.circuito.pausa} no se envía nada; los
+ * correos tomados se devuelven a la cola sin gastar intentos. Pasada la pausa
+ * se prueba con un solo correo (semiabierto): si sale se cierra, si no se abre otra vez.
+ *
+ * Métricas: correo.envios con tag estado (enviado, reintento, fallido, vencido,
+ * aplazado), correo.envio.duracion (timer por conexión SMTP), correo.circuito.estado
+ * (0 cerrado, 1 semiabierto, 2 abierto) y correo.circuito.aperturas.
+ */
+@Slf4j
+@Component
+public class CorreoRelay {
+
+    private static final Duration ESPERA_MAXIMA_REINTENTO = Duration.ofHours(1);
+
+    public enum EstadoCircuito { CERRADO, SEMIABIERTO, ABIERTO }
+
+    private enum Resultado { ENVIADO, REINTENTO, FALLIDO, APLAZADO }
+
+    private record Envio(CorreoPendienteEntity correo, Resultado resultado, RuntimeException error) {
+    }
+
+    private final CorreoPendienteRepository correoPendienteRepository;
+    private final EmailService              emailService;
+    private final TransactionTemplate       transaccion;
+    private final ExecutorService           envios;
+    private final int                       tamanoLote;
+    private final int                       porConexion;
+    private final int                       maxIntentos;
+    private final Duration                  reserva;
+    private final Duration                  esperaReintento;
+    private final int                       umbralFallos;
+    private final Duration                  pausaCircuito;
+    private final Counter                   enviados;
+    private final Counter                   reintentos;
+    private final Counter                   fallidos;
+    private final Counter                   vencidos;
+    private final Counter                   aplazados;
+    private final Counter                   aperturas;
+    private final Timer                     duracionEnvio;
+
+    // Estado del circuito, solo se toca en los métodos synchronized
+    private EstadoCircuito estadoCircuito = EstadoCircuito.CERRADO;
+    private int            fallosSeguidos;
+    private LocalDateTime  abiertoHasta;
+
+    public CorreoRelay(CorreoPendienteRepository correoPendienteRepository,
+                       EmailService emailService,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.correo.tamano-lote:50}") int tamanoLote,
+                       @Value("${app.correo.hilos:4}") int hilos,
+                       @Value("${app.correo.por-conexion:10}") int porConexion,
+                       @Value("${app.correo.max-intentos:8}") int maxIntentos,
+                       @Value("${app.correo.reserva:5m}") Duration reserva,
+                       @Value("${app.correo.espera-reintento:30s}") Duration esperaReintento,
+                       @Value("${app.correo.circuito.umbral-fallos:5}") int umbralFallos,
+                       @Value("${app.correo.circuito.pausa:1m}") Duration pausaCircuito) {
+        if (tamanoLote < 1 || hilos < 1 || porConexion < 1 || maxIntentos < 1 || umbralFallos < 1) {
+            throw new IllegalArgumentException("El tamaño de lote, los hilos, los correos por conexión, "
+                    + "los intentos y el umbral del circuito de correo deben ser mayores a 0");
+        }
+        this.correoPendienteRepository = correoPendienteRepository;
+        this.emailService              = emailService;
+        this.transaccion               = new TransactionTemplate(transactionManager);
+        this.envios = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanoLote),
+                Thread.ofPlatform().name("correo-envio-", 1).daemon(true).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.tamanoLote      = tamanoLote;
+        this.porConexion     = porConexion;
+        this.maxIntentos     = maxIntentos;
+        this.reserva         = reserva;
+        this.esperaReintento = esperaReintento;
+        this.umbralFallos    = umbralFallos;
+        this.pausaCircuito   = pausaCircuito;
+        this.enviados   = contador(meterRegistry, "enviado", "Correos enviados");
+        this.reintentos = contador(meterRegistry, "reintento", "Envíos fallidos que se reintentarán");
+        this.fallidos   = contador(meterRegistry, "fallido", "Correos descartados por error o por agotar los intentos");
+        this.vencidos   = contador(meterRegistry, "vencido", "Correos descartados por vencer antes de enviarse");
+        this.aplazados  = contador(meterRegistry, "aplazado", "Correos devueltos a la cola por el circuito abierto");
+        this.aperturas = Counter.builder("correo.circuito.aperturas")
+                .description("Veces que se abrió el circuito de envío de correos")
+                .register(meterRegistry);
+        this.duracionEnvio = Timer.builder("correo.envio.duracion")
+                .description("Duración de cada envío SMTP (una conexión, hasta app.correo.por-conexion correos)")
+                .register(meterRegistry);
+        Gauge.builder("correo.circuito.estado", this, r -> r.getEstadoCircuito().ordinal())
+                .description("Estado del circuito de correo: 0 cerrado, 1 semiabierto, 2 abierto")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Envía lotes mientras haya correos listos y el circuito lo permita.
+     *
+     * @return correos enviados
+     */
+    @Scheduled(fixedDelayString = "${app.correo.intervalo-ms:2000}")
+    public int despacharPendientes() {
+        int total = 0;
+        int lote;
+        int tomados;
+        do {
+            lote = loteSegunCircuito();
+            if (lote == 0) break;
+            int[] resultado = despacharLote(lote);
+            tomados = resultado[0];
+            total += resultado[1];
+        } while (tomados == lote && getEstadoCircuito() == EstadoCircuito.CERRADO);
+        return total;
+    }
+
+    public synchronized EstadoCircuito getEstadoCircuito() {
+        return estadoCircuito;
+    }
+
+    @PreDestroy
+    public void cerrar() throws InterruptedException {
+        envios.shutdown();
+        if (!envios.awaitTermination(10, TimeUnit.SECONDS)) envios.shutdownNow();
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    /**
+     * @return {correos tomados, correos enviados}
+     */
+    private int[] despacharLote(int lote) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<CorreoPendienteEntity> correos = transaccion.execute(s -> {
+            List<CorreoPendienteEntity> bloqueados = correoPendienteRepository.bloquearPendientes(ahora, lote);
+            if (!bloqueados.isEmpty()) {
+                correoPendienteRepository.aplazar(bloqueados.stream().map(CorreoPendienteEntity::getId).toList(),
+                        ahora.plus(reserva));
+            }
+            return bloqueados;
+        });
+        if (correos == null || correos.isEmpty()) return new int[]{0, 0};
+
+        List<Long> vencidosIds = new ArrayList<>();
+        List<CorreoPendienteEntity> porEnviar = new ArrayList<>(correos.size());
+        for (CorreoPendienteEntity correo : correos) {
+            if (correo.getVence() != null && correo.getVence().isBefore(ahora)) {
+                vencidosIds.add(correo.getId());
+            } else {
+                porEnviar.add(correo);
+            }
+        }
+        // Cada hilo envía hasta porConexion correos por una misma conexión SMTP
+        List<Future<List<Envio>>> enCurso = new ArrayList<>();
+        for (int desde = 0; desde < porEnviar.size(); desde += porConexion) {
+            List<CorreoPendienteEntity> grupo = porEnviar.subList(desde, Math.min(desde + porConexion, porEnviar.size()));
+            enCurso.add(envios.submit(() -> enviar(grupo)));
+        }
+        if (!vencidosIds.isEmpty()) {
+            correoPendienteRepository.marcarVencidos(vencidosIds);
+            vencidos.increment(vencidosIds.size());
+            log.warn("[CorreoRelay] {} correo(s) vencidos antes de poder enviarse", vencidosIds.size());
+        }
+
+        List<Long> enviadosIds = new ArrayList<>();
+        List<Long> aplazadosIds = new ArrayList<>();
+        for (Future<List<Envio>> futuro : enCurso) {
+            for (Envio envio : esperar(futuro)) {
+                switch (envio.resultado()) {
+                    case ENVIADO  -> enviadosIds.add(envio.correo().getId());
+                    case APLAZADO -> aplazadosIds.add(envio.correo().getId());
+                    default       -> registrarFallo(envio);
+                }
+            }
+        }
+        if (!enviadosIds.isEmpty()) {
+            correoPendienteRepository.marcarEnviados(enviadosIds, LocalDateTime.now());
+            enviados.increment(enviadosIds.size());
+        }
+        if (!aplazadosIds.isEmpty()) {
+            correoPendienteRepository.aplazar(aplazadosIds, reanudacion());
+            aplazados.increment(aplazadosIds.size());
+        }
+        return new int[]{correos.size(), enviadosIds.size()};
+    }
+
+    // Corre en un hilo de envío
+    private List<Envio> enviar(List<CorreoPendienteEntity> correos) {
+        if (getEstadoCircuito() == EstadoCircuito.ABIERTO) {
+            return correos.stream().map(c -> new Envio(c, Resultado.APLAZADO, null)).toList();
+        }
+        Map<Long, ? extends RuntimeException> errores;
+        try {
+            errores = duracionEnvio.record(() -> emailService.entregar(correos));
+        } catch (RuntimeException e) {
+            errores = correos.stream().collect(Collectors.toMap(CorreoPendienteEntity::getId, c -> e));
+        }
+
+        boolean falloDelServidor = errores.values().stream().anyMatch(CorreoRelay::esFalloDelServidor);
+        if (falloDelServidor) {
+            registrarFalloSmtp();
+        } else if (errores.size() < correos.size()) {
+            registrarExitoSmtp();
+        }
+
+        List<Envio> resultado = new ArrayList<>(correos.size());
+        for (CorreoPendienteEntity correo : correos) {
+            RuntimeException error = errores.get(correo.getId());
+            if (error == null) {
+                resultado.add(new Envio(correo, Resultado.ENVIADO, null));
+            } else if (error instanceof MailParseException || error instanceof MailPreparationException) {
+                // El mensaje no se pudo armar: reintentar no lo arregla
+                resultado.add(new Envio(correo, Resultado.FALLIDO, error));
+            } else {
+                resultado.add(new Envio(correo, Resultado.REINTENTO, error));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Un destinatario rechazado (SendFailedException) es problema de ese correo;
+     * cualquier otro error de envío (conexión, autenticación, timeout) cuenta
+     * contra el circuito.
+     */
+    private static boolean esFalloDelServidor(RuntimeException error) {
+        return error instanceof MailException
+                && !(error instanceof MailParseException || error instanceof MailPreparationException)
+                && !(error.getCause() instanceof SendFailedException);
+    }
+
+    private List<Envio> esperar(Future<List<Envio>> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envío de correos interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error inesperado en un hilo de envío de correos", e.getCause());
+        }
+    }
+
+    private void registrarFallo(Envio envio) {
+        CorreoPendienteEntity correo = envio.correo();
+        int intento = correo.getIntentos() + 1;
+        boolean descartar = envio.resultado() == Resultado.FALLIDO || intento >= maxIntentos;
+        String error = envio.error().getClass().getSimpleName() + ": " + envio.error().getMessage();
+        String ultimoError = error.length() > 500 ? error.substring(0, 500) : error;
+        if (descartar) {
+            correoPendienteRepository.marcarFallido(correo.getId(), ultimoError);
+            fallidos.increment();
+            log.error("[CorreoRelay] Correo {} a {} descartado tras {} intento(s): {}",
+                    correo.getId(), correo.getDestinatario(), intento, error);
+        } else {
+            correoPendienteRepository.registrarFallo(correo.getId(), ultimoError,
+                    LocalDateTime.now().plus(esperaAntesDelIntento(intento)));
+            reintentos.increment();
+            log.warn("[CorreoRelay] Correo {} a {} falló en el intento {}: {}",
+                    correo.getId(), correo.getDestinatario(), intento, error);
+        }
+    }
+
+    // esperaReintento, 2×, 4×... hasta 1 hora
+    private Duration esperaAntesDelIntento(int intento) {
+        Duration espera = esperaReintento.multipliedBy(1L << Math.min(intento - 1, 20));
+        return espera.compareTo(ESPERA_MAXIMA_REINTENTO) > 0 ? ESPERA_MAXIMA_REINTENTO : espera;
+    }
+
+    // ── Circuito ──────────────────────────────────────────────────────────
+
+    /**
+     * @return cuántos correos tomar: un lote con el circuito cerrado, uno de prueba
+     *         semiabierto y ninguno mientras siga abierto
+     */
+    private synchronized int loteSegunCircuito() {
+        if (estadoCircuito == EstadoCircuito.ABIERTO) {
+            if (LocalDateTime.now().isBefore(abiertoHasta)) return 0;
+            estadoCircuito = EstadoCircuito.SEMIABIERTO;
+            log.info("[CorreoRelay] Circuito semiabierto: se prueba con un correo");
+        }
+        return estadoCircuito == EstadoCircuito.SEMIABIERTO ? 1 : tamanoLote;
+    }
+
+    private synchronized void registrarExitoSmtp() {
+        fallosSeguidos = 0;
+        if (estadoCircuito != EstadoCircuito.CERRADO) {
+            estadoCircuito = EstadoCircuito.CERRADO;
+            log.info("[CorreoRelay] Circuito cerrado: el servidor de correo responde otra vez");
+        }
+    }
+
+    private synchronized void registrarFalloSmtp() {
+        fallosSeguidos++;
+        boolean abrir = estadoCircuito == EstadoCircuito.SEMIABIERTO
+                || (estadoCircuito == EstadoCircuito.CERRADO && fallosSeguidos >= umbralFallos);
+        if (abrir) {
+            estadoCircuito = EstadoCircuito.ABIERTO;
+            abiertoHasta   = LocalDateTime.now().plus(pausaCircuito);
+            aperturas.increment();
+            log.warn("[CorreoRelay] Circuito abierto tras {} fallo(s) SMTP seguidos; se reintenta después de {}",
+                    fallosSeguidos, abiertoHasta);
+        }
+    }
+
+    private synchronized LocalDateTime reanudacion() {
+        return abiertoHasta != null && abiertoHasta.isAfter(LocalDateTime.now()) ? abiertoHasta : LocalDateTime.now();
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String estado, String descripcion) {
+        return Counter.builder("correo.envios")
+                .tag("estado", estado)
+                .description(descripcion)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.persistenceLayer.repository.CorreoPendienteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * CorreoRetencionScheduler
+ *
+ * Job que elimina de correo_pendiente los correos ya resueltos (ENVIADO,
+ * FALLIDO o VENCIDO) creados hace más de {@code app.correo.retencion.antiguedad},
+ * para que la cola no crezca sin límite. Los PENDIENTE nunca se eliminan.
+ *
+ * Elimina por lotes con DELETE ... LIMIT a través de JobPorLotes, que toma
+ * el lease {@value #JOB} (JobLeaseService) y publica las métricas
+ * correo.purga.duracion, correo.purga.filas y correo.purga.ultima.
+ */
+@Component
+public class CorreoRetencionScheduler {
+
+    public static final String JOB = "correo.purgar";
+
+    private final CorreoPendienteRepository correoPendienteRepository;
+    private final Duration                  antiguedad;
+    private final JobPorLotes               purgar;
+
+    public CorreoRetencionScheduler(CorreoPendienteRepository correoPendienteRepository,
+                                    JobLeaseService jobLeaseService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.correo.retencion.antiguedad:30d}") Duration antiguedad,
+                                    @Value("${app.correo.retencion.tamano-lote:1000}") int tamanoLote) {
+        if (antiguedad.isNegative() || antiguedad.isZero()) {
+            throw new IllegalArgumentException("La antigüedad de retención de correos debe ser mayor a 0");
+        }
+        this.correoPendienteRepository = correoPendienteRepository;
+        this.antiguedad                = antiguedad;
+        this.purgar = new JobPorLotes(JOB, jobLeaseService, meterRegistry, "correo.purga",
+                "Correos resueltos eliminados de la cola", tamanoLote);
+    }
+
+    /**
+     * Por defecto todos los días a las 03:50 AM, fuera de las horas de más uso.
+     */
+    @Scheduled(cron = "${app.correo.retencion.cron:0 50 3 * * *}")
+    public void purgarResueltosAntiguos() {
+        LocalDateTime limite = LocalDateTime.now().minus(antiguedad);
+        purgar.ejecutar(lote -> correoPendienteRepository.purgarResueltosAnteriores(limite, lote));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.businessLayer.evento.ManejadorEventoOutbox;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventoOutboxRelay
+ *
+ * Entrega los eventos de evento_outbox a los {@link ManejadorEventoOutbox}.
+ * Cada lote se toma en una transacción corta: SELECT ... FOR UPDATE SKIP LOCKED
+ * y se reservan los eventos por {@code app.outbox.reserva} (siguiente_intento).
+ * Los manejadores corren después, sin bloqueos ni conexión retenida, y al final
+ * los eventos se marcan procesados. Varias instancias pueden correr el relay a
+ * la vez: SKIP LOCKED y la reserva evitan que tomen los mismos eventos.
+ *
+ * Entrega al menos una vez: si el relay se cae con eventos reservados, la
+ * reserva vence y otro los vuelve a entregar. Si un manejador falla, el evento
+ * se reintenta con espera exponencial hasta {@code app.outbox.max-intentos};
+ * después queda sin procesar, con el último error, para revisarlo a mano.
+ *
+ * Métricas: outbox.eventos.despachados y outbox.eventos.fallidos (contadores,
+ * su tasa es el throughput en eventos/s) y outbox.lote.duracion (timer por lote).
+ */
+@Slf4j
+@Component
+public class EventoOutboxRelay {
+
+    private static final Duration ESPERA_MAXIMA_REINTENTO = Duration.ofMinutes(30);
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final Map<EventoOutboxEntity.TipoEvento, List<ManejadorEventoOutbox>> manejadores;
+    private final TransactionTemplate    transaccion;
+    private final int                    tamanoLote;
+    private final int                    maxIntentos;
+    private final Duration               reserva;
+    private final Duration               esperaReintento;
+    private final Counter                despachados;
+    private final Counter                fallidos;
+    private final Timer                  duracionLote;
+
+    public EventoOutboxRelay(EventoOutboxRepository eventoOutboxRepository,
+                             List<ManejadorEventoOutbox> manejadores,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.outbox.tamano-lote:100}") int tamanoLote,
+                             @Value("${app.outbox.max-intentos:10}") int maxIntentos,
+                             @Value("${app.outbox.reserva:5m}") Duration reserva,
+                             @Value("${app.outbox.espera-reintento:10s}") Duration esperaReintento) {
+        if (tamanoLote < 1 || maxIntentos < 1) {
+            throw new IllegalArgumentException("El tamaño de lote y los intentos del outbox deben ser mayores a 0");
+        }
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.manejadores            = new EnumMap<>(EventoOutboxEntity.TipoEvento.class);
+        for (ManejadorEventoOutbox manejador : manejadores) {
+            manejador.tipos().forEach(t -> this.manejadores.computeIfAbsent(t, k -> new ArrayList<>()).add(manejador));
+        }
+        this.transaccion     = new TransactionTemplate(transactionManager);
+        this.tamanoLote      = tamanoLote;
+        this.maxIntentos     = maxIntentos;
+        this.reserva         = reserva;
+        this.esperaReintento = esperaReintento;
+        this.despachados = Counter.builder("outbox.eventos.despachados")
+                .description("Eventos de dominio entregados a todos sus manejadores")
+                .register(meterRegistry);
+        this.fallidos = Counter.builder("outbox.eventos.fallidos")
+                .description("Entregas de eventos de dominio en las que falló algún manejador")
+                .register(meterRegistry);
+        this.duracionLote = Timer.builder("outbox.lote.duracion")
+                .description("Duración de cada lote del relay del outbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Entrega lotes mientras haya eventos listos.
+     *
+     * @return eventos entregados sin error
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}")
+    public int despacharPendientes() {
+        long inicio = System.nanoTime();
+        int entregados = 0;
+        int tomados;
+        do {
+            int[] lote = duracionLote.record(this::despacharLote);
+            tomados = lote[0];
+            entregados += lote[1];
+        } while (tomados == tamanoLote);
+
+        if (entregados > 0) {
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            log.debug("[EventoOutboxRelay] {} eventos entregados en {} s ({} eventos/s)",
+                    entregados, String.format("%.3f", segundos), String.format("%.0f", entregados / segundos));
+        }
+        return entregados;
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    /**
+     * @return {eventos tomados, eventos entregados sin error}
+     */
+    private int[] despacharLote() {
+        List<EventoOutboxEntity> eventos = transaccion.execute(s -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<EventoOutboxEntity> bloqueados = eventoOutboxRepository.bloquearPendientes(ahora, maxIntentos, tamanoLote);
+            if (!bloqueados.isEmpty()) {
+                eventoOutboxRepository.reservar(bloqueados.stream().map(EventoOutboxEntity::getId).toList(),
+                        ahora.plus(reserva));
+            }
+            return bloqueados;
+        });
+        if (eventos == null || eventos.isEmpty()) return new int[]{0, 0};
+
+        List<Long> entregados = new ArrayList<>(eventos.size());
+        for (EventoOutboxEntity evento : eventos) {
+            try {
+                for (ManejadorEventoOutbox manejador : manejadores.getOrDefault(evento.getTipo(), List.of())) {
+                    manejador.manejar(evento);
+                }
+                entregados.add(evento.getId());
+            } catch (RuntimeException e) {
+                registrarFallo(evento, e);
+            }
+        }
+        if (!entregados.isEmpty()) {
+            eventoOutboxRepository.marcarProcesados(entregados, LocalDateTime.now());
+            despachados.increment(entregados.size());
+        }
+        return new int[]{eventos.size(), entregados.size()};
+    }
+
+    private void registrarFallo(EventoOutboxEntity evento, RuntimeException e) {
+        fallidos.increment();
+        int intento = evento.getIntentos() + 1;
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        eventoOutboxRepository.registrarFallo(evento.getId(),
+                error.length() > 500 ? error.substring(0, 500) : error,
+                LocalDateTime.now().plus(esperaAntesDelIntento(intento)));
+        if (intento >= maxIntentos) {
+            log.error("[EventoOutboxRelay] Evento {} ({}) descartado tras {} intentos: {}",
+                    evento.getId(), evento.getTipo(), intento, error);
+        } else {
+            log.warn("[EventoOutboxRelay] Evento {} ({}) falló en el intento {}: {}",
+                    evento.getId(), evento.getTipo(), intento, error);
+        }
+    }
+
+    // esperaReintento, 2×, 4×... hasta 30 minutos
+    private Duration esperaAntesDelIntento(int intento) {
+        Duration espera = esperaReintento.multipliedBy(1L << Math.min(intento - 1, 20));
+        return espera.compareTo(ESPERA_MAXIMA_REINTENTO) > 0 ? ESPERA_MAXIMA_REINTENTO : espera;
+    }
+}
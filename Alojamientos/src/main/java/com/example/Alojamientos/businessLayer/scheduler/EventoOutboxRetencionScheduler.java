@@ -0,0 +1,56 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.persistenceLayer.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * EventoOutboxRetencionScheduler
+ *
+ * Job que elimina los eventos de evento_outbox procesados hace más de
+ * {@code app.outbox.retencion.antiguedad}: una vez entregados solo sirven para
+ * revisar entregas recientes, y sin purga la tabla crece con cada reserva,
+ * comentario y pago. Los eventos sin procesar (pendientes o agotados sus
+ * intentos) nunca se eliminan.
+ *
+ * Elimina por lotes con DELETE ... LIMIT a través de JobPorLotes, que toma
+ * el lease {@value #JOB} (JobLeaseService) y publica las métricas
+ * outbox.purga.duracion, outbox.purga.filas y outbox.purga.ultima.
+ */
+@Component
+public class EventoOutboxRetencionScheduler {
+
+    public static final String JOB = "outbox.purgar";
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final Duration               antiguedad;
+    private final JobPorLotes            purgar;
+
+    public EventoOutboxRetencionScheduler(EventoOutboxRepository eventoOutboxRepository,
+                                          JobLeaseService jobLeaseService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${app.outbox.retencion.antiguedad:7d}") Duration antiguedad,
+                                          @Value("${app.outbox.retencion.tamano-lote:1000}") int tamanoLote) {
+        if (antiguedad.isNegative() || antiguedad.isZero()) {
+            throw new IllegalArgumentException("La antigüedad de retención del outbox debe ser mayor a 0");
+        }
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.antiguedad             = antiguedad;
+        this.purgar = new JobPorLotes(JOB, jobLeaseService, meterRegistry, "outbox.purga",
+                "Eventos procesados eliminados del outbox", tamanoLote);
+    }
+
+    /**
+     * Por defecto todos los días a las 03:40 AM, fuera de las horas de más uso.
+     */
+    @Scheduled(cron = "${app.outbox.retencion.cron:0 40 3 * * *}")
+    public void purgarProcesadosAntiguos() {
+        LocalDateTime limite = LocalDateTime.now().minus(antiguedad);
+        purgar.ejecutar(lote -> eventoOutboxRepository.purgarProcesadosAnteriores(limite, lote));
+    }
+}
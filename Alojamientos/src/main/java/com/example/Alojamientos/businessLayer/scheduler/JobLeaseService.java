@@ -0,0 +1,128 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.persistenceLayer.entity.JobLeaseEntity;
+import com.example.Alojamientos.persistenceLayer.repository.JobLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JobLeaseService
+ *
+ * Hace que cada job programado corra en una sola instancia cuando hay varias
+ * detrás del balanceador. Antes de ejecutar, la instancia toma el lease del job
+ * en la tabla job_lease (propietario + vencimiento); las demás ven el lease
+ * vigente y se saltan esa ejecución.
+ *
+ * Si la instancia que lo tiene muere, el lease vence a los
+ * {@code app.jobs.lease.duracion} y la siguiente ejecución lo toma en otra
+ * instancia. Los jobs largos lo extienden con {@link #renovar}. Al terminar se
+ * retiene al menos {@code app.jobs.lease.retencion-minima}, para que una
+ * instancia con el reloj un poco atrasado no repita la misma ejecución.
+ */
+@Slf4j
+@Component
+public class JobLeaseService {
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final String             propietario;
+    private final Duration           duracion;
+    private final Duration           retencionMinima;
+
+    /**
+     * Lease de un job tal como lo ve esta instancia.
+     */
+    public record Estado(String job, String propietario, LocalDateTime adquirido, LocalDateTime vence,
+                         boolean vigente, boolean local) {
+    }
+
+    public JobLeaseService(JobLeaseRepository jobLeaseRepository,
+                           @Value("${app.jobs.lease.propietario:}") String propietario,
+                           @Value("${app.jobs.lease.duracion:10m}") Duration duracion,
+                           @Value("${app.jobs.lease.retencion-minima:1m}") Duration retencionMinima) {
+        if (duracion.toSeconds() < 1) {
+            throw new IllegalArgumentException("La duración del lease de jobs debe ser de al menos 1 segundo");
+        }
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.propietario        = propietario == null || propietario.isBlank() ? generarPropietario() : propietario;
+        this.duracion           = duracion;
+        this.retencionMinima    = retencionMinima;
+    }
+
+    public String getPropietario() {
+        return propietario;
+    }
+
+    /**
+     * Ejecuta la tarea si esta instancia consigue el lease del job.
+     *
+     * @return true si la tarea se ejecutó aquí, false si otra instancia tiene el lease
+     */
+    public boolean ejecutar(String job, Runnable tarea) {
+        if (!tomar(job)) {
+            log.info("[JobLease] {} lo tiene otra instancia; se omite en {}.", job, propietario);
+            return false;
+        }
+        try {
+            tarea.run();
+        } finally {
+            jobLeaseRepository.liberar(job, propietario, retencionMinima.toSeconds());
+        }
+        return true;
+    }
+
+    /**
+     * Extiende el lease que tiene esta instancia otra {@code app.jobs.lease.duracion}.
+     *
+     * @return false si el lease ya venció y pudo tomarlo otra instancia: el job debe detenerse
+     */
+    public boolean renovar(String job) {
+        boolean renovado = jobLeaseRepository.renovar(job, propietario, duracion.toSeconds()) == 1;
+        if (!renovado) {
+            log.warn("[JobLease] {} perdió el lease de {}.", propietario, job);
+        }
+        return renovado;
+    }
+
+    /**
+     * Estado de todos los leases, para el endpoint de actuator.
+     */
+    public List<Estado> estado() {
+        LocalDateTime ahora = LocalDateTime.now();
+        return jobLeaseRepository.findAll().stream()
+                .map(l -> new Estado(l.getNombre(), l.getPropietario(), l.getAdquirido(), l.getVence(),
+                        l.getVence().isAfter(ahora), propietario.equals(l.getPropietario())))
+                .toList();
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private boolean tomar(String job) {
+        long segundos = duracion.toSeconds();
+        if (jobLeaseRepository.tomarVencido(job, propietario, segundos) == 1) return true;
+        if (jobLeaseRepository.existsById(job)) return false;
+        try {
+            return jobLeaseRepository.insertar(job, propietario, segundos) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia creó la fila del job al mismo tiempo y se quedó con el lease
+            return false;
+        }
+    }
+
+    private static String generarPropietario() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "instancia";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * JobPorLotes
+ *
+ * Ejecución común de los jobs programados que recorren una tabla con
+ * sentencias acotadas (UPDATE/DELETE ... LIMIT): cada lote corre en su propia
+ * transacción corta y sin cargar entidades, así un atraso grande no retiene
+ * una transacción larga ni llena el heap. Si el proceso se corta a mitad, los
+ * lotes ya confirmados quedan hechos y la siguiente ejecución sigue con las
+ * filas que faltan (la condición de la sentencia es el punto de avance).
+ *
+ * Con varias instancias, solo la que toma el lease del job (JobLeaseService)
+ * lo ejecuta; lo renueva entre lotes y se detiene si lo pierde.
+ *
+ * Métricas, con el prefijo de cada job: {prefijo}.duracion (timer por
+ * ejecución), {prefijo}.filas (contador de filas procesadas) y
+ * {prefijo}.ultima (filas procesadas en la última ejecución).
+ */
+@Slf4j
+public class JobPorLotes {
+
+    private final String          job;
+    private final JobLeaseService jobLeaseService;
+    private final int             tamanoLote;
+    private final Timer           duracion;
+    private final Counter         filasProcesadas;
+    private final AtomicLong      procesadasUltimaEjecucion = new AtomicLong();
+
+    /**
+     * @param prefijoMetricas  prefijo de las tres métricas del job
+     * @param filas            descripción de las filas que procesa cada lote, para las métricas
+     */
+    public JobPorLotes(String job, JobLeaseService jobLeaseService, MeterRegistry meterRegistry,
+                       String prefijoMetricas, String filas, int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote del job " + job + " debe ser mayor a 0");
+        }
+        this.job             = job;
+        this.jobLeaseService = jobLeaseService;
+        this.tamanoLote      = tamanoLote;
+        this.duracion = Timer.builder(prefijoMetricas + ".duracion")
+                .description("Duración de cada ejecución del job " + job)
+                .register(meterRegistry);
+        this.filasProcesadas = Counter.builder(prefijoMetricas + ".filas")
+                .description(filas + " por el job " + job)
+                .register(meterRegistry);
+        Gauge.builder(prefijoMetricas + ".ultima", procesadasUltimaEjecucion, AtomicLong::get)
+                .description(filas + " en la última ejecución del job " + job)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta lotes mientras salgan completos, si esta instancia tiene el lease.
+     *
+     * @param lote  procesa hasta el tamaño recibido de filas y devuelve cuántas cambió;
+     *              menos que el tamaño significa que no quedan más
+     * @return true si el job se ejecutó aquí, false si otra instancia tiene el lease
+     */
+    public boolean ejecutar(IntUnaryOperator lote) {
+        return jobLeaseService.ejecutar(job, () -> procesar(lote));
+    }
+
+    private void procesar(IntUnaryOperator lote) {
+        Timer.Sample muestra = Timer.start();
+        long total = 0;
+        int  lotes = 0;
+        int  filas;
+
+        try {
+            do {
+                filas = lote.applyAsInt(tamanoLote);
+                lotes++;
+                total += filas;
+                filasProcesadas.increment(filas);
+                if (filas == tamanoLote) {
+                    log.info("[{}] Lote {}: {} fila(s), {} en total hasta ahora.", job, lotes, filas, total);
+                }
+            } while (filas == tamanoLote && jobLeaseService.renovar(job));
+        } finally {
+            long nanos = muestra.stop(duracion);
+            procesadasUltimaEjecucion.set(total);
+            log.info("[{}] {} fila(s) procesadas en {} lote(s), {} ms.", job, total, lotes, nanos / 1_000_000);
+        }
+    }
+}
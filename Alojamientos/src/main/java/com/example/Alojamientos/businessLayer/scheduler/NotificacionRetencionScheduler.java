@@ -0,0 +1,58 @@
+package com.example.Alojamientos.businessLayer.scheduler;
+
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * NotificacionRetencionScheduler
+ *
+ * Job que elimina las notificaciones leídas más antiguas que
+ * {@code app.notificaciones.retencion.antiguedad}, para que la tabla
+ * notificacion no crezca sin límite. Las no leídas nunca se eliminan.
+ *
+ * Elimina por lotes con DELETE ... LIMIT a través de JobPorLotes, que toma
+ * el lease {@value #JOB} (JobLeaseService) y publica las métricas
+ * notificaciones.purga.duracion, notificaciones.purga.filas y
+ * notificaciones.purga.ultima.
+ */
+@Component
+public class NotificacionRetencionScheduler {
+
+    public static final String JOB = "notificaciones.purgar";
+
+    private final NotificacionRepository notificacionRepository;
+    private final Duration               antiguedad;
+    private final JobPorLotes            purgar;
+
+    public NotificacionRetencionScheduler(NotificacionRepository notificacionRepository,
+                                          JobLeaseService jobLeaseService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${app.notificaciones.retencion.antiguedad:90d}") Duration antiguedad,
+                                          @Value("${app.notificaciones.retencion.tamano-lote:1000}") int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote de la purga de notificaciones debe ser mayor a 0");
+        }
+        if (antiguedad.isNegative() || antiguedad.isZero()) {
+            throw new IllegalArgumentException("La antigüedad de retención de notificaciones debe ser mayor a 0");
+        }
+        this.notificacionRepository = notificacionRepository;
+        this.antiguedad             = antiguedad;
+        this.purgar = new JobPorLotes(JOB, jobLeaseService, meterRegistry, "notificaciones.purga",
+                "Notificaciones leídas eliminadas", tamanoLote);
+    }
+
+    /**
+     * Por defecto todos los días a las 03:30 AM, fuera de las horas de más uso.
+     */
+    @Scheduled(cron = "${app.notificaciones.retencion.cron:0 30 3 * * *}")
+    public void purgarLeidasAntiguas() {
+        LocalDateTime limite = LocalDateTime.now().minus(antiguedad);
+        purgar.ejecutar(lote -> notificacionRepository.purgarLeidasAnteriores(limite, lote));
+    }
+}
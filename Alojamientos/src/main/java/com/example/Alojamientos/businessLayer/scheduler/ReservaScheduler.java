@@ -1,15 +1,12 @@
 package com.example.Alojamientos.businessLayer.scheduler;
 
-import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
 
 /**
  * ReservaScheduler
@@ -22,13 +19,31 @@ import java.util.List;
  * después del checkout sin que el sistema las complete automáticamente,
  * lo cual bloqueaba el formulario de comentarios (COMENT-4) y la
  * visualización correcta del historial del huésped.
+ *
+ * Completa por lotes con UPDATE ... LIMIT a través de JobPorLotes, que
+ * toma el lease {@value #JOB} (JobLeaseService) y publica las métricas
+ * reservas.completar.duracion, reservas.completar.filas y
+ * reservas.completar.ultima.
  */
-@Slf4j
 @Component
-@RequiredArgsConstructor
 public class ReservaScheduler {
 
+    public static final String JOB = "reservas.completar";
+
     private final ReservaRepository reservaRepository;
+    private final JobPorLotes       completar;
+
+    public ReservaScheduler(ReservaRepository reservaRepository,
+                            JobLeaseService jobLeaseService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.reservas.completar.tamano-lote:1000}") int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote del ReservaScheduler debe ser mayor a 0");
+        }
+        this.reservaRepository = reservaRepository;
+        this.completar = new JobPorLotes(JOB, jobLeaseService, meterRegistry, "reservas.completar",
+                "Reservas CONFIRMADAS pasadas a COMPLETADA", tamanoLote);
+    }
 
     /**
      * Cron: todos los días a las 00:05 AM
@@ -38,24 +53,8 @@ public class ReservaScheduler {
      * cambia a: @Scheduled(fixedRate = 60000)
      */
     @Scheduled(cron = "0 5 0 * * *")
-    @Transactional
     public void completarReservasVencidas() {
         LocalDate hoy = LocalDate.now();
-
-        List<ReservaEntity> vencidas = reservaRepository
-                .findByEstadoAndFechaFinBefore(
-                        ReservaEntity.EstadoReserva.CONFIRMADA,
-                        hoy
-                );
-
-        if (vencidas.isEmpty()) {
-            log.info("[ReservaScheduler] No hay reservas vencidas para completar.");
-            return;
-        }
-
-        vencidas.forEach(r -> r.setEstado(ReservaEntity.EstadoReserva.COMPLETADA));
-        reservaRepository.saveAll(vencidas);
-
-        log.info("[ReservaScheduler] {} reserva(s) marcadas como COMPLETADA.", vencidas.size());
+        completar.ejecutar(lote -> reservaRepository.completarVencidas(hoy, lote));
     }
-}
\ No newline at end of file
+}
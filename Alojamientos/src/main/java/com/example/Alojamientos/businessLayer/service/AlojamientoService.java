@@ -1,30 +1,73 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.businessLayer.cache.AlojamientoDetalleCache;
 import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.AlojamientoTarjetaDTO;
+import com.example.Alojamientos.businessLayer.dto.CalendarioDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
+import com.example.Alojamientos.businessLayer.dto.SugerenciaCiudadDTO;
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import com.example.Alojamientos.businessLayer.index.GeoIndiceAlojamientos;
+import com.example.Alojamientos.businessLayer.index.TextoIndiceAlojamientos;
+import com.example.Alojamientos.businessLayer.index.TrieCiudades;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
+import com.example.Alojamientos.businessLayer.util.PaginacionUtil;
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
+import com.example.Alojamientos.businessLayer.util.TransaccionUtil;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.AlojamientoDataMapper;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoDistanciaView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
 import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class AlojamientoService {
 
+    private static final double KM_POR_GRADO = GeoIndiceAlojamientos.RADIO_TIERRA_KM * Math.PI / 180;
+
+    public static final int SUGERENCIAS_POR_DEFECTO = 10;
+    public static final int SUGERENCIAS_MAXIMO      = 50;
+
+    public static final int CALENDARIO_MESES_POR_DEFECTO = 12;
+    public static final int CALENDARIO_MESES_MAXIMO      = 24;
+
+    /** IDs candidatos que la búsqueda por fechas pide a la base en cada consulta. */
+    public static final int TRAMO_CANDIDATOS_DISPONIBLES = 200;
+
     private final AlojamientoRepository alojamientoRepository;
     private final ReservaRepository reservaRepository;
     private final AlojamientoDataMapper alojamientoMapper;
+    private final GeoIndiceAlojamientos geoIndice;
+    private final DisponibilidadIndice disponibilidadIndice;
+    private final TextoIndiceAlojamientos textoIndice;
+    private final TrieCiudades trieCiudades;
+    private final AlojamientoDetalleCache detalleCache;
 
     /**
      * RF9, HU-009: Crear nuevo alojamiento
@@ -64,6 +107,7 @@ public class AlojamientoService {
         entity.setActivo(true);
 
         AlojamientoEntity saved = alojamientoRepository.save(entity);
+        sincronizarIndices(saved);
         return alojamientoMapper.toDTO(saved);
     }
 
@@ -98,6 +142,7 @@ public class AlojamientoService {
         }
 
         AlojamientoEntity updated = alojamientoRepository.save(entity);
+        sincronizarIndices(updated);
         return alojamientoMapper.toDTO(updated);
     }
 
@@ -108,16 +153,12 @@ public class AlojamientoService {
         AlojamientoEntity entity = alojamientoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Alojamiento no encontrado con id: " + id));
 
-        List<ReservaEntity> reservasActivas =
-                reservaRepository.findByAlojamiento_Id(id).stream()
-                        .filter(r -> r.getFechaFin().isAfter(LocalDate.now()) || r.getFechaFin().equals(LocalDate.now()))
-                        .filter(r -> r.getEstado() == ReservaEntity.EstadoReserva.CONFIRMADA ||
-                                r.getEstado() == ReservaEntity.EstadoReserva.PENDIENTE)
-                        .collect(Collectors.toList());
+        long reservasActivas = reservaRepository.countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                id, DisponibilidadIndice.ESTADOS_QUE_OCUPAN, LocalDate.now());
 
-        if (!reservasActivas.isEmpty()) {
+        if (reservasActivas > 0) {
             throw new IllegalArgumentException(
-                    "No se puede eliminar el alojamiento porque tiene " + reservasActivas.size() +
+                    "No se puede eliminar el alojamiento porque tiene " + reservasActivas +
                             " reserva(s) activa(s) o futura(s)"
             );
         }
@@ -125,6 +166,12 @@ public class AlojamientoService {
         entity.setActivo(false);
         entity.setEliminado(true);   // Fix-4: marca como soft-deleted, distinto de "pausado"
         alojamientoRepository.save(entity);
+        TransaccionUtil.despuesDelCommit(() -> {
+            geoIndice.eliminar(id);
+            textoIndice.eliminar(id);
+            trieCiudades.eliminar(id);
+            detalleCache.invalidar(id);
+        });
     }
 
     @Transactional(readOnly = true)
@@ -144,24 +191,35 @@ public class AlojamientoService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Tarjetas de los alojamientos activos de la ciudad, sin importar mayúsculas
+     * ni tildes ("bogota" encuentra "Bogotá"). Filtra en la base de datos por ciudad_norm.
+     */
     @Transactional(readOnly = true)
-    public List<AlojamientoDTO> buscarPorCiudad(String ciudad) {
-        return alojamientoRepository.findByCiudadIgnoreCase(ciudad).stream()
-                .filter(a -> Boolean.TRUE.equals(a.getActivo()) && Boolean.FALSE.equals(a.getEliminado()))
-                .map(alojamientoMapper::toDTO)
-                .collect(Collectors.toList());
+    public List<AlojamientoTarjetaDTO> buscarPorCiudad(String ciudad) {
+        return aTarjetas(alojamientoRepository.findTarjetasActivasPorCiudad(TextoUtil.normalizar(ciudad)));
     }
 
+    /**
+     * Tarjetas de los alojamientos activos con precio por noche en [precioMin, precioMax],
+     * del más barato al más caro.
+     */
     @Transactional(readOnly = true)
-    public List<AlojamientoDTO> buscarPorRangoPrecio(Double precioMin, Double precioMax) {
-        return alojamientoRepository.findByPrecioPorNocheBetween(precioMin, precioMax).stream()
-                .filter(AlojamientoEntity::getActivo)
-                .map(alojamientoMapper::toDTO)
-                .collect(Collectors.toList());
+    public List<AlojamientoTarjetaDTO> buscarPorRangoPrecio(Double precioMin, Double precioMax) {
+        return aTarjetas(alojamientoRepository.findTarjetasActivasPorPrecio(
+                BigDecimal.valueOf(precioMin), BigDecimal.valueOf(precioMax)));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Detalle de un alojamiento, servido desde AlojamientoDetalleCache; solo un
+     * fallo de caché consulta la base de datos (sin abrir transacción en los aciertos).
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public AlojamientoDTO obtenerPorId(Integer id) {
+        return detalleCache.obtener(id, this::cargarDetalle);
+    }
+
+    private AlojamientoDTO cargarDetalle(Integer id) {
         AlojamientoEntity entity = alojamientoRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Alojamiento no encontrado con id: " + id));
 
@@ -174,10 +232,49 @@ public class AlojamientoService {
     }
 
     @Transactional(readOnly = true)
-    public List<AlojamientoDTO> listarActivos() {
-        return alojamientoRepository.findByActivoTrue().stream()
-                .filter(a -> Boolean.FALSE.equals(a.getEliminado()))
-                .map(alojamientoMapper::toDTO)
+    public List<AlojamientoTarjetaDTO> listarActivos() {
+        return aTarjetas(alojamientoRepository.findTarjetasActivas());
+    }
+
+    // ── Listados paginados por cursor (orden estable por id) ─────────────
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlojamientoTarjetaDTO> listarActivosPaginado(Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+        return paginaDeTarjetas(alojamientoRepository.findTarjetasActivasDespuesDe(
+                despuesId, PaginacionUtil.limiteConSiguiente(tamano)), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlojamientoTarjetaDTO> buscarPorCiudadPaginado(String ciudad, Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+        return paginaDeTarjetas(alojamientoRepository.findTarjetasActivasPorCiudadDespuesDe(
+                TextoUtil.normalizar(ciudad), despuesId, PaginacionUtil.limiteConSiguiente(tamano)), tamano);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlojamientoDTO> listarPorAnfitrionPaginado(Integer hostId, Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+        return paginaPorId(alojamientoRepository.findActivosPorAnfitrionDespuesDe(
+                hostId, despuesId, PaginacionUtil.limiteConSiguiente(tamano)), tamano);
+    }
+
+    private PaginaDTO<AlojamientoDTO> paginaPorId(List<AlojamientoEntity> filas, int tamano) {
+        return PaginacionUtil.construirPagina(filas, tamano,
+                a -> CursorCodec.codificar(a.getId()), alojamientoMapper::toDTO);
+    }
+
+    private PaginaDTO<AlojamientoTarjetaDTO> paginaDeTarjetas(List<AlojamientoTarjetaView> filas, int tamano) {
+        return PaginacionUtil.construirPagina(filas, tamano,
+                t -> CursorCodec.codificar(t.getId()), alojamientoMapper::toTarjetaDTO);
+    }
+
+    private List<AlojamientoTarjetaDTO> aTarjetas(List<AlojamientoTarjetaView> filas) {
+        return filas.stream()
+                .map(alojamientoMapper::toTarjetaDTO)
                 .collect(Collectors.toList());
     }
 
@@ -201,12 +298,253 @@ public class AlojamientoService {
      * @param latRef   Latitud del punto de referencia (-90 a 90)
      * @param lngRef   Longitud del punto de referencia (-180 a 180)
      * @param radioKm  Radio de búsqueda en kilómetros (> 0)
-     * @return Lista de AlojamientoDTO dentro del radio, ordenada por distancia ascendente
+     * @return Tarjetas de los alojamientos dentro del radio, ordenadas por distancia ascendente
+     */
+    @Transactional(readOnly = true)
+    public List<AlojamientoTarjetaDTO> buscarCercanos(Double latRef, Double lngRef, Double radioKm) {
+
+        validarParametrosUbicacion(latRef, lngRef, radioKm);
+
+        inicializarGeoIndiceSiHaceFalta();
+
+        // El índice devuelve los IDs dentro del radio ya ordenados por distancia
+        List<Integer> ids = geoIndice.buscar(latRef, lngRef, radioKm).stream()
+                .map(GeoIndiceAlojamientos.Resultado::id)
+                .collect(Collectors.toList());
+
+        return cargarTarjetasEnOrden(ids);
+    }
+
+    /**
+     * ALOJ-18: búsqueda por ubicación paginada, resuelta en la base de datos.
+     * Prefiltra por una caja lat/lng indexada, refina con Haversine exacto y
+     * pagina por cursor sobre (distancia, id), así la respuesta queda acotada
+     * aunque el radio cubra una ciudad entera.
+     *
+     * @param limite  tamaño de página (1 a {@value PaginacionUtil#LIMITE_MAXIMO_PAGINA})
+     * @param cursor  cursor devuelto por la página anterior, o null para la primera
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlojamientoTarjetaDTO> buscarCercanosPaginado(Double latRef, Double lngRef, Double radioKm,
+                                                                   Integer limite, String cursor) {
+        validarParametrosUbicacion(latRef, lngRef, radioKm);
+        int tamano = PaginacionUtil.validarLimite(limite);
+
+        double despuesDistancia = -1;
+        int    despuesId        = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = CursorCodec.decodificar(cursor, 2);
+            try {
+                despuesDistancia = Double.parseDouble(partes[0]);
+                despuesId        = Integer.parseInt(partes[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+        }
+
+        // Caja que envuelve el círculo; cerca de los polos o del antimeridiano se abre a todo el rango
+        double deltaLat = radioKm / KM_POR_GRADO;
+        double latMin   = Math.max(-90, latRef - deltaLat);
+        double latMax   = Math.min(90, latRef + deltaLat);
+        double cosLat   = Math.cos(Math.toRadians(Math.max(Math.abs(latMin), Math.abs(latMax))));
+        double deltaLng = cosLat > 0 ? radioKm / (KM_POR_GRADO * cosLat) : 360;
+        double lngMin   = lngRef - deltaLng;
+        double lngMax   = lngRef + deltaLng;
+        if (latMin <= -90 || latMax >= 90 || lngMin < -180 || lngMax > 180) {
+            lngMin = -180;
+            lngMax = 180;
+        }
+
+        // Se pide una fila extra para saber si hay página siguiente
+        List<AlojamientoDistanciaView> filas = alojamientoRepository.findCercanosEnCaja(
+                latRef, lngRef, latMin, latMax, lngMin, lngMax, radioKm,
+                despuesDistancia, despuesId, tamano + 1);
+
+        boolean hayMas = filas.size() > tamano;
+        List<AlojamientoDistanciaView> pagina = hayMas ? filas.subList(0, tamano) : filas;
+
+        List<Integer> ids = pagina.stream()
+                .map(AlojamientoDistanciaView::getId)
+                .collect(Collectors.toList());
+
+        String siguiente = null;
+        if (hayMas) {
+            AlojamientoDistanciaView ultima = pagina.get(pagina.size() - 1);
+            siguiente = CursorCodec.codificar(ultima.getDistancia(), ultima.getId());
+        }
+
+        return PaginaDTO.<AlojamientoTarjetaDTO>builder()
+                .items(cargarTarjetasEnOrden(ids))
+                .nextCursor(siguiente)
+                .hasNext(hayMas)
+                .build();
+    }
+
+    // ============================================================
+    // Búsqueda por fechas: alojamientos libres en [inicio, fin)
+    // ============================================================
+
+    /**
+     * Alojamientos activos sin reservas CONFIRMADA/PENDIENTE que se solapen con
+     * [inicio, fin), opcionalmente en una ciudad. La base de datos entrega los IDs
+     * candidatos posteriores al cursor por tramos; la disponibilidad se resuelve con
+     * el índice de noches ocupadas, sin consultar la tabla reserva. Paginado por
+     * cursor sobre el id.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlojamientoDTO> buscarDisponibles(String ciudad, String inicio, String fin,
+                                                       Integer limite, String cursor) {
+        LocalDate fechaInicio = parsearFecha(inicio);
+        LocalDate fechaFin    = parsearFecha(fin);
+        if (!fechaFin.isAfter(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+        if (fechaInicio.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La fecha de inicio no puede ser anterior a hoy");
+        }
+        int tamano    = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+
+        inicializarDisponibilidadSiHaceFalta();
+
+        String ciudadNorm = ciudad == null || ciudad.isBlank() ? null : TextoUtil.normalizar(ciudad);
+        Pageable tramo = PageRequest.of(0, Math.max(tamano + 1, TRAMO_CANDIDATOS_DISPONIBLES));
+
+        // Pide los candidatos por tramos de id hasta juntar limite + 1 libres
+        List<Integer> libres = new ArrayList<>();
+        int desde = despuesId;
+        while (libres.size() <= tamano) {
+            List<Integer> candidatos = ciudadNorm == null
+                    ? alojamientoRepository.findIdsActivosDespuesDe(desde, tramo)
+                    : alojamientoRepository.findIdsActivosPorCiudadDespuesDe(ciudadNorm, desde, tramo);
+            if (candidatos.isEmpty()) break;
+            libres.addAll(disponibilidadIndice.filtrarLibres(candidatos, fechaInicio, fechaFin));
+            if (candidatos.size() < tramo.getPageSize()) break;
+            desde = candidatos.get(candidatos.size() - 1);
+        }
+
+        boolean hayMas = libres.size() > tamano;
+        List<Integer> pagina = hayMas ? libres.subList(0, tamano) : libres;
+
+        return PaginaDTO.<AlojamientoDTO>builder()
+                .items(cargarActivosEnOrden(pagina))
+                .nextCursor(hayMas ? CursorCodec.codificar(pagina.get(pagina.size() - 1)) : null)
+                .hasNext(hayMas)
+                .build();
+    }
+
+    /**
+     * Calendario de noches ocupadas de un alojamiento, desde el índice de disponibilidad.
+     * Por defecto de hoy a {@value #CALENDARIO_MESES_POR_DEFECTO} meses; como máximo
+     * {@value #CALENDARIO_MESES_MAXIMO} meses.
+     */
+    @Transactional(readOnly = true)
+    public CalendarioDTO obtenerCalendario(Integer id, String desde, String hasta) {
+        LocalDate fechaDesde = desde == null || desde.isBlank() ? LocalDate.now() : parsearFecha(desde);
+        LocalDate fechaHasta = hasta == null || hasta.isBlank()
+                ? fechaDesde.plusMonths(CALENDARIO_MESES_POR_DEFECTO) : parsearFecha(hasta);
+        if (fechaDesde.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La fecha desde no puede ser anterior a hoy");
+        }
+        if (!fechaHasta.isAfter(fechaDesde)) {
+            throw new IllegalArgumentException("La fecha hasta debe ser posterior a la fecha desde");
+        }
+        if (fechaHasta.isAfter(fechaDesde.plusMonths(CALENDARIO_MESES_MAXIMO))) {
+            throw new IllegalArgumentException(
+                    "El calendario abarca como máximo " + CALENDARIO_MESES_MAXIMO + " meses");
+        }
+        if (!alojamientoRepository.existsById(id)) {
+            throw new IllegalArgumentException("Alojamiento no encontrado con ID: " + id);
+        }
+
+        inicializarDisponibilidadSiHaceFalta();
+        List<int[]> rachas = disponibilidadIndice.rachasOcupadas(id, fechaDesde, fechaHasta);
+
+        return CalendarioDTO.builder()
+                .lodgingId(id)
+                .from(fechaDesde.toString())
+                .to(fechaHasta.toString())
+                .nights((int) ChronoUnit.DAYS.between(fechaDesde, fechaHasta))
+                .occupiedNights(rachas.stream().mapToInt(r -> r[1]).sum())
+                .occupied(rachas)
+                .build();
+    }
+
+    // ============================================================
+    // Búsqueda por texto libre sobre nombre y descripción
+    // ============================================================
+
+    /**
+     * Alojamientos activos que contienen alguno de los términos de la consulta,
+     * ordenados por relevancia (BM25). Tildes, mayúsculas y plurales no importan.
+     * Se puede acotar por ciudad y rango de precio por noche.
+     *
+     * @param limite máximo de resultados (1 a {@value PaginacionUtil#LIMITE_MAXIMO_PAGINA})
      */
     @Transactional(readOnly = true)
-    public List<AlojamientoDTO> buscarCercanos(Double latRef, Double lngRef, Double radioKm) {
+    public List<AlojamientoDTO> buscarPorTexto(String consulta, String ciudad, Double precioMin, Double precioMax,
+                                               Integer limite) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("El texto de búsqueda es obligatorio");
+        }
+        if ((precioMin != null && precioMin < 0) || (precioMax != null && precioMax < 0)
+                || (precioMin != null && precioMax != null && precioMax < precioMin)) {
+            throw new IllegalArgumentException("Rango de precios inválido");
+        }
+        int tamano = PaginacionUtil.validarLimite(limite);
+
+        inicializarTextoIndiceSiHaceFalta();
 
-        // Validar parámetros
+        List<Integer> ids = textoIndice.buscar(consulta, ciudad, precioMin, precioMax, tamano).stream()
+                .map(TextoIndiceAlojamientos.Resultado::id)
+                .collect(Collectors.toList());
+
+        return cargarActivosEnOrden(ids);
+    }
+
+    // ============================================================
+    // Sugerencias de ciudades mientras se escribe
+    // ============================================================
+
+    /**
+     * Ciudades con alojamientos activos que empiezan por el prefijo, sin importar
+     * mayúsculas ni tildes, ordenadas por cantidad de alojamientos. Se resuelve
+     * en memoria, sin consultar la base de datos en cada tecla.
+     *
+     * @param limite máximo de sugerencias (1 a {@value #SUGERENCIAS_MAXIMO})
+     */
+    @Transactional(readOnly = true)
+    public List<SugerenciaCiudadDTO> sugerirCiudades(String prefijo, Integer limite) {
+        int tamano = limite == null ? SUGERENCIAS_POR_DEFECTO : limite;
+        if (tamano < 1 || tamano > SUGERENCIAS_MAXIMO) {
+            throw new IllegalArgumentException("El límite de sugerencias debe estar entre 1 y " + SUGERENCIAS_MAXIMO);
+        }
+        if (prefijo == null || prefijo.isBlank()) {
+            return List.of();
+        }
+
+        inicializarTrieCiudadesSiHaceFalta();
+
+        return trieCiudades.sugerir(prefijo, tamano).stream()
+                .map(s -> SugerenciaCiudadDTO.builder()
+                        .city(s.ciudad())
+                        .count(s.alojamientos())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private LocalDate parsearFecha(String fecha) {
+        if (fecha == null || fecha.isBlank()) {
+            throw new IllegalArgumentException("Las fechas de inicio y fin son obligatorias");
+        }
+        try {
+            return LocalDate.parse(fecha.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Formato de fecha inválido: " + fecha + " (use yyyy-MM-dd)");
+        }
+    }
+
+    private void validarParametrosUbicacion(Double latRef, Double lngRef, Double radioKm) {
         if (latRef == null || lngRef == null || radioKm == null) {
             throw new IllegalArgumentException("Los parámetros de ubicación y radio son obligatorios");
         }
@@ -219,44 +557,177 @@ public class AlojamientoService {
         if (radioKm <= 0) {
             throw new IllegalArgumentException("El radio de búsqueda debe ser mayor a 0");
         }
+    }
 
-        return alojamientoRepository.findByActivoTrue().stream()
-                .filter(a -> Boolean.FALSE.equals(a.getEliminado()))
-                .filter(a -> a.getLatitud() != null && a.getLongitud() != null)
-                .filter(a -> calcularDistanciaKm(
-                        latRef, lngRef,
-                        a.getLatitud().doubleValue(),
-                        a.getLongitud().doubleValue()) <= radioKm)
-                .sorted(Comparator.comparingDouble(a -> calcularDistanciaKm(
-                        latRef, lngRef,
-                        a.getLatitud().doubleValue(),
-                        a.getLongitud().doubleValue())))
+    /**
+     * Tarjetas de los alojamientos visibles con una sola consulta, en el orden de los IDs recibidos.
+     */
+    private List<AlojamientoTarjetaDTO> cargarTarjetasEnOrden(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, AlojamientoTarjetaView> porId = alojamientoRepository.findTarjetasActivasPorIds(ids).stream()
+                .collect(Collectors.toMap(AlojamientoTarjetaView::getId, Function.identity()));
+
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(alojamientoMapper::toTarjetaDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Carga los alojamientos con una sola consulta y respeta el orden de los IDs recibidos.
+     */
+    private List<AlojamientoDTO> cargarActivosEnOrden(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, AlojamientoEntity> porId = alojamientoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(AlojamientoEntity::getId, Function.identity()));
+
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .filter(a -> Boolean.TRUE.equals(a.getActivo()) && Boolean.FALSE.equals(a.getEliminado()))
                 .map(alojamientoMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    // ── ALOJ-18: mantenimiento de los índices en memoria ─────────────────
+
     /**
-     * Fórmula de Haversine: calcula la distancia en km entre dos puntos
-     * geográficos dados en grados decimales.
-     *
-     * @param lat1 Latitud del punto 1
-     * @param lon1 Longitud del punto 1
-     * @param lat2 Latitud del punto 2
-     * @param lon2 Longitud del punto 2
-     * @return Distancia en kilómetros
+     * Vuelve a leer de la base los índices que ya se cargaron. Cada instancia solo
+     * aplica los cambios que se confirman en ella (despuesDelCommit); con varias
+     * instancias, esta recarga trae cada {@code app.indices.recarga-ms} los que se
+     * confirmaron en las demás. Los cambios locales que llegan durante la lectura
+     * no se pierden (RecargaIndice).
      */
-    private double calcularDistanciaKm(double lat1, double lon1, double lat2, double lon2) {
-        final double RADIO_TIERRA_KM = 6371.0;
+    @Scheduled(fixedDelayString = "${app.indices.recarga-ms:300000}",
+               initialDelayString = "${app.indices.recarga-ms:300000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recargarIndices() {
+        if (geoIndice.estaInicializado()) recargar("geográfico", this::recargarGeoIndice);
+        if (disponibilidadIndice.estaInicializado()) recargar("de disponibilidad", this::recargarDisponibilidad);
+        if (textoIndice.estaInicializado()) recargar("de texto", this::recargarTextoIndice);
+        if (trieCiudades.estaInicializado()) recargar("de ciudades", this::recargarTrieCiudades);
+    }
 
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
+    private void recargar(String indice, Runnable recarga) {
+        try {
+            recarga.run();
+        } catch (RuntimeException e) {
+            log.warn("[AlojamientoService] No se pudo recargar el índice {}: {}", indice, e.getMessage());
+        }
+    }
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    /**
+     * Carga el índice la primera vez que se consulta, leyendo solo id y coordenadas.
+     */
+    private void inicializarGeoIndiceSiHaceFalta() {
+        if (geoIndice.estaInicializado()) return;
+        synchronized (geoIndice) {
+            if (geoIndice.estaInicializado()) return;
+            recargarGeoIndice();
+        }
+    }
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    private void recargarGeoIndice() {
+        geoIndice.recargar(() -> {
+            Map<Integer, double[]> coordenadas = new HashMap<>();
+            alojamientoRepository.findCoordenadasActivas().forEach(c -> {
+                if (c.getLatitud() != null && c.getLongitud() != null) {
+                    coordenadas.put(c.getId(), new double[]{
+                            c.getLatitud().doubleValue(), c.getLongitud().doubleValue()});
+                }
+            });
+            return coordenadas;
+        });
+    }
 
-        return RADIO_TIERRA_KM * c;
+    /**
+     * Carga el índice de disponibilidad la primera vez que se consulta,
+     * con las reservas vigentes que aún no terminan.
+     */
+    private void inicializarDisponibilidadSiHaceFalta() {
+        if (disponibilidadIndice.estaInicializado()) return;
+        synchronized (disponibilidadIndice) {
+            if (disponibilidadIndice.estaInicializado()) return;
+            recargarDisponibilidad();
+        }
+    }
+
+    private void recargarDisponibilidad() {
+        disponibilidadIndice.recargar(() -> reservaRepository
+                .findOcupacionesDesde(DisponibilidadIndice.ESTADOS_QUE_OCUPAN, LocalDate.now()).stream()
+                .map(o -> new DisponibilidadIndice.Ocupacion(o.getAlojamientoId(), o.getFechaInicio(), o.getFechaFin()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Carga el índice de texto la primera vez que se consulta.
+     */
+    private void inicializarTextoIndiceSiHaceFalta() {
+        if (textoIndice.estaInicializado()) return;
+        synchronized (textoIndice) {
+            if (textoIndice.estaInicializado()) return;
+            recargarTextoIndice();
+        }
+    }
+
+    private void recargarTextoIndice() {
+        textoIndice.recargar(() -> alojamientoRepository.findTextoActivos().stream()
+                .map(t -> new TextoIndiceAlojamientos.Entrada(t.getId(), t.getNombre(), t.getDescripcion(),
+                        t.getCiudad(), t.getPrecioPorNoche() == null ? null : t.getPrecioPorNoche().doubleValue()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Carga el trie de ciudades la primera vez que se consulta, leyendo solo id y ciudad.
+     */
+    private void inicializarTrieCiudadesSiHaceFalta() {
+        if (trieCiudades.estaInicializado()) return;
+        synchronized (trieCiudades) {
+            if (trieCiudades.estaInicializado()) return;
+            recargarTrieCiudades();
+        }
+    }
+
+    private void recargarTrieCiudades() {
+        trieCiudades.recargar(() -> {
+            Map<Integer, String> ciudades = new HashMap<>();
+            alojamientoRepository.findCiudadesActivas().forEach(c -> ciudades.put(c.getId(), c.getCiudad()));
+            return ciudades;
+        });
+    }
+
+    /**
+     * Refleja en los índices el estado guardado e invalida el detalle en caché: solo los activos y no eliminados
+     * participan en la búsqueda por ubicación (si tienen coordenadas), por texto
+     * y en las sugerencias de ciudades.
+     */
+    private void sincronizarIndices(AlojamientoEntity entity) {
+        if (entity == null || entity.getId() == null) return;
+        Integer id = entity.getId();
+        boolean visible = Boolean.TRUE.equals(entity.getActivo()) && !Boolean.TRUE.equals(entity.getEliminado());
+        Double lat = visible && entity.getLatitud()  != null ? entity.getLatitud().doubleValue()  : null;
+        Double lng = visible && entity.getLongitud() != null ? entity.getLongitud().doubleValue() : null;
+        String ciudad = visible ? entity.getCiudad() : null;
+        TextoIndiceAlojamientos.Entrada texto = visible
+                ? new TextoIndiceAlojamientos.Entrada(id, entity.getNombre(), entity.getDescripcion(), entity.getCiudad(),
+                        entity.getPrecioPorNoche() == null ? null : entity.getPrecioPorNoche().doubleValue())
+                : null;
+        TransaccionUtil.despuesDelCommit(() -> {
+            detalleCache.invalidar(id);
+            geoIndice.indexar(id, lat, lng);
+            trieCiudades.indexar(id, ciudad);
+            if (texto != null) {
+                textoIndice.indexar(texto);
+            } else {
+                textoIndice.eliminar(id);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -124,11 +124,8 @@ public class AuthService {
         codigoRepository.save(entidad);
         codigoRepository.flush();
 
-        try {
-            emailService.enviarCodigoRecuperacion(correo, codigo);
-        } catch (Exception e) {
-            throw new RuntimeException("El código fue generado pero no se pudo enviar el email. Verifica la configuración de correo.");
-        }
+        // Se encola en esta misma transacción; CorreoRelay lo envía en segundo plano
+        emailService.enviarCodigoRecuperacion(correo, codigo);
 
         return "Código de recuperación enviado a " + correo;
     }
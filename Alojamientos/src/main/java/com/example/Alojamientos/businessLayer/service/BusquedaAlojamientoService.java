@@ -0,0 +1,231 @@
+package com.example.Alojamientos.businessLayer.service;
+
+import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.FacetaDTO;
+import com.example.Alojamientos.businessLayer.dto.FiltroBusquedaDTO;
+import com.example.Alojamientos.businessLayer.dto.ResultadoBusquedaDTO;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ServicioEntity;
+import com.example.Alojamientos.persistenceLayer.mapper.AlojamientoDataMapper;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import com.example.Alojamientos.persistenceLayer.repository.ServicioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.Alojamientos.persistenceLayer.repository.AlojamientoSpecifications.*;
+
+/**
+ * Búsqueda unificada de alojamientos (GET /api/alojamientos/search).
+ *
+ * Combina ciudad, precio, capacidad, servicios, disponibilidad y radio en una
+ * sola consulta con Specifications, pagina y ordena en la base de datos y
+ * calcula las facetas (tramos de precio y servicios) con GROUP BY en la misma petición.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class BusquedaAlojamientoService {
+
+    public static final int TAMANO_POR_DEFECTO = 20;
+    public static final int TAMANO_MAXIMO      = 100;
+
+    /** Límites superiores (COP) de los tramos de precio de la faceta. */
+    static final List<BigDecimal> LIMITES_PRECIO = List.of(
+            BigDecimal.valueOf(100_000),
+            BigDecimal.valueOf(200_000),
+            BigDecimal.valueOf(400_000),
+            BigDecimal.valueOf(800_000));
+
+    private static final Map<String, Sort> ORDENES = Map.of(
+            "recientes",    Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id")),
+            "precio_asc",   Sort.by(Sort.Order.asc("precioPorNoche"), Sort.Order.asc("id")),
+            "precio_desc",  Sort.by(Sort.Order.desc("precioPorNoche"), Sort.Order.asc("id")),
+            "capacidad",    Sort.by(Sort.Order.desc("capacidadMaxima"), Sort.Order.asc("id")),
+            // Agregados guardados en el alojamiento: no consulta la tabla comentario
+            "calificacion", Sort.by(Sort.Order.desc("calificacionPromedio"),
+                    Sort.Order.desc("calificacionesTotal"), Sort.Order.asc("id")));
+
+    private final AlojamientoRepository alojamientoRepository;
+    private final ServicioRepository servicioRepository;
+    private final AlojamientoDataMapper alojamientoMapper;
+
+    public ResultadoBusquedaDTO buscar(FiltroBusquedaDTO filtro) {
+        int pagina = filtro.getPage() == null ? 0 : filtro.getPage();
+        int tamano = filtro.getSize() == null ? TAMANO_POR_DEFECTO : filtro.getSize();
+        if (pagina < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo");
+        }
+        if (tamano < 1 || tamano > TAMANO_MAXIMO) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + TAMANO_MAXIMO);
+        }
+
+        String claveOrden = filtro.getSort() == null || filtro.getSort().isBlank()
+                ? "recientes" : filtro.getSort().trim().toLowerCase();
+        Sort orden = ORDENES.get(claveOrden);
+        if (orden == null) {
+            throw new IllegalArgumentException("Orden no soportado: " + filtro.getSort());
+        }
+
+        // La faceta de precio ignora el filtro de precio para mostrar a dónde se puede ampliar
+        List<Specification<AlojamientoEntity>> sinPrecio = filtrosSinPrecio(filtro);
+        List<Specification<AlojamientoEntity>> todos = new ArrayList<>(sinPrecio);
+        todos.addAll(filtrosDePrecio(filtro));
+
+        Specification<AlojamientoEntity> especificacion = Specification.allOf(todos);
+
+        Page<AlojamientoEntity> resultados =
+                alojamientoRepository.findAll(especificacion, PageRequest.of(pagina, tamano, orden));
+
+        List<FacetaDTO> tramos = construirFacetaPrecio(
+                alojamientoRepository.contarPorTramoPrecio(Specification.allOf(sinPrecio), LIMITES_PRECIO));
+        List<FacetaDTO> servicios = construirFacetaServicios(
+                alojamientoRepository.contarPorServicio(especificacion));
+
+        List<AlojamientoDTO> items = resultados.getContent().stream()
+                .map(alojamientoMapper::toDTO)
+                .collect(Collectors.toList());
+
+        return ResultadoBusquedaDTO.builder()
+                .items(items)
+                .page(pagina)
+                .size(tamano)
+                .totalElements(resultados.getTotalElements())
+                .totalPages(resultados.getTotalPages())
+                .priceRanges(tramos)
+                .amenities(servicios)
+                .build();
+    }
+
+    // ── Construcción de filtros ──────────────────────────────────────────
+
+    private List<Specification<AlojamientoEntity>> filtrosSinPrecio(FiltroBusquedaDTO filtro) {
+        List<Specification<AlojamientoEntity>> specs = new ArrayList<>();
+        specs.add(activosNoEliminados());
+
+        if (filtro.getCity() != null && !filtro.getCity().isBlank()) {
+            specs.add(enCiudad(filtro.getCity()));
+        }
+
+        if (filtro.getMinCapacity() != null) {
+            if (filtro.getMinCapacity() < 1) {
+                throw new IllegalArgumentException("La capacidad mínima debe ser al menos 1 huésped");
+            }
+            specs.add(capacidadMinima(filtro.getMinCapacity()));
+        }
+
+        if (filtro.getAmenities() != null && !filtro.getAmenities().isEmpty()) {
+            specs.add(conServicios(filtro.getAmenities().stream().distinct().collect(Collectors.toList())));
+        }
+
+        boolean conLlegada = filtro.getCheckIn() != null && !filtro.getCheckIn().isBlank();
+        boolean conSalida  = filtro.getCheckOut() != null && !filtro.getCheckOut().isBlank();
+        if (conLlegada || conSalida) {
+            if (!(conLlegada && conSalida)) {
+                throw new IllegalArgumentException("Debe indicar la fecha de llegada y la de salida");
+            }
+            LocalDate llegada = parsearFecha(filtro.getCheckIn());
+            LocalDate salida  = parsearFecha(filtro.getCheckOut());
+            if (!salida.isAfter(llegada)) {
+                throw new IllegalArgumentException("La fecha de salida debe ser posterior a la de llegada");
+            }
+            specs.add(disponibleEntre(llegada, salida));
+        }
+
+        if (filtro.getLat() != null || filtro.getLng() != null || filtro.getRadiusKm() != null) {
+            if (filtro.getLat() == null || filtro.getLng() == null || filtro.getRadiusKm() == null) {
+                throw new IllegalArgumentException("Los parámetros de ubicación y radio son obligatorios");
+            }
+            if (filtro.getLat() < -90 || filtro.getLat() > 90) {
+                throw new IllegalArgumentException("La latitud debe estar entre -90 y 90");
+            }
+            if (filtro.getLng() < -180 || filtro.getLng() > 180) {
+                throw new IllegalArgumentException("La longitud debe estar entre -180 y 180");
+            }
+            if (filtro.getRadiusKm() <= 0) {
+                throw new IllegalArgumentException("El radio de búsqueda debe ser mayor a 0");
+            }
+            specs.add(dentroDeRadio(filtro.getLat(), filtro.getLng(), filtro.getRadiusKm()));
+        }
+
+        return specs;
+    }
+
+    private List<Specification<AlojamientoEntity>> filtrosDePrecio(FiltroBusquedaDTO filtro) {
+        Double min = filtro.getMinPrice();
+        Double max = filtro.getMaxPrice();
+        if ((min != null && min < 0) || (max != null && max < 0) || (min != null && max != null && max < min)) {
+            throw new IllegalArgumentException("Rango de precios inválido");
+        }
+
+        List<Specification<AlojamientoEntity>> specs = new ArrayList<>();
+        if (min != null) specs.add(precioDesde(min));
+        if (max != null) specs.add(precioHasta(max));
+        return specs;
+    }
+
+    private LocalDate parsearFecha(String fecha) {
+        try {
+            return LocalDate.parse(fecha.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Formato de fecha inválido: " + fecha + " (use yyyy-MM-dd)");
+        }
+    }
+
+    // ── Facetas ──────────────────────────────────────────────────────────
+
+    private List<FacetaDTO> construirFacetaPrecio(Map<Integer, Long> conteos) {
+        List<FacetaDTO> tramos = new ArrayList<>();
+        for (int i = 0; i <= LIMITES_PRECIO.size(); i++) {
+            BigDecimal desde = i == 0 ? BigDecimal.ZERO : LIMITES_PRECIO.get(i - 1);
+            BigDecimal hasta = i < LIMITES_PRECIO.size() ? LIMITES_PRECIO.get(i) : null;
+
+            String clave    = hasta == null ? desde.toPlainString() + "+" : desde.toPlainString() + "-" + hasta.toPlainString();
+            String etiqueta = hasta == null ? "Desde $" + formatear(desde) : "$" + formatear(desde) + " - $" + formatear(hasta);
+
+            tramos.add(FacetaDTO.builder()
+                    .key(clave)
+                    .label(etiqueta)
+                    .count(conteos.getOrDefault(i, 0L))
+                    .build());
+        }
+        return tramos;
+    }
+
+    private List<FacetaDTO> construirFacetaServicios(Map<Integer, Long> conteos) {
+        if (conteos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, String> nombres = servicioRepository.findAllById(conteos.keySet()).stream()
+                .collect(Collectors.toMap(ServicioEntity::getId, ServicioEntity::getNombre));
+
+        return conteos.entrySet().stream()
+                .map(e -> FacetaDTO.builder()
+                        .key(String.valueOf(e.getKey()))
+                        .label(nombres.getOrDefault(e.getKey(), "Servicio " + e.getKey()))
+                        .count(e.getValue())
+                        .build())
+                .sorted((a, b) -> a.getCount() != b.getCount()
+                        ? Long.compare(b.getCount(), a.getCount())
+                        : a.getLabel().compareToIgnoreCase(b.getLabel()))
+                .collect(Collectors.toList());
+    }
+
+    private static String formatear(BigDecimal valor) {
+        return String.format(Locale.ROOT, "%,d", valor.longValue()).replace(',', '.');
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.businessLayer.cache.AlojamientoDetalleCache;
 import com.example.Alojamientos.businessLayer.dto.ComentarioDTO;
-import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
 import com.example.Alojamientos.persistenceLayer.entity.ComentarioEntity;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.businessLayer.util.TransaccionUtil;
 import com.example.Alojamientos.persistenceLayer.mapper.ComentarioDataMapper;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ComentarioRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,10 +29,13 @@ import java.util.stream.Collectors;
 @Transactional
 public class ComentarioService {
 
-    private final ComentarioRepository comentarioRepository;
-    private final ReservaRepository    reservaRepository;
-    private final ComentarioDataMapper comentarioMapper;
-    private final NotificacionService  notificacionService;
+    private final ComentarioRepository    comentarioRepository;
+    private final ReservaRepository       reservaRepository;
+    private final ComentarioDataMapper    comentarioMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventoOutboxPublicador  eventoOutbox;
+    private final AlojamientoRepository   alojamientoRepository;
+    private final AlojamientoDetalleCache detalleCache;
 
     /**
      * RF25, HU-025: Crear comentario y calificación
@@ -78,20 +88,24 @@ public class ComentarioService {
         ComentarioEntity entity = comentarioMapper.toEntity(dto);
         entity.setAlojamiento(reserva.getAlojamiento());
         ComentarioEntity saved = comentarioRepository.save(entity);
+        actualizarCalificaciones(reserva.getAlojamiento().getId(), dto.getRating(), true);
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.COMENTARIO_CREADO, saved.getId(),
+                "alojamientoId", reserva.getAlojamiento().getId(), "reservaId", reserva.getId(),
+                "calificacion", dto.getRating());
 
-        // RF28: Notificar al anfitrión sobre el nuevo comentario
+        // RF28: Notificar al anfitrión sobre el nuevo comentario (se guarda después del commit)
         try {
             Integer anfitrionId = reserva.getAlojamiento().getAnfitrion().getId();
             String  nombreAloj  = reserva.getAlojamiento().getNombre();
             String  estrellas   = "★".repeat(dto.getRating()) + "☆".repeat(5 - dto.getRating());
-            notificacionService.crearNotificacion(NotificacionDTO.builder()
-                    .userId(anfitrionId)
-                    .type("OTRO")
-                    .title("Nuevo comentario recibido")
-                    .message("Tu alojamiento \"" + nombreAloj + "\" recibió una reseña " +
-                            estrellas + ": \"" + truncar(dto.getText(), 80) + "\"")
-                    .read(false)
-                    .build());
+            eventPublisher.publishEvent(new NotificacionEvento(
+                    anfitrionId,
+                    NotificacionEntity.TipoNotificacion.OTRO,
+                    "Nuevo comentario recibido",
+                    "Tu alojamiento \"" + nombreAloj + "\" recibió una reseña " +
+                            estrellas + ": \"" + truncar(dto.getText(), 80) + "\"",
+                    "comentarios:" + reserva.getAlojamiento().getId(),
+                    "%d reseñas más en \"" + nombreAloj + "\""));
         } catch (Exception e) {
             log.warn("[ComentarioService] No se pudo crear notificación al anfitrión: {}", e.getMessage());
         }
@@ -121,20 +135,12 @@ public class ComentarioService {
     }
 
     /**
-     * RF27: Calcular promedio de calificaciones de un alojamiento
+     * RF27: Promedio de calificaciones de un alojamiento (0.0 si no tiene comentarios).
+     * Se lee de los agregados del alojamiento, sin cargar sus comentarios.
      */
     @Transactional(readOnly = true)
     public Double obtenerPromedioCalificaciones(Integer alojamientoId) {
-        List<ComentarioEntity> comentarios =
-                comentarioRepository.findByAlojamiento_IdOrderByFechaCreacionDesc(alojamientoId);
-
-        if (comentarios.isEmpty()) return 0.0;
-
-        double suma = comentarios.stream()
-                .mapToInt(ComentarioEntity::getCalificacion)
-                .sum();
-
-        return suma / comentarios.size();
+        return alojamientoRepository.findCalificacionPromedio(alojamientoId).orElse(0.0);
     }
 
     /**
@@ -155,9 +161,23 @@ public class ComentarioService {
      * RN23, RN24: Eliminar comentario (solo admin o moderación)
      */
     public void eliminarComentario(Integer id) {
-        if (!comentarioRepository.existsById(id))
-            throw new IllegalArgumentException("Comentario no encontrado");
-        comentarioRepository.deleteById(id);
+        ComentarioEntity entity = comentarioRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Comentario no encontrado"));
+        comentarioRepository.delete(entity);
+        actualizarCalificaciones(entity.getAlojamiento().getId(), entity.getCalificacion(), false);
+    }
+
+    /**
+     * Ajusta los agregados de calificaciones del alojamiento en la misma
+     * transacción que el comentario y descarta su detalle en caché tras el commit.
+     */
+    private void actualizarCalificaciones(Integer alojamientoId, int calificacion, boolean suma) {
+        if (suma) {
+            alojamientoRepository.registrarCalificacion(alojamientoId, calificacion);
+        } else {
+            alojamientoRepository.retirarCalificacion(alojamientoId, calificacion);
+        }
+        TransaccionUtil.despuesDelCommit(() -> detalleCache.invalidar(alojamientoId));
     }
 
     // ── Utilidad interna ─────────────────────────────────────────────────
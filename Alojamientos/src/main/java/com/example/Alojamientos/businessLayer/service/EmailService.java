@@ -1,36 +1,123 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.persistenceLayer.entity.CorreoPendienteEntity;
+import com.example.Alojamientos.persistenceLayer.repository.CorreoPendienteRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Los correos no se envían en el hilo de la petición: se encolan en la tabla
+ * correo_pendiente, en la transacción de quien los pide, y CorreoRelay los
+ * entrega en segundo plano con reintentos. Así una petición no espera el
+ * handshake SMTP y una caída del servidor de correo no retiene hilos de Tomcat.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    // Igual que la expiración de CodigoRecuperacionEntity: después el código ya no sirve
+    private static final Duration VIGENCIA_CODIGO = Duration.ofMinutes(15);
+
+    private final JavaMailSender            mailSender;
+    private final CorreoPendienteRepository correoPendienteRepository;
 
+    @Transactional
     public void enviarCodigoRecuperacion(String destinatario, String codigo) {
+        Map<String, String> variables = Map.of("codigo", codigo);
+        encolar(destinatario,
+                PlantillaCorreo.CODIGO_RECUPERACION.asunto(variables),
+                PlantillaCorreo.CODIGO_RECUPERACION.cuerpo(variables),
+                LocalDateTime.now().plus(VIGENCIA_CODIGO));
+    }
+
+    /**
+     * Deja el correo en la cola. Si la transacción que lo pide hace rollback, el
+     * correo tampoco queda.
+     *
+     * @param vence si no se pudo enviar antes de esta fecha se descarta; {@code null} para no vencer
+     */
+    @Transactional
+    public CorreoPendienteEntity encolar(String destinatario, String asunto, String cuerpo, LocalDateTime vence) {
+        if (destinatario == null || destinatario.isBlank()) {
+            throw new IllegalArgumentException("El destinatario del correo es obligatorio");
+        }
+        CorreoPendienteEntity correo = correoPendienteRepository.save(CorreoPendienteEntity.builder()
+                .destinatario(destinatario)
+                .asunto(asunto)
+                .cuerpo(cuerpo)
+                .siguienteIntento(LocalDateTime.now())
+                .vence(vence)
+                .build());
+        log.info("Email a {} encolado (id {})", destinatario, correo.getId());
+        return correo;
+    }
+
+    /**
+     * Envía por SMTP un lote de correos de la cola por una sola conexión
+     * ({@link JavaMailSender#send(MimeMessage...)} se conecta y autentica una vez
+     * para todo el lote). Lo llaman los hilos de envío de CorreoRelay.
+     *
+     * @return los correos que no se enviaron, por id, con su error; vacío si salió todo.
+     *         Un correo que no se pudo armar tiene una MailParseException; uno que el
+     *         servidor rechazó o que no llegó a enviarse, una MailSendException
+     */
+    public Map<Long, MailException> entregar(List<CorreoPendienteEntity> correos) {
+        Map<Long, MailException> errores = new HashMap<>();
+        Map<MimeMessage, CorreoPendienteEntity> mensajes = new IdentityHashMap<>(correos.size());
+        for (CorreoPendienteEntity correo : correos) {
+            try {
+                mensajes.put(armar(correo), correo);
+            } catch (MessagingException e) {
+                errores.put(correo.getId(), new MailParseException("Correo " + correo.getId() + " inválido", e));
+            }
+        }
+        if (mensajes.isEmpty()) return errores;
+
         try {
-            log.info("Intentando enviar email a: {}", destinatario);
-            SimpleMailMessage mensaje = new SimpleMailMessage();
-            mensaje.setTo(destinatario);
-            mensaje.setSubject("Hosped - Código de recuperación de contraseña");
-            mensaje.setText(
-                    "Hola,\n\n" +
-                            "Tu código de verificación es:\n\n" +
-                            "    " + codigo + "\n\n" +
-                            "Este código expira en 15 minutos.\n\n" +
-                            "© 2025 Hosped"
-            );
-            mailSender.send(mensaje);
-            log.info("Email enviado exitosamente a: {}", destinatario);
-        } catch (Exception e) {
-            log.error("ERROR al enviar email a {}: {}", destinatario, e.getMessage(), e);
-            throw new RuntimeException("No se pudo enviar el email: " + e.getMessage(), e);
+            mailSender.send(mensajes.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            // Trae cada mensaje que falló con su causa; los que no están ahí se enviaron
+            e.getFailedMessages().forEach((mensaje, causa) -> {
+                CorreoPendienteEntity correo = mensajes.get(mensaje);
+                if (correo != null) {
+                    errores.put(correo.getId(), new MailSendException(causa.getMessage(), causa));
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                mensajes.values().forEach(c -> errores.put(c.getId(), e));
+            }
+        } catch (MailException e) {
+            // Falló antes de enviar (p. ej. autenticación): no salió ninguno
+            mensajes.values().forEach(c -> errores.put(c.getId(), e));
         }
+        log.info("Lote de {} email(s) enviado, {} con error", correos.size(), errores.size());
+        return errores;
+    }
+
+    private MimeMessage armar(CorreoPendienteEntity correo) throws MessagingException {
+        MimeMessage mensaje = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensaje, false, StandardCharsets.UTF_8.name());
+        helper.setTo(correo.getDestinatario());
+        helper.setSubject(correo.getAsunto());
+        helper.setText(correo.getCuerpo(), false);
+        return mensaje;
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,35 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.businessLayer.cache.NoLeidasCache;
 import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
+import com.example.Alojamientos.businessLayer.evento.NotificacionAgrupador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
+import com.example.Alojamientos.businessLayer.util.PaginacionUtil;
 import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.NotificacionDataMapper;
 import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -18,6 +37,12 @@ public class NotificacionService {
 
     private final NotificacionRepository notificacionRepository;
     private final NotificacionDataMapper notificacionMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NoLeidasCache noLeidasCache;
+    private final NotificacionAgrupador agrupador;
+
+    private static final int USUARIOS_POR_RECONCILIACION = 500;
+    private static final int RESUMENES_POR_REVISION      = 500;
 
     /**
      * RN18: Crear notificación para usuario
@@ -30,7 +55,59 @@ public class NotificacionService {
 
         // TODO: Enviar notificación push o email según configuración del usuario
 
-        return notificacionMapper.toDTO(saved);
+        NotificacionDTO creada = notificacionMapper.toDTO(saved);
+        eventPublisher.publishEvent(new NoLeidasCambioEvento(dto.getUserId(), 1, List.of(creada)));
+        return creada;
+    }
+
+    /**
+     * Guarda con un INSERT de varias filas un lote de NotificacionDespachador (eventos
+     * sin grupo o que ya pasaron por NotificacionAgrupador). insertarLote confirma en
+     * su propia transacción, así que aquí no se abre otra.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void guardarLote(List<NotificacionEvento> eventos) {
+        if (eventos.isEmpty()) return;
+        List<NotificacionEntity> filas = eventos.stream().map(NotificacionService::nuevaFila).toList();
+        notificacionRepository.insertarLote(filas);
+        publicarNuevas(filas);
+    }
+
+    /**
+     * Guarda los resúmenes de las ventanas de NotificacionAgrupador que ya vencieron,
+     * de a {@value #RESUMENES_POR_REVISION}, en la misma transacción que elimina las
+     * ventanas: si falla, las ventanas siguen abiertas y se cierran en la próxima
+     * revisión. Las instancias se reparten las ventanas (SKIP LOCKED).
+     */
+    @Scheduled(fixedDelayString = "${app.notificaciones.resumen.revision-ms:1000}")
+    public void guardarResumenes() {
+        List<NotificacionEvento> resumenes = agrupador.cerrarVencidas(LocalDateTime.now(), RESUMENES_POR_REVISION);
+        if (resumenes.isEmpty()) return;
+        List<NotificacionEntity> filas = notificacionRepository.saveAll(
+                resumenes.stream().map(NotificacionService::nuevaFila).toList());
+        publicarNuevas(filas);
+    }
+
+    private static NotificacionEntity nuevaFila(NotificacionEvento evento) {
+        return NotificacionEntity.builder()
+                .usuario(UsuarioEntity.builder().id(evento.usuarioId()).build())
+                .tipo(evento.tipo())
+                .titulo(evento.titulo())
+                .mensaje(evento.mensaje())
+                .leida(false)
+                .fechaCreacion(evento.creada())
+                .build();
+    }
+
+    // Las filas ya tienen su id: las notificaciones publicadas por SSE salen completas
+    private void publicarNuevas(List<NotificacionEntity> filas) {
+        Map<Integer, List<NotificacionDTO>> porUsuario = new LinkedHashMap<>();
+        for (NotificacionEntity fila : filas) {
+            porUsuario.computeIfAbsent(fila.getUsuario().getId(), id -> new ArrayList<>())
+                    .add(notificacionMapper.toDTO(fila));
+        }
+        porUsuario.forEach((usuarioId, nuevas) ->
+                eventPublisher.publishEvent(new NoLeidasCambioEvento(usuarioId, nuevas.size(), nuevas)));
     }
 
     /**
@@ -43,6 +120,25 @@ public class NotificacionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listar notificaciones de un usuario paginadas por cursor (más recientes primero)
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<NotificacionDTO> listarPorUsuarioPaginado(Integer usuarioId, Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        List<NotificacionEntity> filas;
+        if (PaginacionUtil.esPrimeraPagina(cursor)) {
+            filas = notificacionRepository.findPrimerasPorUsuario(usuarioId, PaginacionUtil.limiteConSiguiente(tamano));
+        } else {
+            String[] partes = CursorCodec.decodificar(cursor, 2);
+            filas = notificacionRepository.findPorUsuarioDespuesDe(usuarioId,
+                    PaginacionUtil.decodificarFecha(partes), PaginacionUtil.decodificarId(partes, 1),
+                    PaginacionUtil.limiteConSiguiente(tamano));
+        }
+        return PaginacionUtil.construirPagina(filas, tamano,
+                n -> CursorCodec.codificar(n.getFechaCreacion(), n.getId()), notificacionMapper::toDTO);
+    }
+
     /**
      * Listar solo notificaciones no leídas
      */
@@ -60,21 +156,25 @@ public class NotificacionService {
         NotificacionEntity entity = notificacionRepository.findById(notificacionId)
                 .orElseThrow(() -> new IllegalArgumentException("Notificación no encontrada"));
 
+        boolean estabaSinLeer = !Boolean.TRUE.equals(entity.getLeida());
         entity.setLeida(true);
         NotificacionEntity updated = notificacionRepository.save(entity);
 
+        if (estabaSinLeer) {
+            eventPublisher.publishEvent(NoLeidasCambioEvento.leidas(entity.getUsuario().getId(), 1));
+        }
         return notificacionMapper.toDTO(updated);
     }
 
     /**
-     * Marcar todas las notificaciones de un usuario como leídas
+     * Marcar todas las notificaciones de un usuario como leídas, con un solo UPDATE
      */
     public void marcarTodasComoLeidas(Integer usuarioId) {
-        List<NotificacionEntity> notificaciones =
-                notificacionRepository.findByUsuario_IdAndLeidaFalseOrderByFechaCreacionDesc(usuarioId);
+        int marcadas = notificacionRepository.marcarTodasLeidas(usuarioId);
 
-        notificaciones.forEach(n -> n.setLeida(true));
-        notificacionRepository.saveAll(notificaciones);
+        if (marcadas > 0) {
+            eventPublisher.publishEvent(NoLeidasCambioEvento.leidas(usuarioId, marcadas));
+        }
     }
 
     /**
@@ -92,26 +192,53 @@ public class NotificacionService {
      */
     @Transactional(readOnly = true)
     public Long contarNoLeidas(Integer usuarioId) {
-        return notificacionRepository.countByUsuario_IdAndLeidaFalse(usuarioId);
+        return noLeidasCache.obtener(usuarioId, notificacionRepository::countByUsuario_IdAndLeidaFalse);
+    }
+
+    /**
+     * Corrige los contadores de NoLeidasCache con la base, de a 500 usuarios por
+     * consulta. Cubre los cambios hechos en otras instancias o fuera del servicio.
+     * Corre en todas las instancias: cada una reconcilia su propia caché.
+     */
+    @Scheduled(fixedDelayString = "${app.notificaciones.no-leidas.reconciliar-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconciliarNoLeidas() {
+        List<Integer> usuarios = noLeidasCache.usuarios();
+        int corregidos = 0;
+        for (int i = 0; i < usuarios.size(); i += USUARIOS_POR_RECONCILIACION) {
+            List<Integer> grupo = usuarios.subList(i, Math.min(i + USUARIOS_POR_RECONCILIACION, usuarios.size()));
+            corregidos += noLeidasCache.corregir(grupo, contarEnBase(grupo));
+        }
+        if (corregidos > 0) {
+            log.debug("[NotificacionService] {} de {} contadores de no leídas corregidos", corregidos, usuarios.size());
+        }
+    }
+
+    private Map<Integer, Long> contarEnBase(List<Integer> usuarioIds) {
+        Map<Integer, Long> conteos = new HashMap<>();
+        for (Tuple fila : notificacionRepository.contarNoLeidasPorUsuario(usuarioIds)) {
+            conteos.put(fila.get("usuarioId", Integer.class), fila.get("cantidad", Long.class));
+        }
+        return conteos;
     }
 
     /**
      * Eliminar notificación
      */
     public void eliminarNotificacion(Integer id) {
-        if (!notificacionRepository.existsById(id)) {
-            throw new IllegalArgumentException("Notificación no encontrada");
-        }
+        NotificacionEntity entity = notificacionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Notificación no encontrada"));
         notificacionRepository.deleteById(id);
+
+        if (!Boolean.TRUE.equals(entity.getLeida())) {
+            eventPublisher.publishEvent(NoLeidasCambioEvento.leidas(entity.getUsuario().getId(), 1));
+        }
     }
 
     /**
-     * Eliminar todas las notificaciones leídas de un usuario
+     * Eliminar todas las notificaciones leídas de un usuario, con un solo DELETE
      */
     public void eliminarLeidasDeUsuario(Integer usuarioId) {
-        List<NotificacionEntity> notificaciones =
-                notificacionRepository.findByUsuario_IdAndLeidaTrueOrderByFechaCreacionDesc(usuarioId);
-
-        notificacionRepository.deleteAll(notificaciones);
+        notificacionRepository.eliminarLeidas(usuarioId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.example.Alojamientos.businessLayer.service;
+
+import com.example.Alojamientos.businessLayer.cache.NoLeidasCache;
+import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * NotificacionStreamService
+ *
+ * Envía por SSE a cada usuario conectado su cantidad de notificaciones no leídas
+ * y las notificaciones nuevas, en lugar de que el panel consulte
+ * contar-no-leidas cada pocos segundos.
+ *
+ * Por usuario se guarda un canal con sus pestañas abiertas y el conteo en
+ * memoria. El conteo se pide a NotificacionService (NoLeidasCache) cuando se
+ * abre la primera pestaña (o al reconectar después de cerrarlas todas); desde ahí
+ * lo ajustan los {@link NoLeidasCambioEvento} que publica NotificacionService
+ * después del commit. Un usuario conectado sin actividad no genera consultas
+ * propias del stream: solo recibe un comentario de latido cada
+ * {@code app.notificaciones.stream.heartbeat-ms} para que los proxies no cierren
+ * la conexión.
+ *
+ * Los eventos son en proceso: solo llegan a las pestañas conectadas a esta
+ * instancia. Los cambios confirmados en otras instancias los corrige
+ * NoLeidasCache con su propia reconciliación; cada
+ * {@code app.notificaciones.stream.reconciliar-ms} el stream compara su conteo con
+ * el de la caché, sin ir a la base, y envía el conteo a los usuarios en que
+ * difiere. Las notificaciones nuevas creadas en otra instancia no se envían: la
+ * pestaña las ve al abrir el panel. Los límites de conexiones (total y por usuario) protegen los hilos
+ * y la memoria del servidor; al superarlos {@link #conectar} lanza
+ * IllegalStateException y el cliente sigue consultando el conteo.
+ *
+ * Métrica: notificaciones.stream.conexiones (pestañas conectadas).
+ */
+@Slf4j
+@Service
+public class NotificacionStreamService {
+
+    static final String EVENTO_NO_LEIDAS   = "no-leidas";
+    static final String EVENTO_NOTIFICACION = "notificacion";
+
+    /** Conteos que se descartan si cambian mientras se leen, antes de aceptar el último. */
+    private static final int MAX_CONTEOS = 3;
+
+    private final NotificacionService   notificacionService;
+    private final NoLeidasCache         noLeidasCache;
+    private final Map<Integer, Canal>   canales = new ConcurrentHashMap<>();
+    private final AtomicInteger         conexiones = new AtomicInteger();
+    private final int                   maxConexiones;
+    private final int                   maxPorUsuario;
+    private final Duration              timeout;
+
+    public NotificacionStreamService(NotificacionService notificacionService,
+                                     NoLeidasCache noLeidasCache,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.notificaciones.stream.max-conexiones:5000}") int maxConexiones,
+                                     @Value("${app.notificaciones.stream.max-por-usuario:5}") int maxPorUsuario,
+                                     @Value("${app.notificaciones.stream.timeout:30m}") Duration timeout) {
+        if (maxConexiones < 1 || maxPorUsuario < 1) {
+            throw new IllegalArgumentException("Los límites de conexiones de notificaciones deben ser mayores a 0");
+        }
+        this.notificacionService = notificacionService;
+        this.noLeidasCache       = noLeidasCache;
+        this.maxConexiones       = maxConexiones;
+        this.maxPorUsuario       = maxPorUsuario;
+        this.timeout             = timeout;
+        Gauge.builder("notificaciones.stream.conexiones", conexiones, AtomicInteger::get)
+                .description("Pestañas conectadas al stream de notificaciones")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre un stream para el usuario y le envía de inmediato su cantidad de no leídas.
+     *
+     * @throws IllegalArgumentException si el ID es inválido
+     * @throws IllegalStateException    si se alcanzó el límite de conexiones
+     */
+    public SseEmitter conectar(Integer usuarioId) {
+        if (usuarioId == null || usuarioId <= 0) {
+            throw new IllegalArgumentException("El ID del usuario es inválido");
+        }
+        if (conexiones.incrementAndGet() > maxConexiones) {
+            conexiones.decrementAndGet();
+            throw new IllegalStateException("Se alcanzó el máximo de conexiones de notificaciones");
+        }
+
+        SseEmitter emisor = new SseEmitter(timeout.toMillis());
+        Canal canal;
+        try {
+            canal = canales.compute(usuarioId, (id, actual) -> {
+                Canal c = actual != null ? actual : new Canal();
+                if (c.emisores.size() >= maxPorUsuario) {
+                    throw new IllegalStateException("El usuario ya tiene " + maxPorUsuario + " conexiones abiertas");
+                }
+                c.emisores.add(emisor);
+                return c;
+            });
+        } catch (IllegalStateException e) {
+            conexiones.decrementAndGet();
+            throw e;
+        }
+        emisor.onCompletion(() -> desconectar(usuarioId, emisor));
+        emisor.onTimeout(() -> desconectar(usuarioId, emisor));
+        emisor.onError(e -> desconectar(usuarioId, emisor));
+
+        long noLeidas;
+        try {
+            noLeidas = canal.conteo(usuarioId);
+        } catch (RuntimeException e) {
+            desconectar(usuarioId, emisor);
+            throw e;
+        }
+        synchronized (canal) {
+            enviar(usuarioId, emisor, SseEmitter.event().name(EVENTO_NO_LEIDAS)
+                    .data(Map.of("noLeidas", noLeidas), MediaType.APPLICATION_JSON));
+        }
+        return emisor;
+    }
+
+    /**
+     * Aplica el cambio al conteo del usuario y lo reenvía a sus pestañas.
+     * Si el usuario no está conectado a esta instancia no hace nada. Corre después
+     * de NoLeidasCache: si el contador está en caché se toma de ahí, ya con el cambio.
+     */
+    @Order(NoLeidasCache.ORDEN + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarNoLeidas(NoLeidasCambioEvento evento) {
+        Canal canal = canales.get(evento.usuarioId());
+        if (canal == null) return;
+
+        synchronized (canal) {
+            for (NotificacionDTO nueva : evento.nuevas()) {
+                enviarATodos(evento.usuarioId(), canal, () -> SseEmitter.event().name(EVENTO_NOTIFICACION)
+                        .data(nueva, MediaType.APPLICATION_JSON));
+            }
+            // Con el conteo aún sin leer, conteo() vuelve a consultar y lo envía al conectar
+            if (canal.noLeidas < 0) {
+                canal.cambiosMientrasCuenta = true;
+                return;
+            }
+            long noLeidas = noLeidasCache.actual(evento.usuarioId())
+                    .orElse(Math.max(0, canal.noLeidas + evento.delta()));
+            canal.noLeidas = noLeidas;
+            enviarATodos(evento.usuarioId(), canal, () -> SseEmitter.event().name(EVENTO_NO_LEIDAS)
+                    .data(Map.of("noLeidas", noLeidas), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Iguala el conteo de los usuarios conectados con el de NoLeidasCache y lo
+     * reenvía a los que cambió. No consulta la base: si el contador ya no está en
+     * caché, el usuario se deja como está.
+     */
+    @Scheduled(fixedDelayString = "${app.notificaciones.stream.reconciliar-ms:30000}")
+    public void reconciliar() {
+        int corregidos = 0;
+        for (Map.Entry<Integer, Canal> entrada : canales.entrySet()) {
+            Integer usuarioId = entrada.getKey();
+            Canal   canal     = entrada.getValue();
+            synchronized (canal) {
+                if (canal.noLeidas < 0) continue;
+                OptionalLong enCache = noLeidasCache.actual(usuarioId);
+                if (enCache.isEmpty() || enCache.getAsLong() == canal.noLeidas) continue;
+                long noLeidas = enCache.getAsLong();
+                canal.noLeidas = noLeidas;
+                corregidos++;
+                enviarATodos(usuarioId, canal, () -> SseEmitter.event().name(EVENTO_NO_LEIDAS)
+                        .data(Map.of("noLeidas", noLeidas), MediaType.APPLICATION_JSON));
+            }
+        }
+        if (corregidos > 0) {
+            log.debug("[NotificacionStreamService] {} conteos de no leídas corregidos", corregidos);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notificaciones.stream.heartbeat-ms:25000}")
+    public void latido() {
+        canales.forEach((usuarioId, canal) -> {
+            synchronized (canal) {
+                enviarATodos(usuarioId, canal, () -> SseEmitter.event().comment("latido"));
+            }
+        });
+    }
+
+    /**
+     * Cierra los streams al detener la aplicación; los clientes reconectan a otra instancia.
+     */
+    @PreDestroy
+    public void cerrar() {
+        canales.values().forEach(canal -> canal.emisores.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Cantidad de no leídas en memoria; vacío si el usuario no tiene pestañas
+     * conectadas a esta instancia o su conteo aún no se leyó.
+     */
+    public OptionalLong noLeidas(Integer usuarioId) {
+        Canal canal = canales.get(usuarioId);
+        if (canal == null) return OptionalLong.empty();
+        synchronized (canal) {
+            return canal.noLeidas < 0 ? OptionalLong.empty() : OptionalLong.of(canal.noLeidas);
+        }
+    }
+
+    public int getConexiones() {
+        return conexiones.get();
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private void desconectar(Integer usuarioId, SseEmitter emisor) {
+        canales.computeIfPresent(usuarioId, (id, canal) -> {
+            if (canal.emisores.remove(emisor)) conexiones.decrementAndGet();
+            return canal.emisores.isEmpty() ? null : canal;
+        });
+    }
+
+    // Un SseEventBuilder no se puede enviar dos veces: se arma uno por pestaña
+    private void enviarATodos(Integer usuarioId, Canal canal, Supplier<SseEmitter.SseEventBuilder> evento) {
+        for (SseEmitter emisor : canal.emisores) {
+            enviar(usuarioId, emisor, evento.get());
+        }
+    }
+
+    private void enviar(Integer usuarioId, SseEmitter emisor, SseEmitter.SseEventBuilder evento) {
+        try {
+            emisor.send(evento);
+        } catch (IOException | IllegalStateException e) {
+            // Pestaña cerrada: el contenedor también avisará por onError/onCompletion
+            log.debug("[NotificacionStreamService] Stream del usuario {} cerrado: {}", usuarioId, e.getMessage());
+            desconectar(usuarioId, emisor);
+        }
+    }
+
+    private final class Canal {
+
+        final List<SseEmitter> emisores = new CopyOnWriteArrayList<>();
+
+        /** -1 mientras no se haya leído de la base. Protegido por el monitor del canal. */
+        long noLeidas = -1;
+        boolean cambiosMientrasCuenta;
+
+        /**
+         * Devuelve el conteo en memoria o, si es el primero, lo lee de la base sin
+         * retener el monitor. Si llegan cambios durante la lectura no se sabe si
+         * la consulta los vio, así que se vuelve a contar.
+         */
+        long conteo(Integer usuarioId) {
+            for (int intento = 1; ; intento++) {
+                synchronized (this) {
+                    if (noLeidas >= 0) return noLeidas;
+                    cambiosMientrasCuenta = false;
+                }
+                long contado = notificacionService.contarNoLeidas(usuarioId);
+                synchronized (this) {
+                    if (noLeidas >= 0) return noLeidas;
+                    if (!cambiosMientrasCuenta || intento == MAX_CONTEOS) {
+                        noLeidas = contado;
+                        return noLeidas;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.PagoDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
+import com.example.Alojamientos.businessLayer.util.PaginacionUtil;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
 import com.example.Alojamientos.persistenceLayer.entity.PagoEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.PagoDataMapper;
 import com.example.Alojamientos.persistenceLayer.repository.PagoRepository;
@@ -19,6 +24,7 @@ public class PagoService {
 
     private final PagoRepository pagoRepository;
     private final PagoDataMapper pagoMapper;
+    private final EventoOutboxPublicador eventoOutbox;
 
     /**
      * RN15, RN17: Registrar pago de reserva
@@ -42,6 +48,8 @@ public class PagoService {
         entity.setReferenciaExterna("PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
 
         PagoEntity saved = pagoRepository.save(entity);
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.PAGO_REGISTRADO, saved.getId(),
+                "reservaId", dto.getReservationId(), "monto", dto.getAmount(), "metodo", dto.getMethod());
         return pagoMapper.toDTO(saved);
     }
 
@@ -56,6 +64,8 @@ public class PagoService {
         entity.setReferenciaExterna(referenciaExterna);
 
         PagoEntity updated = pagoRepository.save(entity);
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.PAGO_CONFIRMADO, pagoId,
+                "referenciaExterna", referenciaExterna);
 
         // TODO: Actualizar estado de reserva a CONFIRMADA
 
@@ -71,6 +81,7 @@ public class PagoService {
 
         entity.setEstado(PagoEntity.EstadoPago.FALLIDO);
         PagoEntity updated = pagoRepository.save(entity);
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.PAGO_FALLIDO, pagoId);
 
         return pagoMapper.toDTO(updated);
     }
@@ -104,4 +115,16 @@ public class PagoService {
                 .map(pagoMapper::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Listar pagos paginados por cursor (orden por id)
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<PagoDTO> listarTodosPaginado(Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+        return PaginacionUtil.construirPagina(
+                pagoRepository.findByIdGreaterThanOrderByIdAsc(despuesId, PaginacionUtil.limiteConSiguiente(tamano)),
+                tamano, p -> CursorCodec.codificar(p.getId()), pagoMapper::toDTO);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.Alojamientos.businessLayer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plantillas de los correos que envía EmailService, con variables {{nombre}}.
+ *
+ * Cada plantilla se compila una sola vez, al cargar la clase, en una lista de
+ * tramos de texto fijo y variables; renderizar solo concatena, sin volver a
+ * buscar las variables en el texto en cada correo.
+ */
+public enum PlantillaCorreo {
+
+    CODIGO_RECUPERACION(
+            "Hosped - Código de recuperación de contraseña",
+            "Hola,\n\n" +
+                    "Tu código de verificación es:\n\n" +
+                    "    {{codigo}}\n\n" +
+                    "Este código expira en 15 minutos.\n\n" +
+                    "© 2025 Hosped");
+
+    private final Tramo[] asunto;
+    private final Tramo[] cuerpo;
+    private final int     largoFijo;
+
+    /** Texto fijo si {@code variable} es false; si no, el nombre de la variable. */
+    private record Tramo(String texto, boolean variable) {
+    }
+
+    PlantillaCorreo(String asunto, String cuerpo) {
+        this.asunto    = compilar(asunto);
+        this.cuerpo    = compilar(cuerpo);
+        this.largoFijo = cuerpo.length();
+    }
+
+    public String asunto(Map<String, String> variables) {
+        return renderizar(asunto, variables, 64);
+    }
+
+    public String cuerpo(Map<String, String> variables) {
+        return renderizar(cuerpo, variables, largoFijo + 32);
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private static Tramo[] compilar(String plantilla) {
+        List<Tramo> tramos = new ArrayList<>();
+        int desde = 0;
+        int inicio;
+        while ((inicio = plantilla.indexOf("{{", desde)) >= 0) {
+            int fin = plantilla.indexOf("}}", inicio);
+            if (fin < 0) {
+                throw new IllegalArgumentException("Variable sin cerrar en la plantilla de correo: " + plantilla);
+            }
+            if (inicio > desde) tramos.add(new Tramo(plantilla.substring(desde, inicio), false));
+            tramos.add(new Tramo(plantilla.substring(inicio + 2, fin).trim(), true));
+            desde = fin + 2;
+        }
+        if (desde < plantilla.length()) tramos.add(new Tramo(plantilla.substring(desde), false));
+        return tramos.toArray(Tramo[]::new);
+    }
+
+    private String renderizar(Tramo[] tramos, Map<String, String> variables, int capacidad) {
+        StringBuilder texto = new StringBuilder(capacidad);
+        for (Tramo tramo : tramos) {
+            if (!tramo.variable()) {
+                texto.append(tramo.texto());
+                continue;
+            }
+            String valor = variables.get(tramo.texto());
+            if (valor == null) {
+                throw new IllegalArgumentException(
+                        "Falta la variable '" + tramo.texto() + "' de la plantilla de correo " + name());
+            }
+            texto.append(valor);
+        }
+        return texto.toString();
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.Alojamientos.businessLayer.service;
 
-import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.ReservaDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
+import com.example.Alojamientos.businessLayer.util.PaginacionUtil;
+import com.example.Alojamientos.businessLayer.util.TransaccionUtil;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.ReservaDataMapper;
 import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,7 +36,9 @@ public class ReservaService {
     private final ReservaRepository      reservaRepository;
     private final AlojamientoRepository  alojamientoRepository;
     private final ReservaDataMapper      reservaMapper;
-    private final NotificacionService    notificacionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventoOutboxPublicador eventoOutbox;
+    private final DisponibilidadIndice   disponibilidadIndice;
 
     /**
      * RF15, HU-019: Crear una nueva reserva
@@ -56,7 +67,11 @@ public class ReservaService {
         if (!fechaFin.isAfter(fechaInicio))
             throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
 
-        AlojamientoEntity alojamiento = alojamientoRepository.findById(dto.getLodgingId())
+        // Bloquea la fila del alojamiento hasta el commit: otra reserva del mismo
+        // alojamiento espera aquí y, cuando sigue, ya ve la reserva insertada.
+        // Es la primera lectura de la transacción, así la instantánea de MySQL
+        // (REPEATABLE READ) se toma después de obtener el bloqueo.
+        AlojamientoEntity alojamiento = alojamientoRepository.findByIdParaReservar(dto.getLodgingId())
                 .orElseThrow(() -> new IllegalArgumentException("Alojamiento no encontrado con id: " + dto.getLodgingId()));
 
         if (!alojamiento.getActivo())
@@ -71,15 +86,9 @@ public class ReservaService {
                             ") excede la capacidad máxima del alojamiento (" + alojamiento.getCapacidadMaxima() + ")"
             );
 
-        List<ReservaEntity> reservasExistentes = reservaRepository
-                .findByAlojamiento_Id(dto.getLodgingId()).stream()
-                .filter(r -> r.getEstado() == ReservaEntity.EstadoReserva.CONFIRMADA ||
-                        r.getEstado() == ReservaEntity.EstadoReserva.PENDIENTE)
-                .filter(r -> !(fechaFin.isBefore(r.getFechaInicio()) || fechaFin.equals(r.getFechaInicio())) &&
-                        !(fechaInicio.isAfter(r.getFechaFin()) || fechaInicio.equals(r.getFechaFin())))
-                .collect(Collectors.toList());
-
-        if (!reservasExistentes.isEmpty())
+        if (reservaRepository.existsByAlojamiento_IdAndEstadoInAndFechaFinAfterAndFechaInicioBefore(
+                dto.getLodgingId(), DisponibilidadIndice.ESTADOS_QUE_OCUPAN,
+                fechaInicio, fechaFin))
             throw new IllegalArgumentException(
                     "El alojamiento no está disponible en las fechas seleccionadas (" +
                             dto.getStartDate() + " a " + dto.getEndDate() + ")"
@@ -93,19 +102,23 @@ public class ReservaService {
         entity.setFechaReserva(LocalDateTime.now());
 
         ReservaEntity saved = reservaRepository.save(entity);
+        Integer alojamientoId = alojamiento.getId();
+        TransaccionUtil.despuesDelCommit(() -> disponibilidadIndice.ocupar(alojamientoId, fechaInicio, fechaFin));
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.RESERVA_CREADA, saved.getId(),
+                "alojamientoId", alojamientoId, "huespedId", dto.getGuestId(),
+                "fechaInicio", fechaInicio, "fechaFin", fechaFin);
 
-        // RF20: Notificar al anfitrión sobre la nueva reserva
+        // RF20: Notificar al anfitrión sobre la nueva reserva (se guarda después del commit)
         try {
-            Integer anfitrionId = alojamiento.getAnfitrion().getId();
-            notificacionService.crearNotificacion(NotificacionDTO.builder()
-                    .userId(anfitrionId)
-                    .type("NUEVA_RESERVA")
-                    .title("Nueva reserva recibida")
-                    .message("Tienes una nueva reserva en \"" + alojamiento.getNombre() +
+            eventPublisher.publishEvent(new NotificacionEvento(
+                    alojamiento.getAnfitrion().getId(),
+                    NotificacionEntity.TipoNotificacion.NUEVA_RESERVA,
+                    "Nueva reserva recibida",
+                    "Tienes una nueva reserva en \"" + alojamiento.getNombre() +
                             "\" del " + dto.getStartDate() + " al " + dto.getEndDate() +
-                            " (" + noches + " noche" + (noches != 1 ? "s" : "") + ")")
-                    .read(false)
-                    .build());
+                            " (" + noches + " noche" + (noches != 1 ? "s" : "") + ")",
+                    "reservas:" + alojamientoId,
+                    "%d nuevas reservas más en \"" + alojamiento.getNombre() + "\""));
         } catch (Exception e) {
             log.warn("[ReservaService] No se pudo crear notificación al anfitrión: {}", e.getMessage());
         }
@@ -145,20 +158,21 @@ public class ReservaService {
         entity.setMotivoCancelacion(motivo);
 
         reservaRepository.save(entity);
+        liberarNoches(entity);
+        eventoOutbox.registrar(EventoOutboxEntity.TipoEvento.RESERVA_CANCELADA, entity.getId(),
+                "fechaInicio", entity.getFechaInicio(), "fechaFin", entity.getFechaFin(), "motivo", motivo);
 
-        // RF22: Notificar al anfitrión sobre la cancelación
+        // RF22: Notificar al anfitrión sobre la cancelación (se guarda después del commit)
         try {
-            Integer anfitrionId = entity.getAlojamiento().getAnfitrion().getId();
-            String  nombreAloj  = entity.getAlojamiento().getNombre();
-            notificacionService.crearNotificacion(NotificacionDTO.builder()
-                    .userId(anfitrionId)
-                    .type("CANCELACION")
-                    .title("Reserva cancelada")
-                    .message("La reserva en \"" + nombreAloj +
+            eventPublisher.publishEvent(new NotificacionEvento(
+                    entity.getAlojamiento().getAnfitrion().getId(),
+                    NotificacionEntity.TipoNotificacion.CANCELACION,
+                    "Reserva cancelada",
+                    "La reserva en \"" + entity.getAlojamiento().getNombre() +
                             "\" del " + entity.getFechaInicio() + " al " + entity.getFechaFin() +
-                            " fue cancelada. Motivo: " + motivo)
-                    .read(false)
-                    .build());
+                            " fue cancelada. Motivo: " + motivo,
+                    "cancelaciones:" + entity.getAlojamiento().getId(),
+                    "%d reservas más canceladas en \"" + entity.getAlojamiento().getNombre() + "\""));
         } catch (Exception e) {
             log.warn("[ReservaService] No se pudo crear notificación de cancelación: {}", e.getMessage());
         }
@@ -175,6 +189,26 @@ public class ReservaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * RF23, HU-023: Historial paginado por cursor, mismo orden que {@link #listarPorHuesped}
+     * con desempate por id.
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ReservaDTO> listarPorHuespedPaginado(Integer huespedId, Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        List<ReservaEntity> filas;
+        if (PaginacionUtil.esPrimeraPagina(cursor)) {
+            filas = reservaRepository.findPrimerosPorHuesped(huespedId, PaginacionUtil.limiteConSiguiente(tamano));
+        } else {
+            String[] partes = CursorCodec.decodificar(cursor, 2);
+            filas = reservaRepository.findPorHuespedDespuesDe(huespedId,
+                    PaginacionUtil.decodificarFecha(partes), PaginacionUtil.decodificarId(partes, 1),
+                    PaginacionUtil.limiteConSiguiente(tamano));
+        }
+        return PaginacionUtil.construirPagina(filas, tamano,
+                r -> CursorCodec.codificar(r.getFechaReserva(), r.getId()), reservaMapper::toDTO);
+    }
+
     /**
      * RF24, HU-024: Reservas de un alojamiento (para anfitrión)
      */
@@ -207,5 +241,18 @@ public class ReservaService {
 
         entity.setEstado(ReservaEntity.EstadoReserva.COMPLETADA);
         reservaRepository.save(entity);
+        liberarNoches(entity);
+    }
+
+    /**
+     * Quita del índice de disponibilidad las noches de una reserva que dejó de ocuparlas
+     * (cancelada o completada), una vez confirmada la transacción.
+     */
+    private void liberarNoches(ReservaEntity entity) {
+        if (entity.getAlojamiento() == null) return;
+        Integer   alojamientoId = entity.getAlojamiento().getId();
+        LocalDate inicio        = entity.getFechaInicio();
+        LocalDate fin           = entity.getFechaFin();
+        TransaccionUtil.despuesDelCommit(() -> disponibilidadIndice.liberar(alojamientoId, inicio, fin));
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.example.Alojamientos.businessLayer.service;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.UsuarioDTO;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
+import com.example.Alojamientos.businessLayer.util.PaginacionUtil;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
@@ -173,6 +176,18 @@ public class UsuarioService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listar usuarios activos paginados por cursor (orden por id)
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<UsuarioDTO> listarTodosPaginado(Integer limite, String cursor) {
+        int tamano = PaginacionUtil.validarLimite(limite);
+        int despuesId = PaginacionUtil.esPrimeraPagina(cursor) ? 0 : PaginacionUtil.decodificarId(cursor);
+        return PaginacionUtil.construirPagina(
+                usuarioRepository.findActivosDespuesDe(despuesId, PaginacionUtil.limiteConSiguiente(tamano)),
+                tamano, u -> CursorCodec.codificar(u.getId()), usuarioMapper::toDTO);
+    }
+
     /**
      * Validar si un email ya existe
      */
@@ -0,0 +1,47 @@
+package com.example.Alojamientos.businessLayer.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica y decodifica los cursores de la paginación keyset.
+ *
+ * <p>Un cursor guarda los valores de la última fila entregada (clave de orden + id)
+ * separados por {@code |} y en Base64 URL-safe, para que el cliente lo trate
+ * como un token opaco.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARADOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String codificar(Object... partes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < partes.length; i++) {
+            if (i > 0) sb.append(SEPARADOR);
+            sb.append(partes[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor          token recibido del cliente
+     * @param partesEsperadas número de valores que debe contener
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static String[] decodificar(String cursor, int partesEsperadas) {
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = plano.split("\\|", -1);
+            if (partes.length != partesEsperadas) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
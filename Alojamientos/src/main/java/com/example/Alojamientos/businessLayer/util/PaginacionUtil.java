@@ -0,0 +1,100 @@
+package com.example.Alojamientos.businessLayer.util;
+
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utilidades comunes de la paginación keyset (por cursor).
+ *
+ * <p>Cada consulta pide una fila más que el límite: si llega, hay página siguiente
+ * y el cursor se arma con la clave de orden de la última fila entregada.
+ */
+public final class PaginacionUtil {
+
+    public static final int LIMITE_POR_DEFECTO   = 20;
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+
+    private PaginacionUtil() {
+    }
+
+    /**
+     * @return el límite pedido, o {@value #LIMITE_POR_DEFECTO} si es null
+     * @throws IllegalArgumentException si está fuera de 1..{@value #LIMITE_MAXIMO_PAGINA}
+     */
+    public static int validarLimite(Integer limite) {
+        if (limite == null) return LIMITE_POR_DEFECTO;
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        return limite;
+    }
+
+    /**
+     * Primera "página" de tamaño limite + 1 para detectar si hay más resultados.
+     * El orden lo fija la consulta, no el Pageable.
+     */
+    public static Pageable limiteConSiguiente(int limite) {
+        return PageRequest.of(0, limite + 1);
+    }
+
+    public static boolean esPrimeraPagina(String cursor) {
+        return cursor == null || cursor.isBlank();
+    }
+
+    /**
+     * Cursor de un solo valor: el ID de la última fila (orden por id).
+     */
+    public static int decodificarId(String cursor) {
+        String[] partes = CursorCodec.decodificar(cursor, 1);
+        try {
+            return Integer.parseInt(partes[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Cursor de (fecha, id) para listados ordenados por fecha.
+     */
+    public static LocalDateTime decodificarFecha(String[] partes) {
+        try {
+            return LocalDateTime.parse(partes[0]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    public static int decodificarId(String[] partes, int posicion) {
+        try {
+            return Integer.parseInt(partes[posicion]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    /**
+     * Recorta las filas al límite, mapea a DTO y arma el cursor de la siguiente página.
+     *
+     * @param filas     resultado de la consulta (hasta limite + 1 filas)
+     * @param cursorDe  clave de orden de una fila, ya codificada con {@link CursorCodec}
+     */
+    public static <E, D> PaginaDTO<D> construirPagina(List<E> filas, int limite,
+                                                      Function<E, String> cursorDe,
+                                                      Function<E, D> aDto) {
+        boolean hayMas = filas.size() > limite;
+        List<E> pagina = hayMas ? filas.subList(0, limite) : filas;
+
+        return PaginaDTO.<D>builder()
+                .items(pagina.stream().map(aDto).collect(Collectors.toList()))
+                .nextCursor(hayMas ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null)
+                .hasNext(hayMas)
+                .build();
+    }
+}
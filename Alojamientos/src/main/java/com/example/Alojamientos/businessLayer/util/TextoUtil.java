@@ -0,0 +1,38 @@
+package com.example.Alojamientos.businessLayer.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para comparar sin importar mayúsculas ni tildes
+ * ("Bogotá", "BOGOTA" y " bogota " quedan como "bogota").
+ */
+public final class TextoUtil {
+
+    private static final Pattern MARCAS   = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private TextoUtil() {
+    }
+
+    /**
+     * Minúsculas, sin tildes ni diéresis (la ñ queda como n) y con los espacios colapsados.
+     *
+     * @return el texto normalizado, o null si el texto es null
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) return null;
+        String sinMarcas = esAscii(texto)
+                ? texto
+                : MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinMarcas.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.Alojamientos.businessLayer.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para coordinar estructuras en memoria con la transacción actual.
+ *
+ * <p>Los índices y cachés en memoria solo deben reflejar cambios que
+ * realmente quedaron confirmados en la base de datos. Si la transacción
+ * hace rollback, la acción registrada nunca se ejecuta.
+ */
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {
+    }
+
+    /**
+     * Ejecuta la acción después del commit de la transacción activa.
+     * Si no hay transacción activa (por ejemplo en tests unitarios),
+     * la acción se ejecuta de inmediato.
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
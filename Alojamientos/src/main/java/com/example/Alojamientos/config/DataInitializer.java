@@ -1,6 +1,8 @@
 package com.example.Alojamientos.config;
 
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
 import com.example.Alojamientos.persistenceLayer.entity.ServicioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ServicioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +17,7 @@ import java.util.List;
  *
  * Inserta los servicios oficiales de Hosped si no existen en la BD.
  * Es idempotente: si el servicio ya existe (por nombre) no lo duplica.
+ * También completa alojamiento.ciudad_norm en las filas creadas antes de que existiera la columna.
  * Se ejecuta después de que Hibernate crea/actualiza las tablas (ddl-auto=update).
  */
 @Slf4j
@@ -24,10 +27,13 @@ import java.util.List;
 public class DataInitializer implements CommandLineRunner {
 
     private final ServicioRepository servicioRepository;
+    private final AlojamientoRepository alojamientoRepository;
 
     @Override
     public void run(String... args) {
         seedServicios();
+        normalizarCiudades();
+        recalcularCalificaciones();
     }
 
     private void seedServicios() {
@@ -58,6 +64,32 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
 
+    /**
+     * Un UPDATE por ciudad distinta sin normalizar; no hace nada si ya están todas.
+     */
+    private void normalizarCiudades() {
+        int actualizados = 0;
+        for (String ciudad : alojamientoRepository.findCiudadesSinNormalizar()) {
+            actualizados += alojamientoRepository.normalizarCiudad(ciudad, TextoUtil.normalizar(ciudad));
+        }
+
+        if (actualizados > 0) {
+            log.info("DataInitializer: ciudad normalizada en {} alojamiento(s).", actualizados);
+        }
+    }
+
+    /**
+     * Completa los agregados de calificaciones de los alojamientos que tenían
+     * comentarios antes de existir las columnas; no toca los que ya cuadran.
+     */
+    private void recalcularCalificaciones() {
+        int actualizados = alojamientoRepository.recalcularCalificaciones();
+
+        if (actualizados > 0) {
+            log.info("DataInitializer: calificaciones recalculadas en {} alojamiento(s).", actualizados);
+        }
+    }
+
     private ServicioEntity buildServicio(String nombre, String descripcion, String icono) {
         return ServicioEntity.builder()
                 .nombre(nombre)
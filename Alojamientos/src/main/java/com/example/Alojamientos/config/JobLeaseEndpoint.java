@@ -0,0 +1,30 @@
+package com.example.Alojamientos.config;
+
+import com.example.Alojamientos.businessLayer.scheduler.JobLeaseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/jobleases: qué instancia tiene el lease de cada job programado,
+ * hasta cuándo, y cuál es esta instancia.
+ */
+@Component
+@Endpoint(id = "jobleases")
+@RequiredArgsConstructor
+public class JobLeaseEndpoint {
+
+    private final JobLeaseService jobLeaseService;
+
+    @ReadOperation
+    public Map<String, Object> leases() {
+        List<JobLeaseService.Estado> leases = jobLeaseService.estado();
+        return Map.of(
+                "instancia", jobLeaseService.getPropietario(),
+                "leases", leases);
+    }
+}
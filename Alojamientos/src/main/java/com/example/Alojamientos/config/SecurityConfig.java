@@ -1,6 +1,7 @@
 package com.example.Alojamientos.config;
 
 import com.example.Alojamientos.securityLayer.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -93,6 +94,9 @@ public class SecurityConfig {
                 // ── Reglas de autorización ─────────────────────────────────────
                 .authorizeHttpRequests(auth -> auth
 
+                        // Despachos asíncronos (streams SSE) — la petición original ya se autorizó
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // Actuator — público para Prometheus scraping
                         .requestMatchers(ACTUATOR_WHITELIST).permitAll()
 
@@ -1,5 +1,6 @@
 package com.example.Alojamientos.persistenceLayer.dao;
 
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
 import com.example.Alojamientos.persistenceLayer.dao.AlojamientoDao;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
 import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
@@ -23,7 +24,7 @@ public class AlojamientoDaoImpl implements AlojamientoDao {
 
     @Override
     public List<AlojamientoEntity> findByCiudad(String ciudad) {
-        return alojamientoRepository.findByCiudadIgnoreCase(ciudad);
+        return alojamientoRepository.findByCiudadNorm(TextoUtil.normalizar(ciudad));
     }
 
     @Override
@@ -2,7 +2,6 @@ package com.example.Alojamientos.persistenceLayer.dao;
 
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,8 +13,6 @@ public interface ReservaDao {
 
     List<ReservaEntity> findByAlojamiento(Integer idAlojamiento);
 
-    List<ReservaEntity> findReservasSolapadas(Integer idAlojamiento, LocalDate fechaInicio, LocalDate fechaFin);
-
     boolean existsByHuespedIdAndAlojamientoId(Integer idHuesped, Integer idAlojamiento);
 
     ReservaEntity save(ReservaEntity reserva);
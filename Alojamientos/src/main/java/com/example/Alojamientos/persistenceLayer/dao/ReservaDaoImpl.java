@@ -6,7 +6,6 @@ import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,13 +31,6 @@ public class ReservaDaoImpl implements ReservaDao {
         return reservaRepository.findByAlojamiento_Id(idAlojamiento);
     }
 
-    @Override
-    public List<ReservaEntity> findReservasSolapadas(Integer idAlojamiento, LocalDate fechaInicio, LocalDate fechaFin) {
-        return reservaRepository.findByAlojamiento_IdAndFechaFinAfterAndFechaInicioBefore(
-                idAlojamiento, fechaInicio, fechaFin
-        );
-    }
-
     @Override
     public boolean existsByHuespedIdAndAlojamientoId(Integer idHuesped, Integer idAlojamiento) {
         return reservaRepository.existsByHuesped_IdAndAlojamiento_Id(idHuesped, idAlojamiento);
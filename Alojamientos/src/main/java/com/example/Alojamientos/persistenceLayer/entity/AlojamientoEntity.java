@@ -1,14 +1,24 @@
 package com.example.Alojamientos.persistenceLayer.entity;
 
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.List;
 
 
 @Entity
-@Table(name = "alojamiento")
+@Table(name = "alojamiento", indexes = {
+        // ALOJ-18: prefiltro por caja geográfica en la búsqueda por ubicación
+        @Index(name = "idx_alojamiento_lat_lng", columnList = "latitud, longitud"),
+        // Búsquedas por ciudad: igualdad sobre la ciudad normalizada + filtro de visibles
+        @Index(name = "idx_alojamiento_ciudad_norm", columnList = "ciudad_norm, activo, eliminado"),
+        // Orden "calificacion" de la búsqueda
+        @Index(name = "idx_alojamiento_calificacion", columnList = "calificacion_promedio, calificaciones_total")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +45,10 @@ public class AlojamientoEntity {
     @Column(nullable = false, length = 100)
     private String ciudad;
 
+    // Ciudad en minúsculas y sin tildes ("Bogotá" → "bogota"); la calcula normalizarCiudad()
+    @Column(name = "ciudad_norm", length = 100)
+    private String ciudadNorm;
+
     @Column(nullable = false, precision = 10, scale = 8)
     private BigDecimal latitud;
 
@@ -61,6 +75,51 @@ public class AlojamientoEntity {
     @Builder.Default
     private Boolean eliminado = false;
 
+    // Agregados de calificaciones de los comentarios. Solo los escriben los UPDATE
+    // atómicos de AlojamientoRepository (registrarCalificacion / retirarCalificacion),
+    // así guardar la entidad nunca pisa los contadores con valores viejos.
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_total", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificacionesTotal = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_suma", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificacionesSuma = 0;
+
+    // Promedio guardado para poder ordenar por calificación (0 si no tiene comentarios)
+    @ColumnDefault("0")
+    @Column(name = "calificacion_promedio", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Double calificacionPromedio = 0.0;
+
+    // Histograma: comentarios con 1, 2, 3, 4 y 5 estrellas
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_1", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificaciones1 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_2", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificaciones2 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_3", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificaciones3 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_4", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificaciones4 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "calificaciones_5", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer calificaciones5 = 0;
+
     @Column(name = "fecha_creacion", insertable = false, updatable = false)
     private Timestamp fechaCreacion;
 
@@ -79,4 +138,10 @@ public class AlojamientoEntity {
 
     @OneToMany(mappedBy = "alojamiento", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FavoritoEntity> favoritos;
+
+    @PrePersist
+    @PreUpdate
+    protected void normalizarCiudad() {
+        ciudadNorm = TextoUtil.normalizar(ciudad);
+    }
 }
@@ -0,0 +1,70 @@
+package com.example.Alojamientos.persistenceLayer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo en cola de envío.
+ *
+ * EmailService lo inserta en la transacción del servicio que lo pide (p. ej.
+ * el código de recuperación), así que la petición no espera al servidor SMTP.
+ * CorreoRelay lo envía en segundo plano, con reintentos, y cambia el estado.
+ */
+@Entity
+@Table(name = "correo_pendiente", indexes = {
+        // Pendientes listos para enviar: estado = 'PENDIENTE' AND siguiente_intento <= ahora
+        @Index(name = "idx_correo_pendiente_estado", columnList = "estado, siguiente_intento")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorreoPendienteEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 150)
+    private String destinatario;
+
+    @Column(nullable = false, length = 200)
+    private String asunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String cuerpo;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado = Estado.PENDIENTE;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime creado = LocalDateTime.now();
+
+    // Antes de esta fecha no se envía: reintento pendiente o tomado por un relay
+    @Column(name = "siguiente_intento", nullable = false)
+    private LocalDateTime siguienteIntento;
+
+    // Si no se pudo enviar antes de esta fecha ya no sirve (p. ej. un código que expiró)
+    private LocalDateTime vence;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    private LocalDateTime enviado;
+
+    public enum Estado {
+        PENDIENTE,
+        ENVIADO,
+        FALLIDO,
+        VENCIDO
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.Alojamientos.persistenceLayer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio pendiente de despachar (patrón outbox).
+ *
+ * Se inserta en la misma transacción que el cambio que lo origina (reserva,
+ * comentario, pago), así que existe si y solo si el cambio quedó confirmado.
+ * EventoOutboxRelay lo entrega a los manejadores y marca {@code procesado}.
+ */
+@Entity
+@Table(name = "evento_outbox", indexes = {
+        // Pendientes listos para entregar: procesado IS NULL AND siguiente_intento <= ahora
+        @Index(name = "idx_evento_outbox_pendientes", columnList = "procesado, siguiente_intento")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventoOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private TipoEvento tipo;
+
+    // ID de la reserva, comentario o pago que originó el evento
+    @Column(name = "id_agregado", nullable = false)
+    private Integer agregadoId;
+
+    // Datos del evento en JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime creado = LocalDateTime.now();
+
+    // Antes de esta fecha el evento no se entrega: reintento pendiente o tomado por un relay
+    @Column(name = "siguiente_intento", nullable = false)
+    private LocalDateTime siguienteIntento;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    private LocalDateTime procesado;
+
+    public enum TipoEvento {
+        RESERVA_CREADA,
+        RESERVA_CANCELADA,
+        COMENTARIO_CREADO,
+        PAGO_REGISTRADO,
+        PAGO_CONFIRMADO,
+        PAGO_FALLIDO
+    }
+}
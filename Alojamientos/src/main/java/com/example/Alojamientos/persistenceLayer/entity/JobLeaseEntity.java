@@ -0,0 +1,33 @@
+package com.example.Alojamientos.persistenceLayer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease de un job programado: la instancia {@code propietario} lo ejecuta hasta
+ * {@code vence}. Si la instancia muere sin liberarlo, otra lo toma al vencer.
+ * Ver JobLeaseService.
+ */
+@Entity
+@Table(name = "job_lease")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLeaseEntity {
+
+    @Id
+    @Column(length = 100)
+    private String nombre;
+
+    @Column(nullable = false, length = 150)
+    private String propietario;
+
+    @Column(nullable = false)
+    private LocalDateTime adquirido;
+
+    @Column(nullable = false)
+    private LocalDateTime vence;
+}
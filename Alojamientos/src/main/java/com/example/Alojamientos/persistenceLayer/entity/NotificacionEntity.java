@@ -6,7 +6,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notificacion")
+@Table(name = "notificacion", indexes = {
+        // Conteo de no leídas y UPDATE/DELETE masivos de un usuario (marcar todas, eliminar leídas)
+        @Index(name = "idx_notificacion_usuario_leida", columnList = "id_usuario, leida"),
+        // NotificacionRetencionScheduler: cada lote busca leídas antiguas sin recorrer la tabla
+        @Index(name = "idx_notificacion_leida_fecha", columnList = "leida, fecha_creacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
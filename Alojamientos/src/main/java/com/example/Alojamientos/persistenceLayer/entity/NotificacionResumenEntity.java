@@ -0,0 +1,67 @@
+package com.example.Alojamientos.persistenceLayer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ventana de resumen abierta de NotificacionAgrupador: una por usuario, tipo y
+ * grupo. Se abre y se acumula dentro de la transacción que publica el evento,
+ * así que sobrevive a una caída y la comparten todas las instancias. Al vencer
+ * {@code cierre}, NotificacionService la convierte en una notificación de
+ * resumen y la elimina.
+ */
+@Entity
+@Table(name = "notificacion_resumen",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notificacion_resumen_clave",
+                columnNames = {"id_usuario", "tipo", "grupo"}),
+        indexes = {
+                // Revisión de ventanas vencidas: cierre <= ahora
+                @Index(name = "idx_notificacion_resumen_cierre", columnList = "cierre")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificacionResumenEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_usuario", nullable = false)
+    private Integer usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 30)
+    private NotificacionEntity.TipoNotificacion tipo;
+
+    @Column(name = "grupo", nullable = false, length = 100)
+    private String grupo;
+
+    // Título del resumen, con %d para la cantidad
+    @Column(name = "resumen", length = 200)
+    private String resumen;
+
+    @Column(name = "cierre", nullable = false)
+    private LocalDateTime cierre;
+
+    // Eventos acumulados después del que abrió la ventana
+    @Builder.Default
+    @Column(name = "pendientes", nullable = false)
+    private Integer pendientes = 0;
+
+    // Los primeros mensajes acumulados, separados por salto de línea
+    @Column(name = "mensajes", columnDefinition = "TEXT")
+    private String mensajes;
+
+    @Column(name = "ultimo_titulo", length = 150)
+    private String ultimoTitulo;
+
+    @Column(name = "ultimo_mensaje", columnDefinition = "TEXT")
+    private String ultimoMensaje;
+
+    @Column(name = "ultima_creada")
+    private LocalDateTime ultimaCreada;
+}
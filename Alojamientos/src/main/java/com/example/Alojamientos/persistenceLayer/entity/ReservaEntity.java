@@ -10,7 +10,13 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "reserva")
+@Table(name = "reserva", indexes = {
+        // Solapamiento de fechas y reservas activas de un alojamiento: el rango sobre
+        // fecha_fin deja fuera las estancias pasadas, así el historial no se lee
+        @Index(name = "idx_reserva_alojamiento_fechas", columnList = "id_alojamiento, fecha_fin, estado, fecha_inicio"),
+        // ReservaScheduler: cada lote busca CONFIRMADAS con fecha_fin vencida sin recorrer la tabla
+        @Index(name = "idx_reserva_estado_fecha_fin", columnList = "estado, fecha_fin")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
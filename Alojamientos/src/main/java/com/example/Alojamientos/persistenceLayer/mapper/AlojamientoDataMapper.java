@@ -1,11 +1,15 @@
 package com.example.Alojamientos.persistenceLayer.mapper;
 
 import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.AlojamientoTarjetaDTO;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
 import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
 import org.mapstruct.*;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface AlojamientoDataMapper {
@@ -22,8 +26,22 @@ public interface AlojamientoDataMapper {
     @Mapping(target = "mainImage", source = "imagenPrincipal")
     @Mapping(target = "active", source = "activo")
     @Mapping(target = "deleted", source = "eliminado")
+    @Mapping(target = "averageRating", expression = "java(promedioCalificaciones(entity))")
+    @Mapping(target = "reviewCount", source = "calificacionesTotal")
+    @Mapping(target = "ratingHistogram", expression = "java(histogramaCalificaciones(entity))")
     AlojamientoDTO toDTO(AlojamientoEntity entity);
 
+    @Mapping(target = "name", source = "nombre")
+    @Mapping(target = "city", source = "ciudad")
+    @Mapping(target = "pricePerNight", source = "precioPorNoche")
+    @Mapping(target = "maxCapacity", source = "capacidadMaxima")
+    @Mapping(target = "mainImage", source = "imagenPrincipal")
+    @Mapping(target = "latitude", source = "latitud")
+    @Mapping(target = "longitude", source = "longitud")
+    @Mapping(target = "averageRating", source = "calificacionPromedio")
+    @Mapping(target = "reviewCount", source = "totalComentarios")
+    AlojamientoTarjetaDTO toTarjetaDTO(AlojamientoTarjetaView view);
+
     @Mapping(target = "anfitrion", source = "hostId", qualifiedByName = "hostIdToEntity")
     @Mapping(target = "nombre", source = "name")
     @Mapping(target = "descripcion", source = "description")
@@ -44,6 +62,20 @@ public interface AlojamientoDataMapper {
         return UsuarioEntity.builder().id(hostId).build();
     }
 
+    @Named("promedioCalificaciones")
+    default Double promedioCalificaciones(AlojamientoEntity entity) {
+        Integer total = entity.getCalificacionesTotal();
+        return total != null && total > 0 ? entity.getCalificacionPromedio() : null;
+    }
+
+    @Named("histogramaCalificaciones")
+    default List<Integer> histogramaCalificaciones(AlojamientoEntity entity) {
+        return Stream.of(entity.getCalificaciones1(), entity.getCalificaciones2(), entity.getCalificaciones3(),
+                        entity.getCalificaciones4(), entity.getCalificaciones5())
+                .map(n -> n != null ? n : 0)
+                .toList();
+    }
+
     @Named("doubleToBigDecimal")
     default BigDecimal doubleToBigDecimal(Double value) {
         return value != null ? BigDecimal.valueOf(value) : null;
@@ -0,0 +1,11 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+/**
+ * Proyección mínima de un alojamiento para construir el trie de ciudades.
+ */
+public interface AlojamientoCiudadView {
+
+    Integer getId();
+
+    String getCiudad();
+}
@@ -0,0 +1,16 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección mínima de un alojamiento para construir el índice geográfico
+ * sin cargar la descripción ni las relaciones.
+ */
+public interface AlojamientoCoordenadasView {
+
+    Integer getId();
+
+    BigDecimal getLatitud();
+
+    BigDecimal getLongitud();
+}
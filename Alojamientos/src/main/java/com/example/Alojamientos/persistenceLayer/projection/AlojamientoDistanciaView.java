@@ -0,0 +1,12 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+/**
+ * Resultado de la búsqueda por ubicación resuelta en la base de datos:
+ * ID del alojamiento y distancia en km al punto de referencia.
+ */
+public interface AlojamientoDistanciaView {
+
+    Integer getId();
+
+    Double getDistancia();
+}
@@ -0,0 +1,32 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de un alojamiento con lo que muestra una tarjeta de resultados.
+ * No incluye la descripción (TEXT) ni la dirección, así los listados nunca
+ * las leen de la base de datos.
+ */
+public interface AlojamientoTarjetaView {
+
+    Integer getId();
+
+    String getNombre();
+
+    String getCiudad();
+
+    BigDecimal getPrecioPorNoche();
+
+    Integer getCapacidadMaxima();
+
+    String getImagenPrincipal();
+
+    BigDecimal getLatitud();
+
+    BigDecimal getLongitud();
+
+    /** Promedio de calificaciones de los comentarios, o null si no tiene. */
+    Double getCalificacionPromedio();
+
+    Integer getTotalComentarios();
+}
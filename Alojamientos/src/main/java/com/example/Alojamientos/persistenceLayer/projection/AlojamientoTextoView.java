@@ -0,0 +1,20 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección de un alojamiento con los campos que alimentan el índice de
+ * búsqueda por texto, sin cargar relaciones.
+ */
+public interface AlojamientoTextoView {
+
+    Integer getId();
+
+    String getNombre();
+
+    String getDescripcion();
+
+    String getCiudad();
+
+    BigDecimal getPrecioPorNoche();
+}
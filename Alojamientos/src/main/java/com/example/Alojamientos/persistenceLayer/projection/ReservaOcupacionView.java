@@ -0,0 +1,16 @@
+package com.example.Alojamientos.persistenceLayer.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección mínima de una reserva vigente para construir el índice de
+ * disponibilidad sin cargar huésped, pago ni comentarios.
+ */
+public interface ReservaOcupacionView {
+
+    Integer getAlojamientoId();
+
+    LocalDate getFechaInicio();
+
+    LocalDate getFechaFin();
+}
@@ -0,0 +1,32 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteos agregados (facetas) para la búsqueda unificada de alojamientos.
+ * Se resuelven con GROUP BY en la base de datos sobre los mismos filtros
+ * de {@link AlojamientoSpecifications}.
+ */
+public interface AlojamientoFacetasRepository {
+
+    /**
+     * Cuenta los alojamientos por tramo de precio.
+     *
+     * @param limites límites superiores (exclusivos) de cada tramo, en orden ascendente;
+     *                el último tramo agrupa los precios mayores o iguales al último límite
+     * @return mapa índice de tramo → cantidad (los tramos vacíos no aparecen)
+     */
+    Map<Integer, Long> contarPorTramoPrecio(Specification<AlojamientoEntity> filtro, List<BigDecimal> limites);
+
+    /**
+     * Cuenta los alojamientos que ofrecen cada servicio activo.
+     *
+     * @return mapa id de servicio → cantidad (los servicios sin alojamientos no aparecen)
+     */
+    Map<Integer, Long> contarPorServicio(Specification<AlojamientoEntity> filtro);
+}
@@ -0,0 +1,80 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoServicioEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación del fragmento {@link AlojamientoFacetasRepository} con Criteria API.
+ * Spring Data la detecta por el sufijo Impl y la combina con {@link AlojamientoRepository}.
+ */
+public class AlojamientoFacetasRepositoryImpl implements AlojamientoFacetasRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<Integer, Long> contarPorTramoPrecio(Specification<AlojamientoEntity> filtro, List<BigDecimal> limites) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<AlojamientoEntity> root = query.from(AlojamientoEntity.class);
+
+        // Límites e índices van como literales: con parámetros el CASE del SELECT y el del
+        // GROUP BY llevan marcadores distintos y H2 no los reconoce como la misma expresión
+        Path<BigDecimal> precio = root.get("precioPorNoche");
+        CriteriaBuilder.Case<Integer> tramo = cb.selectCase();
+        for (int i = 0; i < limites.size(); i++) {
+            tramo = tramo.when(cb.lessThan(precio, cb.literal(limites.get(i))), cb.literal(i));
+        }
+        Expression<Integer> expresionTramo = tramo.otherwise(cb.literal(limites.size()));
+
+        query.multiselect(expresionTramo, cb.count(root))
+                .where(filtro.toPredicate(root, query, cb))
+                .groupBy(expresionTramo);
+
+        Map<Integer, Long> conteos = new LinkedHashMap<>();
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            conteos.put(((Number) fila.get(0)).intValue(), ((Number) fila.get(1)).longValue());
+        }
+        return conteos;
+    }
+
+    @Override
+    public Map<Integer, Long> contarPorServicio(Specification<AlojamientoEntity> filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<AlojamientoServicioEntity> as = query.from(AlojamientoServicioEntity.class);
+        Path<Integer> servicioId = as.get("servicio").get("id");
+
+        // Los filtros se aplican sobre AlojamientoEntity, así que van en una subconsulta de IDs
+        Subquery<Integer> filtrados = query.subquery(Integer.class);
+        Root<AlojamientoEntity> alojamiento = filtrados.from(AlojamientoEntity.class);
+        filtrados.select(alojamiento.get("id")).where(filtro.toPredicate(alojamiento, query, cb));
+
+        query.multiselect(servicioId, cb.countDistinct(as.get("alojamiento").get("id")))
+                .where(cb.isTrue(as.get("activo")),
+                        cb.isTrue(as.get("servicio").get("activo")),
+                        as.get("alojamiento").get("id").in(filtrados))
+                .groupBy(servicioId);
+
+        Map<Integer, Long> conteos = new LinkedHashMap<>();
+        for (Tuple fila : entityManager.createQuery(query).getResultList()) {
+            conteos.put(((Number) fila.get(0)).intValue(), ((Number) fila.get(1)).longValue());
+        }
+        return conteos;
+    }
+}
@@ -1,18 +1,136 @@
 package com.example.Alojamientos.persistenceLayer.repository;
 
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoCiudadView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoCoordenadasView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoDistanciaView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTextoView;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AlojamientoRepository extends JpaRepository<AlojamientoEntity, Integer> {
+public interface AlojamientoRepository extends JpaRepository<AlojamientoEntity, Integer>,
+        JpaSpecificationExecutor<AlojamientoEntity>,
+        AlojamientoFacetasRepository {
 
     /**
-     * Busca alojamientos por ciudad
+     * Distancia Haversine (km) entre el alojamiento {@code a} y el punto (:lat, :lng).
+     * LEAST evita que el redondeo deje el argumento de ASIN por encima de 1.
      */
-    List<AlojamientoEntity> findByCiudadIgnoreCase(String ciudad);
+    String DISTANCIA_HAVERSINE_KM =
+            "6371 * 2 * ASIN(LEAST(1, SQRT(" +
+            "POWER(SIN(RADIANS(a.latitud - :lat) / 2), 2) + " +
+            "COS(RADIANS(:lat)) * COS(RADIANS(a.latitud)) * " +
+            "POWER(SIN(RADIANS(a.longitud - :lng) / 2), 2))))";
+
+    /**
+     * Columnas de AlojamientoTarjetaView (sin descripción ni dirección). La
+     * calificación sale de los agregados del propio alojamiento, sin tocar comentario.
+     */
+    String SELECT_TARJETA =
+            "SELECT a.id AS id, a.nombre AS nombre, a.ciudad AS ciudad, a.precioPorNoche AS precioPorNoche, " +
+            "a.capacidadMaxima AS capacidadMaxima, a.imagenPrincipal AS imagenPrincipal, " +
+            "a.latitud AS latitud, a.longitud AS longitud, " +
+            "CASE WHEN a.calificacionesTotal > 0 THEN a.calificacionPromedio END AS calificacionPromedio, " +
+            "a.calificacionesTotal AS totalComentarios " +
+            "FROM AlojamientoEntity a WHERE a.activo = true AND a.eliminado = false ";
+
+    /**
+     * Carga el alojamiento con SELECT ... FOR UPDATE para crear una reserva.
+     * El bloqueo de fila dura hasta el fin de la transacción, así dos reservas
+     * del mismo alojamiento se validan una detrás de otra y las de alojamientos
+     * distintos no se esperan entre sí.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AlojamientoEntity a WHERE a.id = :id")
+    Optional<AlojamientoEntity> findByIdParaReservar(@Param("id") Integer id);
+
+    /**
+     * Busca alojamientos por ciudad normalizada (ver TextoUtil.normalizar).
+     * Igualdad sobre ciudad_norm, así usa idx_alojamiento_ciudad_norm en lugar de recorrer la tabla.
+     */
+    List<AlojamientoEntity> findByCiudadNorm(String ciudadNorm);
+
+    // ── Relleno de ciudad_norm en filas creadas antes de la columna (DataInitializer) ──
+
+    @Query("SELECT DISTINCT a.ciudad FROM AlojamientoEntity a WHERE a.ciudadNorm IS NULL")
+    List<String> findCiudadesSinNormalizar();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE AlojamientoEntity a SET a.ciudadNorm = :ciudadNorm " +
+            "WHERE a.ciudad = :ciudad AND a.ciudadNorm IS NULL")
+    int normalizarCiudad(@Param("ciudad") String ciudad, @Param("ciudadNorm") String ciudadNorm);
+
+    // ── Agregados de calificaciones (ComentarioService) ──
+    // SQL nativo para que el promedio quede en coma flotante en MySQL y en H2.
+    // MySQL evalúa las asignaciones de izquierda a derecha con los valores ya
+    // actualizados, por eso el promedio va primero: así lee los contadores anteriores.
+
+    @Modifying
+    @Query(value = "UPDATE alojamiento SET" +
+            " calificacion_promedio = CASE WHEN calificaciones_total + :delta > 0" +
+            "   THEN (calificaciones_suma + :puntos) * 1.0 / (calificaciones_total + :delta) ELSE 0 END," +
+            " calificaciones_total = calificaciones_total + :delta," +
+            " calificaciones_suma = calificaciones_suma + :puntos," +
+            " calificaciones_1 = calificaciones_1 + CASE WHEN :calificacion = 1 THEN :delta ELSE 0 END," +
+            " calificaciones_2 = calificaciones_2 + CASE WHEN :calificacion = 2 THEN :delta ELSE 0 END," +
+            " calificaciones_3 = calificaciones_3 + CASE WHEN :calificacion = 3 THEN :delta ELSE 0 END," +
+            " calificaciones_4 = calificaciones_4 + CASE WHEN :calificacion = 4 THEN :delta ELSE 0 END," +
+            " calificaciones_5 = calificaciones_5 + CASE WHEN :calificacion = 5 THEN :delta ELSE 0 END" +
+            " WHERE id = :id",
+            nativeQuery = true)
+    int ajustarCalificaciones(@Param("id") Integer id,
+                              @Param("calificacion") int calificacion,
+                              @Param("delta") int delta,
+                              @Param("puntos") int puntos);
+
+    /** Suma un comentario con esa calificación (1 a 5) a los agregados del alojamiento. */
+    default int registrarCalificacion(Integer id, int calificacion) {
+        return ajustarCalificaciones(id, calificacion, 1, calificacion);
+    }
+
+    /** Descuenta un comentario con esa calificación (1 a 5) de los agregados del alojamiento. */
+    default int retirarCalificacion(Integer id, int calificacion) {
+        return ajustarCalificaciones(id, calificacion, -1, -calificacion);
+    }
+
+    @Query("SELECT a.calificacionPromedio FROM AlojamientoEntity a " +
+            "WHERE a.id = :id AND a.calificacionesTotal > 0")
+    Optional<Double> findCalificacionPromedio(@Param("id") Integer id);
+
+    /**
+     * Recalcula los agregados desde la tabla comentario en los alojamientos donde
+     * no cuadran (filas anteriores a las columnas); usado por DataInitializer.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE alojamiento a SET" +
+            " calificacion_promedio = COALESCE((SELECT AVG(c.calificacion * 1.0) FROM comentario c WHERE c.id_alojamiento = a.id), 0)," +
+            " calificaciones_total = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id)," +
+            " calificaciones_suma = COALESCE((SELECT SUM(c.calificacion) FROM comentario c WHERE c.id_alojamiento = a.id), 0)," +
+            " calificaciones_1 = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id AND c.calificacion = 1)," +
+            " calificaciones_2 = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id AND c.calificacion = 2)," +
+            " calificaciones_3 = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id AND c.calificacion = 3)," +
+            " calificaciones_4 = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id AND c.calificacion = 4)," +
+            " calificaciones_5 = (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id AND c.calificacion = 5)" +
+            " WHERE a.calificaciones_total <> (SELECT COUNT(*) FROM comentario c WHERE c.id_alojamiento = a.id)",
+            nativeQuery = true)
+    int recalcularCalificaciones();
 
     /**
      * Busca alojamientos por anfitrión (usando el id del anfitrión)
@@ -36,4 +154,98 @@ public interface AlojamientoRepository extends JpaRepository<AlojamientoEntity,
 
     boolean existsByNombreAndAnfitrion_Id(String nombre, Integer anfitrionId);
 
-}
\ No newline at end of file
+    /**
+     * ALOJ-18: coordenadas de los alojamientos activos y no eliminados,
+     * usadas para construir el índice geográfico en memoria
+     */
+    @Query("SELECT a.id AS id, a.latitud AS latitud, a.longitud AS longitud " +
+            "FROM AlojamientoEntity a WHERE a.activo = true AND a.eliminado = false")
+    List<AlojamientoCoordenadasView> findCoordenadasActivas();
+
+    /**
+     * Campos de texto y precio de los alojamientos visibles, para construir el
+     * índice de búsqueda por texto.
+     */
+    @Query("SELECT a.id AS id, a.nombre AS nombre, a.descripcion AS descripcion, " +
+            "a.ciudad AS ciudad, a.precioPorNoche AS precioPorNoche " +
+            "FROM AlojamientoEntity a WHERE a.activo = true AND a.eliminado = false")
+    List<AlojamientoTextoView> findTextoActivos();
+
+    @Query("SELECT a.id AS id, a.ciudad AS ciudad " +
+            "FROM AlojamientoEntity a WHERE a.activo = true AND a.eliminado = false")
+    List<AlojamientoCiudadView> findCiudadesActivas();
+
+    /**
+     * ALOJ-18: búsqueda por ubicación resuelta en la base de datos.
+     * La caja (lat/lng) usa el índice idx_alojamiento_lat_lng; Haversine solo se
+     * calcula para las filas dentro de la caja. Paginación keyset sobre (distancia, id):
+     * devuelve las filas posteriores a (:despuesDistancia, :despuesId).
+     */
+    @Query(value = "SELECT c.id AS id, c.distancia AS distancia FROM (" +
+            " SELECT a.id AS id, " + DISTANCIA_HAVERSINE_KM + " AS distancia" +
+            " FROM alojamiento a" +
+            " WHERE a.activo = true AND a.eliminado = false" +
+            " AND a.latitud BETWEEN :latMin AND :latMax" +
+            " AND a.longitud BETWEEN :lngMin AND :lngMax" +
+            ") c" +
+            " WHERE c.distancia <= :radioKm" +
+            " AND (c.distancia > :despuesDistancia OR (c.distancia = :despuesDistancia AND c.id > :despuesId))" +
+            " ORDER BY c.distancia, c.id" +
+            " LIMIT :limite",
+            nativeQuery = true)
+    List<AlojamientoDistanciaView> findCercanosEnCaja(@Param("lat") double lat,
+                                                      @Param("lng") double lng,
+                                                      @Param("latMin") double latMin,
+                                                      @Param("latMax") double latMax,
+                                                      @Param("lngMin") double lngMin,
+                                                      @Param("lngMax") double lngMax,
+                                                      @Param("radioKm") double radioKm,
+                                                      @Param("despuesDistancia") double despuesDistancia,
+                                                      @Param("despuesId") int despuesId,
+                                                      @Param("limite") int limite);
+
+    // ── Tarjetas de resultados: solo alojamientos visibles, sin leer la descripción ──
+
+    @Query(SELECT_TARJETA + "ORDER BY a.id")
+    List<AlojamientoTarjetaView> findTarjetasActivas();
+
+    @Query(SELECT_TARJETA + "AND a.ciudadNorm = :ciudadNorm ORDER BY a.id")
+    List<AlojamientoTarjetaView> findTarjetasActivasPorCiudad(@Param("ciudadNorm") String ciudadNorm);
+
+    @Query(SELECT_TARJETA + "AND a.precioPorNoche BETWEEN :precioMin AND :precioMax ORDER BY a.precioPorNoche, a.id")
+    List<AlojamientoTarjetaView> findTarjetasActivasPorPrecio(@Param("precioMin") BigDecimal precioMin,
+                                                              @Param("precioMax") BigDecimal precioMax);
+
+    @Query(SELECT_TARJETA + "AND a.id IN :ids")
+    List<AlojamientoTarjetaView> findTarjetasActivasPorIds(@Param("ids") Collection<Integer> ids);
+
+    @Query(SELECT_TARJETA + "AND a.id > :despuesId ORDER BY a.id")
+    List<AlojamientoTarjetaView> findTarjetasActivasDespuesDe(@Param("despuesId") int despuesId, Pageable limite);
+
+    @Query(SELECT_TARJETA + "AND a.ciudadNorm = :ciudadNorm AND a.id > :despuesId ORDER BY a.id")
+    List<AlojamientoTarjetaView> findTarjetasActivasPorCiudadDespuesDe(@Param("ciudadNorm") String ciudadNorm,
+                                                                       @Param("despuesId") int despuesId,
+                                                                       Pageable limite);
+
+    // ── Paginación keyset: filas con id > :despuesId en orden ascendente ──
+    // El Pageable solo aporta el límite (limite + 1 filas)
+
+    @Query("SELECT a FROM AlojamientoEntity a WHERE a.anfitrion.id = :hostId " +
+            "AND a.activo = true AND a.eliminado = false AND a.id > :despuesId ORDER BY a.id")
+    List<AlojamientoEntity> findActivosPorAnfitrionDespuesDe(@Param("hostId") Integer hostId,
+                                                             @Param("despuesId") int despuesId,
+                                                             Pageable limite);
+
+    // ── Búsqueda por fechas: solo IDs, la disponibilidad la resuelve el índice en memoria ──
+    // Por tramos de id > :despuesId; el Pageable solo aporta el tamaño del tramo
+
+    @Query("SELECT a.id FROM AlojamientoEntity a WHERE a.activo = true AND a.eliminado = false " +
+            "AND a.id > :despuesId ORDER BY a.id")
+    List<Integer> findIdsActivosDespuesDe(@Param("despuesId") int despuesId, Pageable tramo);
+
+    @Query("SELECT a.id FROM AlojamientoEntity a WHERE a.ciudadNorm = :ciudadNorm " +
+            "AND a.activo = true AND a.eliminado = false AND a.id > :despuesId ORDER BY a.id")
+    List<Integer> findIdsActivosPorCiudadDespuesDe(@Param("ciudadNorm") String ciudadNorm,
+                                                   @Param("despuesId") int despuesId,
+                                                   Pageable tramo);
+}
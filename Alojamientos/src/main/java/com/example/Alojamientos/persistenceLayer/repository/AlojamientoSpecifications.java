@@ -0,0 +1,130 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.businessLayer.util.TextoUtil;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoServicioEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros reutilizables para la búsqueda unificada de alojamientos (/api/alojamientos/search).
+ * Cada método devuelve una {@link Specification} que se combina con las demás en una sola consulta.
+ */
+public final class AlojamientoSpecifications {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+
+    private AlojamientoSpecifications() {
+    }
+
+    public static Specification<AlojamientoEntity> activosNoEliminados() {
+        return (root, query, cb) -> cb.and(
+                cb.isTrue(root.get("activo")),
+                cb.isFalse(root.get("eliminado")));
+    }
+
+    /**
+     * Misma ciudad sin importar mayúsculas ni tildes, comparando la columna ciudad_norm (indexada).
+     */
+    public static Specification<AlojamientoEntity> enCiudad(String ciudad) {
+        return (root, query, cb) -> cb.equal(root.get("ciudadNorm"), TextoUtil.normalizar(ciudad));
+    }
+
+    public static Specification<AlojamientoEntity> precioDesde(Double precioMin) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("precioPorNoche"), BigDecimal.valueOf(precioMin));
+    }
+
+    public static Specification<AlojamientoEntity> precioHasta(Double precioMax) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("precioPorNoche"), BigDecimal.valueOf(precioMax));
+    }
+
+    public static Specification<AlojamientoEntity> capacidadMinima(Integer huespedes) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("capacidadMaxima"), huespedes);
+    }
+
+    /**
+     * El alojamiento debe tener activos TODOS los servicios indicados.
+     */
+    public static Specification<AlojamientoEntity> conServicios(List<Integer> servicioIds) {
+        return (root, query, cb) -> cb.and(servicioIds.stream()
+                .map(servicioId -> {
+                    Subquery<Integer> sub = query.subquery(Integer.class);
+                    Root<AlojamientoServicioEntity> as = sub.from(AlojamientoServicioEntity.class);
+                    sub.select(as.get("id")).where(
+                            cb.equal(as.get("alojamiento"), root),
+                            cb.equal(as.get("servicio").get("id"), servicioId),
+                            cb.isTrue(as.get("activo")));
+                    return cb.exists(sub);
+                })
+                .toArray(Predicate[]::new));
+    }
+
+    /**
+     * Sin reservas CONFIRMADA/PENDIENTE que se solapen con [inicio, fin).
+     */
+    public static Specification<AlojamientoEntity> disponibleEntre(LocalDate inicio, LocalDate fin) {
+        return (root, query, cb) -> {
+            Subquery<Integer> sub = query.subquery(Integer.class);
+            Root<ReservaEntity> r = sub.from(ReservaEntity.class);
+            sub.select(r.get("id")).where(
+                    cb.equal(r.get("alojamiento"), root),
+                    r.get("estado").in(ReservaEntity.EstadoReserva.CONFIRMADA, ReservaEntity.EstadoReserva.PENDIENTE),
+                    cb.lessThan(r.get("fechaInicio"), fin),
+                    cb.greaterThan(r.get("fechaFin"), inicio));
+            return cb.not(cb.exists(sub));
+        };
+    }
+
+    /**
+     * Dentro del radio (km) alrededor de (lat, lng).
+     * Prefiltra por la caja que envuelve el círculo y luego aplica Haversine
+     * comparando el término {@code a} contra sin²(radio / 2R), que evita ASIN y SQRT.
+     */
+    public static Specification<AlojamientoEntity> dentroDeRadio(double lat, double lng, double radioKm) {
+        return (root, query, cb) -> {
+            double kmPorGrado = RADIO_TIERRA_KM * Math.PI / 180;
+            double deltaLat   = radioKm / kmPorGrado;
+            double latMin     = Math.max(-90, lat - deltaLat);
+            double latMax     = Math.min(90, lat + deltaLat);
+            double cosLat     = Math.cos(Math.toRadians(Math.max(Math.abs(latMin), Math.abs(latMax))));
+            double deltaLng   = cosLat > 0 ? radioKm / (kmPorGrado * cosLat) : 360;
+
+            List<Predicate> predicados = new ArrayList<>();
+            predicados.add(cb.between(root.get("latitud"), BigDecimal.valueOf(latMin), BigDecimal.valueOf(latMax)));
+            if (latMin > -90 && latMax < 90 && lng - deltaLng >= -180 && lng + deltaLng <= 180) {
+                predicados.add(cb.between(root.get("longitud"),
+                        BigDecimal.valueOf(lng - deltaLng), BigDecimal.valueOf(lng + deltaLng)));
+            }
+
+            double radLatRef = Math.toRadians(lat);
+            double radLngRef = Math.toRadians(lng);
+            Expression<Double> radLat  = funcion(cb, "radians", root.get("latitud"));
+            Expression<Double> radLng  = funcion(cb, "radians", root.get("longitud"));
+            Expression<Double> senoLat = funcion(cb, "sin", cb.quot(cb.diff(radLat, radLatRef), 2.0));
+            Expression<Double> senoLng = funcion(cb, "sin", cb.quot(cb.diff(radLng, radLngRef), 2.0));
+
+            Expression<Double> a = cb.sum(
+                    cb.prod(senoLat, senoLat),
+                    cb.prod(cb.prod(funcion(cb, "cos", radLat), Math.cos(radLatRef)), cb.prod(senoLng, senoLng)));
+
+            double umbral = Math.pow(Math.sin(Math.min(radioKm / (2 * RADIO_TIERRA_KM), Math.PI / 2)), 2);
+            predicados.add(cb.le(a, umbral));
+
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    private static Expression<Double> funcion(CriteriaBuilder cb, String nombre, Expression<?> argumento) {
+        return cb.function(nombre, Double.class, argumento);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.CorreoPendienteEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CorreoPendienteRepository extends JpaRepository<CorreoPendienteEntity, Long> {
+
+    /**
+     * Bloquea el siguiente lote de correos listos para enviar, saltando con SKIP
+     * LOCKED los que otra instancia tiene bloqueados. Debe llamarse dentro de una transacción.
+     */
+    @Query(value = "SELECT * FROM correo_pendiente " +
+            "WHERE estado = 'PENDIENTE' AND siguiente_intento <= :ahora " +
+            "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CorreoPendienteEntity> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                                   @Param("lote") int lote);
+
+    /**
+     * Aplaza los correos hasta {@code hasta}: los reserva para el relay que los
+     * tomó o los devuelve a la cola sin contar un intento (circuito abierto).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CorreoPendienteEntity c SET c.siguienteIntento = :hasta WHERE c.id IN :ids")
+    int aplazar(@Param("ids") List<Long> ids, @Param("hasta") LocalDateTime hasta);
+
+    // Al salir de PENDIENTE el cuerpo ya no se necesita y se vacía: puede llevar
+    // datos sensibles, como el código de recuperación de contraseña
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CorreoPendienteEntity c SET c.estado = 'ENVIADO', c.enviado = :ahora, c.cuerpo = '', " +
+            "c.intentos = c.intentos + 1, c.ultimoError = NULL WHERE c.id IN :ids")
+    int marcarEnviados(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Cuenta el intento fallido; el correo sigue PENDIENTE y vuelve a la cola en {@code siguienteIntento}.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CorreoPendienteEntity c SET c.intentos = c.intentos + 1, c.ultimoError = :error, " +
+            "c.siguienteIntento = :siguienteIntento WHERE c.id = :id")
+    int registrarFallo(@Param("id") Long id,
+                       @Param("error") String error,
+                       @Param("siguienteIntento") LocalDateTime siguienteIntento);
+
+    /**
+     * Cuenta el intento fallido y descarta el correo (FALLIDO).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CorreoPendienteEntity c SET c.intentos = c.intentos + 1, c.ultimoError = :error, " +
+            "c.estado = 'FALLIDO', c.cuerpo = '' WHERE c.id = :id")
+    int marcarFallido(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE CorreoPendienteEntity c SET c.estado = 'VENCIDO', c.cuerpo = '' WHERE c.id IN :ids")
+    int marcarVencidos(@Param("ids") List<Long> ids);
+
+    // CorreoRetencionScheduler: elimina hasta :lote correos ya resueltos (ENVIADO, FALLIDO, VENCIDO) creados
+    // antes de :limite, en su propia transacción. Menos que :lote significa que no quedan más
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM correo_pendiente WHERE estado <> 'PENDIENTE' AND creado < :limite LIMIT :lote",
+            nativeQuery = true)
+    int purgarResueltosAnteriores(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    long countByEstado(CorreoPendienteEntity.Estado estado);
+}
@@ -0,0 +1,58 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutboxEntity, Long> {
+
+    /**
+     * Bloquea el siguiente lote de eventos listos para entregar. SKIP LOCKED salta
+     * las filas que otro relay tiene bloqueadas en lugar de esperarlas, así varias
+     * instancias toman lotes distintos en paralelo. Debe llamarse dentro de una transacción.
+     */
+    @Query(value = "SELECT * FROM evento_outbox " +
+            "WHERE procesado IS NULL AND siguiente_intento <= :ahora AND intentos < :maxIntentos " +
+            "ORDER BY id LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EventoOutboxEntity> bloquearPendientes(@Param("ahora") LocalDateTime ahora,
+                                                @Param("maxIntentos") int maxIntentos,
+                                                @Param("lote") int lote);
+
+    /**
+     * Reserva los eventos para este relay hasta {@code hasta}: si el relay muere
+     * sin marcarlos, otro los vuelve a tomar después (entrega al menos una vez).
+     */
+    @Modifying
+    @Query("UPDATE EventoOutboxEntity e SET e.siguienteIntento = :hasta WHERE e.id IN :ids")
+    int reservar(@Param("ids") List<Long> ids, @Param("hasta") LocalDateTime hasta);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventoOutboxEntity e SET e.procesado = :ahora, e.ultimoError = NULL WHERE e.id IN :ids")
+    int marcarProcesados(@Param("ids") List<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventoOutboxEntity e SET e.intentos = e.intentos + 1, e.ultimoError = :error, " +
+            "e.siguienteIntento = :siguienteIntento WHERE e.id = :id")
+    int registrarFallo(@Param("id") Long id,
+                       @Param("error") String error,
+                       @Param("siguienteIntento") LocalDateTime siguienteIntento);
+
+    long countByProcesadoIsNull();
+
+    // EventoOutboxRetencionScheduler: elimina hasta :lote eventos procesados antes de :limite, en su propia
+    // transacción. Los no procesados nunca se eliminan. Menos que :lote significa que no quedan más
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM evento_outbox WHERE procesado < :limite LIMIT :lote", nativeQuery = true)
+    int purgarProcesadosAnteriores(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
@@ -0,0 +1,60 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.JobLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Leases de jobs programados (JobLeaseService).
+ *
+ * Las fechas salen del reloj de la base (LOCALTIMESTAMP), no del de cada
+ * instancia, así un desfase entre servidores no adelanta ni atrasa el vencimiento.
+ * Cada operación confirma en su propia transacción para que las demás
+ * instancias la vean de inmediato.
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLeaseEntity, String> {
+
+    // Toma el lease si ya venció; 1 si lo tomó, 0 si otra instancia lo tiene o no existe la fila
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE job_lease SET propietario = :propietario, adquirido = LOCALTIMESTAMP, " +
+            "vence = TIMESTAMPADD(SECOND, :segundos, LOCALTIMESTAMP) " +
+            "WHERE nombre = :nombre AND vence <= LOCALTIMESTAMP", nativeQuery = true)
+    int tomarVencido(@Param("nombre") String nombre,
+                     @Param("propietario") String propietario,
+                     @Param("segundos") long segundos);
+
+    // Primera vez que se ejecuta el job: si otra instancia inserta antes, falla por clave duplicada
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "INSERT INTO job_lease (nombre, propietario, adquirido, vence) " +
+            "VALUES (:nombre, :propietario, LOCALTIMESTAMP, TIMESTAMPADD(SECOND, :segundos, LOCALTIMESTAMP))",
+            nativeQuery = true)
+    int insertar(@Param("nombre") String nombre,
+                 @Param("propietario") String propietario,
+                 @Param("segundos") long segundos);
+
+    // Extiende un lease vigente del mismo propietario; 0 si ya lo perdió
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE job_lease SET vence = TIMESTAMPADD(SECOND, :segundos, LOCALTIMESTAMP) " +
+            "WHERE nombre = :nombre AND propietario = :propietario AND vence > LOCALTIMESTAMP", nativeQuery = true)
+    int renovar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("segundos") long segundos);
+
+    // Libera el lease, pero lo retiene al menos :retencion segundos desde que se tomó
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "UPDATE job_lease SET vence = GREATEST(LOCALTIMESTAMP, TIMESTAMPADD(SECOND, :retencion, adquirido)) " +
+            "WHERE nombre = :nombre AND propietario = :propietario", nativeQuery = true)
+    int liberar(@Param("nombre") String nombre,
+                @Param("propietario") String propietario,
+                @Param("retencion") long retencion);
+}
@@ -0,0 +1,24 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserción de notificaciones por lotes (NotificacionDespachador).
+ */
+public interface NotificacionLoteRepository {
+
+    /**
+     * Inserta las notificaciones con INSERT de varias filas, en una transacción
+     * propia (se llama también desde afterCommit de otra transacción).
+     * Los IDs generados se asignan a las entidades recibidas, pero estas no
+     * quedan administradas.
+     *
+     * @return filas insertadas
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    int insertarLote(List<NotificacionEntity> notificaciones);
+}
@@ -0,0 +1,71 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Implementación del fragmento {@link NotificacionLoteRepository} con JDBC.
+ * Con IDs IDENTITY Hibernate no agrupa los INSERT de saveAll (necesita cada ID
+ * generado), así que aquí se arma un INSERT de varias filas: un viaje a la base
+ * por cada {@value #FILAS_POR_INSERT} notificaciones. Los IDs se leen de las
+ * claves generadas del mismo INSERT, en el orden de las filas.
+ */
+public class NotificacionLoteRepositoryImpl implements NotificacionLoteRepository {
+
+    static final int FILAS_POR_INSERT = 100;
+
+    private static final String INSERT =
+            "INSERT INTO notificacion (id_usuario, tipo, titulo, mensaje, leida, fecha_creacion) VALUES ";
+    private static final String FILA = "(?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNAS = 6;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertarLote(List<NotificacionEntity> notificaciones) {
+        int insertadas = 0;
+        for (int desde = 0; desde < notificaciones.size(); desde += FILAS_POR_INSERT) {
+            insertadas += insertar(notificaciones.subList(desde,
+                    Math.min(desde + FILAS_POR_INSERT, notificaciones.size())));
+        }
+        return insertadas;
+    }
+
+    private int insertar(List<NotificacionEntity> filas) {
+        StringBuilder sql = new StringBuilder(INSERT);
+        for (int i = 0; i < filas.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(FILA);
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(conexion -> {
+            try (PreparedStatement insert = conexion.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < filas.size(); i++) {
+                    NotificacionEntity n = filas.get(i);
+                    int p = i * COLUMNAS;
+                    insert.setInt(p + 1, n.getUsuario().getId());
+                    insert.setString(p + 2, n.getTipo().name());
+                    insert.setString(p + 3, n.getTitulo());
+                    insert.setString(p + 4, n.getMensaje());
+                    insert.setBoolean(p + 5, Boolean.TRUE.equals(n.getLeida()));
+                    insert.setObject(p + 6, n.getFechaCreacion());
+                }
+                int insertadas = insert.executeUpdate();
+
+                try (ResultSet ids = insert.getGeneratedKeys()) {
+                    for (int i = 0; i < filas.size() && ids.next(); i++) {
+                        filas.get(i).setId(ids.getInt(1));
+                    }
+                }
+                return insertadas;
+            }
+        });
+    }
+}
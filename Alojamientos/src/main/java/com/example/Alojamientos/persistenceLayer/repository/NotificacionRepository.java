@@ -1,19 +1,21 @@
 package com.example.Alojamientos.persistenceLayer.repository;
 
 import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
-import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface NotificacionRepository extends JpaRepository<NotificacionEntity, Integer> {
+public interface NotificacionRepository extends JpaRepository<NotificacionEntity, Integer>, NotificacionLoteRepository {
 
     /**
      * Obtiene todas las notificaciones de un usuario
@@ -37,4 +39,48 @@ public interface NotificacionRepository extends JpaRepository<NotificacionEntity
     List<NotificacionEntity> findByUsuario_IdAndLeidaTrueOrderByFechaCreacionDesc(Integer usuarioId);
 
     Long countByUsuario_IdAndLeidaFalse(Integer usuarioId);
+
+    /**
+     * No leídas de varios usuarios en una consulta (usuarioId, cantidad); los usuarios sin no leídas no aparecen
+     */
+    @Query("SELECT n.usuario.id AS usuarioId, COUNT(n) AS cantidad FROM NotificacionEntity n " +
+            "WHERE n.leida = false AND n.usuario.id IN :usuarioIds GROUP BY n.usuario.id")
+    List<Tuple> contarNoLeidasPorUsuario(@Param("usuarioIds") Collection<Integer> usuarioIds);
+
+    /**
+     * Marca como leídas todas las no leídas de un usuario en un solo UPDATE; devuelve las filas cambiadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE NotificacionEntity n SET n.leida = true WHERE n.usuario.id = :usuarioId AND n.leida = false")
+    int marcarTodasLeidas(@Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Elimina todas las leídas de un usuario en un solo DELETE; devuelve las filas eliminadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM NotificacionEntity n WHERE n.usuario.id = :usuarioId AND n.leida = true")
+    int eliminarLeidas(@Param("usuarioId") Integer usuarioId);
+
+    // NotificacionRetencionScheduler: elimina hasta :lote leídas creadas antes de :limite, en su propia transacción.
+    // Devuelve las filas eliminadas; menos que :lote significa que no quedan más
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM notificacion WHERE leida = true AND fecha_creacion < :limite LIMIT :lote",
+            nativeQuery = true)
+    int purgarLeidasAnteriores(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    /**
+     * Paginación por cursor sobre (fechaCreacion DESC, id DESC). El Pageable solo aporta el límite
+     */
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuario.id = :usuarioId " +
+            "ORDER BY n.fechaCreacion DESC, n.id DESC")
+    List<NotificacionEntity> findPrimerasPorUsuario(@Param("usuarioId") Integer usuarioId, Pageable limite);
+
+    @Query("SELECT n FROM NotificacionEntity n WHERE n.usuario.id = :usuarioId " +
+            "AND (n.fechaCreacion < :despuesFecha OR (n.fechaCreacion = :despuesFecha AND n.id < :despuesId)) " +
+            "ORDER BY n.fechaCreacion DESC, n.id DESC")
+    List<NotificacionEntity> findPorUsuarioDespuesDe(@Param("usuarioId") Integer usuarioId,
+                                                     @Param("despuesFecha") LocalDateTime despuesFecha,
+                                                     @Param("despuesId") int despuesId,
+                                                     Pageable limite);
 }
@@ -0,0 +1,65 @@
+package com.example.Alojamientos.persistenceLayer.repository;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionResumenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ventanas de resumen de NotificacionAgrupador. Las escrituras corren en la
+ * transacción de quien publica el evento.
+ */
+@Repository
+public interface NotificacionResumenRepository extends JpaRepository<NotificacionResumenEntity, Long> {
+
+    /**
+     * Suma el evento a la ventana abierta de la clave, si existe; guarda su mensaje
+     * mientras haya menos de :maxMensajes. mensajes se asigna antes que pendientes
+     * para que lea el valor anterior también en MySQL, que evalúa el SET en orden.
+     *
+     * @return 1 si había ventana, 0 si no
+     */
+    @Modifying
+    @Query(value = "UPDATE notificacion_resumen SET " +
+            "mensajes = CASE WHEN pendientes = 0 THEN :mensaje " +
+            "WHEN pendientes < :maxMensajes THEN CONCAT(mensajes, CHAR(10), :mensaje) ELSE mensajes END, " +
+            "pendientes = pendientes + 1, ultimo_titulo = :titulo, ultimo_mensaje = :mensaje, ultima_creada = :creada " +
+            "WHERE id_usuario = :usuarioId AND tipo = :tipo AND grupo = :grupo", nativeQuery = true)
+    int acumular(@Param("usuarioId") Integer usuarioId,
+                 @Param("tipo") String tipo,
+                 @Param("grupo") String grupo,
+                 @Param("titulo") String titulo,
+                 @Param("mensaje") String mensaje,
+                 @Param("creada") LocalDateTime creada,
+                 @Param("maxMensajes") int maxMensajes);
+
+    /**
+     * Abre una ventana vacía para la clave. Si otra transacción la abrió a la vez,
+     * la clave única la descarta sin error (espera a que esa transacción termine).
+     *
+     * @return 1 si la abrió esta llamada, 0 si ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO notificacion_resumen (id_usuario, tipo, grupo, resumen, cierre, pendientes) " +
+            "VALUES (:usuarioId, :tipo, :grupo, :resumen, :cierre, 0)", nativeQuery = true)
+    int abrir(@Param("usuarioId") Integer usuarioId,
+              @Param("tipo") String tipo,
+              @Param("grupo") String grupo,
+              @Param("resumen") String resumen,
+              @Param("cierre") LocalDateTime cierre);
+
+    /**
+     * Bloquea hasta :lote ventanas vencidas. SKIP LOCKED salta las que otra
+     * instancia está cerrando; un evento de la misma clave espera el bloqueo y,
+     * cuando la ventana ya se eliminó, abre una nueva. Debe llamarse dentro de una transacción.
+     */
+    @Query(value = "SELECT * FROM notificacion_resumen WHERE cierre <= :ahora " +
+            "ORDER BY cierre LIMIT :lote FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificacionResumenEntity> bloquearVencidas(@Param("ahora") LocalDateTime ahora,
+                                                     @Param("lote") int lote);
+}
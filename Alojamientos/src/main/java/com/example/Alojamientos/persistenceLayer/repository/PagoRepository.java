@@ -1,6 +1,7 @@
 package com.example.Alojamientos.persistenceLayer.repository;
 
 import com.example.Alojamientos.persistenceLayer.entity.PagoEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -34,4 +35,10 @@ public interface PagoRepository extends JpaRepository<PagoEntity, Integer> {
      * Verifica si ya existe un pago para una reserva (sin importar el estado)
      */
     boolean existsByReserva_Id(Integer idReserva);
+
+    /**
+     * Pagos con id mayor a :despuesId en orden de id (paginación por cursor);
+     * el Pageable solo aporta el límite
+     */
+    List<PagoEntity> findByIdGreaterThanOrderByIdAsc(Integer despuesId, Pageable limite);
 }
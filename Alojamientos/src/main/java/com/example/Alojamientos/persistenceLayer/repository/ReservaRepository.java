@@ -1,10 +1,18 @@
 package com.example.Alojamientos.persistenceLayer.repository;
 
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.projection.ReservaOcupacionView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,19 +24,49 @@ public interface ReservaRepository extends JpaRepository<ReservaEntity, Integer>
     // Reservas por alojamiento
     List<ReservaEntity> findByAlojamiento_Id(Integer idAlojamiento);
 
-    // Verificar solapamiento de fechas en un alojamiento
-    List<ReservaEntity> findByAlojamiento_IdAndFechaFinAfterAndFechaInicioBefore(
+    // Solapamiento con reservas en los estados indicados, intervalos [inicio, fin).
+    // Derivada como exists: se detiene en la primera fila y usa idx_reserva_alojamiento_fechas
+    boolean existsByAlojamiento_IdAndEstadoInAndFechaFinAfterAndFechaInicioBefore(
             Integer idAlojamiento,
+            Collection<ReservaEntity.EstadoReserva> estados,
             LocalDate fechaInicio,
             LocalDate fechaFin
     );
 
+    // Reservas en los estados indicados que terminan en :desde o después (eliminarAlojamiento)
+    long countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+            Integer idAlojamiento,
+            Collection<ReservaEntity.EstadoReserva> estados,
+            LocalDate desde
+    );
+
     // Verificar si un usuario ya tiene reservas en un alojamiento
     boolean existsByHuesped_IdAndAlojamiento_Id(Integer idHuesped, Integer idAlojamiento);
 
-    // ReservaScheduler: reservas CONFIRMADAS cuya fecha de fin ya pasó
-    List<ReservaEntity> findByEstadoAndFechaFinBefore(
-            ReservaEntity.EstadoReserva estado,
-            LocalDate fecha
-    );
-}
\ No newline at end of file
+    // ReservaScheduler: completa hasta :lote reservas CONFIRMADAS cuya fecha de fin ya pasó, en su propia transacción.
+    // Devuelve las filas cambiadas; menos que :lote significa que no quedan más
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE reserva SET estado = 'COMPLETADA' " +
+            "WHERE estado = 'CONFIRMADA' AND fecha_fin < :hoy LIMIT :lote", nativeQuery = true)
+    int completarVencidas(@Param("hoy") LocalDate hoy, @Param("lote") int lote);
+
+    // Historial paginado por cursor: (fechaReserva DESC, id DESC). El Pageable solo aporta el límite
+    @Query("SELECT r FROM ReservaEntity r WHERE r.huesped.id = :huespedId " +
+            "ORDER BY r.fechaReserva DESC, r.id DESC")
+    List<ReservaEntity> findPrimerosPorHuesped(@Param("huespedId") Integer huespedId, Pageable limite);
+
+    @Query("SELECT r FROM ReservaEntity r WHERE r.huesped.id = :huespedId " +
+            "AND (r.fechaReserva < :despuesFecha OR (r.fechaReserva = :despuesFecha AND r.id < :despuesId)) " +
+            "ORDER BY r.fechaReserva DESC, r.id DESC")
+    List<ReservaEntity> findPorHuespedDespuesDe(@Param("huespedId") Integer huespedId,
+                                                @Param("despuesFecha") LocalDateTime despuesFecha,
+                                                @Param("despuesId") int despuesId,
+                                                Pageable limite);
+
+    // Índice de disponibilidad: rangos de las reservas en los estados indicados que terminan después de :desde
+    @Query("SELECT r.alojamiento.id AS alojamientoId, r.fechaInicio AS fechaInicio, r.fechaFin AS fechaFin " +
+            "FROM ReservaEntity r WHERE r.estado IN :estados AND r.fechaFin > :desde")
+    List<ReservaOcupacionView> findOcupacionesDesde(@Param("estados") Collection<ReservaEntity.EstadoReserva> estados,
+                                                    @Param("desde") LocalDate desde);
+}
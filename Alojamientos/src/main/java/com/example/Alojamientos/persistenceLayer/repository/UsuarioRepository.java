@@ -1,9 +1,13 @@
 package com.example.Alojamientos.persistenceLayer.repository;
 
 import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -36,4 +40,11 @@ public interface UsuarioRepository extends JpaRepository<UsuarioEntity, Integer>
      * @return true si existe, false en caso contrario
      */
     boolean existsByTelefono(String telefono);
+
+    /**
+     * Usuarios activos con id mayor a :despuesId, en orden de id (paginación por cursor)
+     * @param limite solo aporta el tamaño (limite + 1 filas)
+     */
+    @Query("SELECT u FROM UsuarioEntity u WHERE u.activo = true AND u.id > :despuesId ORDER BY u.id")
+    List<UsuarioEntity> findActivosDespuesDe(@Param("despuesId") int despuesId, Pageable limite);
 }
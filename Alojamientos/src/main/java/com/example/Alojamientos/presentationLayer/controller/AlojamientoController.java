@@ -1,7 +1,14 @@
 package com.example.Alojamientos.presentationLayer.controller;
 
 import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.AlojamientoTarjetaDTO;
+import com.example.Alojamientos.businessLayer.dto.CalendarioDTO;
+import com.example.Alojamientos.businessLayer.dto.FiltroBusquedaDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
+import com.example.Alojamientos.businessLayer.dto.ResultadoBusquedaDTO;
+import com.example.Alojamientos.businessLayer.dto.SugerenciaCiudadDTO;
 import com.example.Alojamientos.businessLayer.service.AlojamientoService;
+import com.example.Alojamientos.businessLayer.service.BusquedaAlojamientoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.*;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -23,6 +30,7 @@ import java.util.stream.Collectors;
 public class AlojamientoController {
 
     private final AlojamientoService alojamientoService;
+    private final BusquedaAlojamientoService busquedaAlojamientoService;
 
     // ============================================================
     // RF9, HU-009: Crear alojamiento
@@ -127,17 +135,28 @@ public class AlojamientoController {
     // ============================================================
     @GetMapping("/anfitrion/{hostId}")
     @Operation(summary = "Listar alojamientos de un anfitrión específico",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por id, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista de alojamientos obtenida correctamente",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "El anfitrión no tiene alojamientos registrados"),
                     @ApiResponse(responseCode = "400", description = "ID de anfitrión inválido")
             })
-    public ResponseEntity<?> listarPorAnfitrion(@PathVariable Integer hostId) {
+    public ResponseEntity<?> listarPorAnfitrion(@PathVariable Integer hostId,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor) {
         if (hostId == null || hostId <= 0) {
             return ResponseEntity.badRequest().body("El ID del anfitrión es inválido");
         }
 
+        if (limit != null || cursor != null) {
+            try {
+                return respuestaPaginada(alojamientoService.listarPorAnfitrionPaginado(hostId, limit, cursor), cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
         List<AlojamientoDTO> alojamientos = alojamientoService.listarPorAnfitrion(hostId);
         if (alojamientos.isEmpty()) {
             return ResponseEntity.noContent().build();
@@ -169,18 +188,29 @@ public class AlojamientoController {
     // ============================================================
     @GetMapping("/buscar")
     @Operation(summary = "Buscar alojamientos por ciudad",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por id, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Resultados obtenidos correctamente",
-                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoDTO.class)))),
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoTarjetaDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "No se encontraron alojamientos en la ciudad especificada"),
                     @ApiResponse(responseCode = "400", description = "Nombre de ciudad inválido")
             })
-    public ResponseEntity<?> buscarPorCiudad(@RequestParam String ciudad) {
+    public ResponseEntity<?> buscarPorCiudad(@RequestParam String ciudad,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String cursor) {
         if (ciudad == null || ciudad.trim().isEmpty()) {
             return ResponseEntity.badRequest().body("Debe especificar una ciudad válida");
         }
 
-        List<AlojamientoDTO> resultados = alojamientoService.buscarPorCiudad(ciudad);
+        if (limit != null || cursor != null) {
+            try {
+                return respuestaPaginada(alojamientoService.buscarPorCiudadPaginado(ciudad, limit, cursor), cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
+        List<AlojamientoTarjetaDTO> resultados = alojamientoService.buscarPorCiudad(ciudad);
         if (resultados.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -194,7 +224,7 @@ public class AlojamientoController {
     @Operation(summary = "Filtrar alojamientos por rango de precio",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Resultados filtrados correctamente",
-                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoDTO.class)))),
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoTarjetaDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "No se encontraron alojamientos en ese rango de precios"),
                     @ApiResponse(responseCode = "400", description = "Parámetros de precio inválidos")
             })
@@ -203,7 +233,7 @@ public class AlojamientoController {
             return ResponseEntity.badRequest().body("Rango de precios inválido");
         }
 
-        List<AlojamientoDTO> resultados = alojamientoService.buscarPorRangoPrecio(min, max);
+        List<AlojamientoTarjetaDTO> resultados = alojamientoService.buscarPorRangoPrecio(min, max);
         if (resultados.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -239,13 +269,23 @@ public class AlojamientoController {
     // ============================================================
     @GetMapping("/activos")
     @Operation(summary = "Listar todos los alojamientos activos",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por id, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista obtenida correctamente",
-                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoDTO.class)))),
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = AlojamientoTarjetaDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "No hay alojamientos activos")
             })
-    public ResponseEntity<?> listarActivos() {
-        List<AlojamientoDTO> activos = alojamientoService.listarActivos();
+    public ResponseEntity<?> listarActivos(@RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            try {
+                return respuestaPaginada(alojamientoService.listarActivosPaginado(limit, cursor), cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+
+        List<AlojamientoTarjetaDTO> activos = alojamientoService.listarActivos();
 
         if (activos.isEmpty()) {
             return ResponseEntity.noContent().build();
@@ -282,29 +322,72 @@ public class AlojamientoController {
         }
     }
 
+    // ============================================================
+    // Calendario de noches ocupadas (widget de reserva)
+    // GET /api/alojamientos/{id}/calendario?desde=&hasta=
+    // ============================================================
+    @GetMapping("/{id}/calendario")
+    @Operation(
+            summary = "Obtener las noches ocupadas de un alojamiento",
+            description = "Devuelve las noches ocupadas por reservas confirmadas o pendientes en [desde, hasta) " +
+                    "como rachas [desplazamiento desde 'from', noches seguidas]. Por defecto desde hoy y " +
+                    "12 meses; el rango no puede empezar antes de hoy ni superar 24 meses.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Calendario del alojamiento",
+                            content = @Content(schema = @Schema(implementation = CalendarioDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Alojamiento no encontrado"),
+                    @ApiResponse(responseCode = "400", description = "ID o fechas inválidos")
+            })
+    public ResponseEntity<?> obtenerCalendario(@PathVariable Integer id,
+                                               @RequestParam(required = false) String desde,
+                                               @RequestParam(required = false) String hasta) {
+        if (id == null || id <= 0) {
+            return ResponseEntity.badRequest().body("El ID del alojamiento es inválido");
+        }
+
+        try {
+            return ResponseEntity.ok(alojamientoService.obtenerCalendario(id, desde, hasta));
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage().toLowerCase().contains("no encontrado")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            }
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // ============================================================
     // ALOJ-18: Búsqueda por ubicación
     // GET /api/alojamientos/cercanos?lat=&lng=&radio=
+    // GET /api/alojamientos/cercanos?lat=&lng=&radio=&limit=&cursor=  (paginado en BD)
     // ============================================================
     @GetMapping("/cercanos")
     @Operation(
             summary = "Buscar alojamientos cercanos a una ubicación",
             description = "Devuelve los alojamientos activos dentro del radio indicado (km), " +
-                    "ordenados por distancia ascendente. Usa la fórmula de Haversine.",
+                    "ordenados por distancia ascendente. Usa la fórmula de Haversine. " +
+                    "Si se envía limit o cursor, la búsqueda se resuelve en la base de datos " +
+                    "y la respuesta es una página con el cursor de la siguiente (nextCursor).",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Lista de alojamientos cercanos",
+                    @ApiResponse(responseCode = "200", description = "Lista (o página) de alojamientos cercanos",
                             content = @Content(array = @ArraySchema(
-                                    schema = @Schema(implementation = AlojamientoDTO.class)))),
+                                    schema = @Schema(implementation = AlojamientoTarjetaDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "No se encontraron alojamientos en ese radio"),
                     @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
             })
     public ResponseEntity<?> buscarCercanos(
             @RequestParam Double lat,
             @RequestParam Double lng,
-            @RequestParam(defaultValue = "10") Double radio) {
+            @RequestParam(defaultValue = "10") Double radio,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
 
         try {
-            List<AlojamientoDTO> resultados = alojamientoService.buscarCercanos(lat, lng, radio);
+            if (limit != null || cursor != null) {
+                return respuestaPaginada(
+                        alojamientoService.buscarCercanosPaginado(lat, lng, radio, limit, cursor), cursor);
+            }
+
+            List<AlojamientoTarjetaDTO> resultados = alojamientoService.buscarCercanos(lat, lng, radio);
             if (resultados.isEmpty()) {
                 return ResponseEntity.noContent().build();
             }
@@ -313,4 +396,166 @@ public class AlojamientoController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // ============================================================
+    // Búsqueda por fechas
+    // GET /api/alojamientos/disponibles?inicio=&fin=&ciudad=&limit=&cursor=
+    // ============================================================
+    @GetMapping("/disponibles")
+    @Operation(
+            summary = "Buscar alojamientos disponibles en un rango de fechas",
+            description = "Devuelve los alojamientos activos sin reservas confirmadas o pendientes que se " +
+                    "solapen con [inicio, fin) (el día de salida queda libre), opcionalmente filtrados por ciudad. " +
+                    "Paginado por cursor en orden de id (limit de 1 a 100, por defecto 20).",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Página de alojamientos disponibles",
+                            content = @Content(schema = @Schema(implementation = PaginaDTO.class))),
+                    @ApiResponse(responseCode = "204", description = "No hay alojamientos disponibles en esas fechas"),
+                    @ApiResponse(responseCode = "400", description = "Fechas o parámetros inválidos")
+            })
+    public ResponseEntity<?> buscarDisponibles(
+            @RequestParam String inicio,
+            @RequestParam String fin,
+            @RequestParam(required = false) String ciudad,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return respuestaPaginada(
+                    alojamientoService.buscarDisponibles(ciudad, inicio, fin, limit, cursor), cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Búsqueda por texto libre
+    // GET /api/alojamientos/texto?q=&ciudad=&min=&max=&limit=
+    // ============================================================
+    @GetMapping("/texto")
+    @Operation(
+            summary = "Buscar alojamientos por texto libre",
+            description = "Busca los términos en el nombre, la descripción y la ciudad de los alojamientos " +
+                    "activos y los ordena por relevancia (BM25). No distingue mayúsculas, tildes ni plurales " +
+                    "(\"cabañas con piscina\" encuentra \"Cabaña ... piscina\"). Se puede filtrar por ciudad " +
+                    "y por precio por noche (min, max). Devuelve como máximo limit resultados (1 a 100, por defecto 20).",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Alojamientos ordenados por relevancia",
+                            content = @Content(array = @ArraySchema(
+                                    schema = @Schema(implementation = AlojamientoDTO.class)))),
+                    @ApiResponse(responseCode = "204", description = "Ningún alojamiento coincide con la búsqueda"),
+                    @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+            })
+    public ResponseEntity<?> buscarPorTexto(
+            @RequestParam String q,
+            @RequestParam(required = false) String ciudad,
+            @RequestParam(required = false) Double min,
+            @RequestParam(required = false) Double max,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<AlojamientoDTO> resultados = alojamientoService.buscarPorTexto(q, ciudad, min, max, limit);
+            if (resultados.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(resultados);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Sugerencias de ciudades para el buscador
+    // GET /api/alojamientos/ciudades/sugerencias?prefix=&limit=
+    // ============================================================
+    @GetMapping("/ciudades/sugerencias")
+    @Operation(
+            summary = "Sugerir ciudades mientras se escribe",
+            description = "Devuelve las ciudades con alojamientos activos que empiezan por el prefijo, sin " +
+                    "distinguir mayúsculas ni tildes (\"bog\" sugiere \"Bogotá\"), ordenadas por cantidad de " +
+                    "alojamientos. Se resuelve en memoria; limit de 1 a 50, por defecto 10.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ciudades sugeridas",
+                            content = @Content(array = @ArraySchema(
+                                    schema = @Schema(implementation = SugerenciaCiudadDTO.class)))),
+                    @ApiResponse(responseCode = "204", description = "Ninguna ciudad empieza por el prefijo"),
+                    @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+            })
+    public ResponseEntity<?> sugerirCiudades(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<SugerenciaCiudadDTO> sugerencias = alojamientoService.sugerirCiudades(prefix, limit);
+            if (sugerencias.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(sugerencias);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Respuesta común de los listados paginados por cursor (?limit=&cursor=):
+     * 204 si la primera página viene vacía, 200 con la página en otro caso.
+     */
+    private ResponseEntity<?> respuestaPaginada(PaginaDTO<?> pagina, String cursor) {
+        if (pagina.getItems().isEmpty() && cursor == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(pagina);
+    }
+
+    // ============================================================
+    // Búsqueda unificada con facetas
+    // GET /api/alojamientos/search?city=&minPrice=&maxPrice=&minCapacity=&amenities=
+    //     &checkIn=&checkOut=&lat=&lng=&radiusKm=&sort=&page=&size=
+    // ============================================================
+    @GetMapping("/search")
+    @Operation(
+            summary = "Búsqueda unificada de alojamientos con facetas",
+            description = "Combina ciudad, rango de precio, capacidad mínima, servicios (todos los indicados), " +
+                    "disponibilidad entre checkIn y checkOut y radio alrededor de (lat, lng) en una sola consulta. " +
+                    "Ordena por recientes, precio_asc, precio_desc, capacidad o calificacion y devuelve además el conteo por " +
+                    "tramo de precio y por servicio.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Página de resultados con facetas",
+                            content = @Content(schema = @Schema(implementation = ResultadoBusquedaDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+            })
+    public ResponseEntity<?> buscar(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) List<Integer> amenities,
+            @RequestParam(required = false) String checkIn,
+            @RequestParam(required = false) String checkOut,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+
+        FiltroBusquedaDTO filtro = FiltroBusquedaDTO.builder()
+                .city(city)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minCapacity(minCapacity)
+                .amenities(amenities)
+                .checkIn(checkIn)
+                .checkOut(checkOut)
+                .lat(lat)
+                .lng(lng)
+                .radiusKm(radiusKm)
+                .sort(sort)
+                .page(page)
+                .size(size)
+                .build();
+
+        try {
+            return ResponseEntity.ok(busquedaAlojamientoService.buscar(filtro));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
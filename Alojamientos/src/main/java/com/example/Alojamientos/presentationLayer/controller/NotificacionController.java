@@ -1,7 +1,10 @@
 package com.example.Alojamientos.presentationLayer.controller;
 
 import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.service.NotificacionService;
+import com.example.Alojamientos.businessLayer.service.NotificacionStreamService;
+import com.example.Alojamientos.businessLayer.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.*;
@@ -9,7 +12,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -21,6 +27,8 @@ import java.util.Map;
 public class NotificacionController {
 
     private final NotificacionService notificacionService;
+    private final NotificacionStreamService notificacionStreamService;
+    private final UsuarioService usuarioService;
 
     // ============================================================
     // Crear notificación
@@ -56,13 +64,27 @@ public class NotificacionController {
     // ============================================================
     @GetMapping("/usuario/{usuarioId}")
     @Operation(summary = "Listar notificaciones de un usuario (no leídas primero)",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada de la más reciente a la más antigua, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista de notificaciones obtenida correctamente",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = NotificacionDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "El usuario no tiene notificaciones"),
                     @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
             })
-    public ResponseEntity<?> listarPorUsuario(@PathVariable Integer usuarioId) {
+    public ResponseEntity<?> listarPorUsuario(@PathVariable Integer usuarioId,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            try {
+                PaginaDTO<NotificacionDTO> pagina = notificacionService.listarPorUsuarioPaginado(usuarioId, limit, cursor);
+                if (pagina.getItems().isEmpty() && cursor == null) {
+                    return ResponseEntity.noContent().build(); // 204
+                }
+                return ResponseEntity.ok(pagina); // 200
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage()); // 400
+            }
+        }
         try {
             List<NotificacionDTO> lista = notificacionService.listarPorUsuario(usuarioId);
             if (lista.isEmpty()) {
@@ -149,6 +171,43 @@ public class NotificacionController {
     }
 
 
+    // ============================================================
+    // Stream (SSE) de no leídas y notificaciones nuevas
+    // ============================================================
+    @GetMapping(value = "/usuario/{usuarioId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Recibir por SSE la cantidad de no leídas y las notificaciones nuevas",
+            description = "Envía un evento 'no-leidas' al conectar y cada vez que cambia la cantidad, y un evento 'notificacion' por cada notificación nueva. Como EventSource no envía headers, acepta el token en el parámetro access_token. Con 503 el cliente debe seguir usando contar-no-leidas.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stream abierto"),
+                    @ApiResponse(responseCode = "400", description = "ID inválido"),
+                    @ApiResponse(responseCode = "401", description = "No autenticado"),
+                    @ApiResponse(responseCode = "403", description = "El stream pedido no es del usuario autenticado"),
+                    @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de conexiones")
+            })
+    public ResponseEntity<?> stream(@PathVariable Integer usuarioId) {
+        // Escenario 400: ID inválido
+        if (usuarioId == null || usuarioId <= 0) {
+            return ResponseEntity.badRequest().body("El ID del usuario es inválido");
+        }
+
+        try {
+            // Escenario 403: solo se abre el stream del propio usuario
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (!usuarioId.equals(usuarioService.buscarPorEmail(auth.getName()).getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("No puede abrir el stream de notificaciones de otro usuario");
+            }
+
+            SseEmitter emisor = notificacionStreamService.conectar(usuarioId);
+            return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emisor); // 200
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage()); // 400
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage()); // 503
+        }
+    }
+
+
     // ============================================================
     // Marcar una notificación como leída
     // ============================================================
@@ -1,5 +1,6 @@
 package com.example.Alojamientos.presentationLayer.controller;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.PagoDTO;
 import com.example.Alojamientos.businessLayer.service.PagoService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,13 +27,26 @@ public class PagoController {
     // ============================================================
     @GetMapping
     @Operation(summary = "Listar todos los pagos",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por id, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista de pagos obtenida",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = PagoDTO.class)))),
                     @ApiResponse(responseCode = "204", description = "No hay pagos registrados"),
                     @ApiResponse(responseCode = "500", description = "Error interno del servidor")
             })
-    public ResponseEntity<?> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            try {
+                PaginaDTO<PagoDTO> pagina = pagoService.listarTodosPaginado(limit, cursor);
+                if (pagina.getItems().isEmpty() && cursor == null) {
+                    return ResponseEntity.noContent().build();
+                }
+                return ResponseEntity.ok(pagina);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         try {
             List<PagoDTO> pagos = pagoService.listarTodos();
             if (pagos.isEmpty()) {
@@ -1,5 +1,6 @@
 package com.example.Alojamientos.presentationLayer.controller;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.ReservaDTO;
 import com.example.Alojamientos.businessLayer.service.ReservaService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,16 +27,31 @@ public class ReservaController {
 // ============================================================
     @GetMapping("/huesped/{guestId}")
     @Operation(summary = "Listar reservas de un huésped",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por fecha de reserva descendente, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Reservas obtenidas correctamente",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = ReservaDTO.class)))),
                     @ApiResponse(responseCode = "400", description = "ID de huésped inválido"),
                     @ApiResponse(responseCode = "404", description = "No se encontraron reservas para el huésped")
             })
-    public ResponseEntity<?> listarPorHuesped(@PathVariable Integer guestId) {
+    public ResponseEntity<?> listarPorHuesped(@PathVariable Integer guestId,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor) {
         if (guestId == null || guestId <= 0) {
             return ResponseEntity.badRequest().body("ID de huésped inválido"); // 400
         }
+        if (limit != null || cursor != null) {
+            try {
+                PaginaDTO<ReservaDTO> pagina = reservaService.listarPorHuespedPaginado(guestId, limit, cursor);
+                if (pagina.getItems().isEmpty() && cursor == null) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body("No se encontraron reservas para el huésped"); // 404
+                }
+                return ResponseEntity.ok(pagina); // 200
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage()); // 400
+            }
+        }
         List<ReservaDTO> lista = reservaService.listarPorHuesped(guestId);
         if (lista.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
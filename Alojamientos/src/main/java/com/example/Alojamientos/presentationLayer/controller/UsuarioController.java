@@ -1,5 +1,6 @@
 package com.example.Alojamientos.presentationLayer.controller;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.UsuarioDTO;
 import com.example.Alojamientos.businessLayer.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -121,13 +122,26 @@ public class UsuarioController {
     // ============================================================
     @GetMapping
     @Operation(summary = "Listar todos los usuarios activos",
+            description = "Con limit (1 a 100) o cursor la respuesta es una página ordenada por id, con nextCursor para pedir la siguiente.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida correctamente",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = UsuarioDTO.class)))),
                     @ApiResponse(responseCode = "404", description = "No hay usuarios registrados"),
                     @ApiResponse(responseCode = "400", description = "Solicitud inválida")
             })
-    public ResponseEntity<?> getAll() {
+    public ResponseEntity<?> getAll(@RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            try {
+                PaginaDTO<UsuarioDTO> pagina = usuarioService.listarTodosPaginado(limit, cursor);
+                if (pagina.getItems().isEmpty() && cursor == null) {
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No hay usuarios registrados");
+                }
+                return ResponseEntity.ok(pagina);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
         try {
             List<UsuarioDTO> lista = usuarioService.listarTodos();
             if (lista.isEmpty()) {
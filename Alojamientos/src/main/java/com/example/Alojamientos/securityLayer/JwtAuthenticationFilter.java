@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,18 +13,25 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
 
 /**
  * Filtro JWT que se ejecuta una sola vez por request (extiende {@link OncePerRequestFilter}).
  *
  * <p>Flujo de validación:
  * <ol>
- *   <li>Extrae el header {@code Authorization: Bearer <token>}.</li>
- *   <li>Saca el email del token usando {@link JwtService#extraerEmail(String)}.</li>
- *   <li>Valida que el token sea correcto y no esté expirado.</li>
+ *   <li>Extrae el header {@code Authorization: Bearer <token>}. Solo en el stream SSE de
+ *       notificaciones ({@value #STREAM_NOTIFICACIONES}) acepta además el parámetro
+ *       {@code ?}{@value #TOKEN_PARAM}, porque {@code EventSource} del navegador no
+ *       puede enviar headers.</li>
+ *   <li>Verifica firma y expiración con un solo parseo ({@link TokenJwtCache#verificar(String)},
+ *       que reutiliza el resultado mientras el mismo token siga vigente) y saca el email.</li>
+ *   <li>Valida que el email corresponda al usuario cargado y que el token siga vigente.</li>
  *   <li>Si todo es válido, registra la autenticación en el {@link SecurityContextHolder}
  *       para que Spring Security permita el acceso al endpoint protegido.</li>
  * </ol>
@@ -37,15 +45,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final String AUTH_HEADER      = "Authorization";
     private static final String BEARER_PREFIX     = "Bearer ";
+    private static final String TOKEN_PARAM       = "access_token";
+    private static final String STREAM_NOTIFICACIONES = "/api/notificaciones/usuario/*/stream";
+    private static final AntPathMatcher RUTAS     = new AntPathMatcher();
 
-    private final JwtService         jwtService;
+    private final TokenJwtCache      tokenJwtCache;
     private final UserDetailsService userDetailsService;  // → UserDetailsServiceImpl
 
     /**
      * Lógica principal del filtro.
      *
-     * <p>Si no hay header {@code Authorization} o no empieza con {@code Bearer },
-     * la request continúa sin autenticación (las rutas públicas pasarán igual).
+     * <p>Si no hay token (header {@code Authorization: Bearer } o, en el stream de
+     * notificaciones, el parámetro), la request continúa sin autenticación (las
+     * rutas públicas pasarán igual).
      */
     @Override
     protected void doFilterInternal(
@@ -54,26 +66,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain         filterChain
     ) throws ServletException, IOException {
 
-        // ── 1. Leer el header Authorization ──────────────────────────────
-        final String authHeader = request.getHeader(AUTH_HEADER);
+        // ── 1-2. Leer el token del header Authorization (o del parámetro) ──
+        final String token = extraerToken(request);
 
-        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+        if (token == null || token.isBlank()) {
             // Sin token → continúa sin autenticar (rutas públicas funcionan igual)
             filterChain.doFilter(request, response);
             return;
         }
 
-        // ── 2. Extraer el token (quitar "Bearer ") ────────────────────────
-        final String token = authHeader.substring(BEARER_PREFIX.length());
-
-        // ── 3. Validar estructura básica antes de procesar ────────────────
-        if (!jwtService.esTokenEstructuralmenteValido(token)) {
+        // ── 3. Verificar firma y expiración (un solo parseo, o la caché) ──
+        final Optional<TokenVerificado> verificado = tokenJwtCache.verificar(token);
+        if (verificado.isEmpty()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        // ── 4. Extraer el email (subject) del token ───────────────────────
-        final String correo = jwtService.extraerEmail(token);
+        // ── 4. Tomar el email (subject) de los claims ya verificados ──────
+        final String correo = verificado.get().email();
 
         // ── 5. Solo proceder si hay email Y el contexto aún no tiene auth ─
         if (correo != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -81,8 +91,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Cargar el usuario desde la base de datos
             UserDetails userDetails = userDetailsService.loadUserByUsername(correo);
 
-            // Validar token contra el usuario cargado (firma + expiración + email)
-            if (jwtService.esTokenValido(token, userDetails.getUsername())) {
+            // Validar token contra el usuario cargado (email + expiración; la firma ya se verificó)
+            if (correo.equals(userDetails.getUsername()) && verificado.get().estaVigente(Instant.now())) {
 
                 // Construir el objeto de autenticación de Spring Security
                 UsernamePasswordAuthenticationToken authToken =
@@ -105,4 +115,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // ── 6. Continuar con el siguiente filtro de la cadena ─────────────
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Token del header {@code Authorization: Bearer <token>}; si no viene y la
+     * request es el GET del stream de notificaciones, el del parámetro
+     * {@value #TOKEN_PARAM}. En el resto de rutas el parámetro se ignora, para
+     * que el token no quede en URLs ni en logs de acceso fuera de ese caso.
+     */
+    private String extraerToken(HttpServletRequest request) {
+        final String authHeader = request.getHeader(AUTH_HEADER);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            return authHeader.substring(BEARER_PREFIX.length());
+        }
+
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.GET.matches(request.getMethod()) && RUTAS.match(STREAM_NOTIFICACIONES, ruta)) {
+            return request.getParameter(TOKEN_PARAM);
+        }
+        return null;
+    }
+}
@@ -19,6 +19,11 @@ public class JwtService {
     @Value("${app.jwt.expiration}")
     private long expirationMs;
 
+    // Se derivan del secreto la primera vez que se usan y se reutilizan: el parser
+    // de jjwt es inmutable y se puede compartir entre hilos
+    private volatile Key       signingKey;
+    private volatile JwtParser parser;
+
     // ─────────────────────────────────────────
     // GENERACIÓN DE TOKEN
     // ─────────────────────────────────────────
@@ -97,13 +102,30 @@ public class JwtService {
      * Extrae todos los claims del token
      */
     public Claims extraerTodosLosClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifica firma y expiración con un solo parseo y devuelve los claims que
+     * necesita {@link JwtAuthenticationFilter}. Vacío si el token está mal formado,
+     * tiene otra firma o expiró.
+     */
+    public Optional<TokenVerificado> verificar(String token) {
+        try {
+            Claims claims = extraerTodosLosClaims(token);
+            return Optional.of(new TokenVerificado(
+                    claims.getSubject(),
+                    claims.get("rol", String.class),
+                    claims.get("type", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     // ─────────────────────────────────────────
     // VALIDACIÓN DEL TOKEN
     // ─────────────────────────────────────────
@@ -140,7 +162,23 @@ public class JwtService {
     // ─────────────────────────────────────────
 
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        Key key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser actual = parser;
+        if (actual == null) {
+            actual = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            parser = actual;
+        }
+        return actual;
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.Alojamientos.securityLayer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Caché de tokens JWT ya verificados.
+ *
+ * <p>Un cliente manda el mismo token en cada request hasta que expira; con
+ * esta caché {@link JwtAuthenticationFilter} solo parsea y verifica la firma
+ * HMAC la primera vez, y las siguientes requests toman el {@link TokenVerificado}
+ * de memoria.
+ *
+ * <p>La clave es el SHA-256 del token, no el token: en memoria no quedan
+ * credenciales utilizables. Cada entrada vence cuando vence su token (o a
+ * los {@code app.jwt.cache.vigencia-maxima}, lo que pase antes), así un token
+ * expirado nunca sale de la caché. Los tokens inválidos no se guardan, para
+ * que no se pueda llenar la caché con basura. Acotada por
+ * {@code app.jwt.cache.tamano-maximo}; aciertos y fallos se publican como
+ * cache.gets con la etiqueta cache={@value #NOMBRE}.
+ */
+@Component
+public class TokenJwtCache {
+
+    public static final String NOMBRE = "jwt.tokens";
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtService                      jwtService;
+    private final Cache<String, TokenVerificado>  cache;
+
+    public TokenJwtCache(JwtService jwtService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.jwt.cache.tamano-maximo:10000}") long tamanoMaximo,
+                         @Value("${app.jwt.cache.vigencia-maxima:5m}") Duration vigenciaMaxima) {
+        if (tamanoMaximo < 0 || vigenciaMaxima.isNegative()) {
+            throw new IllegalArgumentException("El tamaño y la vigencia de la caché de tokens no pueden ser negativos");
+        }
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String clave, TokenVerificado token, long ahoraNanos) {
+                        Duration hastaExpirar = Duration.between(Instant.now(), token.expira());
+                        Duration vigencia = hastaExpirar.compareTo(vigenciaMaxima) < 0 ? hastaExpirar : vigenciaMaxima;
+                        return Math.max(0, vigencia.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, TokenVerificado token, long ahoraNanos, long restante) {
+                        return restante;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, TokenVerificado token, long ahoraNanos, long restante) {
+                        return restante;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE);
+    }
+
+    /**
+     * Devuelve los claims del token si es válido y está vigente; lo verifica
+     * con {@link JwtService#verificar} solo si no estaba en caché.
+     */
+    public Optional<TokenVerificado> verificar(String token) {
+        String clave = huella(token);
+        TokenVerificado enCache = cache.getIfPresent(clave);
+        if (enCache != null) return Optional.of(enCache);
+
+        Optional<TokenVerificado> verificado = jwtService.verificar(token)
+                .filter(t -> t.estaVigente(Instant.now()));
+        verificado.ifPresent(t -> cache.put(clave, t));
+        return verificado;
+    }
+
+    public long tamano() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    // ── Utilidades internas ──────────────────────────────────────────────
+
+    private static String huella(String token) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return BASE64.encodeToString(sha);
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM trae SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
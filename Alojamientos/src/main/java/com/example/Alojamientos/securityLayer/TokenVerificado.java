@@ -0,0 +1,23 @@
+package com.example.Alojamientos.securityLayer;
+
+import java.time.Instant;
+
+/**
+ * Claims de un token JWT ya verificado (firma y expiración).
+ *
+ * <p>Lo produce {@link JwtService#verificar(String)} con un solo parseo del
+ * token; es inmutable, así que {@link TokenJwtCache} lo comparte entre
+ * requests sin copiarlo.
+ *
+ * @param email   subject del token
+ * @param rol     claim {@code rol}, o {@code null} si el token no lo trae
+ * @param tipo    claim {@code type} ({@code refresh} en los refresh tokens), o {@code null}
+ * @param emitido fecha de emisión ({@code iat})
+ * @param expira  fecha de expiración ({@code exp})
+ */
+public record TokenVerificado(String email, String rol, String tipo, Instant emitido, Instant expira) {
+
+    public boolean estaVigente(Instant ahora) {
+        return expira != null && expira.isAfter(ahora);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoDistanciaView;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Búsqueda por ubicación resuelta en la base (findCercanosEnCaja) contra H2 en
+ * modo MySQL (perfil test), con varios alojamientos a la misma distancia para
+ * recorrer el keyset (distancia, id).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de la consulta de alojamientos cercanos paginada por cursor")
+class AlojamientoCercanosConsultaTest {
+
+    private static final double LAT = 4.53;
+    private static final double LNG = -75.68;
+    private static final double RADIO_KM = 15;
+
+    @Autowired
+    private AlojamientoRepository alojamientoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+
+    /** En el punto de referencia (distancia 0). */
+    private final List<Integer> enElCentro = new ArrayList<>();
+    /** Todos en el mismo punto, a unos 1.1 km. */
+    private final List<Integer> iguales    = new ArrayList<>();
+    private Integer lejano;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = UsuarioEntity.builder()
+                .nombre("Anfitrión")
+                .correo("anfitrion@hosped.com")
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(anfitrion);
+
+        // Intercalados: el orden de inserción no coincide con el de distancia
+        iguales.add(guardar("Igual 1", 4.54, LNG, true));
+        lejano = guardar("Lejano", LAT, -75.57, true);
+        iguales.add(guardar("Igual 2", 4.54, LNG, true));
+        enElCentro.add(guardar("Centro 1", LAT, LNG, true));
+        iguales.add(guardar("Igual 3", 4.54, LNG, true));
+        guardar("Fuera del radio", LAT, -75.40, true);
+        iguales.add(guardar("Igual 4", 4.54, LNG, true));
+        guardar("Pausado", 4.54, LNG, false);
+        enElCentro.add(guardar("Centro 2", LAT, LNG, true));
+        iguales.add(guardar("Igual 5", 4.54, LNG, true));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Integer guardar(String nombre, double lat, double lng, boolean activo) {
+        AlojamientoEntity alojamiento = AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre(nombre)
+                .descripcion("Descripción de " + nombre)
+                .direccion("Calle 1")
+                .ciudad("Salento")
+                .latitud(BigDecimal.valueOf(lat))
+                .longitud(BigDecimal.valueOf(lng))
+                .precioPorNoche(BigDecimal.valueOf(150_000))
+                .capacidadMaxima(4)
+                .imagenPrincipal("https://example.com/" + nombre + ".jpg")
+                .activo(activo)
+                .eliminado(false)
+                .build();
+        entityManager.persist(alojamiento);
+        return alojamiento.getId();
+    }
+
+    private List<AlojamientoDistanciaView> pagina(double despuesDistancia, int despuesId, int limite) {
+        return alojamientoRepository.findCercanosEnCaja(LAT, LNG, 4.0, 5.0, -76.5, -75.0, RADIO_KM,
+                despuesDistancia, despuesId, limite);
+    }
+
+    private static List<Integer> ids(List<AlojamientoDistanciaView> filas) {
+        return filas.stream().map(AlojamientoDistanciaView::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Recorrer las páginas con el cursor devuelve cada alojamiento una vez, por distancia y luego por ID")
+    void findCercanosEnCaja_recorreEmpatesSinSaltosNiRepetidos() {
+        List<Integer> esperados = new ArrayList<>(enElCentro.stream().sorted().toList());
+        esperados.addAll(iguales.stream().sorted().toList());
+        esperados.add(lejano);
+
+        List<Integer> recorridos = new ArrayList<>();
+        List<Double> distancias = new ArrayList<>();
+        double despuesDistancia = -1;
+        int despuesId = 0;
+        for (int paginas = 0; paginas < 10; paginas++) {
+            List<AlojamientoDistanciaView> filas = pagina(despuesDistancia, despuesId, 2);
+            if (filas.isEmpty()) break;
+            assertThat(filas).hasSizeLessThanOrEqualTo(2);
+            filas.forEach(f -> {
+                recorridos.add(f.getId());
+                distancias.add(f.getDistancia());
+            });
+            AlojamientoDistanciaView ultima = filas.get(filas.size() - 1);
+            despuesDistancia = ultima.getDistancia();
+            despuesId = ultima.getId();
+        }
+
+        assertThat(recorridos).containsExactlyElementsOf(esperados);
+        assertThat(distancias).isSorted();
+        assertThat(distancias.get(0)).isZero();
+        assertThat(distancias.subList(2, 7)).containsOnly(distancias.get(2));
+        assertThat(distancias.get(2)).isBetween(1.0, 1.2);
+    }
+
+    @Test
+    @DisplayName("La página siguiente empieza estrictamente después del cursor, también entre empates")
+    void findCercanosEnCaja_cursorEnMedioDeUnEmpate() {
+        List<Integer> ordenados = iguales.stream().sorted().toList();
+        double distanciaEmpate = pagina(-1, 0, 10).stream()
+                .filter(f -> f.getId().equals(ordenados.get(0)))
+                .findFirst().orElseThrow()
+                .getDistancia();
+
+        assertThat(ids(pagina(distanciaEmpate, ordenados.get(1), 10)))
+                .containsExactly(ordenados.get(2), ordenados.get(3), ordenados.get(4), lejano);
+        assertThat(ids(pagina(distanciaEmpate, ordenados.get(4), 10))).containsExactly(lejano);
+        assertThat(ids(pagina(distanciaEmpate, 0, 2))).containsExactly(ordenados.get(0), ordenados.get(1));
+    }
+}
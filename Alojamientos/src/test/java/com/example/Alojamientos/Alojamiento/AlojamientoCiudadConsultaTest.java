@@ -0,0 +1,129 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoSpecifications;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Consultas por ciudad contra H2 en modo MySQL (perfil test).
+ * Compara el plan de la consulta anterior (UPPER(ciudad) = UPPER(?)) con el de
+ * la consulta sobre ciudad_norm, y verifica que tildes y mayúsculas no importan.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de las consultas por ciudad normalizada")
+class AlojamientoCiudadConsultaTest {
+
+    @Autowired
+    private AlojamientoRepository alojamientoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = UsuarioEntity.builder()
+                .nombre("Anfitrión")
+                .correo("anfitrion@hosped.com")
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(anfitrion);
+
+        guardar("Apartamento centro", "Bogotá", true, false);
+        guardar("Casa Chapinero", "bogota", true, false);
+        guardar("Loft Usaquén", " BOGOTA ", false, false);
+        guardar("Habitación Teusaquillo", "Bogotá", true, true);
+        guardar("Cabaña", "Salento", true, false);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void guardar(String nombre, String ciudad, boolean activo, boolean eliminado) {
+        entityManager.persist(AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre(nombre)
+                .descripcion("Descripción de " + nombre)
+                .direccion("Calle 1")
+                .ciudad(ciudad)
+                .latitud(BigDecimal.valueOf(4.65))
+                .longitud(BigDecimal.valueOf(-74.05))
+                .precioPorNoche(BigDecimal.valueOf(150_000))
+                .capacidadMaxima(2)
+                .activo(activo)
+                .eliminado(eliminado)
+                .build());
+    }
+
+    private String plan(String sql) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+
+    @Test
+    @DisplayName("La consulta de tarjetas por ciudad_norm usa el índice compuesto; la anterior recorría la tabla")
+    void planDeConsulta_usaIndiceCiudadNorm() {
+        String antes = plan("SELECT * FROM alojamiento WHERE UPPER(ciudad) = UPPER('Bogotá')");
+        // Misma forma que findTarjetasActivasPorCiudad (buscarPorCiudad)
+        String despues = plan("SELECT id, nombre, ciudad, precio_por_noche, capacidad_maxima, imagen_principal, "
+                + "latitud, longitud, calificacion_promedio, calificaciones_total FROM alojamiento "
+                + "WHERE activo = TRUE AND eliminado = FALSE AND ciudad_norm = 'bogota' ORDER BY id");
+
+        assertThat(antes).as(antes).containsIgnoringCase("tableScan");
+        assertThat(despues).as(despues)
+                .containsIgnoringCase("idx_alojamiento_ciudad_norm")
+                .doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    @DisplayName("Las búsquedas por ciudad encuentran todas las formas escritas y solo los visibles")
+    void consultasPorCiudad_ignoranTildesYMayusculas() {
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudad("bogota"))
+                .extracting(AlojamientoTarjetaView::getNombre)
+                .containsExactlyInAnyOrder("Apartamento centro", "Casa Chapinero");
+        assertThat(alojamientoRepository.findByCiudadNorm("bogota")).hasSize(4);
+        assertThat(alojamientoRepository.findIdsActivosPorCiudadDespuesDe("bogota", 0, PageRequest.of(0, 10)))
+                .hasSize(2);
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudadDespuesDe("bogota", 0, PageRequest.of(0, 1)))
+                .hasSize(1);
+        assertThat(alojamientoRepository.count(AlojamientoSpecifications.activosNoEliminados()
+                .and(AlojamientoSpecifications.enCiudad("BOGOTÁ")))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Editar la ciudad recalcula ciudad_norm y el relleno completa las filas antiguas")
+    void ciudadNorm_seMantieneAlEscribir() {
+        AlojamientoEntity cabana = alojamientoRepository.findByCiudadNorm("salento").get(0);
+        cabana.setCiudad("Medellín");
+        alojamientoRepository.saveAndFlush(cabana);
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudad("medellin")).hasSize(1);
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudad("salento")).isEmpty();
+
+        // Fila creada antes de la columna: ciudad_norm vacía hasta el relleno de DataInitializer
+        entityManager.createNativeQuery("UPDATE alojamiento SET ciudad_norm = NULL WHERE ciudad = 'Medellín'")
+                .executeUpdate();
+        assertThat(alojamientoRepository.findCiudadesSinNormalizar()).containsExactly("Medellín");
+        assertThat(alojamientoRepository.normalizarCiudad("Medellín", "medellin")).isEqualTo(1);
+        assertThat(alojamientoRepository.findCiudadesSinNormalizar()).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.cache.AlojamientoDetalleCache;
+import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pruebas de la caché acotada del detalle de alojamientos y de sus métricas.
+ */
+@DisplayName("Pruebas de la caché del detalle de alojamientos")
+class AlojamientoDetalleCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Respeta el tamaño máximo y publica los desalojos en Micrometer")
+    void obtener_desalojaPorTamano() {
+        AlojamientoDetalleCache cache = new AlojamientoDetalleCache(meterRegistry, 5, 10);
+        AtomicInteger cargas = new AtomicInteger();
+
+        for (int id = 1; id <= 50; id++) {
+            cache.obtener(id, i -> {
+                cargas.incrementAndGet();
+                return AlojamientoDTO.builder().id(i).build();
+            });
+        }
+
+        assertThat(cargas).hasValue(50);
+        assertThat(cache.tamano()).isLessThanOrEqualTo(5);
+        assertThat(meterRegistry.get("cache.evictions")
+                .tag("cache", AlojamientoDetalleCache.NOMBRE)
+                .functionCounter().count()).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("Una carga que falla no deja entrada y se reintenta en la siguiente lectura")
+    void obtener_cargaFallidaNoSeGuarda() {
+        AlojamientoDetalleCache cache = new AlojamientoDetalleCache(meterRegistry, 5, 10);
+
+        assertThatThrownBy(() -> cache.obtener(1, i -> {
+            throw new IllegalArgumentException("Alojamiento no encontrado con id: " + i);
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        AlojamientoDTO dto = cache.obtener(1, i -> AlojamientoDTO.builder().id(i).build());
+        assertThat(dto.getId()).isEqualTo(1);
+        assertThat(cache.tamano()).isEqualTo(1);
+
+        cache.invalidar(1);
+        assertThat(cache.tamano()).isZero();
+    }
+}
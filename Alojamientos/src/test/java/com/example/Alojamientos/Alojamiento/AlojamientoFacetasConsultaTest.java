@@ -0,0 +1,171 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoServicioEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ServicioEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.Alojamientos.persistenceLayer.repository.AlojamientoSpecifications.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Facetas de la búsqueda unificada (AlojamientoFacetasRepositoryImpl) y filtro por
+ * radio de AlojamientoSpecifications contra H2 en modo MySQL (perfil test).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de las consultas de facetas y radio de la búsqueda unificada")
+class AlojamientoFacetasConsultaTest {
+
+    private static final List<BigDecimal> LIMITES = List.of(
+            BigDecimal.valueOf(100_000), BigDecimal.valueOf(200_000), BigDecimal.valueOf(400_000));
+
+    @Autowired
+    private AlojamientoRepository alojamientoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+
+    private ServicioEntity wifi;
+    private ServicioEntity piscina;
+
+    private AlojamientoEntity cabana;
+    private AlojamientoEntity finca;
+    private AlojamientoEntity apartamento;
+    private AlojamientoEntity isla;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = UsuarioEntity.builder()
+                .nombre("Anfitrión")
+                .correo("anfitrion@hosped.com")
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(anfitrion);
+
+        wifi    = servicio("Wifi", true);
+        piscina = servicio("Piscina", true);
+        ServicioEntity jacuzzi = servicio("Jacuzzi", false);
+
+        cabana      = guardar("Cabaña", "Salento", 80_000, 4.53, -75.68, true);
+        finca       = guardar("Finca", "Salento", 150_000, 4.53, -75.57, true);
+        apartamento = guardar("Apartamento", "Armenia", 150_000, 4.53, -75.68, true);
+        AlojamientoEntity penthouse = guardar("Penthouse", "Medellín", 500_000, 6.24, -75.58, true);
+        isla        = guardar("Isla", "Taveuni", 250_000, 0.0, 179.95, true);
+        AlojamientoEntity pausada = guardar("Casa pausada", "Salento", 150_000, 4.53, -75.68, false);
+
+        ofrecer(cabana, wifi, true);
+        ofrecer(cabana, piscina, true);
+        ofrecer(cabana, jacuzzi, true);
+        ofrecer(finca, wifi, true);
+        ofrecer(finca, piscina, false);
+        ofrecer(penthouse, wifi, true);
+        ofrecer(pausada, wifi, true);
+        ofrecer(pausada, piscina, true);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ServicioEntity servicio(String nombre, boolean activo) {
+        ServicioEntity servicio = ServicioEntity.builder().nombre(nombre).activo(activo).build();
+        entityManager.persist(servicio);
+        return servicio;
+    }
+
+    private AlojamientoEntity guardar(String nombre, String ciudad, long precio, double lat, double lng, boolean activo) {
+        AlojamientoEntity alojamiento = AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre(nombre)
+                .descripcion("Descripción de " + nombre)
+                .direccion("Calle 1")
+                .ciudad(ciudad)
+                .latitud(BigDecimal.valueOf(lat))
+                .longitud(BigDecimal.valueOf(lng))
+                .precioPorNoche(BigDecimal.valueOf(precio))
+                .capacidadMaxima(4)
+                .imagenPrincipal("https://example.com/" + nombre + ".jpg")
+                .activo(activo)
+                .eliminado(false)
+                .build();
+        entityManager.persist(alojamiento);
+        return alojamiento;
+    }
+
+    private void ofrecer(AlojamientoEntity alojamiento, ServicioEntity servicio, boolean activo) {
+        entityManager.persist(AlojamientoServicioEntity.builder()
+                .alojamiento(alojamiento)
+                .servicio(servicio)
+                .activo(activo)
+                .build());
+    }
+
+    private List<Integer> idsDentroDeRadio(double lat, double lng, double radioKm) {
+        return alojamientoRepository.findAll(activosNoEliminados().and(dentroDeRadio(lat, lng, radioKm))).stream()
+                .map(AlojamientoEntity::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Los tramos de precio se agrupan en la base, solo con los alojamientos filtrados")
+    void contarPorTramoPrecio_agrupaPorTramo() {
+        assertThat(alojamientoRepository.contarPorTramoPrecio(activosNoEliminados(), LIMITES))
+                .isEqualTo(Map.of(0, 1L, 1, 2L, 2, 1L, 3, 1L));
+
+        // Los tramos sin alojamientos no aparecen
+        assertThat(alojamientoRepository.contarPorTramoPrecio(
+                Specification.allOf(activosNoEliminados(), enCiudad("SALENTO")), LIMITES))
+                .isEqualTo(Map.of(0, 1L, 1, 1L));
+    }
+
+    @Test
+    @DisplayName("Los servicios se cuentan sobre los alojamientos filtrados, sin servicios ni asignaciones inactivos")
+    void contarPorServicio_aplicaLosFiltrosEnLaSubconsulta() {
+        assertThat(alojamientoRepository.contarPorServicio(activosNoEliminados()))
+                .isEqualTo(Map.of(wifi.getId(), 3L, piscina.getId(), 1L));
+
+        assertThat(alojamientoRepository.contarPorServicio(
+                Specification.allOf(activosNoEliminados(), precioHasta(200_000.0))))
+                .isEqualTo(Map.of(wifi.getId(), 2L, piscina.getId(), 1L));
+
+        // Filtro con su propia subconsulta, anidada en la de IDs
+        assertThat(alojamientoRepository.contarPorServicio(
+                Specification.allOf(activosNoEliminados(), conServicios(List.of(piscina.getId())))))
+                .isEqualTo(Map.of(wifi.getId(), 1L, piscina.getId(), 1L));
+    }
+
+    @Test
+    @DisplayName("El filtro por radio aplica Haversine en la base y no depende de la caja al cruzar el antimeridiano")
+    void dentroDeRadio_filtraPorDistancia() {
+        // La finca está a unos 12 km de la cabaña; el penthouse, a unos 190 km
+        assertThat(idsDentroDeRadio(4.53, -75.68, 10))
+                .containsExactlyInAnyOrder(cabana.getId(), apartamento.getId());
+        assertThat(idsDentroDeRadio(4.53, -75.68, 15))
+                .containsExactlyInAnyOrder(cabana.getId(), finca.getId(), apartamento.getId());
+
+        // 0.1° de longitud en el ecuador (unos 11 km), del otro lado del antimeridiano
+        assertThat(idsDentroDeRadio(0.0, -179.95, 20)).containsExactly(isla.getId());
+        assertThat(idsDentroDeRadio(0.0, -179.95, 5)).isEmpty();
+    }
+}
@@ -1,20 +1,37 @@
 package com.example.Alojamientos.Alojamiento;
 
+import com.example.Alojamientos.businessLayer.cache.AlojamientoDetalleCache;
 import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.AlojamientoTarjetaDTO;
+import com.example.Alojamientos.businessLayer.dto.CalendarioDTO;
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
+import com.example.Alojamientos.businessLayer.dto.SugerenciaCiudadDTO;
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import com.example.Alojamientos.businessLayer.index.GeoIndiceAlojamientos;
+import com.example.Alojamientos.businessLayer.index.TextoIndiceAlojamientos;
+import com.example.Alojamientos.businessLayer.index.TrieCiudades;
 import com.example.Alojamientos.businessLayer.service.AlojamientoService;
+import com.example.Alojamientos.businessLayer.util.CursorCodec;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.AlojamientoDataMapper;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoCiudadView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoCoordenadasView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoDistanciaView;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
 import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import com.example.Alojamientos.presentationLayer.controller.AlojamientoController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -49,6 +66,23 @@ class AlojamientoServiceTest {
     @Mock
     private AlojamientoDataMapper alojamientoMapper;
 
+    @Spy
+    private GeoIndiceAlojamientos geoIndice = new GeoIndiceAlojamientos();
+
+    @Spy
+    private DisponibilidadIndice disponibilidadIndice = new DisponibilidadIndice();
+
+    @Spy
+    private TextoIndiceAlojamientos textoIndice = new TextoIndiceAlojamientos();
+
+    @Spy
+    private TrieCiudades trieCiudades = new TrieCiudades();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AlojamientoDetalleCache detalleCache = new AlojamientoDetalleCache(meterRegistry, 100, 10);
+
     @InjectMocks
     private AlojamientoService alojamientoService;
 
@@ -58,9 +92,22 @@ class AlojamientoServiceTest {
     // ==================== FIXTURES ====================
     private AlojamientoDTO alojamientoDTO;
     private AlojamientoEntity alojamientoEntity;
+    private AlojamientoTarjetaDTO tarjetaDTO;
 
     @BeforeEach
     void setUp() {
+        // Tarjeta del mismo alojamiento, como la devuelven los listados
+        tarjetaDTO = AlojamientoTarjetaDTO.builder()
+                .id(1)
+                .name("Casa en la playa")
+                .city("Cartagena")
+                .pricePerNight(200.0)
+                .maxCapacity(6)
+                .mainImage("https://example.com/image.jpg")
+                .averageRating(4.5)
+                .reviewCount(2)
+                .build();
+
         // Preparar DTO
         alojamientoDTO = AlojamientoDTO.builder()
                 .hostId(1)
@@ -212,38 +259,43 @@ class AlojamientoServiceTest {
 
     // ==================== PRUEBAS DE LECTURA ====================
 
+    private AlojamientoTarjetaView tarjeta(Integer id) {
+        AlojamientoTarjetaView view = mock(AlojamientoTarjetaView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        return view;
+    }
+
     @Test
     @DisplayName("GET /api/alojamientos - Listar todos los alojamientos activos")
     void testListarAlojamientosActivos() {
         // Given
-        List<AlojamientoEntity> alojamientos = Arrays.asList(alojamientoEntity);
-        List<AlojamientoDTO> alojamientosDTO = Arrays.asList(alojamientoDTO);
-
-        when(alojamientoRepository.findByActivoTrue()).thenReturn(alojamientos);
-        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+        AlojamientoTarjetaView view = tarjeta(1);
+        when(alojamientoRepository.findTarjetasActivas()).thenReturn(List.of(view));
+        when(alojamientoMapper.toTarjetaDTO(view)).thenReturn(tarjetaDTO);
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.listarActivos();
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.listarActivos();
 
-        // Then
-        assertThat(resultado).isNotEmpty();
+        // Then - tarjetas desde la proyección, sin cargar ni mapear entidades completas
         assertThat(resultado).hasSize(1);
         assertThat(resultado.get(0).getName()).isEqualTo("Casa en la playa");
-        verify(alojamientoRepository, times(1)).findByActivoTrue();
+        assertThat(resultado.get(0).getAverageRating()).isEqualTo(4.5);
+        verify(alojamientoRepository, never()).findByActivoTrue();
+        verify(alojamientoMapper, never()).toDTO(any());
     }
 
     @Test
     @DisplayName("GET /api/alojamientos - Lista vacía cuando no hay alojamientos")
     void testListarAlojamientosVacio() {
         // Given
-        when(alojamientoRepository.findByActivoTrue()).thenReturn(Collections.emptyList());
+        when(alojamientoRepository.findTarjetasActivas()).thenReturn(Collections.emptyList());
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.listarActivos();
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.listarActivos();
 
         // Then
         assertThat(resultado).isEmpty();
-        verify(alojamientoRepository, times(1)).findByActivoTrue();
+        verify(alojamientoRepository, times(1)).findTarjetasActivas();
     }
 
     @Test
@@ -358,7 +410,6 @@ class AlojamientoServiceTest {
     void testEliminarAlojamientoExitoso() {
         // Given
         when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Collections.emptyList());
         when(alojamientoRepository.save(any(AlojamientoEntity.class))).thenReturn(alojamientoEntity);
 
         // When
@@ -366,7 +417,8 @@ class AlojamientoServiceTest {
 
         // Then
         verify(alojamientoRepository, times(1)).findById(1);
-        verify(reservaRepository, times(1)).findByAlojamiento_Id(1);
+        verify(reservaRepository, times(1)).countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                1, DisponibilidadIndice.ESTADOS_QUE_OCUPAN, LocalDate.now());
         verify(alojamientoRepository, times(1)).save(any(AlojamientoEntity.class));
         assertThat(alojamientoEntity.getActivo()).isFalse();
     }
@@ -389,21 +441,15 @@ class AlojamientoServiceTest {
     @Test
     @DisplayName("DELETE /api/alojamientos/{id} - Error: No se puede eliminar con reservas activas")
     void testEliminarAlojamientoConReservasActivas() {
-        // Given
-        ReservaEntity reservaActiva = ReservaEntity.builder()
-                .id(1)
-                .estado(ReservaEntity.EstadoReserva.CONFIRMADA)
-                .fechaInicio(LocalDate.now().plusDays(1))
-                .fechaFin(LocalDate.now().plusDays(5))
-                .build();
-
+        // Given - una reserva confirmada o pendiente que termina hoy o después
         when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Arrays.asList(reservaActiva));
+        when(reservaRepository.countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                eq(1), eq(DisponibilidadIndice.ESTADOS_QUE_OCUPAN), any(LocalDate.class))).thenReturn(1L);
 
         // When & Then
         assertThatThrownBy(() -> alojamientoService.eliminarAlojamiento(1))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("No se puede eliminar el alojamiento porque tiene");
+                .hasMessageContaining("No se puede eliminar el alojamiento porque tiene 1 reserva(s)");
 
         verify(alojamientoRepository, times(1)).findById(1);
         verify(alojamientoRepository, never()).save(any());
@@ -412,16 +458,10 @@ class AlojamientoServiceTest {
     @Test
     @DisplayName("DELETE /api/alojamientos/{id} - No elimina reservas canceladas")
     void testEliminarAlojamientoConReservasCanceladas() {
-        // Given
-        ReservaEntity reservaCancelada = ReservaEntity.builder()
-                .id(1)
-                .estado(ReservaEntity.EstadoReserva.CANCELADA)
-                .fechaInicio(LocalDate.now().plusDays(1))
-                .fechaFin(LocalDate.now().plusDays(5))
-                .build();
-
+        // Given - las canceladas no están en los estados que se cuentan
         when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Arrays.asList(reservaCancelada));
+        when(reservaRepository.countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                eq(1), eq(DisponibilidadIndice.ESTADOS_QUE_OCUPAN), any(LocalDate.class))).thenReturn(0L);
         when(alojamientoRepository.save(any(AlojamientoEntity.class))).thenReturn(alojamientoEntity);
 
         // When
@@ -438,47 +478,47 @@ class AlojamientoServiceTest {
     @DisplayName("GET /api/alojamientos/buscar?ciudad=Cartagena - Buscar alojamientos por ciudad exitosamente")
     void testBuscarPorCiudadExitoso() {
         // Given
-        when(alojamientoRepository.findByCiudadIgnoreCase("Cartagena"))
-                .thenReturn(Arrays.asList(alojamientoEntity));
-        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+        AlojamientoTarjetaView view = tarjeta(1);
+        when(alojamientoRepository.findTarjetasActivasPorCiudad("cartagena")).thenReturn(List.of(view));
+        when(alojamientoMapper.toTarjetaDTO(view)).thenReturn(tarjetaDTO);
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorCiudad("Cartagena");
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorCiudad("Cartagena");
 
         // Then
         assertThat(resultado).hasSize(1);
         assertThat(resultado.get(0).getCity()).isEqualTo("Cartagena");
-        verify(alojamientoRepository, times(1)).findByCiudadIgnoreCase("Cartagena");
+        verify(alojamientoRepository, times(1)).findTarjetasActivasPorCiudad("cartagena");
     }
 
     @Test
     @DisplayName("GET /api/alojamientos/buscar?ciudad=Atlantis - Ciudad sin alojamientos activos devuelve lista vacía")
     void testBuscarPorCiudadSinResultados() {
         // Given
-        when(alojamientoRepository.findByCiudadIgnoreCase("Atlantis"))
+        when(alojamientoRepository.findTarjetasActivasPorCiudad("atlantis"))
                 .thenReturn(Collections.emptyList());
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorCiudad("Atlantis");
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorCiudad("Atlantis");
 
         // Then
         assertThat(resultado).isEmpty();
-        verify(alojamientoRepository, times(1)).findByCiudadIgnoreCase("Atlantis");
+        verify(alojamientoRepository, times(1)).findTarjetasActivasPorCiudad("atlantis");
     }
 
     @Test
     @DisplayName("GET /api/alojamientos/buscar?ciudad=Cartagena - No retorna alojamientos inactivos")
     void testBuscarPorCiudadExcluyeInactivos() {
-        // Given
-        alojamientoEntity.setActivo(false);
-        when(alojamientoRepository.findByCiudadIgnoreCase("Cartagena"))
-                .thenReturn(Arrays.asList(alojamientoEntity));
+        // Given - el filtro de activos y no eliminados lo aplica la consulta por ciudad_norm
+        when(alojamientoRepository.findTarjetasActivasPorCiudad("cartagena"))
+                .thenReturn(Collections.emptyList());
 
-        // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorCiudad("Cartagena");
+        // When - mayúsculas, tildes y espacios no cambian la ciudad buscada
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorCiudad("  CARTÁGENA ");
 
         // Then
         assertThat(resultado).isEmpty();
+        verify(alojamientoRepository, never()).findByCiudadNorm(anyString());
     }
 
     // ==================== PRUEBAS DE BÚSQUEDA POR RANGO DE PRECIO ====================
@@ -487,47 +527,49 @@ class AlojamientoServiceTest {
     @DisplayName("GET /api/alojamientos/filtro/precio - Buscar por rango de precio exitosamente")
     void testBuscarPorRangoPrecioExitoso() {
         // Given
-        when(alojamientoRepository.findByPrecioPorNocheBetween(150.0, 300.0))
-                .thenReturn(Arrays.asList(alojamientoEntity));
-        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+        AlojamientoTarjetaView view = tarjeta(1);
+        when(alojamientoRepository.findTarjetasActivasPorPrecio(BigDecimal.valueOf(150.0), BigDecimal.valueOf(300.0)))
+                .thenReturn(List.of(view));
+        when(alojamientoMapper.toTarjetaDTO(view)).thenReturn(tarjetaDTO);
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorRangoPrecio(150.0, 300.0);
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorRangoPrecio(150.0, 300.0);
 
         // Then
         assertThat(resultado).hasSize(1);
         assertThat(resultado.get(0).getPricePerNight()).isEqualTo(200.0);
-        verify(alojamientoRepository, times(1)).findByPrecioPorNocheBetween(150.0, 300.0);
+        verify(alojamientoRepository, never()).findByPrecioPorNocheBetween(anyDouble(), anyDouble());
     }
 
     @Test
     @DisplayName("GET /api/alojamientos/filtro/precio - Rango sin resultados devuelve lista vacía")
     void testBuscarPorRangoPrecioSinResultados() {
         // Given
-        when(alojamientoRepository.findByPrecioPorNocheBetween(500.0, 600.0))
+        when(alojamientoRepository.findTarjetasActivasPorPrecio(BigDecimal.valueOf(500.0), BigDecimal.valueOf(600.0)))
                 .thenReturn(Collections.emptyList());
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorRangoPrecio(500.0, 600.0);
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorRangoPrecio(500.0, 600.0);
 
         // Then
         assertThat(resultado).isEmpty();
-        verify(alojamientoRepository, times(1)).findByPrecioPorNocheBetween(500.0, 600.0);
+        verify(alojamientoRepository, times(1))
+                .findTarjetasActivasPorPrecio(BigDecimal.valueOf(500.0), BigDecimal.valueOf(600.0));
     }
 
     @Test
     @DisplayName("GET /api/alojamientos/filtro/precio - No retorna alojamientos inactivos en el rango")
     void testBuscarPorRangoPrecioExcluyeInactivos() {
-        // Given
-        alojamientoEntity.setActivo(false);
-        when(alojamientoRepository.findByPrecioPorNocheBetween(150.0, 300.0))
-                .thenReturn(Arrays.asList(alojamientoEntity));
+        // Given - el filtro de activos y no eliminados lo aplica la consulta de tarjetas
+        when(alojamientoRepository.findTarjetasActivasPorPrecio(BigDecimal.valueOf(150.0), BigDecimal.valueOf(300.0)))
+                .thenReturn(Collections.emptyList());
 
         // When
-        List<AlojamientoDTO> resultado = alojamientoService.buscarPorRangoPrecio(150.0, 300.0);
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarPorRangoPrecio(150.0, 300.0);
 
         // Then
         assertThat(resultado).isEmpty();
+        verify(alojamientoMapper, never()).toTarjetaDTO(any());
     }
 
     // ==================== PRUEBAS DE LISTAR POR ANFITRIÓN ====================
@@ -630,4 +672,469 @@ class AlojamientoServiceTest {
         verify(alojamientoRepository, times(1)).existsById(999);
         verify(reservaRepository, never()).findByAlojamiento_Id(any());
     }
-}
\ No newline at end of file
+
+    // ==================== PRUEBAS DE BÚSQUEDA POR UBICACIÓN (ALOJ-18) ====================
+
+    private AlojamientoCoordenadasView coordenadas(Integer id, double lat, double lng) {
+        AlojamientoCoordenadasView view = mock(AlojamientoCoordenadasView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getLatitud()).thenReturn(BigDecimal.valueOf(lat));
+        when(view.getLongitud()).thenReturn(BigDecimal.valueOf(lng));
+        return view;
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos - Devuelve solo los del radio, ordenados por distancia")
+    void testBuscarCercanosOrdenadosPorDistancia() {
+        // Given - Cartagena centro (id 1), Bocagrande (id 2, ~3 km) y Bogotá (id 3, fuera del radio)
+        AlojamientoTarjetaView centro     = tarjeta(1);
+        AlojamientoTarjetaView bocagrande = tarjeta(2);
+        AlojamientoTarjetaDTO bocagrandeDTO = AlojamientoTarjetaDTO.builder().id(2).name("Apartamento Bocagrande").build();
+
+        List<AlojamientoCoordenadasView> coords = List.of(
+                coordenadas(1, 10.3910, -75.4794),
+                coordenadas(2, 10.3980, -75.5550),
+                coordenadas(3, 4.7110, -74.0721));
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(coords);
+        when(alojamientoRepository.findTarjetasActivasPorIds(List.of(2, 1))).thenReturn(List.of(centro, bocagrande));
+        when(alojamientoMapper.toTarjetaDTO(bocagrande)).thenReturn(bocagrandeDTO);
+        when(alojamientoMapper.toTarjetaDTO(centro)).thenReturn(tarjetaDTO);
+
+        // When - referencia junto a Bocagrande, radio 20 km
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarCercanos(10.3990, -75.5560, 20.0);
+
+        // Then
+        assertThat(resultado).extracting(AlojamientoTarjetaDTO::getName)
+                .containsExactly("Apartamento Bocagrande", "Casa en la playa");
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos - El índice se carga una sola vez y se actualiza al crear")
+    void testBuscarCercanosUsaIndiceActualizadoAlCrear() {
+        // Given - índice vacío cargado en la primera búsqueda
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(Collections.emptyList());
+        assertThat(alojamientoService.buscarCercanos(10.39, -75.48, 5.0)).isEmpty();
+
+        alojamientoEntity.setEliminado(false);
+        when(alojamientoMapper.toEntity(alojamientoDTO)).thenReturn(alojamientoEntity);
+        when(alojamientoRepository.save(any(AlojamientoEntity.class))).thenReturn(alojamientoEntity);
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+        AlojamientoTarjetaView view = tarjeta(1);
+        when(alojamientoRepository.findTarjetasActivasPorIds(List.of(1))).thenReturn(List.of(view));
+        when(alojamientoMapper.toTarjetaDTO(view)).thenReturn(tarjetaDTO);
+
+        // When
+        alojamientoService.crearAlojamiento(alojamientoDTO);
+        List<AlojamientoTarjetaDTO> resultado = alojamientoService.buscarCercanos(10.39, -75.48, 5.0);
+
+        // Then
+        assertThat(resultado).hasSize(1);
+        verify(alojamientoRepository, times(1)).findCoordenadasActivas();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos - Un alojamiento eliminado sale del índice")
+    void testBuscarCercanosExcluyeEliminados() {
+        // Given
+        List<AlojamientoCoordenadasView> coords = List.of(coordenadas(1, 10.3910, -75.4794));
+        when(alojamientoRepository.findCoordenadasActivas()).thenReturn(coords);
+        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        alojamientoService.buscarCercanos(10.39, -75.48, 5.0);
+
+        // When
+        alojamientoService.eliminarAlojamiento(1);
+
+        // Then
+        assertThat(alojamientoService.buscarCercanos(10.39, -75.48, 5.0)).isEmpty();
+        assertThat(geoIndice.tamano()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos - Error: radio inválido")
+    void testBuscarCercanosRadioInvalido() {
+        assertThatThrownBy(() -> alojamientoService.buscarCercanos(10.39, -75.48, 0.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("El radio de búsqueda debe ser mayor a 0");
+
+        verify(alojamientoRepository, never()).findCoordenadasActivas();
+    }
+
+    // ==================== PRUEBAS DE BÚSQUEDA POR UBICACIÓN PAGINADA ====================
+
+    private AlojamientoDistanciaView distancia(Integer id, double km) {
+        AlojamientoDistanciaView view = mock(AlojamientoDistanciaView.class);
+        lenient().when(view.getId()).thenReturn(id);
+        lenient().when(view.getDistancia()).thenReturn(km);
+        return view;
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos?limit=1 - Primera página con cursor a la siguiente")
+    void testBuscarCercanosPaginadoPrimeraPagina() {
+        // Given - la consulta pide limit + 1 filas para saber si hay más
+        List<AlojamientoDistanciaView> filas = List.of(distancia(1, 0.5), distancia(2, 1.25));
+        when(alojamientoRepository.findCercanosEnCaja(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), eq(10.0), eq(-1.0), eq(0), eq(2))).thenReturn(filas);
+        AlojamientoTarjetaView view = tarjeta(1);
+        when(alojamientoRepository.findTarjetasActivasPorIds(List.of(1))).thenReturn(List.of(view));
+        when(alojamientoMapper.toTarjetaDTO(view)).thenReturn(tarjetaDTO);
+
+        // When
+        PaginaDTO<AlojamientoTarjetaDTO> pagina = alojamientoService.buscarCercanosPaginado(10.39, -75.48, 10.0, 1, null);
+
+        // Then
+        assertThat(pagina.getItems()).hasSize(1);
+        assertThat(pagina.isHasNext()).isTrue();
+        assertThat(pagina.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos?cursor= - La siguiente página continúa después de (distancia, id)")
+    void testBuscarCercanosPaginadoConCursor() {
+        // Given - cursor de la página anterior, cuya última fila fue (0.5 km, id 1)
+        List<AlojamientoDistanciaView> primera = List.of(distancia(1, 0.5), distancia(2, 1.25));
+        when(alojamientoRepository.findCercanosEnCaja(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), eq(-1.0), eq(0), anyInt())).thenReturn(primera);
+        String cursor = alojamientoService.buscarCercanosPaginado(10.39, -75.48, 10.0, 1, null).getNextCursor();
+
+        List<AlojamientoDistanciaView> segunda = List.of(distancia(2, 1.25));
+        when(alojamientoRepository.findCercanosEnCaja(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), eq(0.5), eq(1), anyInt())).thenReturn(segunda);
+
+        // When
+        PaginaDTO<AlojamientoTarjetaDTO> pagina = alojamientoService.buscarCercanosPaginado(10.39, -75.48, 10.0, 1, cursor);
+
+        // Then
+        assertThat(pagina.isHasNext()).isFalse();
+        assertThat(pagina.getNextCursor()).isNull();
+        verify(alojamientoRepository).findCercanosEnCaja(anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), eq(0.5), eq(1), eq(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos?cursor=basura - Error: cursor inválido")
+    void testBuscarCercanosPaginadoCursorInvalido() {
+        assertThatThrownBy(() -> alojamientoService.buscarCercanosPaginado(10.39, -75.48, 10.0, 10, "no-es-un-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cursor de paginación inválido");
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/cercanos?limit=500 - Error: límite fuera de rango")
+    void testBuscarCercanosPaginadoLimiteInvalido() {
+        assertThatThrownBy(() -> alojamientoService.buscarCercanosPaginado(10.39, -75.48, 10.0, 500, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("El límite debe estar entre 1 y 100");
+    }
+
+    // ==================== PAGINACIÓN POR CURSOR ====================
+
+    @Test
+    @DisplayName("GET /api/alojamientos/activos?limit=1 - Página por id y cursor a la siguiente")
+    void testListarActivosPaginado() {
+        // Given - la consulta devuelve limit + 1 filas
+        AlojamientoTarjetaView primero = tarjeta(1);
+        AlojamientoTarjetaView segundo = tarjeta(7);
+        when(alojamientoRepository.findTarjetasActivasDespuesDe(eq(0), any(Pageable.class)))
+                .thenReturn(List.of(primero, segundo));
+        when(alojamientoMapper.toTarjetaDTO(primero)).thenReturn(tarjetaDTO);
+
+        // When
+        PaginaDTO<AlojamientoTarjetaDTO> pagina = alojamientoService.listarActivosPaginado(1, null);
+
+        // Then - el cursor apunta al último id entregado
+        assertThat(pagina.getItems()).containsExactly(tarjetaDTO);
+        assertThat(pagina.isHasNext()).isTrue();
+
+        when(alojamientoRepository.findTarjetasActivasDespuesDe(eq(1), any(Pageable.class))).thenReturn(List.of(segundo));
+        PaginaDTO<AlojamientoTarjetaDTO> siguiente = alojamientoService.listarActivosPaginado(1, pagina.getNextCursor());
+
+        assertThat(siguiente.isHasNext()).isFalse();
+        assertThat(siguiente.getNextCursor()).isNull();
+        verify(alojamientoRepository).findTarjetasActivasDespuesDe(eq(1), argThat(p -> p.getPageSize() == 2));
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/buscar?ciudad=&cursor=basura - Error: cursor inválido")
+    void testBuscarPorCiudadPaginadoCursorInvalido() {
+        assertThatThrownBy(() -> alojamientoService.buscarPorCiudadPaginado("Cartagena", 10, "%%%"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cursor de paginación inválido");
+        verifyNoInteractions(alojamientoRepository);
+    }
+
+    // ==================== BÚSQUEDA POR FECHAS ====================
+
+    @Test
+    @DisplayName("GET /api/alojamientos/disponibles - Excluye los alojamientos ocupados sin consultar reservas por alojamiento")
+    void testBuscarDisponibles() {
+        // Given - el alojamiento 2 tiene una reserva que se cruza con el rango pedido
+        LocalDate inicio = LocalDate.now().plusDays(30);
+        LocalDate fin    = inicio.plusDays(3);
+        disponibilidadIndice.reconstruir(List.of(
+                new DisponibilidadIndice.Ocupacion(2, inicio.plusDays(1), inicio.plusDays(5))));
+
+        when(alojamientoRepository.findIdsActivosPorCiudadDespuesDe(eq("cartagena"), eq(0), any(Pageable.class)))
+                .thenReturn(List.of(1, 2));
+        when(alojamientoRepository.findAllById(List.of(1))).thenReturn(List.of(alojamientoEntity));
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+
+        // When
+        PaginaDTO<AlojamientoDTO> pagina = alojamientoService.buscarDisponibles(
+                "Cartagena", inicio.toString(), fin.toString(), null, null);
+
+        // Then
+        assertThat(pagina.getItems()).containsExactly(alojamientoDTO);
+        assertThat(pagina.isHasNext()).isFalse();
+        verify(reservaRepository, never()).findByAlojamiento_Id(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/disponibles - Pide candidatos por tramos después del cursor hasta llenar la página")
+    void testBuscarDisponiblesPorTramos() {
+        // Given - el primer tramo después del cursor está todo ocupado
+        LocalDate inicio = LocalDate.now().plusDays(30);
+        LocalDate fin    = inicio.plusDays(3);
+        List<Integer> ocupados = new ArrayList<>();
+        List<DisponibilidadIndice.Ocupacion> reservas = new ArrayList<>();
+        for (int id = 2; id < 2 + AlojamientoService.TRAMO_CANDIDATOS_DISPONIBLES; id++) {
+            ocupados.add(id);
+            reservas.add(new DisponibilidadIndice.Ocupacion(id, inicio, fin));
+        }
+        disponibilidadIndice.reconstruir(reservas);
+        int ultimoOcupado = ocupados.get(ocupados.size() - 1);
+
+        when(alojamientoRepository.findIdsActivosDespuesDe(eq(1), any(Pageable.class))).thenReturn(ocupados);
+        when(alojamientoRepository.findIdsActivosDespuesDe(eq(ultimoOcupado), any(Pageable.class)))
+                .thenReturn(List.of(ultimoOcupado + 1, ultimoOcupado + 2));
+        AlojamientoEntity libre = AlojamientoEntity.builder().id(ultimoOcupado + 1).activo(true).eliminado(false).build();
+        when(alojamientoRepository.findAllById(List.of(ultimoOcupado + 1))).thenReturn(List.of(libre));
+        when(alojamientoMapper.toDTO(libre)).thenReturn(alojamientoDTO);
+
+        // When - segunda página (cursor en el id 1), de un elemento
+        PaginaDTO<AlojamientoDTO> pagina = alojamientoService.buscarDisponibles(
+                null, inicio.toString(), fin.toString(), 1, CursorCodec.codificar(1));
+
+        // Then - la base solo entrega ids posteriores al cursor, en tramos acotados
+        assertThat(pagina.getItems()).containsExactly(alojamientoDTO);
+        assertThat(pagina.isHasNext()).isTrue();
+        assertThat(pagina.getNextCursor()).isEqualTo(CursorCodec.codificar(ultimoOcupado + 1));
+        verify(alojamientoRepository, times(2)).findIdsActivosDespuesDe(anyInt(),
+                argThat(p -> p.getPageSize() == AlojamientoService.TRAMO_CANDIDATOS_DISPONIBLES));
+        verify(alojamientoRepository, never()).findIdsActivosPorCiudadDespuesDe(anyString(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/disponibles - Error: fin anterior al inicio")
+    void testBuscarDisponiblesFechasInvalidas() {
+        String inicio = LocalDate.now().plusDays(10).toString();
+        String fin    = LocalDate.now().plusDays(5).toString();
+
+        assertThatThrownBy(() -> alojamientoService.buscarDisponibles(null, inicio, fin, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("posterior");
+        assertThatThrownBy(() -> alojamientoService.buscarDisponibles(null, "mañana", fin, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Formato de fecha inválido");
+    }
+
+    // ==================== CALENDARIO ====================
+
+    @Test
+    @DisplayName("GET /api/alojamientos/{id}/calendario - Noches ocupadas por rachas desde el índice")
+    void testObtenerCalendario() {
+        // Given
+        LocalDate hoy = LocalDate.now();
+        disponibilidadIndice.reconstruir(List.of(
+                new DisponibilidadIndice.Ocupacion(1, hoy.plusDays(3), hoy.plusDays(5)),
+                new DisponibilidadIndice.Ocupacion(1, hoy.plusDays(28), hoy.plusDays(40)),
+                new DisponibilidadIndice.Ocupacion(2, hoy, hoy.plusDays(30))));
+        when(alojamientoRepository.existsById(1)).thenReturn(true);
+
+        // When
+        CalendarioDTO calendario = alojamientoService.obtenerCalendario(1, null, hoy.plusDays(30).toString());
+
+        // Then
+        assertThat(calendario.getFrom()).isEqualTo(hoy.toString());
+        assertThat(calendario.getNights()).isEqualTo(30);
+        assertThat(calendario.getOccupied()).containsExactly(new int[]{3, 2}, new int[]{28, 2});
+        assertThat(calendario.getOccupiedNights()).isEqualTo(4);
+        assertThat(alojamientoService.obtenerCalendario(1, null, null).getTo())
+                .isEqualTo(hoy.plusMonths(AlojamientoService.CALENDARIO_MESES_POR_DEFECTO).toString());
+        verifyNoInteractions(reservaRepository);
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/{id}/calendario - Error: rango inválido o alojamiento inexistente")
+    void testObtenerCalendarioInvalido() {
+        LocalDate hoy = LocalDate.now();
+
+        assertThatThrownBy(() -> alojamientoService.obtenerCalendario(1, hoy.minusDays(1).toString(), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("anterior a hoy");
+        assertThatThrownBy(() -> alojamientoService.obtenerCalendario(1, null, hoy.toString()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("posterior");
+        assertThatThrownBy(() -> alojamientoService.obtenerCalendario(1, null, hoy.plusMonths(25).toString()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("24 meses");
+
+        when(alojamientoRepository.existsById(999)).thenReturn(false);
+        assertThatThrownBy(() -> alojamientoService.obtenerCalendario(999, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Alojamiento no encontrado");
+    }
+
+    // ==================== BÚSQUEDA POR TEXTO ====================
+
+    @Test
+    @DisplayName("GET /api/alojamientos/texto - Ordena por relevancia y refleja las ediciones sin recargar el índice")
+    void testBuscarPorTexto() {
+        // Given - índice cargado con dos alojamientos
+        alojamientoEntity.setEliminado(false);
+        AlojamientoEntity cabana = AlojamientoEntity.builder()
+                .id(2).nombre("Cabaña con piscina").descripcion("Cabaña campestre con piscina climatizada")
+                .ciudad("Salento").precioPorNoche(BigDecimal.valueOf(350.0)).activo(true).eliminado(false)
+                .build();
+        AlojamientoDTO cabanaDTO = AlojamientoDTO.builder().id(2).name("Cabaña con piscina").build();
+        textoIndice.reconstruir(List.of(
+                new TextoIndiceAlojamientos.Entrada(1, "Casa en la playa", "Hermosa casa frente al mar", "Cartagena", 200.0),
+                new TextoIndiceAlojamientos.Entrada(2, "Cabaña con piscina", "Cabaña campestre con piscina climatizada", "Salento", 350.0)));
+
+        when(alojamientoRepository.findAllById(List.of(2))).thenReturn(List.of(cabana));
+        when(alojamientoMapper.toDTO(cabana)).thenReturn(cabanaDTO);
+
+        // When / Then - plural y sin tildes encuentra la cabaña
+        assertThat(alojamientoService.buscarPorTexto("CABANAS piscinas", null, null, null, null))
+                .containsExactly(cabanaDTO);
+
+        // When - se edita la casa para mencionar la piscina
+        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(alojamientoRepository.save(alojamientoEntity)).thenReturn(alojamientoEntity);
+        when(alojamientoMapper.doubleToBigDecimal(200.0)).thenReturn(BigDecimal.valueOf(200.0));
+        alojamientoDTO.setDescription("Casa frente al mar con piscina privada");
+        alojamientoService.actualizarAlojamiento(1, alojamientoDTO);
+
+        when(alojamientoRepository.findAllById(List.of(1))).thenReturn(List.of(alojamientoEntity));
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+
+        // Then - el filtro de precio deja solo la casa, sin recargar desde la base de datos
+        assertThat(alojamientoService.buscarPorTexto("piscina", null, null, 300.0, 10))
+                .containsExactly(alojamientoDTO);
+        verify(alojamientoRepository, never()).findTextoActivos();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/texto - Error: consulta vacía o rango de precios inválido")
+    void testBuscarPorTextoParametrosInvalidos() {
+        assertThatThrownBy(() -> alojamientoService.buscarPorTexto("  ", null, null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("texto de búsqueda es obligatorio");
+        assertThatThrownBy(() -> alojamientoService.buscarPorTexto("casa", null, 500.0, 100.0, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Rango de precios inválido");
+        assertThatThrownBy(() -> alojamientoService.buscarPorTexto("casa", null, null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("El límite debe estar entre 1 y 100");
+        verifyNoInteractions(alojamientoRepository);
+    }
+
+    // ==================== SUGERENCIAS DE CIUDADES ====================
+
+    private AlojamientoCiudadView ciudad(Integer id, String nombre) {
+        AlojamientoCiudadView view = mock(AlojamientoCiudadView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getCiudad()).thenReturn(nombre);
+        return view;
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/ciudades/sugerencias - Carga el trie una vez y refleja los alojamientos nuevos")
+    void testSugerirCiudades() {
+        // Given
+        List<AlojamientoCiudadView> ciudades = List.of(ciudad(2, "Cartagena"), ciudad(3, "Cali"));
+        when(alojamientoRepository.findCiudadesActivas()).thenReturn(ciudades);
+
+        assertThat(alojamientoService.sugerirCiudades("ca", null))
+                .extracting(SugerenciaCiudadDTO::getCity).containsExactly("Cali", "Cartagena");
+
+        alojamientoEntity.setEliminado(false);
+        when(alojamientoMapper.toEntity(alojamientoDTO)).thenReturn(alojamientoEntity);
+        when(alojamientoRepository.save(any(AlojamientoEntity.class))).thenReturn(alojamientoEntity);
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+
+        // When - se crea un segundo alojamiento en Cartagena
+        alojamientoService.crearAlojamiento(alojamientoDTO);
+        List<SugerenciaCiudadDTO> sugerencias = alojamientoService.sugerirCiudades("CÁR", 5);
+
+        // Then
+        assertThat(sugerencias).containsExactly(SugerenciaCiudadDTO.builder().city("Cartagena").count(2).build());
+        verify(alojamientoRepository, times(1)).findCiudadesActivas();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/ciudades/sugerencias - Error: límite fuera de rango")
+    void testSugerirCiudadesLimiteInvalido() {
+        assertThatThrownBy(() -> alojamientoService.sugerirCiudades("ca", 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("El límite de sugerencias debe estar entre 1 y 50");
+        assertThat(alojamientoService.sugerirCiudades(" ", null)).isEmpty();
+        verifyNoInteractions(alojamientoRepository);
+    }
+
+    // ==================== CACHÉ DEL DETALLE ====================
+
+    private double lecturasCache(String resultado) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AlojamientoDetalleCache.NOMBRE)
+                .tag("result", resultado)
+                .functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/{id} - El detalle se sirve desde caché hasta que se edita el alojamiento")
+    void testObtenerPorIdUsaCacheEInvalidaAlActualizar() {
+        // Given
+        alojamientoEntity.setEliminado(false);
+        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+
+        // When - dos lecturas seguidas
+        alojamientoService.obtenerPorId(1);
+        AlojamientoDTO segunda = alojamientoService.obtenerPorId(1);
+
+        // Then - una sola consulta; un fallo y un acierto en las métricas
+        assertThat(segunda).isSameAs(alojamientoDTO);
+        verify(alojamientoRepository, times(1)).findById(1);
+        assertThat(lecturasCache("miss")).isEqualTo(1);
+        assertThat(lecturasCache("hit")).isEqualTo(1);
+
+        // When - se edita y se vuelve a leer
+        when(alojamientoRepository.save(alojamientoEntity)).thenReturn(alojamientoEntity);
+        alojamientoService.actualizarAlojamiento(1, alojamientoDTO);
+        alojamientoService.obtenerPorId(1);
+
+        // Then - la edición invalidó la entrada (findById de la edición + recarga)
+        verify(alojamientoRepository, times(3)).findById(1);
+        verify(detalleCache).invalidar(1);
+    }
+
+    @Test
+    @DisplayName("GET /api/alojamientos/{id} - Eliminar invalida el detalle y un alojamiento inexistente no queda en caché")
+    void testObtenerPorIdEliminadoNoQuedaEnCache() {
+        // Given - detalle en caché
+        alojamientoEntity.setEliminado(false);
+        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(alojamientoMapper.toDTO(alojamientoEntity)).thenReturn(alojamientoDTO);
+        alojamientoService.obtenerPorId(1);
+
+        // When
+        alojamientoService.eliminarAlojamiento(1);
+
+        // Then
+        assertThatThrownBy(() -> alojamientoService.obtenerPorId(1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Alojamiento no disponible");
+        assertThat(detalleCache.tamano()).isZero();
+    }
+}
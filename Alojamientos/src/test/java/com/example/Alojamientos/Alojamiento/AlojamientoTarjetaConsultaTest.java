@@ -0,0 +1,201 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ComentarioEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.projection.AlojamientoTarjetaView;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Consultas de tarjetas (AlojamientoTarjetaView) y agregados de calificaciones
+ * contra H2 en modo MySQL (perfil test).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de las consultas de tarjetas de alojamientos")
+class AlojamientoTarjetaConsultaTest {
+
+    @Autowired
+    private AlojamientoRepository alojamientoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+    private UsuarioEntity huesped;
+
+    private AlojamientoEntity cabana;
+    private AlojamientoEntity apartamento;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = usuario("anfitrion@hosped.com", UsuarioEntity.Rol.ANFITRION);
+        huesped   = usuario("huesped@hosped.com", UsuarioEntity.Rol.USUARIO);
+
+        cabana      = guardar("Cabaña", "Salento", 350_000, true, false);
+        apartamento = guardar("Apartamento", "Armenia", 120_000, true, false);
+        guardar("Casa pausada", "Salento", 200_000, false, false);
+        guardar("Casa eliminada", "Salento", 200_000, false, true);
+
+        comentar(cabana, 5);
+        comentar(cabana, 4);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UsuarioEntity usuario(String correo, UsuarioEntity.Rol rol) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(rol)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private AlojamientoEntity guardar(String nombre, String ciudad, long precio, boolean activo, boolean eliminado) {
+        AlojamientoEntity alojamiento = AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre(nombre)
+                .descripcion("Descripción de " + nombre)
+                .direccion("Calle 1")
+                .ciudad(ciudad)
+                .latitud(BigDecimal.valueOf(4.53))
+                .longitud(BigDecimal.valueOf(-75.68))
+                .precioPorNoche(BigDecimal.valueOf(precio))
+                .capacidadMaxima(4)
+                .imagenPrincipal("https://example.com/" + nombre + ".jpg")
+                .activo(activo)
+                .eliminado(eliminado)
+                .build();
+        entityManager.persist(alojamiento);
+        return alojamiento;
+    }
+
+    private void comentar(AlojamientoEntity alojamiento, int calificacion) {
+        ReservaEntity reserva = ReservaEntity.builder()
+                .huesped(huesped)
+                .alojamiento(alojamiento)
+                .fechaInicio(LocalDate.now().minusDays(10))
+                .fechaFin(LocalDate.now().minusDays(8))
+                .numHuespedes(2)
+                .precioTotal(BigDecimal.valueOf(700_000))
+                .estado(ReservaEntity.EstadoReserva.COMPLETADA)
+                .build();
+        entityManager.persist(reserva);
+        entityManager.persist(ComentarioEntity.builder()
+                .reserva(reserva)
+                .usuario(huesped)
+                .alojamiento(alojamiento)
+                .calificacion(calificacion)
+                .texto("Comentario")
+                .build());
+        alojamientoRepository.registrarCalificacion(alojamiento.getId(), calificacion);
+    }
+
+    private AlojamientoEntity recargar(AlojamientoEntity alojamiento) {
+        entityManager.clear();
+        return alojamientoRepository.findById(alojamiento.getId()).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Las tarjetas traen los datos de la tarjeta y la calificación, solo de los visibles")
+    void findTarjetasActivas_incluyeCalificacion() {
+        List<AlojamientoTarjetaView> tarjetas = alojamientoRepository.findTarjetasActivas();
+
+        assertThat(tarjetas).extracting(AlojamientoTarjetaView::getNombre)
+                .containsExactly("Cabaña", "Apartamento");
+        AlojamientoTarjetaView primera = tarjetas.get(0);
+        assertThat(primera.getCiudad()).isEqualTo("Salento");
+        assertThat(primera.getPrecioPorNoche()).isEqualByComparingTo("350000");
+        assertThat(primera.getImagenPrincipal()).isEqualTo("https://example.com/Cabaña.jpg");
+        assertThat(primera.getCalificacionPromedio()).isEqualTo(4.5);
+        assertThat(primera.getTotalComentarios()).isEqualTo(2);
+        assertThat(tarjetas.get(1).getCalificacionPromedio()).isNull();
+        assertThat(tarjetas.get(1).getTotalComentarios()).isZero();
+    }
+
+    @Test
+    @DisplayName("Filtros por ciudad, precio, IDs y cursor sobre las tarjetas")
+    void findTarjetas_aplicanFiltros() {
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudad("salento"))
+                .extracting(AlojamientoTarjetaView::getId).containsExactly(cabana.getId());
+        assertThat(alojamientoRepository.findTarjetasActivasPorPrecio(
+                BigDecimal.valueOf(100_000), BigDecimal.valueOf(400_000)))
+                .extracting(AlojamientoTarjetaView::getNombre).containsExactly("Apartamento", "Cabaña");
+        assertThat(alojamientoRepository.findTarjetasActivasPorIds(List.of(apartamento.getId(), -1)))
+                .extracting(AlojamientoTarjetaView::getId).containsExactly(apartamento.getId());
+        assertThat(alojamientoRepository.findTarjetasActivasDespuesDe(cabana.getId(), PageRequest.of(0, 10)))
+                .extracting(AlojamientoTarjetaView::getId).containsExactly(apartamento.getId());
+        assertThat(alojamientoRepository.findTarjetasActivasPorCiudadDespuesDe("salento", 0, PageRequest.of(0, 1)))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Registrar y retirar calificaciones actualiza total, suma, promedio e histograma")
+    void calificaciones_seActualizanConCadaComentario() {
+        AlojamientoEntity actual = recargar(cabana);
+        assertThat(actual.getCalificacionesTotal()).isEqualTo(2);
+        assertThat(actual.getCalificacionesSuma()).isEqualTo(9);
+        assertThat(actual.getCalificacionPromedio()).isEqualTo(4.5);
+        assertThat(actual.getCalificaciones5()).isEqualTo(1);
+        assertThat(actual.getCalificaciones4()).isEqualTo(1);
+
+        assertThat(alojamientoRepository.retirarCalificacion(cabana.getId(), 5)).isEqualTo(1);
+        actual = recargar(cabana);
+        assertThat(actual.getCalificacionesTotal()).isEqualTo(1);
+        assertThat(actual.getCalificacionPromedio()).isEqualTo(4.0);
+        assertThat(actual.getCalificaciones5()).isZero();
+        assertThat(alojamientoRepository.findCalificacionPromedio(cabana.getId())).contains(4.0);
+
+        alojamientoRepository.retirarCalificacion(cabana.getId(), 4);
+        actual = recargar(cabana);
+        assertThat(actual.getCalificacionPromedio()).isZero();
+        assertThat(alojamientoRepository.findCalificacionPromedio(cabana.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Guardar la entidad no pisa los agregados y el recálculo corrige filas antiguas")
+    void calificaciones_noSePisanYSeRecalculan() {
+        // Entidad cargada antes de un comentario nuevo: al guardarla no debe volver a 2
+        AlojamientoEntity vieja = recargar(cabana);
+        comentar(cabana, 3);
+        vieja.setNombre("Cabaña renovada");
+        alojamientoRepository.saveAndFlush(vieja);
+        assertThat(recargar(cabana).getCalificacionesTotal()).isEqualTo(3);
+
+        // Fila con comentarios de antes de las columnas
+        entityManager.createNativeQuery("UPDATE alojamiento SET calificaciones_total = 0, calificaciones_suma = 0, "
+                + "calificacion_promedio = 0, calificaciones_3 = 0, calificaciones_4 = 0, calificaciones_5 = 0")
+                .executeUpdate();
+        assertThat(alojamientoRepository.recalcularCalificaciones()).isEqualTo(1);
+        assertThat(alojamientoRepository.recalcularCalificaciones()).isZero();
+
+        AlojamientoEntity actual = recargar(cabana);
+        assertThat(actual.getCalificacionesTotal()).isEqualTo(3);
+        assertThat(actual.getCalificacionesSuma()).isEqualTo(12);
+        assertThat(actual.getCalificacionPromedio()).isEqualTo(4.0);
+        assertThat(List.of(actual.getCalificaciones3(), actual.getCalificaciones4(), actual.getCalificaciones5()))
+                .containsExactly(1, 1, 1);
+    }
+}
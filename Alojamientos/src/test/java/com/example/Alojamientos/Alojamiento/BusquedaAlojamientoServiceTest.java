@@ -0,0 +1,172 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.dto.AlojamientoDTO;
+import com.example.Alojamientos.businessLayer.dto.FacetaDTO;
+import com.example.Alojamientos.businessLayer.dto.FiltroBusquedaDTO;
+import com.example.Alojamientos.businessLayer.dto.ResultadoBusquedaDTO;
+import com.example.Alojamientos.businessLayer.service.BusquedaAlojamientoService;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ServicioEntity;
+import com.example.Alojamientos.persistenceLayer.mapper.AlojamientoDataMapper;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import com.example.Alojamientos.persistenceLayer.repository.ServicioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias de la búsqueda unificada de alojamientos con facetas.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas de la búsqueda unificada de alojamientos")
+class BusquedaAlojamientoServiceTest {
+
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+
+    @Mock
+    private ServicioRepository servicioRepository;
+
+    @Mock
+    private AlojamientoDataMapper alojamientoMapper;
+
+    @InjectMocks
+    private BusquedaAlojamientoService busquedaService;
+
+    private AlojamientoEntity alojamiento(int id, double precio) {
+        return AlojamientoEntity.builder()
+                .id(id)
+                .nombre("Alojamiento " + id)
+                .ciudad("Armenia")
+                .precioPorNoche(BigDecimal.valueOf(precio))
+                .capacidadMaxima(4)
+                .activo(true)
+                .eliminado(false)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void prepararFacetasVacias() {
+        when(alojamientoRepository.contarPorTramoPrecio(any(Specification.class), anyList())).thenReturn(Map.of());
+        when(alojamientoRepository.contarPorServicio(any(Specification.class))).thenReturn(Map.of());
+    }
+
+    @Test
+    @DisplayName("Devuelve la página, el total y las facetas en una sola llamada")
+    @SuppressWarnings("unchecked")
+    void buscar_devuelvePaginaYFacetas() {
+        AlojamientoEntity a1 = alojamiento(1, 150_000);
+        AlojamientoEntity a2 = alojamiento(2, 250_000);
+        when(alojamientoRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(a1, a2), PageRequest.of(0, 2), 5));
+        when(alojamientoMapper.toDTO(a1)).thenReturn(AlojamientoDTO.builder().id(1).build());
+        when(alojamientoMapper.toDTO(a2)).thenReturn(AlojamientoDTO.builder().id(2).build());
+        when(alojamientoRepository.contarPorTramoPrecio(any(Specification.class), anyList()))
+                .thenReturn(Map.of(1, 3L, 2, 2L));
+        when(alojamientoRepository.contarPorServicio(any(Specification.class)))
+                .thenReturn(Map.of(1, 2L, 3, 5L));
+        when(servicioRepository.findAllById(anyIterable())).thenReturn(List.of(
+                ServicioEntity.builder().id(1).nombre("WiFi").build(),
+                ServicioEntity.builder().id(3).nombre("Piscina").build()));
+
+        ResultadoBusquedaDTO resultado = busquedaService.buscar(FiltroBusquedaDTO.builder()
+                .city("Armenia").minPrice(100_000.0).amenities(List.of(1, 3)).size(2).build());
+
+        assertThat(resultado.getItems()).extracting(AlojamientoDTO::getId).containsExactly(1, 2);
+        assertThat(resultado.getTotalElements()).isEqualTo(5);
+        assertThat(resultado.getTotalPages()).isEqualTo(3);
+
+        assertThat(resultado.getPriceRanges()).hasSize(5);
+        assertThat(resultado.getPriceRanges()).extracting(FacetaDTO::getCount).containsExactly(0L, 3L, 2L, 0L, 0L);
+        assertThat(resultado.getPriceRanges().get(1).getKey()).isEqualTo("100000-200000");
+        assertThat(resultado.getPriceRanges().get(4).getKey()).isEqualTo("800000+");
+
+        // Servicios ordenados por cantidad descendente
+        assertThat(resultado.getAmenities()).extracting(FacetaDTO::getLabel).containsExactly("Piscina", "WiFi");
+        assertThat(resultado.getAmenities()).extracting(FacetaDTO::getCount).containsExactly(5L, 2L);
+    }
+
+    @Test
+    @DisplayName("Aplica el orden pedido con desempate por ID")
+    @SuppressWarnings("unchecked")
+    void buscar_aplicaOrden() {
+        when(alojamientoRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        prepararFacetasVacias();
+
+        busquedaService.buscar(FiltroBusquedaDTO.builder().sort("precio_desc").page(2).size(10).build());
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(alojamientoRepository).findAll(any(Specification.class), captor.capture());
+        assertThat(captor.getValue().getPageNumber()).isEqualTo(2);
+        assertThat(captor.getValue().getPageSize()).isEqualTo(10);
+        assertThat(captor.getValue().getSort())
+                .containsExactly(Sort.Order.desc("precioPorNoche"), Sort.Order.asc("id"));
+        verifyNoInteractions(servicioRepository);
+    }
+
+    @Test
+    @DisplayName("Ordena por calificación con los agregados del alojamiento")
+    @SuppressWarnings("unchecked")
+    void buscar_ordenPorCalificacion() {
+        when(alojamientoRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        prepararFacetasVacias();
+
+        busquedaService.buscar(FiltroBusquedaDTO.builder().sort("calificacion").build());
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(alojamientoRepository).findAll(any(Specification.class), captor.capture());
+        assertThat(captor.getValue().getSort()).containsExactly(
+                Sort.Order.desc("calificacionPromedio"), Sort.Order.desc("calificacionesTotal"), Sort.Order.asc("id"));
+    }
+
+    @Test
+    @DisplayName("Rechaza parámetros inválidos sin consultar la base de datos")
+    void buscar_parametrosInvalidos() {
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder().sort("popularidad").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Orden no soportado");
+
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder().size(500).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tamaño de página");
+
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder().checkIn("2026-12-20").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("fecha de llegada y la de salida");
+
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder()
+                .checkIn("2026-12-24").checkOut("2026-12-20").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("posterior");
+
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder().lat(4.5).lng(-75.6).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ubicación y radio");
+
+        assertThatThrownBy(() -> busquedaService.buscar(FiltroBusquedaDTO.builder()
+                .minPrice(300_000.0).maxPrice(100_000.0).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Rango de precios");
+
+        verifyNoInteractions(alojamientoRepository);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pruebas del índice de noches ocupadas por alojamiento.
+ * Compara el índice contra la regla de solapamiento de ReservaService aplicada a todas las reservas.
+ */
+@DisplayName("Pruebas del índice de disponibilidad")
+class DisponibilidadIndiceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 6, 1);
+
+    private DisponibilidadIndice indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new DisponibilidadIndice();
+    }
+
+    private static boolean seSolapan(DisponibilidadIndice.Ocupacion r, LocalDate inicio, LocalDate fin) {
+        return r.inicio().isBefore(fin) && r.fin().isAfter(inicio);
+    }
+
+    @Test
+    @DisplayName("El día de salida de una reserva queda libre para la siguiente")
+    void ocupar_diaDeSalidaLibre() {
+        indice.ocupar(1, HOY, HOY.plusDays(3));
+
+        assertThat(indice.estaLibre(1, HOY.plusDays(2), HOY.plusDays(4))).isFalse();
+        assertThat(indice.estaLibre(1, HOY.plusDays(3), HOY.plusDays(5))).isTrue();
+        assertThat(indice.estaLibre(1, HOY.minusDays(2), HOY)).isTrue();
+        assertThat(indice.estaLibre(2, HOY, HOY.plusDays(3))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Liberar una reserva deja sus noches disponibles")
+    void liberar_dejaNochesDisponibles() {
+        indice.ocupar(1, HOY, HOY.plusDays(3));
+        indice.ocupar(1, HOY.plusDays(5), HOY.plusDays(7));
+
+        indice.liberar(1, HOY, HOY.plusDays(3));
+
+        assertThat(indice.estaLibre(1, HOY, HOY.plusDays(4))).isTrue();
+        assertThat(indice.estaLibre(1, HOY, HOY.plusDays(6))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Las rachas ocupadas se recortan al rango y se actualizan al ocupar y liberar")
+    void rachasOcupadas_recortanAlRango() {
+        indice.ocupar(1, HOY.minusDays(2), HOY.plusDays(2));
+        indice.ocupar(1, HOY.plusDays(2), HOY.plusDays(4));
+        indice.ocupar(1, HOY.plusDays(10), HOY.plusDays(20));
+
+        assertThat(indice.rachasOcupadas(1, HOY, HOY.plusDays(15)))
+                .containsExactly(new int[]{0, 4}, new int[]{10, 5});
+
+        indice.liberar(1, HOY.plusDays(2), HOY.plusDays(4));
+        indice.ocupar(1, HOY.plusDays(6), HOY.plusDays(7));
+        assertThat(indice.rachasOcupadas(1, HOY, HOY.plusDays(15)))
+                .containsExactly(new int[]{0, 2}, new int[]{6, 1}, new int[]{10, 5});
+        assertThat(indice.rachasOcupadas(1, HOY.plusDays(20), HOY.plusDays(30))).isEmpty();
+        assertThat(indice.rachasOcupadas(2, HOY, HOY.plusDays(30))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Coincide con la regla de solapamiento sobre reservas aleatorias")
+    void filtrarLibres_coincideConRecorridoCompleto() {
+        Random random = new Random(7);
+        List<DisponibilidadIndice.Ocupacion> reservas = new ArrayList<>();
+
+        // Reservas sin solaparse dentro de cada alojamiento, como las deja crearReserva
+        for (int id = 1; id <= 500; id++) {
+            LocalDate cursor = HOY.plusDays(random.nextInt(10));
+            while (cursor.isBefore(HOY.plusDays(365))) {
+                LocalDate fin = cursor.plusDays(1 + random.nextInt(7));
+                reservas.add(new DisponibilidadIndice.Ocupacion(id, cursor, fin));
+                cursor = fin.plusDays(random.nextInt(15));
+            }
+        }
+        indice.reconstruir(reservas);
+
+        List<Integer> candidatos = IntStream.rangeClosed(1, 500).boxed().toList();
+        for (int i = 0; i < 50; i++) {
+            LocalDate inicio = HOY.plusDays(random.nextInt(360));
+            LocalDate fin    = inicio.plusDays(1 + random.nextInt(10));
+
+            List<Integer> esperados = candidatos.stream()
+                    .filter(id -> reservas.stream()
+                            .noneMatch(r -> r.alojamientoId().equals(id) && seSolapan(r, inicio, fin)))
+                    .toList();
+
+            assertThat(indice.filtrarLibres(candidatos, inicio, fin)).isEqualTo(esperados);
+        }
+    }
+
+    @Test
+    @DisplayName("Recargar no pierde los cambios que llegan mientras se leen las reservas")
+    void recargar_conservaLosCambiosDuranteLaLectura() {
+        indice.reconstruir(List.of(new DisponibilidadIndice.Ocupacion(1, HOY, HOY.plusDays(3))));
+
+        indice.recargar(() -> {
+            // Lectura de la base en curso: las búsquedas siguen viendo el contenido anterior
+            assertThat(indice.estaLibre(1, HOY, HOY.plusDays(3))).isFalse();
+            indice.ocupar(2, HOY, HOY.plusDays(2));
+            indice.liberar(1, HOY, HOY.plusDays(3));
+            // La lectura ya no ve la reserva 2 ni la liberación de la 1
+            return List.of(new DisponibilidadIndice.Ocupacion(1, HOY, HOY.plusDays(3)),
+                    new DisponibilidadIndice.Ocupacion(3, HOY, HOY.plusDays(1)));
+        });
+
+        assertThat(indice.estaLibre(1, HOY, HOY.plusDays(3))).isTrue();
+        assertThat(indice.estaLibre(2, HOY, HOY.plusDays(2))).isFalse();
+        assertThat(indice.estaLibre(3, HOY, HOY.plusDays(1))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Si falla la lectura el índice queda como estaba y sigue recibiendo cambios")
+    void recargar_lecturaFallida_conservaElContenido() {
+        indice.reconstruir(List.of(new DisponibilidadIndice.Ocupacion(1, HOY, HOY.plusDays(3))));
+
+        assertThatThrownBy(() -> indice.recargar(() -> {
+            throw new IllegalStateException("Base no disponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(indice.estaInicializado()).isTrue();
+        assertThat(indice.estaLibre(1, HOY, HOY.plusDays(3))).isFalse();
+        indice.ocupar(2, HOY, HOY.plusDays(2));
+        assertThat(indice.estaLibre(2, HOY, HOY.plusDays(2))).isFalse();
+    }
+}
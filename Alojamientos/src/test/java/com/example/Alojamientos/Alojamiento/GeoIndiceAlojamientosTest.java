@@ -0,0 +1,114 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.index.GeoIndiceAlojamientos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pruebas del índice geográfico en memoria (ALOJ-18).
+ * Compara cada búsqueda contra el recorrido completo que hacía antes el servicio.
+ */
+@DisplayName("Pruebas del índice geográfico de alojamientos")
+class GeoIndiceAlojamientosTest {
+
+    private static final int TOTAL_ALOJAMIENTOS = 10_000;
+
+    private GeoIndiceAlojamientos geoIndice;
+    private Map<Integer, double[]> coordenadas;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        coordenadas = new HashMap<>();
+
+        // La mitad concentrada en Colombia, la otra mitad repartida por el mundo
+        for (int id = 1; id <= TOTAL_ALOJAMIENTOS; id++) {
+            double lat;
+            double lng;
+            if (id % 2 == 0) {
+                lat = -4 + random.nextDouble() * 16;
+                lng = -79 + random.nextDouble() * 12;
+            } else {
+                lat = -90 + random.nextDouble() * 180;
+                lng = -180 + random.nextDouble() * 360;
+            }
+            coordenadas.put(id, new double[]{lat, lng});
+        }
+
+        geoIndice = new GeoIndiceAlojamientos();
+        geoIndice.reconstruir(coordenadas);
+    }
+
+    private List<Integer> recorridoCompleto(double lat, double lng, double radioKm) {
+        List<GeoIndiceAlojamientos.Resultado> resultados = new ArrayList<>();
+        coordenadas.forEach((id, c) -> {
+            double d = GeoIndiceAlojamientos.distanciaKm(lat, lng, c[0], c[1]);
+            if (d <= radioKm) resultados.add(new GeoIndiceAlojamientos.Resultado(id, d));
+        });
+        resultados.sort((a, b) -> a.distanciaKm() != b.distanciaKm()
+                ? Double.compare(a.distanciaKm(), b.distanciaKm())
+                : a.id().compareTo(b.id()));
+        return resultados.stream().map(GeoIndiceAlojamientos.Resultado::id).toList();
+    }
+
+    private List<Integer> indice(double lat, double lng, double radioKm) {
+        return geoIndice.buscar(lat, lng, radioKm).stream().map(GeoIndiceAlojamientos.Resultado::id).toList();
+    }
+
+    @Test
+    @DisplayName("Coincide con el recorrido completo en radios urbanos y regionales")
+    void buscar_coincideConRecorridoCompleto() {
+        double[][] consultas = {
+                {4.7110, -74.0721, 5},      // Bogotá
+                {6.2442, -75.5812, 25},     // Medellín
+                {10.3910, -75.4794, 80},    // Cartagena
+                {4.5339, -75.6820, 300},    // Armenia
+                {0, 0, 1500}
+        };
+        for (double[] q : consultas) {
+            assertThat(indice(q[0], q[1], q[2])).isEqualTo(recorridoCompleto(q[0], q[1], q[2]));
+        }
+    }
+
+    @Test
+    @DisplayName("Soporta búsquedas que cruzan el antimeridiano y los polos")
+    void buscar_antimeridianoYPolos() {
+        assertThat(indice(0, 179.9, 800)).isEqualTo(recorridoCompleto(0, 179.9, 800));
+        assertThat(indice(-10, -179.5, 600)).isEqualTo(recorridoCompleto(-10, -179.5, 600));
+        assertThat(indice(89.5, 10, 500)).isEqualTo(recorridoCompleto(89.5, 10, 500));
+        assertThat(indice(-89.9, -120, 300)).isEqualTo(recorridoCompleto(-89.9, -120, 300));
+    }
+
+    @Test
+    @DisplayName("Los resultados salen ordenados por distancia ascendente")
+    void buscar_resultadosOrdenados() {
+        List<GeoIndiceAlojamientos.Resultado> resultados = geoIndice.buscar(4.7110, -74.0721, 200);
+
+        assertThat(resultados).isNotEmpty();
+        assertThat(resultados).extracting(GeoIndiceAlojamientos.Resultado::distanciaKm).isSorted();
+    }
+
+    @Test
+    @DisplayName("Indexar mueve el punto y eliminar lo retira")
+    void indexarYEliminar_actualizanElIndice() {
+        geoIndice.indexar(1, 4.7110, -74.0721);
+        assertThat(indice(4.7110, -74.0721, 0.5)).contains(1);
+
+        geoIndice.indexar(1, 10.3910, -75.4794);
+        assertThat(indice(4.7110, -74.0721, 0.5)).doesNotContain(1);
+        assertThat(indice(10.3910, -75.4794, 0.5)).contains(1);
+
+        geoIndice.eliminar(1);
+        assertThat(indice(10.3910, -75.4794, 0.5)).doesNotContain(1);
+        assertThat(geoIndice.tamano()).isEqualTo(TOTAL_ALOJAMIENTOS - 1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.index.AnalizadorEspanol;
+import com.example.Alojamientos.businessLayer.index.TextoIndiceAlojamientos;
+import com.example.Alojamientos.businessLayer.index.TextoIndiceAlojamientos.Entrada;
+import com.example.Alojamientos.businessLayer.index.TextoIndiceAlojamientos.Resultado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pruebas del índice invertido de búsqueda por texto y de su analizador en español.
+ */
+@DisplayName("Pruebas del índice de búsqueda por texto")
+class TextoIndiceAlojamientosTest {
+
+    private TextoIndiceAlojamientos indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new TextoIndiceAlojamientos();
+        indice.reconstruir(List.of(
+                new Entrada(1, "Cabaña con piscina", "Cabaña de madera con piscina y vista a las montañas", "Salento", 350_000.0),
+                new Entrada(2, "Apartamento en el centro", "Cerca a la piscina pública y al parque", "Armenia", 120_000.0),
+                new Entrada(3, "Casa campestre", "Casa amplia con jardín y chimenea", "Salento", 500_000.0),
+                new Entrada(4, "Finca cafetera", "Tour de café, cabañas y piscina natural", "Filandia", 280_000.0)));
+    }
+
+    private List<Integer> ids(List<Resultado> resultados) {
+        return resultados.stream().map(Resultado::id).toList();
+    }
+
+    @Test
+    @DisplayName("El analizador ignora tildes, mayúsculas, plurales y palabras vacías")
+    void analizar_normalizaTerminos() {
+        assertThat(AnalizadorEspanol.analizar("Cabañas con PISCINAS en la montaña"))
+                .containsExactly("caban", "piscin", "montan");
+        assertThat(AnalizadorEspanol.analizar("cabana piscina montañas"))
+                .containsExactly("caban", "piscin", "montan");
+        assertThat(AnalizadorEspanol.analizar("Casas y luces")).containsExactly("cas", "luz");
+        assertThat(AnalizadorEspanol.analizar(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Ordena por relevancia: la coincidencia en el nombre pesa más que en la descripción")
+    void buscar_ordenaPorRelevancia() {
+        List<Resultado> resultados = indice.buscar("cabañas con piscina", null, null, null, 10);
+
+        assertThat(ids(resultados)).containsExactly(1, 4, 2);
+        assertThat(resultados.get(0).puntaje()).isGreaterThan(resultados.get(1).puntaje());
+        assertThat(indice.buscar("spa", null, null, null, 10)).isEmpty();
+        assertThat(indice.buscar("de la y", null, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Combina el texto con los filtros de ciudad y precio")
+    void buscar_aplicaFiltros() {
+        assertThat(ids(indice.buscar("piscina", "SALENTO", null, null, 10))).containsExactly(1);
+        assertThat(ids(indice.buscar("piscina", null, 200_000.0, 300_000.0, 10))).containsExactly(4);
+        assertThat(ids(indice.buscar("piscina", null, null, 150_000.0, 10))).containsExactly(2);
+        assertThat(indice.buscar("piscina", "Cali", null, null, 10)).isEmpty();
+        assertThat(ids(indice.buscar("piscina", null, null, null, 2))).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Reindexar y eliminar se reflejan en las búsquedas siguientes")
+    void indexarYEliminar_actualizanResultados() {
+        indice.indexar(new Entrada(3, "Casa campestre con piscina", "Casa amplia con jardín", "Salento", 500_000.0));
+        assertThat(ids(indice.buscar("chimenea", null, null, null, 10))).isEmpty();
+        assertThat(ids(indice.buscar("piscina", "Salento", null, null, 10))).containsExactlyInAnyOrder(1, 3);
+
+        indice.eliminar(1);
+        assertThat(ids(indice.buscar("piscina", "Salento", null, null, 10))).containsExactly(3);
+        assertThat(indice.tamano()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Tras muchas ediciones el índice sigue dando los mismos resultados que uno recién construido")
+    void indexar_muchasEdiciones_coincideConReconstruccion() {
+        List<Entrada> finales = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            for (int version = 0; version < 10; version++) {
+                String tipo = (id + version) % 3 == 0 ? "Cabaña" : "Apartamento";
+                indice.indexar(new Entrada(id, tipo + " " + id, "Versión " + version + " con piscina", "Salento",
+                        100_000.0 + id));
+            }
+            String tipo = (id + 9) % 3 == 0 ? "Cabaña" : "Apartamento";
+            finales.add(new Entrada(id, tipo + " " + id, "Versión 9 con piscina", "Salento", 100_000.0 + id));
+        }
+
+        TextoIndiceAlojamientos reconstruido = new TextoIndiceAlojamientos();
+        reconstruido.reconstruir(finales);
+
+        assertThat(indice.tamano()).isEqualTo(300);
+        assertThat(indice.buscar("cabaña piscina", "Salento", null, null, 50))
+                .isEqualTo(reconstruido.buscar("cabaña piscina", "Salento", null, null, 50));
+    }
+}
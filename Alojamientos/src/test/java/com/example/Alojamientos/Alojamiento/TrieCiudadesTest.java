@@ -0,0 +1,82 @@
+package com.example.Alojamientos.Alojamiento;
+
+import com.example.Alojamientos.businessLayer.index.TrieCiudades;
+import com.example.Alojamientos.businessLayer.index.TrieCiudades.Sugerencia;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pruebas del trie de ciudades usado por las sugerencias del buscador.
+ */
+@DisplayName("Pruebas del trie de ciudades")
+class TrieCiudadesTest {
+
+    private TrieCiudades trie;
+
+    @BeforeEach
+    void setUp() {
+        Map<Integer, String> ciudades = new HashMap<>();
+        ciudades.put(1, "Bogotá");
+        ciudades.put(2, "Bogotá");
+        ciudades.put(3, "bogota");
+        ciudades.put(4, "Boyacá");
+        ciudades.put(5, "Barichara");
+        ciudades.put(6, "Armenia");
+        trie = new TrieCiudades();
+        trie.reconstruir(ciudades);
+    }
+
+    @Test
+    @DisplayName("Sugiere sin importar tildes ni mayúsculas, ordenando por cantidad de alojamientos")
+    void sugerir_ordenaPorPeso() {
+        assertThat(trie.sugerir("BO", 10))
+                .containsExactly(new Sugerencia("Bogotá", 3), new Sugerencia("Boyacá", 1));
+        assertThat(trie.sugerir("bogo", 10)).containsExactly(new Sugerencia("Bogotá", 3));
+        assertThat(trie.sugerir("b", 2)).extracting(Sugerencia::ciudad).containsExactly("Bogotá", "Barichara");
+        assertThat(trie.sugerir("cali", 10)).isEmpty();
+        assertThat(trie.sugerir("  ", 10)).isEmpty();
+        assertThat(trie.tamano()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Crear, mover y eliminar alojamientos actualiza los pesos y poda las ciudades vacías")
+    void indexar_mantieneConteos() {
+        trie.indexar(7, "Boyacá");
+        trie.indexar(8, "Boyacá");
+        trie.indexar(9, "Boyacá");
+        assertThat(trie.sugerir("bo", 1)).containsExactly(new Sugerencia("Boyacá", 4));
+
+        trie.indexar(5, "Cali");
+        assertThat(trie.sugerir("bar", 10)).isEmpty();
+        assertThat(trie.sugerir("cal", 10)).containsExactly(new Sugerencia("Cali", 1));
+
+        trie.eliminar(6);
+        assertThat(trie.sugerir("a", 10)).isEmpty();
+        assertThat(trie.tamano()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Recargar reemplaza el contenido y vuelve a aplicar lo que cambió durante la lectura")
+    void recargar_reaplicaLosCambiosDeLaLectura() {
+        trie.recargar(() -> {
+            trie.indexar(7, "Cali");
+            trie.eliminar(6);
+            Map<Integer, String> leidas = new HashMap<>();
+            leidas.put(1, "Bogotá");
+            leidas.put(6, "Armenia");
+            leidas.put(8, "Medellín");
+            return leidas;
+        });
+
+        assertThat(trie.sugerir("bo", 10)).containsExactly(new Sugerencia("Bogotá", 1));
+        assertThat(trie.sugerir("cal", 10)).containsExactly(new Sugerencia("Cali", 1));
+        assertThat(trie.sugerir("a", 10)).isEmpty();
+        assertThat(trie.tamano()).isEqualTo(3);
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.Alojamientos.Comentario;
 
+import com.example.Alojamientos.businessLayer.cache.AlojamientoDetalleCache;
 import com.example.Alojamientos.businessLayer.dto.ComentarioDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
 import com.example.Alojamientos.businessLayer.service.ComentarioService;
 import com.example.Alojamientos.persistenceLayer.entity.*;
 import com.example.Alojamientos.persistenceLayer.mapper.ComentarioDataMapper;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ComentarioRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -23,6 +28,14 @@ class ComentarioServiceTest {
     private ReservaRepository reservaRepository;
     @Mock
     private ComentarioDataMapper comentarioMapper;
+    @Mock
+    private AlojamientoRepository alojamientoRepository;
+    @Mock
+    private AlojamientoDetalleCache detalleCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EventoOutboxPublicador eventoOutbox;
 
     @InjectMocks
     private ComentarioService comentarioService;
@@ -31,14 +44,17 @@ class ComentarioServiceTest {
     private ComentarioEntity entity;
     private ReservaEntity reserva;
     private UsuarioEntity usuario;
+    private AlojamientoEntity alojamiento;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
         usuario = UsuarioEntity.builder().id(1).build();
+        alojamiento = AlojamientoEntity.builder().id(7).nombre("Cabaña").anfitrion(UsuarioEntity.builder().id(3).build()).build();
         reserva = ReservaEntity.builder()
                 .id(10)
+                .alojamiento(alojamiento)
                 .estado(ReservaEntity.EstadoReserva.COMPLETADA)
                 .fechaFin(LocalDate.now().minusDays(2))
                 .huesped(usuario)
@@ -57,6 +73,7 @@ class ComentarioServiceTest {
                 .texto("Excelente alojamiento, muy limpio y cómodo.")
                 .reserva(reserva)
                 .usuario(usuario)
+                .alojamiento(alojamiento)
                 .build();
     }
 
@@ -74,6 +91,11 @@ class ComentarioServiceTest {
         assertNotNull(result);
         assertEquals(dto.getText(), result.getText());
         verify(comentarioRepository, times(1)).save(any());
+        verify(alojamientoRepository).registrarCalificacion(7, 5);
+        verify(detalleCache).invalidar(7);
+        verify(eventoOutbox).registrar(eq(EventoOutboxEntity.TipoEvento.COMENTARIO_CREADO), eq(100), any(Object[].class));
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof NotificacionEvento n && n.usuarioId() == 3 && n.mensaje().contains("Cabaña")));
     }
 
     @Test
@@ -102,6 +124,7 @@ class ComentarioServiceTest {
 
         Exception ex = assertThrows(IllegalArgumentException.class, () -> comentarioService.crearComentario(dto));
         assertTrue(ex.getMessage().contains("entre 1 y 5"));
+        verifyNoInteractions(alojamientoRepository);
     }
 
     @Test
@@ -149,20 +172,17 @@ class ComentarioServiceTest {
     // ---------- PROMEDIO ----------
     @Test
     void obtenerPromedioCalificaciones_CalculaCorrecto() {
-        ComentarioEntity c1 = ComentarioEntity.builder().calificacion(4).build();
-        ComentarioEntity c2 = ComentarioEntity.builder().calificacion(2).build();
-        when(comentarioRepository.findByAlojamiento_IdOrderByFechaCreacionDesc(7))
-                .thenReturn(List.of(c1, c2));
+        when(alojamientoRepository.findCalificacionPromedio(7)).thenReturn(Optional.of(3.0));
 
         Double promedio = comentarioService.obtenerPromedioCalificaciones(7);
 
         assertEquals(3.0, promedio);
+        verifyNoInteractions(comentarioRepository);
     }
 
     @Test
     void obtenerPromedioCalificaciones_SinComentarios() {
-        when(comentarioRepository.findByAlojamiento_IdOrderByFechaCreacionDesc(7))
-                .thenReturn(Collections.emptyList());
+        when(alojamientoRepository.findCalificacionPromedio(7)).thenReturn(Optional.empty());
 
         Double promedio = comentarioService.obtenerPromedioCalificaciones(7);
 
@@ -196,20 +216,23 @@ class ComentarioServiceTest {
     // ---------- ELIMINAR ----------
     @Test
     void eliminarComentario_Exitoso() {
-        when(comentarioRepository.existsById(100)).thenReturn(true);
+        when(comentarioRepository.findById(100)).thenReturn(Optional.of(entity));
 
         comentarioService.eliminarComentario(100);
 
-        verify(comentarioRepository).deleteById(100);
+        verify(comentarioRepository).delete(entity);
+        verify(alojamientoRepository).retirarCalificacion(7, 5);
+        verify(detalleCache).invalidar(7);
     }
 
     @Test
     void eliminarComentario_FallaPorNoExistir() {
-        when(comentarioRepository.existsById(100)).thenReturn(false);
+        when(comentarioRepository.findById(100)).thenReturn(Optional.empty());
 
         Exception ex = assertThrows(IllegalArgumentException.class,
                 () -> comentarioService.eliminarComentario(100));
 
         assertTrue(ex.getMessage().contains("no encontrado"));
+        verifyNoInteractions(alojamientoRepository);
     }
 }
@@ -0,0 +1,251 @@
+package com.example.Alojamientos.Correo;
+
+import com.example.Alojamientos.businessLayer.scheduler.CorreoRelay;
+import com.example.Alojamientos.businessLayer.service.EmailService;
+import com.example.Alojamientos.persistenceLayer.entity.CorreoPendienteEntity;
+import com.example.Alojamientos.persistenceLayer.repository.CorreoPendienteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.persistence.EntityManager;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Cola de correos contra H2 en modo MySQL (perfil test) y un servidor SMTP
+ * local ({@link SmtpLocal}). Usa una base en memoria propia porque aquí los
+ * datos se confirman. Los reintentos y la pausa del circuito no esperan
+ * (0s) para no depender del reloj, y el job programado no corre solo.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:correo_pendiente;DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000",
+        "app.correo.intervalo-ms=3600000",
+        "app.correo.tamano-lote=50",
+        "app.correo.hilos=4",
+        "app.correo.por-conexion=5",
+        "app.correo.max-intentos=3",
+        "app.correo.espera-reintento=0s",
+        "app.correo.circuito.umbral-fallos=5",
+        "app.correo.circuito.pausa=0s"
+})
+@Import({EmailService.class, CorreoRelay.class, CorreoRelayTest.Configuracion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas de la cola de envío de correos")
+class CorreoRelayTest {
+
+    @TestConfiguration
+    static class Configuracion {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(destroyMethod = "close")
+        SmtpLocal smtpLocal() {
+            return new SmtpLocal();
+        }
+
+        @Bean
+        JavaMailSender javaMailSender(SmtpLocal smtpLocal) {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(smtpLocal.getPuerto());
+            sender.setDefaultEncoding("UTF-8");
+            Properties propiedades = sender.getJavaMailProperties();
+            propiedades.put("mail.smtp.from", "no-responder@hosped.com");
+            propiedades.put("mail.smtp.connectiontimeout", "2000");
+            propiedades.put("mail.smtp.timeout", "2000");
+            return sender;
+        }
+    }
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private CorreoRelay relay;
+
+    @Autowired
+    private CorreoPendienteRepository correoPendienteRepository;
+
+    @Autowired
+    private SmtpLocal smtp;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        correoPendienteRepository.deleteAll();
+        smtp.limpiar();
+        // Un envío correcto deja el circuito cerrado y sin fallos acumulados para la siguiente prueba
+        encolar("reinicio@hosped.com", 1);
+        relay.despacharPendientes();
+        correoPendienteRepository.deleteAll();
+        smtp.limpiar();
+    }
+
+    private void encolar(String destinatario, int cantidad) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            for (int i = 0; i < cantidad; i++) {
+                emailService.encolar(destinatario, "Asunto " + i, "Cuerpo " + i, null);
+            }
+        });
+    }
+
+    private double envios(String estado) {
+        return meterRegistry.get("correo.envios").tag("estado", estado).counter().count();
+    }
+
+    private static String contenido(SmtpLocal.Recibido recibido) throws Exception {
+        MimeMessage mensaje = new MimeMessage(Session.getInstance(new Properties()),
+                new ByteArrayInputStream(recibido.datos().getBytes(StandardCharsets.UTF_8)));
+        return mensaje.getSubject() + "\n" + mensaje.getContent();
+    }
+
+    @Test
+    @DisplayName("El código se encola en la transacción que lo pide y el relay lo entrega al SMTP")
+    void enviarCodigoRecuperacion_encolaYEntrega() throws Exception {
+        double enviadosAntes = envios("enviado");
+        new TransactionTemplate(transactionManager).executeWithoutResult(s ->
+                emailService.enviarCodigoRecuperacion("huesped@hosped.com", "123456"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            emailService.enviarCodigoRecuperacion("otro@hosped.com", "654321");
+            s.setRollbackOnly();
+        });
+        assertThat(smtp.getRecibidos()).as("encolar no habla con el SMTP").isEmpty();
+
+        assertThat(relay.despacharPendientes()).isEqualTo(1);
+        assertThat(relay.despacharPendientes()).isZero();
+
+        assertThat(smtp.getRecibidos()).singleElement().satisfies(r -> {
+            assertThat(r.destinatarios()).containsExactly("huesped@hosped.com");
+            assertThat(contenido(r)).contains("Código de recuperación", "123456");
+        });
+        CorreoPendienteEntity correo = correoPendienteRepository.findAll().get(0);
+        assertThat(correo.getEstado()).isEqualTo(CorreoPendienteEntity.Estado.ENVIADO);
+        assertThat(correo.getIntentos()).isEqualTo(1);
+        assertThat(correo.getEnviado()).isNotNull();
+        assertThat(correo.getCuerpo()).as("el código no queda guardado tras enviarse").isEmpty();
+        assertThat(envios("enviado") - enviadosAntes).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Con el SMTP caído el circuito se abre sin gastar los intentos de toda la cola, y al volver se envía todo")
+    void despachar_smtpCaido_abreElCircuitoYLuegoSeRecupera() {
+        encolar("huesped@hosped.com", 50);
+        smtp.setCaido(true);
+        double aperturasAntes = meterRegistry.get("correo.circuito.aperturas").counter().count();
+
+        assertThat(relay.despacharPendientes()).isZero();
+
+        assertThat(relay.getEstadoCircuito()).isEqualTo(CorreoRelay.EstadoCircuito.ABIERTO);
+        assertThat(meterRegistry.get("correo.circuito.aperturas").counter().count() - aperturasAntes).isEqualTo(1);
+        assertThat(correoPendienteRepository.countByEstado(CorreoPendienteEntity.Estado.PENDIENTE)).isEqualTo(50);
+        // Solo gastan un intento los grupos de 5 que alcanzaron a conectarse antes de abrirse
+        // (umbral 5 + hasta 3 que ya estaban en curso en los otros hilos)
+        List<CorreoPendienteEntity> correos = correoPendienteRepository.findAll();
+        long conIntento = correos.stream().filter(c -> c.getIntentos() == 1).count();
+        assertThat(conIntento).isBetween(5L * 5, 8L * 5);
+        assertThat(correos).allMatch(c -> c.getIntentos() <= 1);
+        assertThat(meterRegistry.get("correo.circuito.estado").gauge().value()).isEqualTo(2);
+
+        smtp.setCaido(false);
+        assertThat(relay.despacharPendientes()).isEqualTo(50);
+
+        assertThat(relay.getEstadoCircuito()).isEqualTo(CorreoRelay.EstadoCircuito.CERRADO);
+        assertThat(smtp.getRecibidos()).hasSize(50);
+        assertThat(correoPendienteRepository.countByEstado(CorreoPendienteEntity.Estado.ENVIADO)).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Un destinatario que sigue fallando se descarta tras el máximo de intentos y los vencidos no se envían")
+    void despachar_fallosPersistentesYVencidos_seDescartan() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            emailService.encolar("rebota@hosped.com", "Reserva confirmada", "Detalle", null);
+            emailService.encolar("tarde@hosped.com", "Código", "123456", LocalDateTime.now().minusMinutes(1));
+            emailService.encolar("Huesped <huesped@hosped.com", "Reserva confirmada", "Detalle", null);
+        });
+        double fallidosAntes = envios("fallido");
+
+        for (int i = 0; i < 5; i++) relay.despacharPendientes();
+
+        List<CorreoPendienteEntity> correos = correoPendienteRepository.findAll();
+        CorreoPendienteEntity rebota = correos.stream()
+                .filter(c -> c.getDestinatario().startsWith("rebota")).findFirst().orElseThrow();
+        CorreoPendienteEntity tarde = correos.stream()
+                .filter(c -> c.getDestinatario().startsWith("tarde")).findFirst().orElseThrow();
+        CorreoPendienteEntity invalido = correos.stream()
+                .filter(c -> c.getDestinatario().startsWith("Huesped <")).findFirst().orElseThrow();
+
+        assertThat(rebota.getEstado()).isEqualTo(CorreoPendienteEntity.Estado.FALLIDO);
+        assertThat(rebota.getIntentos()).isEqualTo(3);
+        assertThat(rebota.getUltimoError()).isNotBlank();
+        assertThat(tarde.getEstado()).isEqualTo(CorreoPendienteEntity.Estado.VENCIDO);
+        assertThat(tarde.getIntentos()).isZero();
+        assertThat(invalido.getEstado()).as("no se reintenta un correo que no se puede armar")
+                .isEqualTo(CorreoPendienteEntity.Estado.FALLIDO);
+        assertThat(invalido.getIntentos()).isEqualTo(1);
+        assertThat(correos).extracting(CorreoPendienteEntity::getCuerpo).containsOnly("");
+        assertThat(envios("fallido") - fallidosAntes).isEqualTo(2);
+        assertThat(smtp.getRecibidos()).isEmpty();
+        assertThat(relay.getEstadoCircuito()).as("un destinatario rechazado no cuenta contra el circuito")
+                .isEqualTo(CorreoRelay.EstadoCircuito.CERRADO);
+    }
+
+    @Test
+    @DisplayName("La purga elimina por lotes los correos resueltos antiguos y nunca los pendientes")
+    void purgarResueltosAnteriores_soloResueltosAntiguos() {
+        encolar("huesped@hosped.com", 3);
+        relay.despacharPendientes();
+        encolar("pendiente@hosped.com", 1);
+        // Todos creados hace 40 días: solo los enviados se pueden eliminar
+        new TransactionTemplate(transactionManager).executeWithoutResult(s ->
+                entityManager.createNativeQuery("UPDATE correo_pendiente SET creado = :creado")
+                        .setParameter("creado", LocalDateTime.now().minusDays(40))
+                        .executeUpdate());
+
+        LocalDateTime limite = LocalDateTime.now().minusDays(30);
+        assertThat(correoPendienteRepository.purgarResueltosAnteriores(limite, 2)).isEqualTo(2);
+        assertThat(correoPendienteRepository.purgarResueltosAnteriores(limite, 2)).isEqualTo(1);
+        assertThat(correoPendienteRepository.purgarResueltosAnteriores(limite, 2)).isZero();
+
+        assertThat(correoPendienteRepository.findAll()).singleElement().satisfies(c -> {
+            assertThat(c.getEstado()).isEqualTo(CorreoPendienteEntity.Estado.PENDIENTE);
+            assertThat(c.getCuerpo()).isNotEmpty();
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.Alojamientos.Correo;
+
+import com.example.Alojamientos.businessLayer.service.EmailService;
+import com.example.Alojamientos.businessLayer.service.PlantillaCorreo;
+import com.example.Alojamientos.persistenceLayer.entity.CorreoPendienteEntity;
+import com.example.Alojamientos.persistenceLayer.repository.CorreoPendienteRepository;
+import jakarta.mail.SendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Envío por lotes de EmailService contra el servidor SMTP local, con la
+ * comparación de correos por segundo entre una conexión por correo y una
+ * conexión por lote.
+ */
+@DisplayName("Pruebas del envío por lotes de EmailService")
+class EmailServiceEnvioTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailServiceEnvioTest.class);
+
+    private SmtpLocal smtp;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        smtp = new SmtpLocal();
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.getPuerto());
+        sender.getJavaMailProperties().put("mail.smtp.from", "no-responder@hosped.com");
+        emailService = new EmailService(sender, mock(CorreoPendienteRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    private static List<CorreoPendienteEntity> correos(long desde, int cantidad) {
+        List<CorreoPendienteEntity> correos = new ArrayList<>(cantidad);
+        for (long id = desde; id < desde + cantidad; id++) {
+            Map<String, String> variables = Map.of("codigo", String.format("%06d", id));
+            correos.add(CorreoPendienteEntity.builder()
+                    .id(id)
+                    .destinatario("huesped" + id + "@hosped.com")
+                    .asunto(PlantillaCorreo.CODIGO_RECUPERACION.asunto(variables))
+                    .cuerpo(PlantillaCorreo.CODIGO_RECUPERACION.cuerpo(variables))
+                    .build());
+        }
+        return correos;
+    }
+
+    private double enviarPorGrupos(List<CorreoPendienteEntity> correos, int porConexion) {
+        long inicio = System.nanoTime();
+        for (int desde = 0; desde < correos.size(); desde += porConexion) {
+            assertThat(emailService.entregar(correos.subList(desde, Math.min(desde + porConexion, correos.size()))))
+                    .isEmpty();
+        }
+        return correos.size() / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    @Test
+    @DisplayName("Un lote usa una sola conexión SMTP y envía más correos por segundo que una conexión por correo")
+    void entregar_porLotes_reutilizaLaConexion() {
+        int total = 500;
+        enviarPorGrupos(correos(1, 50), 10);  // calentamiento
+        smtp.limpiar();
+
+        double unoPorConexion = enviarPorGrupos(correos(1_000, total), 1);
+        assertThat(smtp.getConexiones()).isEqualTo(total);
+        smtp.limpiar();
+
+        double porLotes = enviarPorGrupos(correos(2_000, total), 50);
+        assertThat(smtp.getConexiones()).isEqualTo(total / 50);
+        assertThat(smtp.getRecibidos()).hasSize(total);
+
+        log.info("SMTP local, {} correos: una conexión por correo {} correos/s, lotes de 50 por conexión {} correos/s (x{})",
+                total, String.format("%.0f", unoPorConexion), String.format("%.0f", porLotes),
+                String.format("%.1f", porLotes / unoPorConexion));
+    }
+
+    @Test
+    @DisplayName("Un destinatario rechazado o inválido no tumba el lote: solo se informan los que fallaron")
+    void entregar_fallosParciales_seInformanPorCorreo() {
+        List<CorreoPendienteEntity> correos = correos(1, 3);
+        correos.get(1).setDestinatario("rebota@hosped.com");
+        correos.get(2).setDestinatario("Huesped <huesped@hosped.com");
+
+        Map<Long, MailException> errores = emailService.entregar(correos);
+
+        assertThat(errores).containsOnlyKeys(2L, 3L);
+        assertThat(errores.get(2L)).isInstanceOf(MailSendException.class)
+                .hasCauseInstanceOf(SendFailedException.class);
+        assertThat(errores.get(3L)).isInstanceOf(MailParseException.class);
+        assertThat(smtp.getRecibidos()).singleElement()
+                .satisfies(r -> assertThat(r.destinatarios()).containsExactly("huesped1@hosped.com"));
+        assertThat(smtp.getConexiones()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Las plantillas reemplazan sus variables y rechazan las que faltan")
+    void plantilla_renderiza() {
+        assertThat(PlantillaCorreo.CODIGO_RECUPERACION.cuerpo(Map.of("codigo", "042137")))
+                .contains("    042137\n")
+                .doesNotContain("{{");
+        assertThat(PlantillaCorreo.CODIGO_RECUPERACION.asunto(Map.of()))
+                .isEqualTo("Hosped - Código de recuperación de contraseña");
+        assertThatThrownBy(() -> PlantillaCorreo.CODIGO_RECUPERACION.cuerpo(Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("codigo");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.Alojamientos.Correo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo en localhost para las pruebas de correo: acepta EHLO,
+ * MAIL, RCPT, DATA, RSET, NOOP y QUIT, guarda los mensajes recibidos y puede
+ * simular un servidor caído (responde 421 al conectar) o rechazar
+ * temporalmente (451) los destinatarios que contienen "rebota".
+ */
+class SmtpLocal implements AutoCloseable {
+
+    /** Mensaje recibido: destinatarios del sobre y el contenido DATA tal como llegó. */
+    record Recibido(List<String> destinatarios, String datos) {
+    }
+
+    private final ServerSocket    servidor;
+    private final ExecutorService conexiones = Executors.newCachedThreadPool();
+    private final Queue<Recibido> recibidos  = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger   aceptadas  = new AtomicInteger();
+    private volatile boolean      caido;
+
+    SmtpLocal() {
+        try {
+            servidor = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        conexiones.submit(this::aceptar);
+    }
+
+    int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    List<Recibido> getRecibidos() {
+        return List.copyOf(recibidos);
+    }
+
+    /** Conexiones SMTP aceptadas desde la última limpieza. */
+    int getConexiones() {
+        return aceptadas.get();
+    }
+
+    void setCaido(boolean caido) {
+        this.caido = caido;
+    }
+
+    void limpiar() {
+        recibidos.clear();
+        aceptadas.set(0);
+        caido = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        conexiones.shutdownNow();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                aceptadas.incrementAndGet();
+                conexiones.submit(() -> atender(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            if (caido) {
+                responder(out, "421 localhost Servicio no disponible");
+                return;
+            }
+            responder(out, "220 localhost SMTP de prueba");
+            List<String> destinatarios = new ArrayList<>();
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                switch (comando) {
+                    case "EHLO", "HELO" -> responder(out, "250 localhost");
+                    case "MAIL" -> {
+                        destinatarios.clear();
+                        responder(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        if (linea.contains("rebota")) {
+                            responder(out, "451 4.2.1 Buzón no disponible temporalmente");
+                        } else {
+                            destinatarios.add(linea.substring(linea.indexOf('<') + 1, linea.indexOf('>')));
+                            responder(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        responder(out, "354 Fin con <CRLF>.<CRLF>");
+                        StringBuilder datos = new StringBuilder();
+                        while ((linea = in.readLine()) != null && !linea.equals(".")) {
+                            datos.append(linea.startsWith("..") ? linea.substring(1) : linea).append('\n');
+                        }
+                        recibidos.add(new Recibido(List.copyOf(destinatarios), datos.toString()));
+                        responder(out, "250 OK");
+                    }
+                    case "RSET", "NOOP" -> responder(out, "250 OK");
+                    case "QUIT" -> {
+                        responder(out, "221 Adiós");
+                        return;
+                    }
+                    default -> responder(out, "502 Comando no implementado");
+                }
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión
+        }
+    }
+
+    private static void responder(PrintWriter out, String respuesta) {
+        out.print(respuesta + "\r\n");
+        out.flush();
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.Alojamientos;
 
 import com.example.Alojamientos.securityLayer.JwtService;
+import com.example.Alojamientos.securityLayer.TokenVerificado;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +89,27 @@ class JwtServiceTest {
         String token = jwtService.generarToken("juan@correo.com");
         assertTrue(jwtService.esTokenEstructuralmenteValido(token));
     }
+
+    @Test
+    void verificar_debeRetornarClaimsDelTokenEnUnSoloObjeto() {
+        String token = jwtService.generarTokenConRol("host@correo.com", "ANFITRION");
+        TokenVerificado verificado = jwtService.verificar(token).orElseThrow();
+        assertEquals("host@correo.com", verificado.email());
+        assertEquals("ANFITRION", verificado.rol());
+        assertNull(verificado.tipo());
+        assertTrue(verificado.estaVigente(Instant.now()));
+        assertEquals("refresh", jwtService.verificar(jwtService.generarRefreshToken("host@correo.com"))
+                .orElseThrow().tipo());
+    }
+
+    @Test
+    void verificar_debeRetornarVacioParaTokenInvalidoOExpirado() {
+        assertTrue(jwtService.verificar("esto.no.es.un.token").isEmpty());
+        String token = jwtService.generarToken("juan@correo.com");
+        assertTrue(jwtService.verificar(token.substring(0, token.length() - 2) + "xx").isEmpty());
+        ReflectionTestUtils.setField(jwtService, "expirationMs", -1000L);
+        assertTrue(jwtService.verificar(jwtService.generarToken("juan@correo.com")).isEmpty());
+    }
 }
 
 
@@ -0,0 +1,213 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.businessLayer.evento.NotificacionAgrupador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionResumenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Ventanas de resumen en la tabla notificacion_resumen contra H2 en modo MySQL
+ * (perfil test). Los eventos que pasan sin agrupar son los que NotificacionAgrupador
+ * vuelve a publicar sin grupo.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NotificacionAgrupador.class, NotificacionAgrupadorTest.Metricas.class})
+@RecordApplicationEvents
+@DisplayName("Pruebas del agrupador de notificaciones en resúmenes")
+class NotificacionAgrupadorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificacionAgrupadorTest.class);
+
+    private static final Pattern CANTIDAD = Pattern.compile("^(\\d+) ");
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private NotificacionAgrupador agrupador;
+
+    @Autowired
+    private NotificacionResumenRepository resumenRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private LocalDateTime inicio;
+
+    @BeforeEach
+    void setUp() {
+        inicio = LocalDateTime.now();
+    }
+
+    private NotificacionEvento reserva(int anfitrionId, int alojamientoId, int n, LocalDateTime creada) {
+        return new NotificacionEvento(anfitrionId, NotificacionEntity.TipoNotificacion.NUEVA_RESERVA,
+                "Nueva reserva recibida", "Reserva " + n + " en el alojamiento " + alojamientoId, creada,
+                "reservas:" + alojamientoId, "%d nuevas reservas más en \"Alojamiento " + alojamientoId + "\"");
+    }
+
+    /** Eventos que el agrupador dejó pasar (publicados de nuevo sin grupo). */
+    private List<NotificacionEvento> inmediatas() {
+        return eventos.stream(NotificacionEvento.class).filter(e -> e.grupo() == null).toList();
+    }
+
+    private static int cantidad(NotificacionEvento resumen) {
+        Matcher m = CANTIDAD.matcher(resumen.titulo());
+        assertThat(m.find()).as("título del resumen: %s", resumen.titulo()).isTrue();
+        return Integer.parseInt(m.group(1));
+    }
+
+    private double contador(String nombre) {
+        return meterRegistry.get(nombre).counter().count();
+    }
+
+    @Test
+    @DisplayName("Una ráfaga de 1.000 eventos se guarda como la primera de cada grupo más un resumen")
+    void agrupar_rafaga() {
+        // 3 anfitriones, 5 alojamientos; la ráfaga llega desordenada
+        List<NotificacionEvento> rafaga = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int alojamiento = 1 + i % 5;
+            rafaga.add(reserva(100 + alojamiento % 3, alojamiento, i, inicio.plusNanos(i * 1_000L)));
+        }
+        Collections.shuffle(rafaga, new Random(7));
+        double agrupadasAntes = contador("notificaciones.resumen.agrupadas");
+
+        long t0 = System.nanoTime();
+        rafaga.forEach(agrupador::alPublicar);
+        assertThat(agrupador.cerrarVencidas(inicio.plusSeconds(30), 100)).isEmpty();
+        List<NotificacionEvento> resumenes = agrupador.cerrarVencidas(inicio.plusSeconds(61), 100);
+        double ms = (System.nanoTime() - t0) / 1e6;
+
+        log.info("Ráfaga de {} eventos -> {} notificaciones guardadas ({} inmediatas, {} resúmenes) en {} ms",
+                rafaga.size(), inmediatas().size() + resumenes.size(), inmediatas().size(), resumenes.size(),
+                String.format("%.1f", ms));
+
+        assertThat(inmediatas()).hasSize(5);
+        assertThat(resumenes).hasSize(5)
+                .allSatisfy(r -> {
+                    assertThat(r.grupo()).isNull();
+                    assertThat(r.titulo()).contains("nuevas reservas más en \"Alojamiento ");
+                    assertThat(r.mensaje()).contains("... y ");
+                });
+        assertThat(inmediatas().size() + resumenes.stream().mapToInt(NotificacionAgrupadorTest::cantidad).sum())
+                .isEqualTo(1_000);
+        assertThat(contador("notificaciones.resumen.agrupadas") - agrupadasAntes).isEqualTo(995);
+        assertThat(resumenRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Otra instancia (o la misma después de reiniciar) acumula en la misma ventana y la cierra una vez")
+    void agrupar_ventanaCompartidaEntreInstancias() {
+        NotificacionAgrupador otraInstancia = new NotificacionAgrupador(resumenRepository, eventPublisher,
+                new SimpleMeterRegistry(), Duration.ofSeconds(60));
+
+        agrupador.alPublicar(reserva(1, 1, 1, inicio));
+        otraInstancia.alPublicar(reserva(1, 1, 2, inicio.plusSeconds(5)));
+        agrupador.alPublicar(reserva(1, 1, 3, inicio.plusSeconds(10)));
+        otraInstancia.alPublicar(reserva(1, 1, 4, inicio.plusSeconds(15)));
+
+        assertThat(inmediatas()).hasSize(1);
+        List<NotificacionEvento> resumenes = otraInstancia.cerrarVencidas(inicio.plusSeconds(61), 100);
+        assertThat(resumenes).singleElement()
+                .satisfies(r -> {
+                    assertThat(cantidad(r)).isEqualTo(3);
+                    assertThat(r.mensaje()).isEqualTo("Reserva 2 en el alojamiento 1\nReserva 3 en el alojamiento 1\n"
+                            + "Reserva 4 en el alojamiento 1");
+                    assertThat(r.creada()).isEqualToIgnoringNanos(inicio.plusSeconds(15));
+                });
+        assertThat(agrupador.cerrarVencidas(inicio.plusSeconds(61), 100)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Los eventos sin grupo no crean ventanas y un único acumulado se guarda tal cual")
+    void agrupar_sinGrupoYUnicoAcumulado() {
+        NotificacionEvento suelto = new NotificacionEvento(1, NotificacionEntity.TipoNotificacion.MENSAJE,
+                "Hola", "Mensaje");
+        NotificacionEvento primera = reserva(1, 1, 1, inicio);
+        NotificacionEvento segunda = reserva(1, 1, 2, inicio.plusSeconds(5));
+        double generadosAntes = contador("notificaciones.resumen.generados");
+
+        eventPublisher.publishEvent(suelto);
+        eventPublisher.publishEvent(primera);
+        eventPublisher.publishEvent(segunda);
+
+        assertThat(inmediatas()).containsExactly(suelto, primera.sinGrupo());
+        // La fecha vuelve de la base con la precisión de la columna
+        assertThat(agrupador.cerrarVencidas(inicio.plusSeconds(60), 100)).singleElement()
+                .satisfies(r -> assertThat(r).usingRecursiveComparison().ignoringFields("creada")
+                        .isEqualTo(segunda.sinGrupo()));
+        assertThat(contador("notificaciones.resumen.generados")).isEqualTo(generadosAntes);
+    }
+
+    @Test
+    @DisplayName("Cerrada la ventana, el siguiente evento abre una nueva y pasa de inmediato")
+    void agrupar_despuesDelCierre_abreOtraVentana() {
+        agrupador.alPublicar(reserva(1, 1, 1, inicio));
+        agrupador.alPublicar(reserva(1, 1, 2, inicio.plusSeconds(10)));
+        agrupador.alPublicar(reserva(1, 1, 3, inicio.plusSeconds(20)));
+        assertThat(agrupador.cerrarVencidas(inicio.plusSeconds(60), 100)).singleElement()
+                .satisfies(r -> assertThat(cantidad(r)).isEqualTo(2));
+
+        NotificacionEvento tardia = reserva(1, 1, 4, inicio.plusSeconds(90));
+        agrupador.alPublicar(tardia);
+
+        assertThat(inmediatas()).hasSize(2).last().isEqualTo(tardia.sinGrupo());
+        assertThat(resumenRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Con ventana 0 no agrupa nada")
+    void agrupar_ventanaCero_noAgrupa() {
+        NotificacionAgrupador sinVentana = new NotificacionAgrupador(resumenRepository, eventPublisher,
+                new SimpleMeterRegistry(), Duration.ZERO);
+        NotificacionEvento primera = reserva(1, 1, 1, inicio);
+        NotificacionEvento segunda = reserva(1, 1, 2, inicio);
+
+        sinVentana.alPublicar(primera);
+        sinVentana.alPublicar(segunda);
+
+        assertThat(inmediatas()).containsExactly(primera.sinGrupo(), segunda.sinGrupo());
+        assertThat(resumenRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.businessLayer.cache.NoLeidasCache;
+import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
+import com.example.Alojamientos.businessLayer.evento.NotificacionAgrupador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionDespachador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
+import com.example.Alojamientos.businessLayer.service.NotificacionService;
+import com.example.Alojamientos.persistenceLayer.mapper.NotificacionDataMapperImpl;
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionResumenRepository;
+import com.example.Alojamientos.persistenceLayer.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Despacho de notificaciones después del commit contra H2 en modo MySQL (perfil test).
+ * Usa una base en memoria propia porque aquí los datos se confirman; la cola es
+ * pequeña a propósito para que las ráfagas también pasen por el guardado directo.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notificaciones_despacho;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.notificaciones.despacho.capacidad=50",
+        "app.notificaciones.despacho.tamano-lote=20"
+})
+@Import({NotificacionDespachador.class, NotificacionService.class, NotificacionDataMapperImpl.class, NoLeidasCache.class,
+        NotificacionAgrupador.class, NotificacionDespachadorTest.Metricas.class,
+        NotificacionDespachadorTest.Publicadas.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas del despacho de notificaciones después del commit")
+class NotificacionDespachadorTest {
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /** Notificaciones nuevas que NotificacionService publica para el stream SSE. */
+    static class Publicadas {
+        final List<NotificacionDTO> nuevas = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void alCambiarNoLeidas(NoLeidasCambioEvento evento) {
+            nuevas.addAll(evento.nuevas());
+        }
+    }
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificacionDespachador despachador;
+
+    @Autowired
+    private NotificacionService notificacionService;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private NotificacionResumenRepository resumenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Publicadas publicadas;
+
+    private UsuarioEntity anfitrion;
+
+    @BeforeEach
+    void setUp() {
+        anfitrion = usuarioRepository.save(UsuarioEntity.builder()
+                .nombre("Anfitrión")
+                .correo("anfitrion@hosped.com")
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificacionRepository.deleteAll();
+        resumenRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        publicadas.nuevas.clear();
+    }
+
+    private NotificacionEvento evento(Integer usuarioId, String titulo) {
+        return new NotificacionEvento(usuarioId, NotificacionEntity.TipoNotificacion.NUEVA_RESERVA,
+                titulo, "Mensaje de " + titulo);
+    }
+
+    private NotificacionEvento agrupable(String titulo) {
+        return new NotificacionEvento(anfitrion.getId(), NotificacionEntity.TipoNotificacion.NUEVA_RESERVA,
+                titulo, "Mensaje de " + titulo, "reservas:1", "%d nuevas reservas en Casa del Lago");
+    }
+
+    private void esperarNotificaciones(long esperadas) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (notificacionRepository.count() < esperadas && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(notificacionRepository.count()).isEqualTo(esperadas);
+    }
+
+    @Test
+    @DisplayName("Solo se guardan las notificaciones de transacciones confirmadas")
+    void encolar_soloDespuesDelCommit() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(s -> eventPublisher.publishEvent(evento(anfitrion.getId(), "Confirmada")));
+        transaccion.executeWithoutResult(s -> {
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Revertida"));
+            s.setRollbackOnly();
+        });
+
+        esperarNotificaciones(1);
+        Thread.sleep(200);
+        assertThat(notificacionRepository.findByUsuario_IdOrderByFechaCreacionDesc(anfitrion.getId()))
+                .singleElement()
+                .satisfies(n -> {
+                    assertThat(n.getTitulo()).isEqualTo("Confirmada");
+                    assertThat(n.getLeida()).isFalse();
+                });
+    }
+
+    @Test
+    @DisplayName("Las notificaciones publicadas después del INSERT por lotes llevan el id generado")
+    void guardar_publicaLasNotificacionesConSuId() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Primera"));
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Segunda"));
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Tercera"));
+        });
+
+        esperarNotificaciones(3);
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publicadas.nuevas.size() < 3 && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        List<NotificacionEntity> guardadas = notificacionRepository.findAll();
+        assertThat(publicadas.nuevas)
+                .extracting(NotificacionDTO::getId, NotificacionDTO::getTitle)
+                .containsExactlyInAnyOrderElementsOf(guardadas.stream()
+                        .map(n -> tuple(n.getId(), n.getTitulo()))
+                        .toList());
+    }
+
+    @Test
+    @DisplayName("Una ráfaga mayor que la cola se guarda completa, por lotes")
+    void encolar_rafaga_seGuardaCompletaPorLotes() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Reserva " + i));
+        }
+
+        esperarNotificaciones(500);
+        assertThat(meterRegistry.get("notificaciones.despacho.lote").summary().max()).isLessThanOrEqualTo(20);
+        assertThat(meterRegistry.get("notificaciones.despacho.retraso").timer().count()).isGreaterThanOrEqualTo(500);
+        assertThat(meterRegistry.get("notificaciones.despacho.pendientes").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Al detenerse vacía la cola antes de terminar")
+    void stop_vaciaLaCola() {
+        try {
+            for (int i = 0; i < 45; i++) {
+                eventPublisher.publishEvent(evento(anfitrion.getId(), "Reserva " + i));
+            }
+            despachador.stop();
+            assertThat(despachador.isRunning()).isFalse();
+            assertThat(notificacionRepository.count()).isEqualTo(45);
+
+            // Detenido, guarda en el hilo que publica
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Tardía"));
+            assertThat(notificacionRepository.count()).isEqualTo(46);
+        } finally {
+            despachador.start();
+        }
+    }
+
+    @Test
+    @DisplayName("Una notificación inválida no impide guardar el resto del lote")
+    void guardar_filaInvalida_noPierdeElLote() throws Exception {
+        double fallidasAntes = meterRegistry.get("notificaciones.despacho.fallidas").counter().count();
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Uno"));
+            eventPublisher.publishEvent(evento(-1, "Usuario inexistente"));
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Dos"));
+        });
+
+        esperarNotificaciones(2);
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("notificaciones.despacho.fallidas").counter().count() == fallidasAntes
+                && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(meterRegistry.get("notificaciones.despacho.fallidas").counter().count())
+                .isEqualTo(fallidasAntes + 1);
+    }
+
+    @Test
+    @DisplayName("Las ráfagas se acumulan en la transacción que las publica y el resumen se guarda al vencer la ventana")
+    void encolar_rafagaAgrupada_seResumeAlVencerLaVentana() throws Exception {
+        double fallidasAntes = meterRegistry.get("notificaciones.despacho.fallidas").counter().count();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(s -> {
+            eventPublisher.publishEvent(agrupable("Revertida"));
+            s.setRollbackOnly();
+        });
+        transaccion.executeWithoutResult(s -> {
+            eventPublisher.publishEvent(agrupable("Reserva 1"));
+            eventPublisher.publishEvent(agrupable("Reserva 2"));
+            eventPublisher.publishEvent(agrupable("Reserva 3"));
+            eventPublisher.publishEvent(evento(-1, "Usuario inexistente"));
+            eventPublisher.publishEvent(evento(anfitrion.getId(), "Sin grupo"));
+        });
+
+        // La que abre la ventana y la que no se agrupa se guardan ya, a pesar de la fila inválida
+        esperarNotificaciones(2);
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("notificaciones.despacho.fallidas").counter().count() == fallidasAntes
+                && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(meterRegistry.get("notificaciones.despacho.fallidas").counter().count())
+                .isEqualTo(fallidasAntes + 1);
+        // La ventana quedó en la base con las dos acumuladas; la revertida no contó
+        assertThat(resumenRepository.findAll()).singleElement()
+                .satisfies(v -> assertThat(v.getPendientes()).isEqualTo(2));
+
+        notificacionService.guardarResumenes();
+        assertThat(notificacionRepository.count()).isEqualTo(2);
+
+        // Vence la ventana
+        transaccion.executeWithoutResult(s -> resumenRepository.findAll()
+                .forEach(v -> v.setCierre(LocalDateTime.now().minusSeconds(1))));
+        notificacionService.guardarResumenes();
+
+        List<String> titulos = notificacionRepository.findByUsuario_IdOrderByFechaCreacionDesc(anfitrion.getId())
+                .stream().map(NotificacionEntity::getTitulo).toList();
+        assertThat(titulos).containsExactlyInAnyOrder("Reserva 1", "Sin grupo", "2 nuevas reservas en Casa del Lago");
+        assertThat(resumenRepository.count()).isZero();
+    }
+}
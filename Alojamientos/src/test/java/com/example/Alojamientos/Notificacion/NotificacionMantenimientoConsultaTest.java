@@ -0,0 +1,120 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * UPDATE/DELETE masivos de notificaciones y DELETE por lotes de
+ * NotificacionRetencionScheduler contra H2 en modo MySQL (perfil test).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de las operaciones masivas sobre notificaciones")
+class NotificacionMantenimientoConsultaTest {
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+    private UsuarioEntity otro;
+    private LocalDateTime ahora;
+
+    @BeforeEach
+    void setUp() {
+        ahora = LocalDateTime.now();
+        anfitrion = usuario("anfitrion@hosped.com");
+        otro      = usuario("otro@hosped.com");
+
+        notificaciones(anfitrion, 300, false, ahora.minusDays(1));
+        notificaciones(anfitrion, 250, true, ahora.minusDays(200));
+        notificaciones(anfitrion, 20, true, ahora.minusDays(2));
+        notificaciones(otro, 10, false, ahora.minusDays(1));
+        notificaciones(otro, 5, true, ahora.minusDays(200));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UsuarioEntity usuario(String correo) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private void notificaciones(UsuarioEntity usuario, int cantidad, boolean leida, LocalDateTime creada) {
+        List<NotificacionEntity> filas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add(NotificacionEntity.builder()
+                    .usuario(usuario)
+                    .tipo(NotificacionEntity.TipoNotificacion.NUEVA_RESERVA)
+                    .titulo("Reserva " + i)
+                    .mensaje("Nueva reserva")
+                    .leida(leida)
+                    .fechaCreacion(creada)
+                    .build());
+        }
+        notificacionRepository.saveAll(filas);
+    }
+
+    @Test
+    @DisplayName("Marcar todas como leídas cambia solo las no leídas del usuario")
+    void marcarTodasLeidas_soloDelUsuario() {
+        assertThat(notificacionRepository.marcarTodasLeidas(anfitrion.getId())).isEqualTo(300);
+        assertThat(notificacionRepository.marcarTodasLeidas(anfitrion.getId())).isZero();
+
+        assertThat(notificacionRepository.countByUsuario_IdAndLeidaFalse(anfitrion.getId())).isZero();
+        assertThat(notificacionRepository.countByUsuario_IdAndLeidaFalse(otro.getId())).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Eliminar leídas borra solo las leídas del usuario")
+    void eliminarLeidas_soloDelUsuario() {
+        assertThat(notificacionRepository.eliminarLeidas(anfitrion.getId())).isEqualTo(270);
+
+        assertThat(notificacionRepository.findByUsuario_IdOrderByFechaCreacionDesc(anfitrion.getId()))
+                .hasSize(300)
+                .allMatch(n -> !n.getLeida());
+        assertThat(notificacionRepository.findByUsuario_IdOrderByFechaCreacionDesc(otro.getId())).hasSize(15);
+    }
+
+    @Test
+    @DisplayName("La purga elimina por lotes solo las leídas anteriores al límite")
+    void purgarLeidasAnteriores_porLotes() {
+        LocalDateTime limite = ahora.minusDays(90);
+
+        assertThat(notificacionRepository.purgarLeidasAnteriores(limite, 100)).isEqualTo(100);
+        assertThat(notificacionRepository.purgarLeidasAnteriores(limite, 100)).isEqualTo(100);
+        assertThat(notificacionRepository.purgarLeidasAnteriores(limite, 100)).isEqualTo(55);
+        assertThat(notificacionRepository.purgarLeidasAnteriores(limite, 100)).isZero();
+
+        // Quedan las no leídas (aunque sean antiguas no se tocan) y las leídas recientes
+        assertThat(notificacionRepository.count()).isEqualTo(300 + 20 + 10);
+        assertThat(notificacionRepository.countByUsuario_IdAndLeidaFalse(anfitrion.getId())).isEqualTo(300);
+    }
+}
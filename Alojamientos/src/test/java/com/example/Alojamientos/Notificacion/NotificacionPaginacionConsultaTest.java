@@ -0,0 +1,142 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Paginación por cursor (fechaCreacion DESC, id DESC) de las notificaciones de un
+ * usuario contra H2 en modo MySQL (perfil test), con varias notificaciones creadas
+ * en el mismo instante.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de la paginación por cursor de notificaciones")
+class NotificacionPaginacionConsultaTest {
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity anfitrion;
+    private LocalDateTime ahora;
+
+    /** Notificaciones del anfitrión en el orden en que se deben listar. */
+    private List<NotificacionEntity> esperadas;
+
+    @BeforeEach
+    void setUp() {
+        // Sin fracciones de segundo: la columna no guarda nanosegundos
+        ahora = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        anfitrion = usuario("anfitrion@hosped.com");
+        UsuarioEntity otro = usuario("otro@hosped.com");
+
+        List<NotificacionEntity> propias = new ArrayList<>();
+        // Intercaladas para que el id no siga el orden de las fechas
+        propias.add(notificacion(anfitrion, ahora.minusHours(1)));
+        propias.add(notificacion(anfitrion, ahora));
+        notificacion(otro, ahora);
+        propias.add(notificacion(anfitrion, ahora.minusHours(1)));
+        propias.add(notificacion(anfitrion, ahora));
+        propias.add(notificacion(anfitrion, ahora.minusDays(1)));
+        propias.add(notificacion(anfitrion, ahora));
+        notificacion(otro, ahora.minusHours(1));
+        propias.add(notificacion(anfitrion, ahora.minusHours(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        esperadas = propias.stream()
+                .sorted(Comparator.comparing(NotificacionEntity::getFechaCreacion)
+                        .thenComparing(NotificacionEntity::getId).reversed())
+                .toList();
+    }
+
+    private UsuarioEntity usuario(String correo) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.ANFITRION)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private NotificacionEntity notificacion(UsuarioEntity usuario, LocalDateTime creada) {
+        NotificacionEntity notificacion = NotificacionEntity.builder()
+                .usuario(usuario)
+                .tipo(NotificacionEntity.TipoNotificacion.NUEVA_RESERVA)
+                .titulo("Reserva")
+                .mensaje("Nueva reserva")
+                .leida(false)
+                .fechaCreacion(creada)
+                .build();
+        entityManager.persist(notificacion);
+        return notificacion;
+    }
+
+    private static List<Integer> ids(List<NotificacionEntity> notificaciones) {
+        return notificaciones.stream().map(NotificacionEntity::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Recorrer las páginas con el cursor devuelve cada notificación una vez, también entre empates de fecha")
+    void findPorUsuarioDespuesDe_recorreEmpatesSinSaltosNiRepetidos() {
+        List<NotificacionEntity> pagina = notificacionRepository.findPrimerasPorUsuario(
+                anfitrion.getId(), PageRequest.of(0, 2));
+        List<Integer> recorridas = new ArrayList<>();
+        for (int paginas = 0; !pagina.isEmpty() && paginas < 10; paginas++) {
+            assertThat(pagina).hasSizeLessThanOrEqualTo(2);
+            recorridas.addAll(ids(pagina));
+            NotificacionEntity ultima = pagina.get(pagina.size() - 1);
+            pagina = notificacionRepository.findPorUsuarioDespuesDe(anfitrion.getId(),
+                    ultima.getFechaCreacion(), ultima.getId(), PageRequest.of(0, 2));
+        }
+
+        assertThat(recorridas).containsExactlyElementsOf(ids(esperadas));
+    }
+
+    @Test
+    @DisplayName("La página siguiente empieza estrictamente después del cursor (fecha, id)")
+    void findPorUsuarioDespuesDe_empiezaDespuesDelCursor() {
+        // esperadas: tres de ahora, tres de hace una hora y una de ayer
+        NotificacionEntity segundaDeAhora = esperadas.get(1);
+        assertThat(segundaDeAhora.getFechaCreacion()).isEqualTo(ahora);
+
+        assertThat(ids(notificacionRepository.findPorUsuarioDespuesDe(anfitrion.getId(),
+                ahora, segundaDeAhora.getId(), PageRequest.of(0, 10))))
+                .containsExactlyElementsOf(ids(esperadas.subList(2, 7)));
+
+        // Cursor en la última de su fecha: sigue con la fecha anterior
+        NotificacionEntity ultimaDeAhora = esperadas.get(2);
+        assertThat(ids(notificacionRepository.findPorUsuarioDespuesDe(anfitrion.getId(),
+                ahora, ultimaDeAhora.getId(), PageRequest.of(0, 1))))
+                .containsExactly(esperadas.get(3).getId());
+
+        assertThat(notificacionRepository.findPorUsuarioDespuesDe(anfitrion.getId(),
+                esperadas.get(6).getFechaCreacion(), esperadas.get(6).getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+}
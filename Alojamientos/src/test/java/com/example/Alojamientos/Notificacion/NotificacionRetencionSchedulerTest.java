@@ -0,0 +1,81 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.businessLayer.scheduler.JobLeaseService;
+import com.example.Alojamientos.businessLayer.scheduler.NotificacionRetencionScheduler;
+import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del job de retención de notificaciones")
+class NotificacionRetencionSchedulerTest {
+
+    @Mock
+    private NotificacionRepository notificacionRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificacionRetencionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new NotificacionRetencionScheduler(notificacionRepository, jobLeaseService, meterRegistry,
+                Duration.ofDays(90), 100);
+        lenient().when(jobLeaseService.ejecutar(eq(NotificacionRetencionScheduler.JOB), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return true;
+        });
+        lenient().when(jobLeaseService.renovar(NotificacionRetencionScheduler.JOB)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Purga por lotes con el límite de antigüedad hasta que un lote sale incompleto")
+    void purgarLeidasAntiguas_porLotes() {
+        when(notificacionRepository.purgarLeidasAnteriores(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 3);
+
+        LocalDateTime antes = LocalDateTime.now().minusDays(90);
+        scheduler.purgarLeidasAntiguas();
+
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(notificacionRepository, times(3)).purgarLeidasAnteriores(limite.capture(), eq(100));
+        assertThat(limite.getValue()).isBetween(antes, LocalDateTime.now().minusDays(90));
+        assertThat(meterRegistry.get("notificaciones.purga.filas").counter().count()).isEqualTo(203);
+        assertThat(meterRegistry.get("notificaciones.purga.ultima").gauge().value()).isEqualTo(203);
+    }
+
+    @Test
+    @DisplayName("Sin el lease no toca la tabla, y si lo pierde entre lotes se detiene")
+    void purgarLeidasAntiguas_respetaElLease() {
+        when(jobLeaseService.ejecutar(eq(NotificacionRetencionScheduler.JOB), any())).thenReturn(false);
+        scheduler.purgarLeidasAntiguas();
+        verifyNoInteractions(notificacionRepository);
+
+        reset(jobLeaseService);
+        when(jobLeaseService.ejecutar(eq(NotificacionRetencionScheduler.JOB), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return true;
+        });
+        when(jobLeaseService.renovar(NotificacionRetencionScheduler.JOB)).thenReturn(false);
+        when(notificacionRepository.purgarLeidasAnteriores(any(LocalDateTime.class), eq(100))).thenReturn(100);
+
+        scheduler.purgarLeidasAntiguas();
+
+        verify(notificacionRepository, times(1)).purgarLeidasAnteriores(any(LocalDateTime.class), eq(100));
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.Alojamientos.Notificacion;
 
+import com.example.Alojamientos.businessLayer.cache.NoLeidasCache;
 import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
 import com.example.Alojamientos.businessLayer.service.NotificacionService;
 import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
 import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.NotificacionDataMapper;
 import com.example.Alojamientos.persistenceLayer.repository.NotificacionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -23,6 +29,12 @@ class NotificacionServiceTest {
     @Mock
     private NotificacionDataMapper mapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private NoLeidasCache noLeidasCache = new NoLeidasCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(30));
+
     @InjectMocks
     private NotificacionService notificacionService;
 
@@ -144,6 +156,7 @@ class NotificacionServiceTest {
         NotificacionDTO result = notificacionService.marcarComoLeida(1);
         assertThat(result).isNotNull();
         verify(notificacionRepository).save(entity);
+        verify(eventPublisher).publishEvent(new NoLeidasCambioEvento(1, -1, List.of()));
     }
 
     // 9️⃣ Marcar como leída - no encontrada
@@ -157,12 +170,13 @@ class NotificacionServiceTest {
     // 🔟 Marcar todas como leídas
     @Test
     void marcarTodasComoLeidas_debeActualizarTodas() {
-        when(notificacionRepository.findByUsuario_IdAndLeidaFalseOrderByFechaCreacionDesc(1))
-                .thenReturn(List.of(entity));
+        when(notificacionRepository.marcarTodasLeidas(1)).thenReturn(3);
 
         notificacionService.marcarTodasComoLeidas(1);
 
-        verify(notificacionRepository).saveAll(anyList());
+        verify(notificacionRepository).marcarTodasLeidas(1);
+        verify(notificacionRepository, never()).saveAll(anyList());
+        verify(eventPublisher).publishEvent(new NoLeidasCambioEvento(1, -3, List.of()));
     }
 
     // 11️⃣ Contar no leídas
@@ -177,17 +191,18 @@ class NotificacionServiceTest {
     // 12️⃣ Eliminar notificación - éxito
     @Test
     void eliminarNotificacion_existenteDebeEliminar() {
-        when(notificacionRepository.existsById(1)).thenReturn(true);
+        when(notificacionRepository.findById(1)).thenReturn(Optional.of(entity));
 
         notificacionService.eliminarNotificacion(1);
 
         verify(notificacionRepository).deleteById(1);
+        verify(eventPublisher).publishEvent(new NoLeidasCambioEvento(1, -1, List.of()));
     }
 
     // 13️⃣ Eliminar notificación - no existe
     @Test
     void eliminarNotificacion_noExistenteDebeLanzarExcepcion() {
-        when(notificacionRepository.existsById(5)).thenReturn(false);
+        when(notificacionRepository.findById(5)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> notificacionService.eliminarNotificacion(5))
                 .isInstanceOf(IllegalArgumentException.class);
     }
@@ -195,25 +210,53 @@ class NotificacionServiceTest {
     // 14️⃣ Eliminar leídas de usuario
     @Test
     void eliminarLeidasDeUsuario_debeEliminarTodasLasLeidas() {
-        entity.setLeida(true);
-        when(notificacionRepository.findByUsuario_IdAndLeidaTrueOrderByFechaCreacionDesc(1))
-                .thenReturn(List.of(entity));
+        when(notificacionRepository.eliminarLeidas(1)).thenReturn(1);
 
         notificacionService.eliminarLeidasDeUsuario(1);
 
-        verify(notificacionRepository).deleteAll(anyList());
+        verify(notificacionRepository).eliminarLeidas(1);
+        verify(notificacionRepository, never()).deleteAll(anyList());
     }
 
     // 15️⃣ Marcar todas como leídas - sin notificaciones
     @Test
     void marcarTodasComoLeidas_sinNotificacionesNoDebeFallar() {
-        when(notificacionRepository.findByUsuario_IdAndLeidaFalseOrderByFechaCreacionDesc(1))
-                .thenReturn(Collections.emptyList());
+        when(notificacionRepository.marcarTodasLeidas(1)).thenReturn(0);
 
         notificacionService.marcarTodasComoLeidas(1);
 
-        // Aceptamos la llamada aunque sea con lista vacía
-        verify(notificacionRepository).saveAll(anyList());
+        verify(notificacionRepository).marcarTodasLeidas(1);
+        verifyNoInteractions(eventPublisher);
     }
 
+    // 16 Contar no leídas - la segunda vez sale de la caché
+    @Test
+    void contarNoLeidas_segundaVezNoConsulta() {
+        when(notificacionRepository.countByUsuario_IdAndLeidaFalse(1)).thenReturn(3L);
+
+        notificacionService.contarNoLeidas(1);
+        noLeidasCache.alCambiarNoLeidas(NoLeidasCambioEvento.leidas(1, 1));
+
+        assertThat(notificacionService.contarNoLeidas(1)).isEqualTo(2L);
+        verify(notificacionRepository, times(1)).countByUsuario_IdAndLeidaFalse(1);
+    }
+
+    // 17 Reconciliar contadores con la base
+    @Test
+    void reconciliarNoLeidas_corrigeContadoresDesfasados() {
+        when(notificacionRepository.countByUsuario_IdAndLeidaFalse(1)).thenReturn(3L);
+        when(notificacionRepository.countByUsuario_IdAndLeidaFalse(2)).thenReturn(1L);
+        notificacionService.contarNoLeidas(1);
+        notificacionService.contarNoLeidas(2);
+
+        Tuple fila = mock(Tuple.class);
+        when(fila.get("usuarioId", Integer.class)).thenReturn(1);
+        when(fila.get("cantidad", Long.class)).thenReturn(7L);
+        when(notificacionRepository.contarNoLeidasPorUsuario(anyCollection())).thenReturn(List.of(fila));
+
+        notificacionService.reconciliarNoLeidas();
+
+        assertThat(notificacionService.contarNoLeidas(1)).isEqualTo(7L);
+        assertThat(notificacionService.contarNoLeidas(2)).isZero();
+    }
 }
@@ -0,0 +1,141 @@
+package com.example.Alojamientos.Notificacion;
+
+import com.example.Alojamientos.businessLayer.cache.NoLeidasCache;
+import com.example.Alojamientos.businessLayer.dto.NotificacionDTO;
+import com.example.Alojamientos.businessLayer.evento.NoLeidasCambioEvento;
+import com.example.Alojamientos.businessLayer.service.NotificacionService;
+import com.example.Alojamientos.businessLayer.service.NotificacionStreamService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificacionStreamServiceTest {
+
+    @Mock
+    private NotificacionService notificacionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NoLeidasCache noLeidasCache;
+    private NotificacionStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        noLeidasCache = new NoLeidasCache(meterRegistry, 1000, Duration.ofMinutes(30));
+        streamService = new NotificacionStreamService(notificacionService, noLeidasCache, meterRegistry,
+                3, 2, Duration.ofMinutes(30));
+    }
+
+    // 1️⃣ La primera pestaña cuenta una vez; la segunda reutiliza el conteo
+    @Test
+    void conectar_cuentaSoloConLaPrimeraPestana() {
+        when(notificacionService.contarNoLeidas(1)).thenReturn(4L);
+
+        assertThat(streamService.conectar(1)).isNotNull();
+        assertThat(streamService.conectar(1)).isNotNull();
+
+        verify(notificacionService, times(1)).contarNoLeidas(1);
+        assertThat(streamService.noLeidas(1)).hasValue(4);
+        assertThat(meterRegistry.get("notificaciones.stream.conexiones").gauge().value()).isEqualTo(2);
+    }
+
+    // 2️⃣ Los eventos ajustan el conteo sin consultar la base
+    @Test
+    void alCambiarNoLeidas_ajustaElConteoSinConsultar() {
+        when(notificacionService.contarNoLeidas(1)).thenReturn(4L);
+        streamService.conectar(1);
+
+        NotificacionDTO nueva = NotificacionDTO.builder().userId(1).type("NUEVA_RESERVA").title("Nueva reserva").build();
+        streamService.alCambiarNoLeidas(new NoLeidasCambioEvento(1, 2, List.of(nueva, nueva)));
+        streamService.alCambiarNoLeidas(NoLeidasCambioEvento.leidas(1, 1));
+        assertThat(streamService.noLeidas(1)).hasValue(5);
+
+        streamService.alCambiarNoLeidas(NoLeidasCambioEvento.leidas(1, 50));
+        assertThat(streamService.noLeidas(1)).hasValue(0);
+
+        verify(notificacionService, times(1)).contarNoLeidas(1);
+    }
+
+    // 3️⃣ Un usuario sin pestañas abiertas no genera trabajo
+    @Test
+    void alCambiarNoLeidas_usuarioDesconectadoNoHaceNada() {
+        streamService.alCambiarNoLeidas(new NoLeidasCambioEvento(7, 1, List.of()));
+
+        assertThat(streamService.noLeidas(7)).isEmpty();
+        verifyNoInteractions(notificacionService);
+    }
+
+    // 4️⃣ Límite de pestañas por usuario y de conexiones totales
+    @Test
+    void conectar_respetaLosLimites() {
+        when(notificacionService.contarNoLeidas(anyInt())).thenReturn(0L);
+        streamService.conectar(1);
+        streamService.conectar(1);
+
+        assertThatThrownBy(() -> streamService.conectar(1))
+                .isInstanceOf(IllegalStateException.class);
+
+        streamService.conectar(2);
+        assertThatThrownBy(() -> streamService.conectar(3))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(streamService.getConexiones()).isEqualTo(3);
+    }
+
+    // 5️⃣ ID inválido
+    @Test
+    void conectar_idInvalidoDebeLanzarExcepcion() {
+        assertThatThrownBy(() -> streamService.conectar(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(streamService.getConexiones()).isZero();
+    }
+
+    // 6️⃣ La reconciliación toma el conteo de NoLeidasCache, sin consultar la base
+    @Test
+    void reconciliar_igualaConNoLeidasCache() {
+        when(notificacionService.contarNoLeidas(1)).thenReturn(4L);
+        when(notificacionService.contarNoLeidas(2)).thenReturn(2L);
+        streamService.conectar(1);
+        streamService.conectar(2);
+        // Corregido por la reconciliación de NoLeidasCache con un cambio de otra instancia
+        noLeidasCache.obtener(1, id -> 7L);
+
+        streamService.reconciliar();
+
+        assertThat(streamService.noLeidas(1)).hasValue(7);
+        assertThat(streamService.noLeidas(2)).hasValue(2);
+        verify(notificacionService, times(2)).contarNoLeidas(anyInt());
+        verifyNoMoreInteractions(notificacionService);
+    }
+
+    // 7️⃣ Con el contador en caché, los eventos dejan el stream igual que NoLeidasCache
+    @Test
+    void alCambiarNoLeidas_tomaElConteoDeNoLeidasCache() {
+        when(notificacionService.contarNoLeidas(1)).thenReturn(4L);
+        streamService.conectar(1);
+        noLeidasCache.obtener(1, id -> 6L);
+
+        NoLeidasCambioEvento evento = new NoLeidasCambioEvento(1, 1, List.of());
+        noLeidasCache.alCambiarNoLeidas(evento);
+        streamService.alCambiarNoLeidas(evento);
+        streamService.reconciliar();
+
+        assertThat(streamService.noLeidas(1)).hasValue(7);
+    }
+
+    // 8️⃣ Sin usuarios conectados la reconciliación no hace nada
+    @Test
+    void reconciliar_sinConexionesNoConsulta() {
+        streamService.reconciliar();
+
+        verifyNoInteractions(notificacionService);
+    }
+}
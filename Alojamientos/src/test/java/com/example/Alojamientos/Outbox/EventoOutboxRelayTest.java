@@ -0,0 +1,237 @@
+package com.example.Alojamientos.Outbox;
+
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.evento.ManejadorEventoOutbox;
+import com.example.Alojamientos.businessLayer.scheduler.EventoOutboxRelay;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Outbox de eventos de dominio contra H2 en modo MySQL (perfil test).
+ * Usa una base en memoria propia porque aquí los datos se confirman. Los
+ * reintentos no esperan (espera-reintento=0s) para no depender del reloj, y el
+ * relay programado no corre solo: solo cuentan las entregas que hacen las pruebas.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:evento_outbox;DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000",
+        "app.outbox.intervalo-ms=3600000",
+        "app.outbox.tamano-lote=50",
+        "app.outbox.max-intentos=3",
+        "app.outbox.espera-reintento=0s"
+})
+@Import({EventoOutboxPublicador.class, EventoOutboxRelay.class, EventoOutboxRelayTest.Configuracion.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas del outbox de eventos de dominio")
+class EventoOutboxRelayTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EventoOutboxRelayTest.class);
+
+    /** Manejador que cuenta las entregas por evento y falla a pedido. */
+    static class ManejadorDePrueba implements ManejadorEventoOutbox {
+
+        final Map<Long, AtomicInteger> entregas = new ConcurrentHashMap<>();
+        final Map<Integer, AtomicInteger> fallosPendientes = new ConcurrentHashMap<>();
+
+        @Override
+        public Set<EventoOutboxEntity.TipoEvento> tipos() {
+            return EnumSet.of(EventoOutboxEntity.TipoEvento.RESERVA_CREADA, EventoOutboxEntity.TipoEvento.PAGO_REGISTRADO);
+        }
+
+        @Override
+        public void manejar(EventoOutboxEntity evento) {
+            AtomicInteger fallos = fallosPendientes.get(evento.getAgregadoId());
+            if (fallos != null && fallos.getAndDecrement() > 0) {
+                throw new IllegalStateException("Servicio externo no disponible");
+            }
+            entregas.computeIfAbsent(evento.getId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @TestConfiguration
+    static class Configuracion {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ManejadorDePrueba manejadorDePrueba() {
+            return new ManejadorDePrueba();
+        }
+    }
+
+    @Autowired
+    private EventoOutboxPublicador publicador;
+
+    @Autowired
+    private EventoOutboxRelay relay;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private ManejadorDePrueba manejador;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        eventoOutboxRepository.deleteAll();
+        manejador.entregas.clear();
+        manejador.fallosPendientes.clear();
+    }
+
+    private void registrar(int desde, int cantidad) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            for (int i = desde; i < desde + cantidad; i++) {
+                publicador.registrar(EventoOutboxEntity.TipoEvento.RESERVA_CREADA, i, "alojamientoId", i % 7);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("El evento existe solo si la transacción del cambio confirma, y se entrega una vez")
+    void registrar_mismaTransaccion_yEntregaUnaVez() {
+        registrar(1, 1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            publicador.registrar(EventoOutboxEntity.TipoEvento.RESERVA_CREADA, 2);
+            s.setRollbackOnly();
+        });
+        assertThatThrownBy(() -> publicador.registrar(EventoOutboxEntity.TipoEvento.RESERVA_CREADA, 3))
+                .as("registrar exige la transacción del servicio")
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(relay.despacharPendientes()).isEqualTo(1);
+        assertThat(relay.despacharPendientes()).isZero();
+
+        EventoOutboxEntity evento = eventoOutboxRepository.findAll().get(0);
+        assertThat(evento.getAgregadoId()).isEqualTo(1);
+        assertThat(evento.getPayload()).isEqualTo("{\"alojamientoId\":\"1\"}");
+        assertThat(evento.getProcesado()).isNotNull();
+        assertThat(manejador.entregas).containsOnlyKeys(evento.getId());
+        assertThat(manejador.entregas.get(evento.getId())).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Un manejador que falla se reintenta y, pasado el máximo, el evento queda sin procesar")
+    void despachar_fallos_seReintentanHastaElMaximo() {
+        registrar(1, 2);
+        manejador.fallosPendientes.put(1, new AtomicInteger(2));
+        manejador.fallosPendientes.put(2, new AtomicInteger(Integer.MAX_VALUE));
+
+        for (int i = 0; i < 5; i++) relay.despacharPendientes();
+
+        List<EventoOutboxEntity> eventos = eventoOutboxRepository.findAll();
+        EventoOutboxEntity recuperado = eventos.stream().filter(e -> e.getAgregadoId() == 1).findFirst().orElseThrow();
+        EventoOutboxEntity descartado = eventos.stream().filter(e -> e.getAgregadoId() == 2).findFirst().orElseThrow();
+
+        assertThat(recuperado.getProcesado()).isNotNull();
+        assertThat(recuperado.getIntentos()).isEqualTo(2);
+        assertThat(recuperado.getUltimoError()).isNull();
+
+        assertThat(descartado.getProcesado()).isNull();
+        assertThat(descartado.getIntentos()).isEqualTo(3);
+        assertThat(descartado.getUltimoError()).contains("Servicio externo no disponible");
+        assertThat(eventoOutboxRepository.countByProcesadoIsNull()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("La purga elimina por lotes solo los eventos procesados antes del límite")
+    void purgarProcesadosAnteriores_soloProcesadosAntiguos() {
+        registrar(1, 3);
+        relay.despacharPendientes();
+        registrar(4, 1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> eventoOutboxRepository.findAll().stream()
+                .filter(e -> e.getAgregadoId() <= 2)
+                .forEach(e -> {
+                    e.setProcesado(LocalDateTime.now().minusDays(10));
+                    eventoOutboxRepository.save(e);
+                }));
+
+        LocalDateTime limite = LocalDateTime.now().minusDays(7);
+        assertThat(eventoOutboxRepository.purgarProcesadosAnteriores(limite, 1)).isEqualTo(1);
+        assertThat(eventoOutboxRepository.purgarProcesadosAnteriores(limite, 1)).isEqualTo(1);
+        assertThat(eventoOutboxRepository.purgarProcesadosAnteriores(limite, 1)).isZero();
+
+        // Quedan el procesado reciente y el pendiente
+        assertThat(eventoOutboxRepository.findAll())
+                .extracting(EventoOutboxEntity::getAgregadoId)
+                .containsExactlyInAnyOrder(3, 4);
+        assertThat(eventoOutboxRepository.countByProcesadoIsNull()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Varios relays en paralelo se reparten los eventos sin entregarlos dos veces")
+    void despachar_relaysConcurrentes_sinDuplicados() throws Exception {
+        int total = 2_000;
+        for (int desde = 0; desde < total; desde += 500) registrar(desde, 500);
+
+        int relays = 4;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(relays);
+        List<Future<Integer>> hilos = new ArrayList<>();
+        for (int r = 0; r < relays; r++) {
+            hilos.add(pool.submit(() -> {
+                salida.await();
+                int entregados = 0;
+                while (eventoOutboxRepository.countByProcesadoIsNull() > 0) {
+                    entregados += relay.despacharPendientes();
+                }
+                return entregados;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        int entregados = 0;
+        for (Future<Integer> hilo : hilos) entregados += hilo.get(2, TimeUnit.MINUTES);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        pool.shutdown();
+
+        log.info("Outbox: {} relays, {} eventos en {} s -> {} eventos/s",
+                relays, entregados, String.format("%.2f", segundos), String.format("%.0f", entregados / segundos));
+
+        assertThat(entregados).isEqualTo(total);
+        assertThat(manejador.entregas).hasSize(total);
+        assertThat(manejador.entregas.values()).allMatch(n -> n.get() == 1);
+    }
+}
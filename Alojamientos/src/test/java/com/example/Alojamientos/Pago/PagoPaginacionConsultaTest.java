@@ -0,0 +1,133 @@
+package com.example.Alojamientos.Pago;
+
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.PagoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.PagoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Paginación por cursor (id ascendente) de los pagos contra H2 en modo MySQL
+ * (perfil test). Todos los pagos se registran en el mismo instante: el orden y
+ * el cursor dependen solo del id.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de la paginación por cursor de pagos")
+class PagoPaginacionConsultaTest {
+
+    @Autowired
+    private PagoRepository pagoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Integer> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        UsuarioEntity anfitrion = usuario("anfitrion@hosped.com", UsuarioEntity.Rol.ANFITRION);
+        UsuarioEntity huesped   = usuario("huesped@hosped.com", UsuarioEntity.Rol.USUARIO);
+        AlojamientoEntity cabana = AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre("Cabaña")
+                .descripcion("Descripción de Cabaña")
+                .direccion("Calle 1")
+                .ciudad("Salento")
+                .latitud(BigDecimal.valueOf(4.53))
+                .longitud(BigDecimal.valueOf(-75.68))
+                .precioPorNoche(BigDecimal.valueOf(350_000))
+                .capacidadMaxima(4)
+                .imagenPrincipal("https://example.com/cabana.jpg")
+                .activo(true)
+                .eliminado(false)
+                .build();
+        entityManager.persist(cabana);
+
+        LocalDateTime registrado = LocalDateTime.now();
+        LocalDate inicio = LocalDate.now().plusDays(10);
+        for (int i = 0; i < 5; i++) {
+            ReservaEntity reserva = ReservaEntity.builder()
+                    .huesped(huesped)
+                    .alojamiento(cabana)
+                    .fechaInicio(inicio.plusDays(3L * i))
+                    .fechaFin(inicio.plusDays(3L * i + 2))
+                    .numHuespedes(2)
+                    .precioTotal(BigDecimal.valueOf(700_000))
+                    .estado(ReservaEntity.EstadoReserva.CONFIRMADA)
+                    .build();
+            entityManager.persist(reserva);
+            PagoEntity pago = PagoEntity.builder()
+                    .reserva(reserva)
+                    .monto(BigDecimal.valueOf(700_000))
+                    .metodo(PagoEntity.MetodoPago.TARJETA_CREDITO)
+                    .referenciaExterna("REF-" + i)
+                    .fechaPago(registrado)
+                    .fechaActualizacion(registrado)
+                    .build();
+            entityManager.persist(pago);
+            ids.add(pago.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UsuarioEntity usuario(String correo, UsuarioEntity.Rol rol) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(rol)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private List<Integer> pagina(int despuesId, int limite) {
+        return pagoRepository.findByIdGreaterThanOrderByIdAsc(despuesId, PageRequest.of(0, limite)).stream()
+                .map(PagoEntity::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Recorrer las páginas con el cursor devuelve cada pago una vez y en orden de id")
+    void findByIdGreaterThan_recorreSinSaltosNiRepetidos() {
+        List<Integer> recorridos = new ArrayList<>();
+        List<Integer> actual = pagina(0, 2);
+        for (int paginas = 0; !actual.isEmpty() && paginas < 10; paginas++) {
+            assertThat(actual).hasSizeLessThanOrEqualTo(2);
+            recorridos.addAll(actual);
+            actual = pagina(actual.get(actual.size() - 1), 2);
+        }
+
+        assertThat(recorridos).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("La página siguiente empieza estrictamente después del id del cursor")
+    void findByIdGreaterThan_empiezaDespuesDelCursor() {
+        assertThat(pagina(ids.get(1), 10)).containsExactlyElementsOf(ids.subList(2, 5));
+        assertThat(pagina(ids.get(1), 1)).containsExactly(ids.get(2));
+        assertThat(pagina(ids.get(4), 10)).isEmpty();
+    }
+}
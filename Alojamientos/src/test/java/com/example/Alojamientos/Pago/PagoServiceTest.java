@@ -1,7 +1,9 @@
 package com.example.Alojamientos.Pago;
 
 import com.example.Alojamientos.businessLayer.dto.PagoDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
 import com.example.Alojamientos.businessLayer.service.PagoService;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
 import com.example.Alojamientos.persistenceLayer.entity.PagoEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.PagoDataMapper;
@@ -28,6 +30,9 @@ class PagoServiceTest {
     @Mock
     private PagoDataMapper pagoMapper;
 
+    @Mock
+    private EventoOutboxPublicador eventoOutbox;
+
     @InjectMocks
     private PagoService pagoService;
 
@@ -66,6 +71,7 @@ class PagoServiceTest {
         assertNotNull(result);
         assertEquals(dto.getAmount(), result.getAmount());
         verify(pagoRepository).save(any(PagoEntity.class));
+        verify(eventoOutbox).registrar(eq(EventoOutboxEntity.TipoEvento.PAGO_REGISTRADO), eq(1), any(Object[].class));
     }
 
     // 2️⃣ Registrar pago con monto inválido
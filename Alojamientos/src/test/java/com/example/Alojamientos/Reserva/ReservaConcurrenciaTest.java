@@ -0,0 +1,249 @@
+package com.example.Alojamientos.Reserva;
+
+import com.example.Alojamientos.businessLayer.dto.ReservaDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import com.example.Alojamientos.businessLayer.service.ReservaService;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.mapper.ReservaDataMapperImpl;
+import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
+import com.example.Alojamientos.persistenceLayer.repository.EventoOutboxRepository;
+import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
+import com.example.Alojamientos.persistenceLayer.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Reservas concurrentes contra H2 en modo MySQL (perfil test).
+ * Cada hilo hace su propia transacción con ReservaService.crearReserva, igual
+ * que dos peticiones HTTP simultáneas. Usa una base en memoria propia porque
+ * aquí los datos se confirman en lugar de deshacerse al final de cada prueba.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservas_concurrentes;DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=" + ReservaConcurrenciaTest.HILOS
+})
+@Import({ReservaService.class, ReservaDataMapperImpl.class, DisponibilidadIndice.class, EventoOutboxPublicador.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("Pruebas de reservas concurrentes sobre el mismo alojamiento")
+class ReservaConcurrenciaTest {
+
+    static final int HILOS = 8;
+    private static final int INTENTOS_POR_HILO = 60;
+    private static final int DIAS_DISPONIBLES  = 45;
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaConcurrenciaTest.class);
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private AlojamientoRepository alojamientoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UsuarioEntity huesped;
+    private List<AlojamientoEntity> alojamientos;
+
+    @BeforeEach
+    void setUp() {
+        UsuarioEntity anfitrion = usuarioRepository.save(usuario("anfitrion@hosped.com", UsuarioEntity.Rol.ANFITRION));
+        huesped = usuarioRepository.save(usuario("huesped@hosped.com", UsuarioEntity.Rol.USUARIO));
+
+        alojamientos = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            alojamientos.add(alojamientoRepository.save(AlojamientoEntity.builder()
+                    .anfitrion(anfitrion)
+                    .nombre("Cabaña " + i)
+                    .descripcion("Cabaña de prueba " + i)
+                    .direccion("Vereda " + i)
+                    .ciudad("Salento")
+                    .latitud(BigDecimal.valueOf(4.63))
+                    .longitud(BigDecimal.valueOf(-75.57))
+                    .precioPorNoche(BigDecimal.valueOf(200_000))
+                    .capacidadMaxima(4)
+                    .activo(true)
+                    .eliminado(false)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoOutboxRepository.deleteAll();
+        reservaRepository.deleteAll();
+        alojamientoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+    }
+
+    private UsuarioEntity usuario(String correo, UsuarioEntity.Rol rol) {
+        return UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(rol)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private ReservaDTO solicitud(Integer alojamientoId, LocalDate inicio, int noches) {
+        return ReservaDTO.builder()
+                .guestId(huesped.getId())
+                .lodgingId(alojamientoId)
+                .startDate(inicio.toString())
+                .endDate(inicio.plusDays(noches).toString())
+                .numGuests(2)
+                .totalPrice(200_000.0 * noches)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Muchos hilos reservando fechas que se cruzan no dejan ninguna reserva solapada")
+    void crearReserva_concurrente_sinSolapamientos() throws Exception {
+        LocalDate base = LocalDate.now().plusDays(30);
+        AtomicInteger creadas     = new AtomicInteger();
+        AtomicInteger rechazadas  = new AtomicInteger();
+        List<Throwable> inesperados = new ArrayList<>();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> hilos = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            hilos.add(pool.submit(() -> {
+                salida.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                    AlojamientoEntity alojamiento = alojamientos.get(random.nextInt(alojamientos.size()));
+                    LocalDate inicio = base.plusDays(random.nextInt(DIAS_DISPONIBLES));
+                    try {
+                        reservaService.crearReserva(solicitud(alojamiento.getId(), inicio, 1 + random.nextInt(4)));
+                        creadas.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rechazadas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        synchronized (inesperados) {
+                            inesperados.add(e);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long inicioNanos = System.nanoTime();
+        salida.countDown();
+        for (Future<?> hilo : hilos) hilo.get(2, TimeUnit.MINUTES);
+        double segundos = (System.nanoTime() - inicioNanos) / 1e9;
+        pool.shutdown();
+
+        int intentos = HILOS * INTENTOS_POR_HILO;
+        log.info("Reservas concurrentes: {} hilos, {} intentos en {} s -> {} intentos/s, {} reservas/s ({} creadas, {} rechazadas)",
+                HILOS, intentos, String.format("%.2f", segundos), String.format("%.0f", intentos / segundos),
+                String.format("%.0f", creadas.get() / segundos), creadas.get(), rechazadas.get());
+
+        assertThat(inesperados).isEmpty();
+        assertThat(creadas.get() + rechazadas.get()).isEqualTo(intentos);
+        assertThat(rechazadas.get()).as("las fechas se cruzan, algunas deben rechazarse").isPositive();
+        assertThat(reservaRepository.count()).isEqualTo(creadas.get());
+        // Un evento RESERVA_CREADA por reserva confirmada; las rechazadas no dejan evento
+        assertThat(eventoOutboxRepository.count()).isEqualTo(creadas.get());
+
+        for (AlojamientoEntity alojamiento : alojamientos) {
+            List<ReservaEntity> reservas = new ArrayList<>(reservaRepository.findByAlojamiento_Id(alojamiento.getId()));
+            reservas.sort(Comparator.comparing(ReservaEntity::getFechaInicio));
+            for (int i = 1; i < reservas.size(); i++) {
+                ReservaEntity anterior = reservas.get(i - 1);
+                ReservaEntity actual   = reservas.get(i);
+                assertThat(actual.getFechaInicio())
+                        .as("reserva %d se solapa con %d", actual.getId(), anterior.getId())
+                        .isAfterOrEqualTo(anterior.getFechaFin());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Un alojamiento bloqueado no frena las reservas de los demás")
+    void crearReserva_bloqueoPorAlojamiento_noFrenaAOtros() throws Exception {
+        Integer bloqueado = alojamientos.get(0).getId();
+        Integer libre     = alojamientos.get(1).getId();
+        LocalDate inicio  = LocalDate.now().plusDays(10);
+
+        CountDownLatch tomado   = new CountDownLatch(1);
+        CountDownLatch soltar   = new CountDownLatch(1);
+        Map<String, Throwable> errores = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+
+        // Transacción que retiene el bloqueo del primer alojamiento
+        Future<?> retencion = pool.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            alojamientoRepository.findByIdParaReservar(bloqueado).orElseThrow();
+            tomado.countDown();
+            try {
+                soltar.await();
+            } catch (InterruptedException e) {
+                errores.put("retencion", e);
+            }
+        }));
+        assertThat(tomado.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Future<ReservaDTO> enBloqueado = pool.submit(() -> reservaService.crearReserva(solicitud(bloqueado, inicio, 2)));
+        Future<ReservaDTO> enLibre     = pool.submit(() -> reservaService.crearReserva(solicitud(libre, inicio, 2)));
+
+        assertThat(enLibre.get(5, TimeUnit.SECONDS).getLodgingId()).isEqualTo(libre);
+        assertThatThrownBy(() -> enBloqueado.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        soltar.countDown();
+        retencion.get(5, TimeUnit.SECONDS);
+        assertThat(enBloqueado.get(5, TimeUnit.SECONDS).getLodgingId()).isEqualTo(bloqueado);
+        pool.shutdown();
+
+        assertThat(errores).isEmpty();
+    }
+}
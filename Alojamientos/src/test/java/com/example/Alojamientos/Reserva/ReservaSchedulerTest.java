@@ -0,0 +1,106 @@
+package com.example.Alojamientos.Reserva;
+
+import com.example.Alojamientos.businessLayer.scheduler.JobLeaseService;
+import com.example.Alojamientos.businessLayer.scheduler.ReservaScheduler;
+import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pruebas del job que completa reservas vencidas")
+class ReservaSchedulerTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private JobLeaseService jobLeaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservaScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ReservaScheduler(reservaRepository, jobLeaseService, meterRegistry, 100);
+        // Esta instancia tiene el lease: ejecuta la tarea y lo renueva sin problema
+        lenient().when(jobLeaseService.ejecutar(eq(ReservaScheduler.JOB), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return true;
+        });
+        lenient().when(jobLeaseService.renovar(ReservaScheduler.JOB)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Completa por lotes hasta que un lote sale incompleto y publica las métricas")
+    void completarReservasVencidas_porLotes() {
+        when(reservaRepository.completarVencidas(any(LocalDate.class), eq(100))).thenReturn(100, 100, 7);
+
+        scheduler.completarReservasVencidas();
+
+        verify(reservaRepository, times(3)).completarVencidas(any(LocalDate.class), eq(100));
+        assertThat(meterRegistry.get("reservas.completar.filas").counter().count()).isEqualTo(207);
+        assertThat(meterRegistry.get("reservas.completar.ultima").gauge().value()).isEqualTo(207);
+        assertThat(meterRegistry.get("reservas.completar.duracion").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Sin reservas vencidas hace una sola pasada")
+    void completarReservasVencidas_sinVencidas() {
+        when(reservaRepository.completarVencidas(any(LocalDate.class), eq(100))).thenReturn(0);
+
+        scheduler.completarReservasVencidas();
+
+        verify(reservaRepository, times(1)).completarVencidas(any(LocalDate.class), eq(100));
+        assertThat(meterRegistry.get("reservas.completar.ultima").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sin el lease no toca la tabla, y si lo pierde entre lotes se detiene")
+    void completarReservasVencidas_respetaElLease() {
+        when(jobLeaseService.ejecutar(eq(ReservaScheduler.JOB), any())).thenReturn(false);
+        scheduler.completarReservasVencidas();
+        verifyNoInteractions(reservaRepository);
+
+        reset(jobLeaseService);
+        when(jobLeaseService.ejecutar(eq(ReservaScheduler.JOB), any())).thenAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return true;
+        });
+        when(jobLeaseService.renovar(ReservaScheduler.JOB)).thenReturn(false);
+        when(reservaRepository.completarVencidas(any(LocalDate.class), eq(100))).thenReturn(100);
+
+        scheduler.completarReservasVencidas();
+
+        verify(reservaRepository, times(1)).completarVencidas(any(LocalDate.class), eq(100));
+    }
+
+    @Test
+    @DisplayName("Si un lote falla, los anteriores cuentan y la siguiente ejecución continúa")
+    void completarReservasVencidas_reanudaTrasFallo() {
+        when(reservaRepository.completarVencidas(any(LocalDate.class), eq(100)))
+                .thenReturn(100)
+                .thenThrow(new IllegalStateException("conexión perdida"))
+                .thenReturn(40);
+
+        assertThatThrownBy(() -> scheduler.completarReservasVencidas())
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("reservas.completar.ultima").gauge().value()).isEqualTo(100);
+
+        scheduler.completarReservasVencidas();
+
+        assertThat(meterRegistry.get("reservas.completar.filas").counter().count()).isEqualTo(140);
+        assertThat(meterRegistry.get("reservas.completar.duracion").timer().count()).isEqualTo(2);
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.Alojamientos.Reserva;
 
+import com.example.Alojamientos.businessLayer.dto.PaginaDTO;
 import com.example.Alojamientos.businessLayer.dto.ReservaDTO;
+import com.example.Alojamientos.businessLayer.evento.EventoOutboxPublicador;
+import com.example.Alojamientos.businessLayer.evento.NotificacionEvento;
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
 import com.example.Alojamientos.businessLayer.service.ReservaService;
 import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.EventoOutboxEntity;
+import com.example.Alojamientos.persistenceLayer.entity.NotificacionEntity;
 import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
 import com.example.Alojamientos.persistenceLayer.mapper.ReservaDataMapper;
 import com.example.Alojamientos.persistenceLayer.repository.AlojamientoRepository;
 import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
@@ -11,9 +18,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -49,6 +59,15 @@ class ReservaServiceTest {
     @Mock
     private ReservaDataMapper reservaMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EventoOutboxPublicador eventoOutbox;
+
+    @Spy
+    private DisponibilidadIndice disponibilidadIndice = new DisponibilidadIndice();
+
     @InjectMocks
     private ReservaService reservaService;
 
@@ -110,8 +129,7 @@ class ReservaServiceTest {
     @Test
     @DisplayName("POST /api/reservas - Crear reserva exitosamente")
     void testCrearReservaExitosa() {
-        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Collections.emptyList());
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
         when(reservaMapper.toEntity(any(ReservaDTO.class))).thenReturn(reservaEntity);
         when(reservaRepository.save(any(ReservaEntity.class))).thenReturn(reservaEntity);
         when(reservaMapper.toDTO(any(ReservaEntity.class))).thenReturn(reservaDTO);
@@ -122,6 +140,27 @@ class ReservaServiceTest {
         assertThat(resultado.getNumGuests()).isEqualTo(4);
         assertThat(resultado.getTotalPrice()).isEqualTo(800.0);
         verify(reservaRepository, times(1)).save(any(ReservaEntity.class));
+        verify(eventoOutbox).registrar(eq(EventoOutboxEntity.TipoEvento.RESERVA_CREADA), eq(1), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("POST /api/reservas - Publica la notificación al anfitrión en lugar de guardarla en la transacción")
+    void testCrearReservaPublicaNotificacion() {
+        alojamientoEntity.setAnfitrion(UsuarioEntity.builder().id(7).build());
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(reservaMapper.toEntity(any(ReservaDTO.class))).thenReturn(reservaEntity);
+        when(reservaRepository.save(any(ReservaEntity.class))).thenReturn(reservaEntity);
+        when(reservaMapper.toDTO(any(ReservaEntity.class))).thenReturn(reservaDTO);
+
+        reservaService.crearReserva(reservaDTO);
+
+        ArgumentCaptor<NotificacionEvento> evento = ArgumentCaptor.forClass(NotificacionEvento.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertThat(evento.getValue().usuarioId()).isEqualTo(7);
+        assertThat(evento.getValue().tipo()).isEqualTo(NotificacionEntity.TipoNotificacion.NUEVA_RESERVA);
+        assertThat(evento.getValue().mensaje()).contains("Casa en la playa", "4 noches");
+        assertThat(evento.getValue().grupo()).startsWith("reservas:");
+        assertThat(evento.getValue().resumen()).contains("%d", "Casa en la playa");
     }
 
     @Test
@@ -177,7 +216,7 @@ class ReservaServiceTest {
     @Test
     @DisplayName("POST /api/reservas - Error: Alojamiento no encontrado")
     void testCrearReservaAlojamientoNoEncontrado() {
-        when(alojamientoRepository.findById(999)).thenReturn(Optional.empty());
+        when(alojamientoRepository.findByIdParaReservar(999)).thenReturn(Optional.empty());
         reservaDTO.setLodgingId(999);
 
         assertThatThrownBy(() -> reservaService.crearReserva(reservaDTO))
@@ -191,7 +230,7 @@ class ReservaServiceTest {
     @DisplayName("POST /api/reservas - Error: Alojamiento inactivo")
     void testCrearReservaAlojamientoInactivo() {
         alojamientoEntity.setActivo(false);
-        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
 
         assertThatThrownBy(() -> reservaService.crearReserva(reservaDTO))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -204,7 +243,7 @@ class ReservaServiceTest {
     @DisplayName("POST /api/reservas - Error: Número de huéspedes excede capacidad")
     void testCrearReservaCapacidadExcedida() {
         reservaDTO.setNumGuests(10); // Capacidad máxima es 6
-        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
 
         assertThatThrownBy(() -> reservaService.crearReserva(reservaDTO))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -217,8 +256,7 @@ class ReservaServiceTest {
     @DisplayName("POST /api/reservas - Error: Precio total inválido (0 o negativo)")
     void testCrearReservaPrecioInvalido() {
         reservaDTO.setTotalPrice(0.0);
-        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Collections.emptyList());
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
 
         assertThatThrownBy(() -> reservaService.crearReserva(reservaDTO))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -230,16 +268,11 @@ class ReservaServiceTest {
     @Test
     @DisplayName("POST /api/reservas - Error: Solapamiento de fechas con otra reserva")
     void testCrearReservaSolapamientoFechas() {
-        // Reserva existente que se solapa con la nueva
-        ReservaEntity reservaExistente = ReservaEntity.builder()
-                .id(2)
-                .estado(ReservaEntity.EstadoReserva.CONFIRMADA)
-                .fechaInicio(fechaInicio.plusDays(2))
-                .fechaFin(fechaFin.plusDays(2))
-                .build();
-
-        when(alojamientoRepository.findById(1)).thenReturn(Optional.of(alojamientoEntity));
-        when(reservaRepository.findByAlojamiento_Id(1)).thenReturn(Arrays.asList(reservaExistente));
+        // Otra reserva confirmada o pendiente ocupa parte de las fechas
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(reservaRepository.existsByAlojamiento_IdAndEstadoInAndFechaFinAfterAndFechaInicioBefore(
+                eq(1), eq(DisponibilidadIndice.ESTADOS_QUE_OCUPAN),
+                eq(fechaInicio), eq(fechaFin))).thenReturn(true);
 
         assertThatThrownBy(() -> reservaService.crearReserva(reservaDTO))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -401,4 +434,54 @@ class ReservaServiceTest {
 
         verify(reservaRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    // ==================== PAGINACIÓN POR CURSOR ====================
+
+    @Test
+    @DisplayName("Historial paginado: el cursor continúa después de (fechaReserva, id)")
+    void testListarPorHuespedPaginado() {
+        // Given - dos reservas con la misma fecha: el desempate es por id descendente
+        LocalDateTime fecha = LocalDateTime.of(2026, 3, 1, 10, 30);
+        ReservaEntity r9 = ReservaEntity.builder().id(9).fechaReserva(fecha).build();
+        ReservaEntity r4 = ReservaEntity.builder().id(4).fechaReserva(fecha).build();
+        when(reservaRepository.findPrimerosPorHuesped(eq(2), any())).thenReturn(List.of(r9, r4));
+        when(reservaMapper.toDTO(r9)).thenReturn(reservaDTO);
+
+        // When
+        PaginaDTO<ReservaDTO> pagina = reservaService.listarPorHuespedPaginado(2, 1, null);
+
+        // Then
+        assertThat(pagina.getItems()).hasSize(1);
+        assertThat(pagina.isHasNext()).isTrue();
+
+        when(reservaRepository.findPorHuespedDespuesDe(eq(2), eq(fecha), eq(9), any())).thenReturn(List.of(r4));
+        when(reservaMapper.toDTO(r4)).thenReturn(reservaDTO);
+
+        PaginaDTO<ReservaDTO> siguiente = reservaService.listarPorHuespedPaginado(2, 1, pagina.getNextCursor());
+
+        assertThat(siguiente.getItems()).hasSize(1);
+        assertThat(siguiente.isHasNext()).isFalse();
+    }
+
+    // ==================== ÍNDICE DE DISPONIBILIDAD ====================
+
+    @Test
+    @DisplayName("Crear y cancelar una reserva actualiza las noches ocupadas del alojamiento")
+    void testCrearYCancelarActualizaDisponibilidad() {
+        when(alojamientoRepository.findByIdParaReservar(1)).thenReturn(Optional.of(alojamientoEntity));
+        when(reservaMapper.toEntity(any(ReservaDTO.class))).thenReturn(reservaEntity);
+        when(reservaRepository.save(any(ReservaEntity.class))).thenReturn(reservaEntity);
+
+        reservaService.crearReserva(reservaDTO);
+
+        assertThat(disponibilidadIndice.estaLibre(1, fechaInicio, fechaFin)).isFalse();
+        assertThat(disponibilidadIndice.estaLibre(1, fechaFin, fechaFin.plusDays(2))).isTrue();
+
+        reservaEntity.setAlojamiento(alojamientoEntity);
+        when(reservaRepository.findById(1)).thenReturn(Optional.of(reservaEntity));
+
+        reservaService.cancelarReserva(1, "Cambio de planes");
+
+        assertThat(disponibilidadIndice.estaLibre(1, fechaInicio, fechaFin)).isTrue();
+    }
+}
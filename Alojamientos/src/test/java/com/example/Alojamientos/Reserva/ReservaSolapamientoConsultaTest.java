@@ -0,0 +1,217 @@
+package com.example.Alojamientos.Reserva;
+
+import com.example.Alojamientos.businessLayer.index.DisponibilidadIndice;
+import com.example.Alojamientos.persistenceLayer.entity.AlojamientoEntity;
+import com.example.Alojamientos.persistenceLayer.entity.ReservaEntity;
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.ReservaRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Consultas de solapamiento y de reservas activas contra H2 en modo MySQL (perfil test).
+ * Comprueba que el costo no depende del historial del alojamiento: mismas
+ * consultas, ninguna entidad cargada y mismas filas leídas del índice. También
+ * el UPDATE por lotes de ReservaScheduler.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Pruebas de la consulta de solapamiento de reservas")
+class ReservaSolapamientoConsultaTest {
+
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UsuarioEntity huesped;
+    private AlojamientoEntity cabana;
+    private AlojamientoEntity apartamento;
+    private LocalDate hoy;
+
+    /** Consultas ejecutadas, entidades cargadas y filas leídas por una verificación. */
+    private record Costo(long consultas, long entidades, long filasLeidas) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        hoy = LocalDate.now();
+        UsuarioEntity anfitrion = usuario("anfitrion@hosped.com", UsuarioEntity.Rol.ANFITRION);
+        huesped = usuario("huesped@hosped.com", UsuarioEntity.Rol.USUARIO);
+        cabana      = alojamiento(anfitrion, "Cabaña");
+        apartamento = alojamiento(anfitrion, "Apartamento");
+
+        reservar(cabana, hoy.plusDays(10), hoy.plusDays(13), ReservaEntity.EstadoReserva.CONFIRMADA);
+        reservar(cabana, hoy.plusDays(20), hoy.plusDays(22), ReservaEntity.EstadoReserva.PENDIENTE);
+        reservar(cabana, hoy.plusDays(14), hoy.plusDays(16), ReservaEntity.EstadoReserva.CANCELADA);
+        reservar(apartamento, hoy.plusDays(14), hoy.plusDays(16), ReservaEntity.EstadoReserva.CONFIRMADA);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private UsuarioEntity usuario(String correo, UsuarioEntity.Rol rol) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(rol)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .build();
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private AlojamientoEntity alojamiento(UsuarioEntity anfitrion, String nombre) {
+        AlojamientoEntity alojamiento = AlojamientoEntity.builder()
+                .anfitrion(anfitrion)
+                .nombre(nombre)
+                .descripcion("Descripción de " + nombre)
+                .direccion("Calle 1")
+                .ciudad("Salento")
+                .latitud(BigDecimal.valueOf(4.63))
+                .longitud(BigDecimal.valueOf(-75.57))
+                .precioPorNoche(BigDecimal.valueOf(200_000))
+                .capacidadMaxima(4)
+                .activo(true)
+                .eliminado(false)
+                .build();
+        entityManager.persist(alojamiento);
+        return alojamiento;
+    }
+
+    private void reservar(AlojamientoEntity alojamiento, LocalDate inicio, LocalDate fin,
+                          ReservaEntity.EstadoReserva estado) {
+        entityManager.persist(ReservaEntity.builder()
+                .huesped(huesped)
+                .alojamiento(alojamiento)
+                .fechaInicio(inicio)
+                .fechaFin(fin)
+                .numHuespedes(2)
+                .precioTotal(BigDecimal.valueOf(400_000))
+                .estado(estado)
+                .fechaReserva(LocalDateTime.now())
+                .build());
+    }
+
+    private boolean solapa(AlojamientoEntity alojamiento, int desdeDia, int hastaDia) {
+        return reservaRepository.existsByAlojamiento_IdAndEstadoInAndFechaFinAfterAndFechaInicioBefore(
+                alojamiento.getId(), DisponibilidadIndice.ESTADOS_QUE_OCUPAN,
+                hoy.plusDays(desdeDia), hoy.plusDays(hastaDia));
+    }
+
+    private Costo medirSolapamiento(int desdeDia, int hastaDia) {
+        Statistics estadisticas = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        solapa(cabana, desdeDia, hastaDia);
+        long consultas = estadisticas.getPrepareStatementCount();
+        long entidades = estadisticas.getEntityLoadCount();
+
+        String plan = String.valueOf(entityManager.createNativeQuery("EXPLAIN ANALYZE SELECT id FROM reserva "
+                + "WHERE id_alojamiento = " + cabana.getId()
+                + " AND estado IN ('CONFIRMADA', 'PENDIENTE')"
+                + " AND fecha_fin > DATE '" + hoy.plusDays(desdeDia) + "'"
+                + " AND fecha_inicio < DATE '" + hoy.plusDays(hastaDia) + "'").getSingleResult());
+        assertThat(plan).as(plan).containsIgnoringCase("idx_reserva_alojamiento_fechas");
+        Matcher filas = SCAN_COUNT.matcher(plan);
+        return new Costo(consultas, entidades, filas.find() ? Long.parseLong(filas.group(1)) : 0);
+    }
+
+    @Test
+    @DisplayName("Detecta solapamientos solo con reservas confirmadas o pendientes del mismo alojamiento")
+    void existsSolapamiento_respetaEstadosYFechas() {
+        assertThat(solapa(cabana, 11, 12)).isTrue();
+        assertThat(solapa(cabana, 8, 11)).isTrue();
+        assertThat(solapa(cabana, 21, 25)).isTrue();
+        // Salida y entrada el mismo día no se solapan
+        assertThat(solapa(cabana, 13, 14)).isFalse();
+        assertThat(solapa(cabana, 8, 10)).isFalse();
+        // Fechas de una reserva cancelada y de otro alojamiento
+        assertThat(solapa(cabana, 14, 16)).isFalse();
+        assertThat(solapa(apartamento, 10, 13)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Cuenta las reservas activas que terminan hoy o después")
+    void contarActivas_ignoraPasadasYCanceladas() {
+        reservar(cabana, hoy.minusDays(3), hoy, ReservaEntity.EstadoReserva.CONFIRMADA);
+        reservar(cabana, hoy.minusDays(9), hoy.minusDays(7), ReservaEntity.EstadoReserva.CONFIRMADA);
+        entityManager.flush();
+
+        assertThat(reservaRepository.countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                cabana.getId(), DisponibilidadIndice.ESTADOS_QUE_OCUPAN, hoy)).isEqualTo(3);
+        assertThat(reservaRepository.countByAlojamiento_IdAndEstadoInAndFechaFinGreaterThanEqual(
+                apartamento.getId(), DisponibilidadIndice.ESTADOS_QUE_OCUPAN, hoy.plusDays(20))).isZero();
+    }
+
+    @Test
+    @DisplayName("Completar vencidas cambia como máximo un lote y solo CONFIRMADAS terminadas")
+    void completarVencidas_porLotes() {
+        for (int i = 1; i <= 5; i++) {
+            reservar(cabana, hoy.minusDays(10L * i), hoy.minusDays(10L * i - 2), ReservaEntity.EstadoReserva.CONFIRMADA);
+        }
+        reservar(cabana, hoy.minusDays(3), hoy.minusDays(1), ReservaEntity.EstadoReserva.CANCELADA);
+        reservar(cabana, hoy.minusDays(2), hoy, ReservaEntity.EstadoReserva.CONFIRMADA);
+        entityManager.flush();
+
+        assertThat(reservaRepository.completarVencidas(hoy, 2)).isEqualTo(2);
+        assertThat(reservaRepository.completarVencidas(hoy, 2)).isEqualTo(2);
+        assertThat(reservaRepository.completarVencidas(hoy, 2)).isEqualTo(1);
+        assertThat(reservaRepository.completarVencidas(hoy, 2)).isZero();
+
+        entityManager.clear();
+        assertThat(reservaRepository.findByAlojamiento_Id(cabana.getId()))
+                .filteredOn(r -> r.getEstado() == ReservaEntity.EstadoReserva.COMPLETADA)
+                .hasSize(5)
+                .allMatch(r -> r.getFechaFin().isBefore(hoy));
+    }
+
+    @Test
+    @DisplayName("Consultas y filas leídas no crecen con el historial del alojamiento")
+    void existsSolapamiento_costoConstanteConElHistorial() {
+        Costo sinHistorial = medirSolapamiento(17, 19);
+
+        // Cuatro años de estancias pasadas, completadas y canceladas
+        for (int semana = 1; semana <= 200; semana++) {
+            LocalDate inicio = hoy.minusWeeks(semana);
+            reservar(cabana, inicio, inicio.plusDays(3), semana % 5 == 0
+                    ? ReservaEntity.EstadoReserva.CANCELADA
+                    : ReservaEntity.EstadoReserva.COMPLETADA);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Costo conHistorial = medirSolapamiento(17, 19);
+
+        assertThat(conHistorial).isEqualTo(sinHistorial);
+        assertThat(conHistorial.consultas()).isEqualTo(1);
+        assertThat(conHistorial.entidades()).isZero();
+        assertThat(conHistorial.filasLeidas()).isLessThanOrEqualTo(2);
+
+        // La verificación anterior cargaba todo el historial del alojamiento
+        assertThat(reservaRepository.findByAlojamiento_Id(cabana.getId())).hasSize(203);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.Alojamientos.Scheduler;
+
+import com.example.Alojamientos.businessLayer.scheduler.JobLeaseService;
+import com.example.Alojamientos.config.JobLeaseEndpoint;
+import com.example.Alojamientos.persistenceLayer.entity.JobLeaseEntity;
+import com.example.Alojamientos.persistenceLayer.repository.JobLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Leases de jobs con dos instancias de la aplicación: dos contextos de Spring
+ * independientes contra la misma base H2 en memoria, como dos nodos detrás del
+ * balanceador compartiendo MySQL.
+ */
+@DisplayName("Pruebas del lease de jobs entre instancias")
+class JobLeaseServiceTest {
+
+    private static final String JOB = "reservas.completar";
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = JobLeaseEntity.class)
+    @EnableJpaRepositories(basePackageClasses = JobLeaseRepository.class)
+    @Import({JobLeaseService.class, JobLeaseEndpoint.class})
+    static class Instancia {
+    }
+
+    private ConfigurableApplicationContext nodoA;
+    private ConfigurableApplicationContext nodoB;
+
+    @BeforeEach
+    void setUp() {
+        nodoA = iniciar("nodo-a");
+        nodoB = iniciar("nodo-b");
+        nodoA.getBean(JobLeaseRepository.class).deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (nodoA.isActive()) nodoA.close();
+        nodoB.close();
+    }
+
+    private static ConfigurableApplicationContext iniciar(String propietario) {
+        return new SpringApplicationBuilder(Instancia.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:job_lease;DB_CLOSE_DELAY=-1;MODE=MySQL",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--app.jobs.lease.propietario=" + propietario,
+                        "--app.jobs.lease.duracion=2s",
+                        "--app.jobs.lease.retencion-minima=0s");
+    }
+
+    private static JobLeaseService lease(ConfigurableApplicationContext nodo) {
+        return nodo.getBean(JobLeaseService.class);
+    }
+
+    @Test
+    @DisplayName("Mientras una instancia ejecuta el job, la otra se lo salta")
+    void ejecutar_soloUnaInstancia() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        AtomicInteger ejecuciones = new AtomicInteger();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        Future<Boolean> enA = pool.submit(() -> lease(nodoA).ejecutar(JOB, () -> {
+            ejecuciones.incrementAndGet();
+            dentro.countDown();
+            try {
+                soltar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(dentro.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(lease(nodoB).ejecutar(JOB, ejecuciones::incrementAndGet)).isFalse();
+
+        // El estado del lease se ve desde actuator en cualquier instancia
+        Map<String, Object> estado = nodoB.getBean(JobLeaseEndpoint.class).leases();
+        assertThat(estado.get("instancia")).isEqualTo("nodo-b");
+        @SuppressWarnings("unchecked")
+        List<JobLeaseService.Estado> leases = (List<JobLeaseService.Estado>) estado.get("leases");
+        assertThat(leases).singleElement().satisfies(l -> {
+            assertThat(l.job()).isEqualTo(JOB);
+            assertThat(l.propietario()).isEqualTo("nodo-a");
+            assertThat(l.vigente()).isTrue();
+            assertThat(l.local()).isFalse();
+        });
+
+        soltar.countDown();
+        assertThat(enA.get(10, TimeUnit.SECONDS)).isTrue();
+        pool.shutdown();
+        assertThat(ejecuciones.get()).isEqualTo(1);
+
+        // Liberado (sin retención mínima), la siguiente ejecución puede caer en la otra instancia
+        assertThat(lease(nodoB).ejecutar(JOB, ejecuciones::incrementAndGet)).isTrue();
+        assertThat(ejecuciones.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Muchos intentos simultáneos desde las dos instancias: una sola ejecución a la vez")
+    void ejecutar_intentosSimultaneos() throws Exception {
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximoEnCurso = new AtomicInteger();
+        AtomicInteger ejecuciones = new AtomicInteger();
+        Runnable tarea = () -> {
+            maximoEnCurso.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            ejecuciones.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            enCurso.decrementAndGet();
+        };
+
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> intentos = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            JobLeaseService servicio = lease(i % 2 == 0 ? nodoA : nodoB);
+            intentos.add(pool.submit(() -> {
+                salida.await();
+                return servicio.ejecutar(JOB, tarea);
+            }));
+        }
+        salida.countDown();
+        long exitosos = 0;
+        for (Future<Boolean> intento : intentos) {
+            if (intento.get(30, TimeUnit.SECONDS)) exitosos++;
+        }
+        pool.shutdown();
+
+        assertThat(maximoEnCurso.get()).isEqualTo(1);
+        assertThat(exitosos).isEqualTo(ejecuciones.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Si la instancia que tiene el lease muere, otra lo toma cuando vence")
+    void ejecutar_failoverAlVencer() throws Exception {
+        // El nodo A toma el lease y se cae sin liberarlo
+        assertThat(nodoA.getBean(JobLeaseRepository.class).insertar(JOB, "nodo-a", 2)).isEqualTo(1);
+        nodoA.close();
+
+        AtomicInteger ejecuciones = new AtomicInteger();
+        assertThat(lease(nodoB).ejecutar(JOB, ejecuciones::incrementAndGet)).isFalse();
+        assertThat(lease(nodoB).renovar(JOB)).isFalse();
+
+        long limite = System.currentTimeMillis() + 10_000;
+        boolean ejecutado = false;
+        while (!ejecutado && System.currentTimeMillis() < limite) {
+            Thread.sleep(250);
+            ejecutado = lease(nodoB).ejecutar(JOB, ejecuciones::incrementAndGet);
+        }
+
+        assertThat(ejecutado).isTrue();
+        assertThat(ejecuciones.get()).isEqualTo(1);
+        assertThat(nodoB.getBean(JobLeaseRepository.class).findById(JOB))
+                .get().extracting(JobLeaseEntity::getPropietario).isEqualTo("nodo-b");
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.Alojamientos.Security;
+
+import com.example.Alojamientos.securityLayer.JwtAuthenticationFilter;
+import com.example.Alojamientos.securityLayer.TokenJwtCache;
+import com.example.Alojamientos.securityLayer.TokenVerificado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Pruebas de la lectura del token en JwtAuthenticationFilter")
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN  = "token-valido";
+    private static final String CORREO = "huesped@hosped.com";
+
+    private TokenJwtCache tokenJwtCache;
+    private JwtAuthenticationFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        tokenJwtCache = mock(TokenJwtCache.class);
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(tokenJwtCache.verificar(TOKEN)).thenReturn(Optional.of(new TokenVerificado(
+                CORREO, "USUARIO", null, Instant.now(), Instant.now().plus(1, ChronoUnit.HOURS))));
+        when(userDetailsService.loadUserByUsername(CORREO)).thenReturn(User.withUsername(CORREO)
+                .password("hash").authorities(List.of()).build());
+        filtro = new JwtAuthenticationFilter(tokenJwtCache, userDetailsService);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filtrar(MockHttpServletRequest request) throws Exception {
+        filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    @DisplayName("El header Authorization autentica en cualquier ruta")
+    void header_autentica() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reservas/1");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+
+        assertThat(filtrar(request)).isNotNull()
+                .extracting(Authentication::getName).isEqualTo(CORREO);
+    }
+
+    @Test
+    @DisplayName("El stream de notificaciones acepta el token en el parámetro access_token")
+    void parametro_enStreamDeNotificaciones_autentica() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notificaciones/usuario/7/stream");
+        request.setParameter("access_token", TOKEN);
+
+        assertThat(filtrar(request)).isNotNull()
+                .extracting(Authentication::getName).isEqualTo(CORREO);
+    }
+
+    @Test
+    @DisplayName("Fuera del stream de notificaciones el parámetro access_token se ignora")
+    void parametro_enOtraRuta_seIgnora() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notificaciones/usuario/7");
+        request.setParameter("access_token", TOKEN);
+
+        assertThat(filtrar(request)).isNull();
+        verifyNoInteractions(tokenJwtCache);
+    }
+}
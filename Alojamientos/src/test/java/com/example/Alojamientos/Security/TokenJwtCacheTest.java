@@ -0,0 +1,147 @@
+package com.example.Alojamientos.Security;
+
+import com.example.Alojamientos.securityLayer.JwtService;
+import com.example.Alojamientos.securityLayer.TokenJwtCache;
+import com.example.Alojamientos.securityLayer.TokenVerificado;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Pruebas de la caché de tokens JWT verificados")
+class TokenJwtCacheTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenJwtCacheTest.class);
+
+    private static final String SECRETO = "dGVzdFNlY3JldEtleVBhcmFQcnVlYmFzRGVKV1RTZXJ2aWNlMTIz";
+
+    private JwtService jwtService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = spy(new JwtService());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRETO);
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 86400000L);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private TokenJwtCache cache(long tamanoMaximo) {
+        return new TokenJwtCache(jwtService, meterRegistry, tamanoMaximo, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("El mismo token se parsea y verifica una sola vez")
+    void verificar_mismoToken_unSoloParseo() {
+        TokenJwtCache cache = cache(100);
+        String token = jwtService.generarTokenConRol("juan@correo.com", "USUARIO");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.verificar(token)).map(TokenVerificado::email).contains("juan@correo.com");
+        }
+
+        verify(jwtService, times(1)).verificar(token);
+        verify(jwtService, times(1)).extraerTodosLosClaims(token);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", TokenJwtCache.NOMBRE).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(99);
+    }
+
+    @Test
+    @DisplayName("Los tokens inválidos no se guardan y la caché no pasa de su tamaño máximo")
+    void verificar_invalidosYTamanoMaximo() {
+        TokenJwtCache cache = cache(50);
+        for (int i = 0; i < 10; i++) assertThat(cache.verificar("esto.no.es.un.token" + i)).isEmpty();
+        assertThat(cache.tamano()).isZero();
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(cache.verificar(jwtService.generarToken("usuario" + i + "@correo.com"))).isPresent();
+        }
+        assertThat(cache.tamano()).isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Un token en caché deja de aceptarse cuando expira")
+    void verificar_respetaLaExpiracionDelToken() throws Exception {
+        TokenJwtCache cache = cache(100);
+        ReflectionTestUtils.setField(jwtService, "expirationMs", 1500L);
+        String token = jwtService.generarToken("juan@correo.com");
+        assertThat(cache.verificar(token)).isPresent();
+
+        Thread.sleep(2100);
+
+        assertThat(cache.verificar(token)).isEmpty();
+        assertThat(cache.tamano()).isZero();
+    }
+
+    @Test
+    @DisplayName("Costo de autenticar una request: cuatro parseos antes, uno ahora y ninguno con la caché")
+    void benchmark_costoPorRequest() {
+        // Sin el spy: registrar cada invocación distorsionaría la medición
+        JwtService servicio = new JwtService();
+        ReflectionTestUtils.setField(servicio, "secretKey", SECRETO);
+        ReflectionTestUtils.setField(servicio, "expirationMs", 86400000L);
+        TokenJwtCache cache = new TokenJwtCache(servicio, meterRegistry, 10_000, Duration.ofMinutes(5));
+        String token = servicio.generarTokenConRol("juan@correo.com", "USUARIO");
+        int iteraciones = 20_000;
+
+        double antes = medir(iteraciones, () -> filtroAnterior(token));
+        double unParseo = medir(iteraciones, () -> servicio.verificar(token).orElseThrow());
+        double conCache = medir(iteraciones, () -> cache.verificar(token).orElseThrow());
+
+        log.info("Autenticación JWT por request: antes {} µs (4 parseos, clave nueva cada vez), "
+                        + "un parseo {} µs, con caché {} µs",
+                String.format("%.2f", antes), String.format("%.2f", unParseo), String.format("%.2f", conCache));
+
+        assertThat(conCache).isLessThan(antes);
+        assertThat(unParseo).isLessThan(antes);
+    }
+
+    // ── Utilidades ────────────────────────────────────────────────────────
+
+    /**
+     * Lo que hacía JwtAuthenticationFilter por request: validar la estructura,
+     * extraer el email y validar email y expiración, cada paso con su propio
+     * parseo y la clave decodificada de nuevo.
+     */
+    private static Object filtroAnterior(String token) {
+        parsearConClaveNueva(token);
+        String email = parsearConClaveNueva(token).getSubject();
+        boolean valido = parsearConClaveNueva(token).getSubject().equals(email)
+                && !parsearConClaveNueva(token).getExpiration().before(new Date());
+        return valido ? email : null;
+    }
+
+    private static Claims parsearConClaveNueva(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    /** Microsegundos por operación, después de un calentamiento con la misma cantidad. */
+    private static double medir(int iteraciones, Supplier<Object> operacion) {
+        Object sumidero = null;
+        for (int i = 0; i < iteraciones; i++) sumidero = operacion.get();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteraciones; i++) sumidero = operacion.get();
+        double micros = (System.nanoTime() - inicio) / 1e3 / iteraciones;
+        assertThat(Optional.ofNullable(sumidero)).isPresent();
+        return micros;
+    }
+}
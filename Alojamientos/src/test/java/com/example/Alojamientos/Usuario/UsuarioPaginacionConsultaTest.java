@@ -0,0 +1,93 @@
+package com.example.Alojamientos.Usuario;
+
+import com.example.Alojamientos.persistenceLayer.entity.UsuarioEntity;
+import com.example.Alojamientos.persistenceLayer.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Paginación por cursor (id ascendente) de los usuarios activos contra H2 en
+ * modo MySQL (perfil test).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Pruebas de la paginación por cursor de usuarios")
+class UsuarioPaginacionConsultaTest {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Integer> activos = new ArrayList<>();
+    private Integer inactivo;
+
+    @BeforeEach
+    void setUp() {
+        activos.add(usuario("uno@hosped.com", true));
+        activos.add(usuario("dos@hosped.com", true));
+        inactivo = usuario("inactivo@hosped.com", false);
+        activos.add(usuario("tres@hosped.com", true));
+        activos.add(usuario("cuatro@hosped.com", true));
+        activos.add(usuario("cinco@hosped.com", true));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Integer usuario(String correo, boolean activo) {
+        UsuarioEntity usuario = UsuarioEntity.builder()
+                .nombre(correo)
+                .correo(correo)
+                .telefono("3000000000")
+                .contrasena("hash")
+                .rol(UsuarioEntity.Rol.USUARIO)
+                .fechaNacimiento(LocalDate.of(1990, 1, 1))
+                .activo(activo)
+                .build();
+        entityManager.persist(usuario);
+        return usuario.getId();
+    }
+
+    private List<Integer> pagina(int despuesId, int limite) {
+        return usuarioRepository.findActivosDespuesDe(despuesId, PageRequest.of(0, limite)).stream()
+                .map(UsuarioEntity::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Recorrer las páginas con el cursor devuelve cada usuario activo una vez y en orden de id")
+    void findActivosDespuesDe_recorreSinSaltosNiRepetidos() {
+        List<Integer> recorridos = new ArrayList<>();
+        List<Integer> actual = pagina(0, 2);
+        for (int paginas = 0; !actual.isEmpty() && paginas < 10; paginas++) {
+            assertThat(actual).hasSizeLessThanOrEqualTo(2);
+            recorridos.addAll(actual);
+            actual = pagina(actual.get(actual.size() - 1), 2);
+        }
+
+        assertThat(recorridos).containsExactlyElementsOf(activos);
+    }
+
+    @Test
+    @DisplayName("La página siguiente empieza estrictamente después del id del cursor, aunque sea de un inactivo")
+    void findActivosDespuesDe_empiezaDespuesDelCursor() {
+        assertThat(pagina(activos.get(1), 10)).containsExactlyElementsOf(activos.subList(2, 5));
+        assertThat(pagina(inactivo, 1)).containsExactly(activos.get(2));
+        assertThat(pagina(activos.get(4), 10)).isEmpty();
+    }
+}
@@ -39,11 +39,7 @@ export class NotificacionesPanelComponent implements OnInit, OnDestroy {
     if (!this.usuarioId) return;
 
     this.cargarNotificaciones();
-
-    // Polling cada 60 segundos
-    this.pollingInterval = setInterval(() => {
-      this.actualizarContador();
-    }, 60000);
+    this.conectarStream();
 
     this.notifService.noLeidas$
       .pipe(takeUntil(this.destroy$))
@@ -91,6 +87,36 @@ export class NotificacionesPanelComponent implements OnInit, OnDestroy {
     this.notifService.actualizarContador(this.usuarioId);
   }
 
+  // El servidor envía el contador y las notificaciones nuevas; si rechaza el stream, polling
+  private conectarStream(): void {
+    const token = this.authService.getToken();
+    if (!this.usuarioId || !token) {
+      this.iniciarPolling();
+      return;
+    }
+
+    this.notifService.stream(this.usuarioId, token)
+      .pipe(takeUntil(this.destroy$))
+      .subscribe({
+        next: evento => {
+          if (evento.tipo !== 'notificacion') return;
+          const nueva = evento.notificacion;
+          if (nueva.id && this.notificaciones.some(n => n.id === nueva.id)) return;
+          this.notificaciones = [nueva, ...this.notificaciones];
+        },
+        error: () => this.iniciarPolling()
+      });
+  }
+
+  // Polling cada 60 segundos
+  private iniciarPolling(): void {
+    if (this.pollingInterval) return;
+    this.actualizarContador();
+    this.pollingInterval = setInterval(() => {
+      this.actualizarContador();
+    }, 60000);
+  }
+
   marcarLeida(notif: Notificacion, event: Event): void {
     event.stopPropagation();
     if (notif.read || !notif.id) return;
@@ -19,6 +19,13 @@ export interface Notificacion {
   readDate?: string;
 }
 
+/**
+ * Eventos del stream SSE de notificaciones (NotificacionStreamService del backend)
+ */
+export type EventoNotificaciones =
+  | { tipo: 'no-leidas';    noLeidas: number }
+  | { tipo: 'notificacion'; notificacion: Notificacion };
+
 export const TIPO_NOTIFICACION_ICON: Record<string, string> = {
   NUEVA_RESERVA:        'fa-solid fa-calendar-check',
   CANCELACION:          'fa-solid fa-calendar-xmark',
@@ -2,7 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable, catchError, throwError, BehaviorSubject, of, map } from 'rxjs';
 import { environment } from '../environments/environment';
-import { Notificacion } from '../app/models/notificacion.model';
+import { Notificacion, EventoNotificaciones } from '../app/models/notificacion.model';
 
 /**
  * NotificacionService — RESERV-12
@@ -53,6 +53,43 @@ export class NotificacionService {
     this.noLeidasSubject.next(cantidad);
   }
 
+  // ── Stream (SSE) ──────────────────────────────────────────────
+
+  /**
+   * Abre el stream SSE de no leídas y notificaciones nuevas. EventSource no puede
+   * enviar el header Authorization, así que el token va en access_token.
+   * Ante cortes de red EventSource reconecta solo; si el servidor rechaza el
+   * stream (401, 403, 503) o el navegador no tiene EventSource, el observable
+   * termina con error y el llamador vuelve a consultar contar-no-leidas.
+   */
+  stream(usuarioId: number, token: string): Observable<EventoNotificaciones> {
+    return new Observable<EventoNotificaciones>(subscriber => {
+      if (typeof EventSource === 'undefined') {
+        subscriber.error(new Error('EventSource no disponible'));
+        return;
+      }
+
+      const fuente = new EventSource(
+        `${this.apiUrl}/usuario/${usuarioId}/stream?access_token=${encodeURIComponent(token)}`
+      );
+      fuente.addEventListener('no-leidas', evento => {
+        const noLeidas = JSON.parse((evento as MessageEvent).data).noLeidas ?? 0;
+        this.noLeidasSubject.next(noLeidas);
+        subscriber.next({ tipo: 'no-leidas', noLeidas });
+      });
+      fuente.addEventListener('notificacion', evento => {
+        subscriber.next({ tipo: 'notificacion', notificacion: JSON.parse((evento as MessageEvent).data) });
+      });
+      fuente.onerror = () => {
+        if (fuente.readyState === EventSource.CLOSED) {
+          subscriber.error(new Error('Stream de notificaciones cerrado'));
+        }
+      };
+
+      return () => fuente.close();
+    });
+  }
+
   // ── Marcar leída ──────────────────────────────────────────────
 
   marcarLeida(id: number): Observable<Notificacion> {